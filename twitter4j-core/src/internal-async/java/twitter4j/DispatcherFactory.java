@@ -26,6 +26,9 @@ import java.lang.reflect.InvocationTargetException;
  * @since Twitter4J 2.1.2
  */
 final class DispatcherFactory {
+    private static final Logger logger = Logger.getLogger(DispatcherFactory.class);
+    private static final String VIRTUAL_THREAD_DISPATCHER = "twitter4j.VirtualThreadDispatcher";
+    private static final String FIXED_THREAD_POOL_DISPATCHER = "twitter4j.DispatcherImpl";
     private final String dispatcherImpl;
     private final Configuration conf;
 
@@ -39,11 +42,17 @@ final class DispatcherFactory {
     }
 
     /**
-     * returns a Dispatcher instance.
+     * returns a Dispatcher instance.<br>
+     * VirtualThreadDispatcher, the default, falls back to DispatcherImpl prior to JDK 21.
      *
      * @return dispatcher instance
      */
     public Dispatcher getInstance() {
+        String dispatcherImpl = this.dispatcherImpl;
+        if (VIRTUAL_THREAD_DISPATCHER.equals(dispatcherImpl) && !VirtualThreadDispatcher.isAvailable()) {
+            logger.debug("Virtual threads are not available. Falling back to " + FIXED_THREAD_POOL_DISPATCHER);
+            dispatcherImpl = FIXED_THREAD_POOL_DISPATCHER;
+        }
         try {
             return (Dispatcher) Class.forName(dispatcherImpl)
                     .getConstructor(Configuration.class).newInstance(conf);
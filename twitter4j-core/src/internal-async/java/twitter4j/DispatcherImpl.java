@@ -54,7 +54,7 @@ final class DispatcherImpl implements Dispatcher {
     }
 
     @Override
-    public synchronized void invokeLater(Runnable task) {
+    public void invokeLater(Runnable task) {
         executorService.execute(task);
     }
 
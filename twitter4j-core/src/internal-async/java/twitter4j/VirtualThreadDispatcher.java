@@ -0,0 +1,148 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher running tasks on virtual threads. Requires JDK 21 or later.<br>
+ * Same as DispatcherImpl, tasks start in the order they were submitted and at most async.numThreads of them run at
+ * once, but the threads are created on demand and are always daemon.<br>
+ * Used by default where available. Set async.dispatcherImpl to twitter4j.DispatcherImpl to have tasks run on a
+ * fixed thread pool instead.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+final class VirtualThreadDispatcher implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(VirtualThreadDispatcher.class);
+    private static final long SHUTDOWN_TIME = 5000;
+
+    // Thread.ofVirtual(), Thread.Builder.name(String, long), Thread.Builder.factory(),
+    // Executors.newThreadPerTaskExecutor(ThreadFactory) looked up reflectively, as Twitter4J targets Java 11
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException ignore) {
+        } catch (NoSuchMethodException ignore) {
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private final ExecutorService executorService;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    // one permit per virtual thread draining the tasks
+    private final Semaphore workers;
+
+    /**
+     * @return true if virtual threads are available on the running JVM
+     */
+    static boolean isAvailable() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    public VirtualThreadDispatcher(Configuration conf) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads are not available on Java " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), "Twitter4J Async Dispatcher[virtual]-", 0L);
+            executorService = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, FACTORY.invoke(builder));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        workers = new Semaphore(Math.max(1, conf.getAsyncNumThreads()));
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                executorService.shutdown();
+            }
+        });
+    }
+
+    @Override
+    public void invokeLater(Runnable task) {
+        tasks.add(task);
+        startWorker();
+    }
+
+    private void startWorker() {
+        if (tasks.isEmpty() || !workers.tryAcquire()) {
+            return;
+        }
+        try {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Runnable task;
+                        while ((task = tasks.poll()) != null) {
+                            try {
+                                task.run();
+                            } catch (Exception e) {
+                                logger.warn("Unexpected exception in dispatched task", e);
+                            }
+                        }
+                    } finally {
+                        workers.release();
+                        // a task may have been added after the queue was found empty
+                        startWorker();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // rejected after shutdown
+            workers.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(SHUTDOWN_TIME, TimeUnit.MILLISECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            logger.warn(e.getMessage());
+        }
+    }
+}
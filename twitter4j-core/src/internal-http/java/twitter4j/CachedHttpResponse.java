@@ -0,0 +1,73 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j;
+
+import java.io.ByteArrayInputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Response served from a {@link HttpResponseCache.Entry}.<br>
+ * The X-Rate-Limit-* headers are left out: they describe the rate limit at the time the entry was fetched, and a
+ * cache hit doesn't count against the rate limit.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class CachedHttpResponse extends HttpResponse {
+    private static final String RATE_LIMIT_HEADER_PREFIX = "x-rate-limit-";
+    private final HttpResponseCache.Entry entry;
+    private final Map<String, List<String>> responseHeaderFields;
+
+    /*package*/ CachedHttpResponse(HttpClientConfiguration conf, HttpResponseCache.Entry entry) {
+        super(conf);
+        this.entry = entry;
+        this.statusCode = entry.getStatusCode();
+        this.is = new ByteArrayInputStream(entry.getBody());
+        responseHeaderFields = new LinkedHashMap<String, List<String>>();
+        for (Map.Entry<String, List<String>> header : entry.getResponseHeaderFields().entrySet()) {
+            if (!isRateLimitHeader(header.getKey())) {
+                responseHeaderFields.put(header.getKey(), header.getValue());
+            }
+        }
+    }
+
+    private static boolean isRateLimitHeader(String name) {
+        return name != null && name.toLowerCase(Locale.ROOT).startsWith(RATE_LIMIT_HEADER_PREFIX);
+    }
+
+    @Override
+    public String getResponseHeader(String name) {
+        return isRateLimitHeader(name) ? null : entry.getResponseHeader(name);
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        return responseHeaderFields;
+    }
+
+    @Override
+    /*package*/ byte[] asBytes() {
+        // the cached body is never modified, so it is shared rather than copied
+        return entry.getBody();
+    }
+
+    @Override
+    public void disconnect() {
+    }
+}
@@ -1,20 +1,47 @@
 package twitter4j;
 
 import twitter4j.auth.Authorization;
+import twitter4j.management.HttpResponseCacheStatistics;
 
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class HttpClientBase implements HttpClient, Serializable {
     private static final Logger logger = Logger.getLogger(HttpClientBase.class);
     private static final long serialVersionUID = -8016974810651763053L;
+    private static final String RESPONSE_CACHE_IMPLEMENTATION = "twitter4j.http.responseCache";
+    private static final AtomicInteger responseCacheCount = new AtomicInteger();
     protected final HttpClientConfiguration CONF;
 
     private final Map<String, String> requestHeaders;
 
+    // null unless HttpClientConfiguration#getHttpResponseCacheMaxEntries() is greater than 0
+    private transient HttpResponseCache responseCache;
+    private transient HttpResponseCacheStatistics responseCacheStatistics;
+    private transient volatile ObjectName responseCacheStatisticsName;
+    // cacheable requests in flight, so that identical requests wait for them instead of being sent again
+    private transient ConcurrentHashMap<HttpRequest, CompletableFuture<HttpResponseCache.Entry>> pendingRequests;
+
     public HttpClientBase(HttpClientConfiguration conf) {
         this.CONF = conf;
         requestHeaders = new HashMap<String, String>();
@@ -25,12 +52,89 @@ public abstract class HttpClientBase implements HttpClient, Serializable {
         if (conf.isGZIPEnabled()) {
             requestHeaders.put("Accept-Encoding", "gzip");
         }
+        initResponseCache();
+    }
+
+    private void initResponseCache() {
+        int maxEntries = CONF.getHttpResponseCacheMaxEntries();
+        if (maxEntries <= 0) {
+            return;
+        }
+        HttpResponseCache cache = null;
+        String cacheImpl = System.getProperty(RESPONSE_CACHE_IMPLEMENTATION);
+        if (cacheImpl != null) {
+            try {
+                cache = (HttpResponseCache) Class.forName(cacheImpl).getConstructor(int.class).newInstance(maxEntries);
+            } catch (Exception e) {
+                logger.warn("Failed to instantiate " + cacheImpl + ", falling back to LRUHttpResponseCache: " + e);
+            }
+        }
+        responseCache = cache != null ? cache : new LRUHttpResponseCache(maxEntries);
+        responseCacheStatistics = new HttpResponseCacheStatistics(getClass().getSimpleName() + "-"
+                + responseCacheCount.incrementAndGet(), maxEntries);
+        pendingRequests = new ConcurrentHashMap<HttpRequest, CompletableFuture<HttpResponseCache.Entry>>();
+        if (CONF.isMBeanEnabled()) {
+            registerResponseCacheMBean();
+        }
+    }
+
+    private void registerResponseCacheMBean() {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName oName = new ObjectName("twitter4j.mbean:type=HttpResponseCacheStatistics,name="
+                    + responseCacheStatistics.getName());
+            mbs.registerMBean(responseCacheStatistics, oName);
+            responseCacheStatisticsName = oName;
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initResponseCache();
+    }
+
+    /**
+     * Unregisters the response cache statistics MBean and stops {@link HttpClientFactory} from handing this client
+     * out. Requests in flight complete normally.
+     */
+    public void close() {
+        HttpClientFactory.remove(CONF, this);
+        ObjectName name = responseCacheStatisticsName;
+        responseCacheStatisticsName = null;
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                logger.error(e.getMessage());
+            } catch (MBeanRegistrationException e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+
+    /*package*/ HttpResponseCacheStatistics getResponseCacheStatistics() {
+        return responseCacheStatistics;
     }
 
     protected boolean isProxyConfigured() {
         return CONF.getHttpProxyHost() != null && !CONF.getHttpProxyHost().equals("");
     }
 
+    /**
+     * @param out    stream to write to
+     * @param outStr string to be written
+     * @throws IOException when the stream can't be written
+     * @deprecated unused since multipart bodies are built by {@code MultipartFormBody}, kept for binary compatibility
+     */
+    @Deprecated
     public void write(DataOutputStream out, String outStr) throws IOException {
         out.writeBytes(outStr);
         logger.debug(outStr);
@@ -48,18 +152,155 @@ public abstract class HttpClientBase implements HttpClient, Serializable {
 
     @Override
     public final HttpResponse request(HttpRequest req) throws TwitterException {
-        return handleRequest(req);
+        return request(req, null);
     }
 
     @Override
     public final HttpResponse request(HttpRequest req, HttpResponseListener listener) throws TwitterException {
+        if (responseCache != null && req.getMethod() == RequestMethod.GET) {
+            long timeToLive = responseCache.getTimeToLiveMillis(req);
+            if (timeToLive > 0) {
+                return new CachedHttpResponse(CONF, requestCached(req, listener, timeToLive));
+            }
+        }
+        return send(req, listener);
+    }
+
+    /**
+     * Serves the request from the response cache, revalidating or refetching the entry when it is stale or missing.
+     * Only one of identical concurrent requests goes to the network, the others wait for its result.<br>
+     * The listener is notified only of the requests actually sent.
+     */
+    private HttpResponseCache.Entry requestCached(HttpRequest req, HttpResponseListener listener, long timeToLive)
+            throws TwitterException {
+        HttpResponseCache.Entry entry = responseCache.get(req);
+        if (entry != null && entry.isFresh()) {
+            responseCacheStatistics.hit();
+            return entry;
+        }
+        CompletableFuture<HttpResponseCache.Entry> future = new CompletableFuture<HttpResponseCache.Entry>();
+        CompletableFuture<HttpResponseCache.Entry> pending = pendingRequests.putIfAbsent(req, future);
+        if (pending != null) {
+            responseCacheStatistics.coalesced();
+            try {
+                return pending.get();
+            } catch (ExecutionException ee) {
+                throw (TwitterException) ee.getCause();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new TwitterException(ie.getMessage(), ie);
+            }
+        }
+        try {
+            HttpResponseCache.Entry fetched = fetch(req, listener, entry, timeToLive);
+            responseCache.put(req, fetched);
+            future.complete(fetched);
+            return fetched;
+        } catch (TwitterException te) {
+            future.completeExceptionally(te);
+            throw te;
+        } catch (RuntimeException re) {
+            future.completeExceptionally(new TwitterException(re));
+            throw re;
+        } finally {
+            pendingRequests.remove(req, future);
+        }
+    }
+
+    private HttpResponseCache.Entry fetch(HttpRequest req, HttpResponseListener listener
+            , HttpResponseCache.Entry stale, long timeToLive) throws TwitterException {
+        HttpRequest toSend = req;
+        if (stale != null && stale.isRevalidatable()) {
+            Map<String, String> headers = new LinkedHashMap<String, String>();
+            if (req.getRequestHeaders() != null) {
+                headers.putAll(req.getRequestHeaders());
+            }
+            String eTag = stale.getResponseHeader("ETag");
+            if (eTag != null) {
+                headers.put("If-None-Match", eTag);
+            }
+            String lastModified = stale.getResponseHeader("Last-Modified");
+            if (lastModified != null) {
+                headers.put("If-Modified-Since", lastModified);
+            }
+            toSend = new HttpRequest(req.getMethod(), req.getURL(), req.getParameters(), req.getAuthorization(), headers);
+        }
+        HttpResponse res;
+        try {
+            res = send(toSend, listener);
+        } catch (TwitterException te) {
+            if (toSend != req && te.getStatusCode() == HttpResponseCode.NOT_MODIFIED) {
+                responseCacheStatistics.revalidated();
+                return stale.revalidated(timeToLive);
+            }
+            throw te;
+        }
+        responseCacheStatistics.miss();
+        return new HttpResponseCache.Entry(res.getStatusCode(), copyOf(res.getResponseHeaderFields()), readBody(res), timeToLive);
+    }
+
+    private static Map<String, List<String>> copyOf(Map<String, List<String>> headers) {
+        Map<String, List<String>> copy = new LinkedHashMap<String, List<String>>();
+        if (headers != null) {
+            copy.putAll(headers);
+        }
+        return copy;
+    }
+
+    private static byte[] readBody(HttpResponse res) throws TwitterException {
+        InputStream is = res.asStream();
+        if (is == null) {
+            disconnect(res);
+            return new byte[0];
+        }
+        long start = System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            byte[] buf = new byte[8192];
+            int count;
+            while ((count = is.read(buf)) != -1) {
+                body.write(buf, 0, count);
+            }
+            res.getTrace().phase(RequestTracer.Phase.BODY_READ, System.nanoTime() - start);
+            return body.toByteArray();
+        } catch (IOException ioe) {
+            throw new TwitterException(ioe.getMessage(), ioe);
+        } finally {
+            try {
+                is.close();
+            } catch (IOException ignore) {
+            }
+            disconnect(res);
+        }
+    }
+
+    private static void disconnect(HttpResponse res) {
+        try {
+            res.disconnect();
+        } catch (IOException ignore) {
+        }
+    }
+
+    private HttpResponse send(HttpRequest req, HttpResponseListener listener) throws TwitterException {
+        if (listener instanceof HttpRequestGate) {
+            // requests served from the response cache don't reach here, thus don't count against the rate limit
+            ((HttpRequestGate) listener).awaitRequest(req);
+        }
+        RequestTracer.Trace trace = RequestTracerFactory.getInstance().start(req);
+        req.setTrace(trace);
+        long start = System.nanoTime();
         try {
             HttpResponse res = handleRequest(req);
+            if (res != null) {
+                res.setTrace(trace);
+            }
+            trace.completed(res != null ? res.getStatusCode() : -1, System.nanoTime() - start);
             if (listener != null) {
                 listener.httpResponseReceived(new HttpResponseEvent(req, res, null));
             }
             return res;
         } catch (TwitterException te) {
+            trace.completed(te.getStatusCode(), System.nanoTime() - start);
             if (listener != null) {
                 listener.httpResponseReceived(new HttpResponseEvent(req, null, te));
             }
@@ -69,6 +310,22 @@ public abstract class HttpClientBase implements HttpClient, Serializable {
 
     abstract HttpResponse handleRequest(HttpRequest req) throws TwitterException;
 
+    /**
+     * Computes the Authorization header of the request, timed as {@link RequestTracer.Phase#SIGN}.
+     *
+     * @param req request
+     * @return Authorization header, or null if the request is not to be authorized
+     */
+    /*package*/ static String getAuthorizationHeader(HttpRequest req) {
+        if (req.getAuthorization() == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        String authorizationHeader = req.getAuthorization().getAuthorizationHeader(req);
+        req.getTrace().phase(RequestTracer.Phase.SIGN, System.nanoTime() - start);
+        return authorizationHeader;
+    }
+
     @Override
     public HttpResponse get(String url, HttpParameter[] parameters
             , Authorization authorization, HttpResponseListener listener) throws TwitterException {
@@ -39,6 +39,47 @@ public interface HttpClientConfiguration {
 
     int getHttpRetryIntervalSeconds();
 
+    /**
+     * @return maximum number of concurrent connections (or HTTP/2 streams) a pooling client keeps open in total
+     * @since Twitter4J 4.0.8
+     */
+    default int getHttpMaxConnections() {
+        return 20;
+    }
+
+    /**
+     * @return maximum number of concurrent connections (or HTTP/2 streams) a pooling client keeps open to a single host
+     * @since Twitter4J 4.0.8
+     */
+    default int getHttpMaxConnectionsPerHost() {
+        return 10;
+    }
+
+    /**
+     * @return whether clients register their statistics as MBeans
+     * @since Twitter4J 4.0.8
+     */
+    default boolean isMBeanEnabled() {
+        return false;
+    }
+
+    /**
+     * @return time in milliseconds a pooling client keeps an idle connection open for reuse
+     * @since Twitter4J 4.0.8
+     */
+    default int getHttpKeepAliveMillis() {
+        return 60 * 1000;
+    }
+
+    /**
+     * @return maximum number of GET responses kept by the response cache, 0 to disable the cache
+     * @see HttpResponseCache
+     * @since Twitter4J 4.0.8
+     */
+    default int getHttpResponseCacheMaxEntries() {
+        return 0;
+    }
+
     boolean isPrettyDebugEnabled();
 
     boolean isGZIPEnabled();
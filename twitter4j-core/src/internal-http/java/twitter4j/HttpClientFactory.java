@@ -71,7 +71,13 @@ public final class HttpClientFactory {
         try {
             if (client == null) {
                 client = (HttpClient) HTTP_CLIENT_CONSTRUCTOR.newInstance(conf);
-                confClientMap.put(conf, client);
+                HttpClient existing = confClientMap.putIfAbsent(conf, client);
+                if (existing != null) {
+                    if (client instanceof HttpClientBase) {
+                        ((HttpClientBase) client).close();
+                    }
+                    client = existing;
+                }
             }
         } catch (InstantiationException e) {
             throw new AssertionError(e);
@@ -82,4 +88,15 @@ public final class HttpClientFactory {
         }
         return client;
     }
+
+    /**
+     * Stops handing out the given client, so that the next call to {@link #getInstance(HttpClientConfiguration)}
+     * builds a new one.
+     *
+     * @param conf   configuration the client was built with
+     * @param client closed client
+     */
+    /*package*/ static void remove(HttpClientConfiguration conf, HttpClient client) {
+        confClientMap.remove(conf, client);
+    }
 }
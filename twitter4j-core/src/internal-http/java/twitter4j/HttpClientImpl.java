@@ -16,9 +16,6 @@
 
 package twitter4j;
 
-import java.io.BufferedInputStream;
-import java.io.DataOutputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Authenticator;
@@ -100,39 +97,18 @@ class HttpClientImpl extends HttpClientBase implements HttpResponseCode, java.io
                     setHeaders(req, con);
                     con.setRequestMethod(req.getMethod().name());
                     if (req.getMethod() == RequestMethod.POST) {
+                        long writeStart;
                         if (HttpParameter.containsFile(req.getParameters())) {
-                            String boundary = "----Twitter4J-upload" + System.currentTimeMillis();
-                            con.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-                            boundary = "--" + boundary;
-                            con.setDoOutput(true);
-                            os = con.getOutputStream();
-                            DataOutputStream out = new DataOutputStream(os);
-                            for (HttpParameter param : req.getParameters()) {
-                                if (param.isFile()) {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" + param.getFile().getName() + "\"\r\n");
-                                    write(out, "Content-Type: " + param.getContentType() + "\r\n\r\n");
-                                    BufferedInputStream in = new BufferedInputStream(
-                                            param.hasFileBody() ? param.getFileBody() : new FileInputStream(param.getFile())
-                                    );
-                                    byte[] buff = new byte[1024];
-                                    int length;
-                                    while ((length = in.read(buff)) != -1) {
-                                        out.write(buff, 0, length);
-                                    }
-                                    write(out, "\r\n");
-                                    in.close();
-                                } else {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n");
-                                    write(out, "Content-Type: text/plain; charset=UTF-8\r\n\r\n");
-                                    logger.debug(param.getValue());
-                                    out.write(param.getValue().getBytes("UTF-8"));
-                                    write(out, "\r\n");
-                                }
+                            MultipartFormBody body = new MultipartFormBody(req.getParameters());
+                            con.setRequestProperty("Content-Type", body.getContentType());
+                            // streaming mode can't resend the body for proxy authentication
+                            if (body.getContentLength() >= 0 && !isProxyAuthenticationConfigured()) {
+                                con.setFixedLengthStreamingMode(body.getContentLength());
                             }
-                            write(out, boundary + "--\r\n");
-                            write(out, "\r\n");
+                            con.setDoOutput(true);
+                            os = getOutputStream(req, con);
+                            writeStart = System.nanoTime();
+                            body.writeTo(os);
                         } else {
                             String postParam;
                             if (HttpParameter.containsJson(req.getParameters())) {
@@ -149,13 +125,21 @@ class HttpClientImpl extends HttpClientBase implements HttpResponseCode, java.io
                             con.setRequestProperty("Content-Length",
                                     Integer.toString(bytes.length));
                             con.setDoOutput(true);
-                            os = con.getOutputStream();
+                            os = getOutputStream(req, con);
+                            writeStart = System.nanoTime();
                             os.write(bytes);
                         }
                         os.flush();
                         os.close();
+                        req.getTrace().phase(RequestTracer.Phase.REQUEST_WRITE, System.nanoTime() - writeStart);
+                    } else {
+                        long connectStart = System.nanoTime();
+                        con.connect();
+                        req.getTrace().phase(RequestTracer.Phase.CONNECT, System.nanoTime() - connectStart);
                     }
+                    long waitStart = System.nanoTime();
                     res = new HttpResponseImpl(con, CONF);
+                    req.getTrace().phase(RequestTracer.Phase.TIME_TO_FIRST_BYTE, System.nanoTime() - waitStart);
                     responseCode = con.getResponseCode();
                     if (logger.isDebugEnabled()) {
                         logger.debug("Response: ");
@@ -207,6 +191,21 @@ class HttpClientImpl extends HttpClientBase implements HttpResponseCode, java.io
         return res;
     }
 
+    private boolean isProxyAuthenticationConfigured() {
+        return isProxyConfigured() && CONF.getHttpProxyUser() != null && !CONF.getHttpProxyUser().equals("");
+    }
+
+    /**
+     * HttpURLConnection connects lazily on the first call to getOutputStream(), so the call is timed as
+     * {@link RequestTracer.Phase#CONNECT}, covering name resolution and the TLS handshake as well.
+     */
+    private static OutputStream getOutputStream(HttpRequest req, HttpURLConnection con) throws IOException {
+        long connectStart = System.nanoTime();
+        OutputStream os = con.getOutputStream();
+        req.getTrace().phase(RequestTracer.Phase.CONNECT, System.nanoTime() - connectStart);
+        return os;
+    }
+
     /**
      * sets HTTP headers
      *
@@ -220,7 +219,7 @@ class HttpClientImpl extends HttpClientBase implements HttpResponseCode, java.io
         }
 
         String authorizationHeader;
-        if (req.getAuthorization() != null && (authorizationHeader = req.getAuthorization().getAuthorizationHeader(req)) != null) {
+        if ((authorizationHeader = getAuthorizationHeader(req)) != null) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Authorization: ", authorizationHeader.replaceAll(".", "*"));
             }
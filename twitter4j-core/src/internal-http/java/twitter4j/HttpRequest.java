@@ -39,6 +39,7 @@ public final class HttpRequest implements java.io.Serializable {
 
     private final Map<String, String> requestHeaders;
 
+    private transient RequestTracer.Trace trace;
 
     private static final HttpParameter[] NULL_PARAMETERS = new HttpParameter[0];
 
@@ -75,6 +76,14 @@ public final class HttpRequest implements java.io.Serializable {
         return url;
     }
 
+    /*package*/ RequestTracer.Trace getTrace() {
+        return trace != null ? trace : NoOpRequestTracer.INSTANCE;
+    }
+
+    /*package*/ void setTrace(RequestTracer.Trace trace) {
+        this.trace = trace;
+    }
+
     public Authorization getAuthorization() {
         return authorization;
     }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Implemented by {@link HttpResponseListener}s that hold requests back before they are sent, e.g. to stay within the
+ * rate limit.<br>
+ * Called only for the requests actually sent, not for the ones served from the {@link HttpResponseCache}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ interface HttpRequestGate {
+    /**
+     * Blocks until the request may be sent.
+     *
+     * @param req request about to be sent
+     * @throws TwitterException when interrupted while waiting
+     */
+    void awaitRequest(HttpRequest req) throws TwitterException;
+}
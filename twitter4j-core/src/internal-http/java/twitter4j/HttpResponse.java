@@ -17,6 +17,7 @@
 package twitter4j;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -47,6 +48,15 @@ public abstract class HttpResponse {
     protected String responseAsString = null;
     protected InputStream is;
     private boolean streamConsumed = false;
+    private RequestTracer.Trace trace = NoOpRequestTracer.INSTANCE;
+
+    /*package*/ RequestTracer.Trace getTrace() {
+        return trace;
+    }
+
+    /*package*/ void setTrace(RequestTracer.Trace trace) {
+        this.trace = trace;
+    }
 
     public int getStatusCode() {
         return statusCode;
@@ -89,6 +99,7 @@ public abstract class HttpResponse {
                 if (null == stream) {
                     return null;
                 }
+                long start = System.nanoTime();
                 br = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
                 StringBuilder buf = new StringBuilder();
                 String line;
@@ -96,6 +107,7 @@ public abstract class HttpResponse {
                     buf.append(line).append("\n");
                 }
                 this.responseAsString = buf.toString();
+                trace.phase(RequestTracer.Phase.BODY_READ, System.nanoTime() - start);
                 logger.debug(responseAsString);
                 stream.close();
                 streamConsumed = true;
@@ -132,7 +144,10 @@ public abstract class HttpResponse {
     public JSONObject asJSONObject() throws TwitterException {
         if (json == null) {
             try {
-                json = new JSONObject(asString());
+                String body = asString();
+                long start = System.nanoTime();
+                json = new JSONObject(body);
+                trace.phase(RequestTracer.Phase.PARSE, System.nanoTime() - start);
                 if (CONF.isPrettyDebugEnabled()) {
                     logger.debug(json.toString(1));
                 } else {
@@ -164,7 +179,10 @@ public abstract class HttpResponse {
     public JSONArray asJSONArray() throws TwitterException {
         if (jsonArray == null) {
             try {
-                jsonArray = new JSONArray(asString());
+                String body = asString();
+                long start = System.nanoTime();
+                jsonArray = new JSONArray(body);
+                trace.phase(RequestTracer.Phase.PARSE, System.nanoTime() - start);
                 if (CONF.isPrettyDebugEnabled()) {
                     logger.debug(jsonArray.toString(1));
                 } else {
@@ -184,6 +202,57 @@ public abstract class HttpResponse {
         return jsonArray;
     }
 
+    /**
+     * Returns a pull parser reading the response body directly from the response stream.<br>
+     * The body is not buffered, so asString(), asJSONObject() and asJSONArray() can't be called afterwards.<br>
+     * Callers are responsible for calling disconnect() after consuming the parser.
+     *
+     * @return pull parser over the response body
+     * @throws TwitterException when the response has no body
+     */
+    /*package*/ JSONPullParser asJSONPullParser() throws TwitterException {
+        InputStream stream = asStream();
+        if (null == stream) {
+            throw new TwitterException("The response has no body");
+        }
+        streamConsumed = true;
+        return new JSONPullParser(stream);
+    }
+
+    /**
+     * Returns the response body as raw bytes, without decoding it.<br>
+     * Disconnects the internal HttpURLConnection silently.
+     *
+     * @return response body
+     * @throws TwitterException when the response has no body or there is any network issue upon response body consumption
+     */
+    /*package*/ byte[] asBytes() throws TwitterException {
+        InputStream stream = asStream();
+        if (null == stream) {
+            throw new TwitterException("The response has no body");
+        }
+        streamConsumed = true;
+        long start = System.nanoTime();
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int count;
+            while ((count = stream.read(buf)) != -1) {
+                body.write(buf, 0, count);
+            }
+            trace.phase(RequestTracer.Phase.BODY_READ, System.nanoTime() - start);
+            return body.toByteArray();
+        } catch (IOException ioe) {
+            throw new TwitterException(ioe.getMessage(), ioe);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException ignore) {
+            }
+            disconnectForcibly();
+        }
+    }
+
     public Reader asReader() {
         try {
             return new BufferedReader(new InputStreamReader(is, "UTF-8"));
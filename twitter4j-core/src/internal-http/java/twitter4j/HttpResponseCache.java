@@ -0,0 +1,140 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of GET responses, consulted by {@link HttpClientBase} when
+ * {@link HttpClientConfiguration#getHttpResponseCacheMaxEntries()} is greater than 0.<br>
+ * The implementation decides which requests are cacheable and for how long, and how entries are evicted. Expiry,
+ * revalidation with ETag / Last-Modified and coalescing of identical requests in flight are handled by the client.<br>
+ * {@link LRUHttpResponseCache} is used unless an implementation with a public constructor taking the maximum number of
+ * entries is specified with -Dtwitter4j.http.responseCache=fully.qualified.ClassName<br>
+ * Implementations must be thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public interface HttpResponseCache {
+    /**
+     * @param request GET request
+     * @return time in milliseconds a response to the request stays fresh, 0 or less if the request is not to be cached
+     */
+    long getTimeToLiveMillis(HttpRequest request);
+
+    /**
+     * @param request GET request
+     * @return cached entry, possibly stale, or null
+     */
+    Entry get(HttpRequest request);
+
+    /**
+     * @param request GET request
+     * @param entry   entry to store
+     */
+    void put(HttpRequest request, Entry entry);
+
+    /**
+     * Immutable snapshot of a response body and headers.
+     */
+    final class Entry implements java.io.Serializable {
+        private static final long serialVersionUID = -3617584203584718564L;
+        private final int statusCode;
+        private final Map<String, List<String>> responseHeaderFields;
+        private final byte[] body;
+        private final long expiresAt;
+
+        /**
+         * @param statusCode           status code
+         * @param responseHeaderFields response headers
+         * @param body                 response body, already decompressed
+         * @param timeToLiveMillis     time in milliseconds the entry stays fresh
+         */
+        public Entry(int statusCode, Map<String, List<String>> responseHeaderFields, byte[] body, long timeToLiveMillis) {
+            this.statusCode = statusCode;
+            this.responseHeaderFields = Collections.unmodifiableMap(responseHeaderFields);
+            this.body = body;
+            this.expiresAt = System.currentTimeMillis() + timeToLiveMillis;
+        }
+
+        private Entry(Entry entry, long timeToLiveMillis) {
+            this.statusCode = entry.statusCode;
+            this.responseHeaderFields = entry.responseHeaderFields;
+            this.body = entry.body;
+            this.expiresAt = System.currentTimeMillis() + timeToLiveMillis;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Map<String, List<String>> getResponseHeaderFields() {
+            return responseHeaderFields;
+        }
+
+        /**
+         * @param name header name, case insensitive
+         * @return first value of the header, or null
+         */
+        public String getResponseHeader(String name) {
+            for (Map.Entry<String, List<String>> header : responseHeaderFields.entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && header.getValue().size() != 0) {
+                    return header.getValue().get(0);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return response body. Must not be modified
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        public boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+
+        /**
+         * @return true if the entry carries an ETag or Last-Modified header to revalidate it with
+         */
+        public boolean isRevalidatable() {
+            return getResponseHeader("ETag") != null || getResponseHeader("Last-Modified") != null;
+        }
+
+        /**
+         * @param timeToLiveMillis time in milliseconds the entry stays fresh from now
+         * @return copy of this entry, fresh again
+         */
+        public Entry revalidated(long timeToLiveMillis) {
+            return new Entry(this, timeToLiveMillis);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "statusCode=" + statusCode +
+                    ", bodyLength=" + body.length +
+                    ", expiresIn=" + TimeUnit.MILLISECONDS.toSeconds(expiresAt - System.currentTimeMillis()) + "s" +
+                    '}';
+        }
+    }
+}
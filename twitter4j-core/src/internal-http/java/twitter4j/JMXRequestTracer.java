@@ -0,0 +1,82 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.management.RequestPhaseStatistics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * {@link RequestTracer} aggregating the timings of all requests per phase, exposed via JMX as
+ * twitter4j.mbean:type=RequestPhaseStatistics.<br>
+ * Enable with -Dtwitter4j.http.requestTracer=twitter4j.JMXRequestTracer
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.management.RequestPhaseStatisticsMBean
+ * @since Twitter4J 4.0.8
+ */
+public final class JMXRequestTracer implements RequestTracer, RequestTracer.Trace {
+    private static final Logger logger = Logger.getLogger(JMXRequestTracer.class);
+    private final RequestPhaseStatistics statistics;
+
+    public JMXRequestTracer() {
+        Phase[] phases = Phase.values();
+        String[] names = new String[phases.length];
+        for (int i = 0; i < phases.length; i++) {
+            names[i] = phases[i].name();
+        }
+        statistics = new RequestPhaseStatistics(names, 100);
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            mbs.registerMBean(statistics, new ObjectName("twitter4j.mbean:type=RequestPhaseStatistics"));
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    /*package*/ RequestPhaseStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public Trace start(HttpRequest request) {
+        // all requests are aggregated together, no need for a trace per request
+        return this;
+    }
+
+    @Override
+    public void phase(Phase phase, long nanos) {
+        statistics.phaseCompleted(phase.ordinal(), nanos);
+    }
+
+    @Override
+    public void completed(int statusCode, long nanos) {
+        statistics.requestCompleted(statusCode >= 200 && statusCode < 400, nanos);
+    }
+}
@@ -0,0 +1,676 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.ConfigurationContext;
+import twitter4j.management.ConnectionPoolStatistics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * HttpClient implementation backed by {@link java.net.http.HttpClient}.<br>
+ * Unlike {@link HttpClientImpl}, connections are kept alive and shared across requests, and requests are multiplexed
+ * over a single connection when the server speaks HTTP/2 (falling back to HTTP/1.1 otherwise).<br>
+ * The number of in-flight requests is bounded by {@link HttpClientConfiguration#getHttpMaxConnections()} and
+ * {@link HttpClientConfiguration#getHttpMaxConnectionsPerHost()}; callers exceeding the bounds wait up to the
+ * connection timeout for a slot. When mbeanEnabled is set, pool statistics are exposed via JMX as
+ * {@link twitter4j.management.ConnectionPoolStatisticsMBean} until {@link #close()} is called.<br>
+ * {@link #requestAsync(HttpRequest)} sends requests without blocking the calling thread, also while waiting for a free
+ * slot in the pool.<br>
+ * Enable with -Dtwitter4j.http.httpClient=twitter4j.JavaNetHttpClientImpl
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public class JavaNetHttpClientImpl extends HttpClientBase implements HttpResponseCode, java.io.Serializable {
+    private static final Logger logger = Logger.getLogger(JavaNetHttpClientImpl.class);
+    private static final long serialVersionUID = -8016974810651763053L;
+    private static final AtomicInteger instanceCount = new AtomicInteger();
+
+    // headers java.net.http.HttpClient manages by itself and refuses to accept
+    private static final List<String> RESTRICTED_HEADERS = java.util.Arrays.asList("connection", "content-length",
+            "expect", "host", "upgrade");
+
+    private transient java.net.http.HttpClient client;
+    private transient Semaphore connections;
+    private transient ConcurrentHashMap<String, Semaphore> hostConnections;
+    private transient ConnectionPoolStatistics statistics;
+    // set while the statistics are registered
+    private transient volatile ObjectName statisticsName;
+    // requestAsync() callers waiting for a slot, guarded by itself
+    private transient LinkedList<Waiter> waiters;
+
+    public JavaNetHttpClientImpl() {
+        this(ConfigurationContext.getInstance().getHttpClientConfiguration());
+    }
+
+    public JavaNetHttpClientImpl(HttpClientConfiguration conf) {
+        super(conf);
+        initPool();
+    }
+
+    private void initPool() {
+        statistics = new ConnectionPoolStatistics("JavaNetHttpClientImpl-" + instanceCount.incrementAndGet(),
+                CONF.getHttpMaxConnections(), CONF.getHttpMaxConnectionsPerHost());
+        connections = new Semaphore(Math.max(1, CONF.getHttpMaxConnections()), true);
+        hostConnections = new ConcurrentHashMap<String, Semaphore>();
+        waiters = new LinkedList<Waiter>();
+        if (CONF.isMBeanEnabled()) {
+            registerMBean();
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // the underlying client is built lazily by getClient()
+        initPool();
+    }
+
+    private void registerMBean() {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName oName = new ObjectName("twitter4j.mbean:type=ConnectionPoolStatistics,name=" + statistics.getName());
+            mbs.registerMBean(statistics, oName);
+            statisticsName = oName;
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Unregisters the statistics MBeans and stops {@link HttpClientFactory} from handing this client out.
+     * Requests in flight complete normally.
+     */
+    @Override
+    public void close() {
+        super.close();
+        ObjectName name = statisticsName;
+        statisticsName = null;
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                logger.error(e.getMessage());
+            } catch (MBeanRegistrationException e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+
+    /*package*/ ConnectionPoolStatistics getStatistics() {
+        return statistics;
+    }
+
+    private synchronized java.net.http.HttpClient getClient() {
+        if (client == null) {
+            java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder()
+                    .version(java.net.http.HttpClient.Version.HTTP_2)
+                    .followRedirects(java.net.http.HttpClient.Redirect.NEVER);
+            if (CONF.getHttpConnectionTimeout() > 0) {
+                builder.connectTimeout(Duration.ofMillis(CONF.getHttpConnectionTimeout()));
+            }
+            if (isProxyConfigured()) {
+                if (CONF.isHttpProxySocks()) {
+                    logger.warn("SOCKS proxy is not supported by JavaNetHttpClientImpl. Connecting via HTTP proxy(" +
+                            CONF.getHttpProxyHost() + ":" + CONF.getHttpProxyPort() + ")");
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Opening proxied connection(" + CONF.getHttpProxyHost() + ":" + CONF.getHttpProxyPort() + ")");
+                }
+                builder.proxy(ProxySelector.of(InetSocketAddress.createUnresolved(CONF.getHttpProxyHost(), CONF.getHttpProxyPort())));
+                if (CONF.getHttpProxyUser() != null && !CONF.getHttpProxyUser().equals("")) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Proxy AuthUser: " + CONF.getHttpProxyUser());
+                        logger.debug("Proxy AuthPassword: " + CONF.getHttpProxyPassword().replaceAll(".", "*"));
+                    }
+                    builder.authenticator(new Authenticator() {
+                        @Override
+                        protected PasswordAuthentication getPasswordAuthentication() {
+                            //respond only to proxy auth requests
+                            if (getRequestorType().equals(RequestorType.PROXY)) {
+                                return new PasswordAuthentication(CONF.getHttpProxyUser(),
+                                        CONF.getHttpProxyPassword().toCharArray());
+                            } else {
+                                return null;
+                            }
+                        }
+                    });
+                }
+            }
+            client = builder.build();
+        }
+        return client;
+    }
+
+    @Override
+    public HttpResponse get(String url) throws TwitterException {
+        return request(new HttpRequest(RequestMethod.GET, url, null, null, null));
+    }
+
+    public HttpResponse post(String url, HttpParameter[] params) throws TwitterException {
+        return request(new HttpRequest(RequestMethod.POST, url, params, null, null));
+    }
+
+    @Override
+    HttpResponse handleRequest(HttpRequest req) throws TwitterException {
+        java.net.http.HttpClient client = getClient();
+        int retriedCount;
+        int retry = CONF.getHttpRetryCount() + 1;
+        HttpResponse res = null;
+        for (retriedCount = 0; retriedCount < retry; retriedCount++) {
+            int responseCode = -1;
+            Permit permit = null;
+            try {
+                java.net.http.HttpRequest request = buildRequest(req);
+                permit = acquire(request.uri());
+                // java.net.http doesn't expose connection events, so connecting and writing count as waiting
+                long waitStart = System.nanoTime();
+                java.net.http.HttpResponse<InputStream> response = client.send(request, BodyHandlers.ofInputStream());
+                req.getTrace().phase(RequestTracer.Phase.TIME_TO_FIRST_BYTE, System.nanoTime() - waitStart);
+                statistics.responseReceived(response.version() == java.net.http.HttpClient.Version.HTTP_2);
+                res = new JavaNetHttpResponse(response, response.body(), permit, CONF);
+                // the permit is released once the response body is consumed or the response is disconnected
+                permit = null;
+                responseCode = res.getStatusCode();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Response: ");
+                    logger.debug(response.version() + " " + responseCode);
+                    Map<String, List<String>> responseHeaders = res.getResponseHeaderFields();
+                    for (String key : responseHeaders.keySet()) {
+                        for (String value : responseHeaders.get(key)) {
+                            logger.debug(key + ": " + value);
+                        }
+                    }
+                }
+                if (responseCode < OK || (responseCode != FOUND && MULTIPLE_CHOICES <= responseCode)) {
+                    if (responseCode == ENHANCE_YOUR_CLAIM ||
+                            responseCode == BAD_REQUEST ||
+                            responseCode < INTERNAL_SERVER_ERROR ||
+                            retriedCount == CONF.getHttpRetryCount()) {
+                        throw new TwitterException(res.asString(), res);
+                    }
+                    // will retry if the status code is INTERNAL_SERVER_ERROR
+                } else {
+                    break;
+                }
+            } catch (IOException ioe) {
+                statistics.requestFailed();
+                // connection timeout or read timeout
+                if (retriedCount == CONF.getHttpRetryCount()) {
+                    throw new TwitterException(ioe.getMessage(), ioe, responseCode);
+                }
+            } catch (UncheckedIOException uioe) {
+                // thrown by the multipart body supplier
+                statistics.requestFailed();
+                throw new TwitterException(uioe.getCause().getMessage(), uioe.getCause(), responseCode);
+            } catch (InterruptedException ie) {
+                statistics.requestFailed();
+                Thread.currentThread().interrupt();
+                throw new TwitterException(ie.getMessage(), ie, responseCode);
+            } finally {
+                if (permit != null) {
+                    permit.release();
+                }
+            }
+            try {
+                if (res != null) {
+                    if (logger.isDebugEnabled()) {
+                        res.asString();
+                    }
+                    // give the connection back before sleeping
+                    res.disconnect();
+                }
+                logger.debug("Sleeping " + CONF.getHttpRetryIntervalSeconds() + " seconds until the next retry.");
+                Thread.sleep(CONF.getHttpRetryIntervalSeconds() * 1000);
+            } catch (Exception ignore) {
+                //nothing to do
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Sends the request without blocking the calling thread.<br>
+     * The response body is fully received before the future completes, and the pool slot is already released by
+     * then. Error responses and retries are handled the same way as {@link #request(HttpRequest)}.
+     *
+     * @param req request
+     * @return future completing with the response, or exceptionally with a {@link TwitterException}
+     */
+    public CompletableFuture<HttpResponse> requestAsync(HttpRequest req) {
+        getClient();
+        final RequestTracer.Trace trace = RequestTracerFactory.getInstance().start(req);
+        req.setTrace(trace);
+        final long start = System.nanoTime();
+        CompletableFuture<HttpResponse> result = new CompletableFuture<HttpResponse>();
+        sendAsync(req, 0, result);
+        result.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+            @Override
+            public void accept(HttpResponse res, Throwable t) {
+                int statusCode = res != null ? res.getStatusCode()
+                        : t instanceof TwitterException ? ((TwitterException) t).getStatusCode() : -1;
+                trace.completed(statusCode, System.nanoTime() - start);
+            }
+        });
+        return result;
+    }
+
+    private void sendAsync(final HttpRequest req, final int retriedCount, final CompletableFuture<HttpResponse> result) {
+        final java.net.http.HttpRequest request;
+        try {
+            request = buildRequest(req);
+        } catch (IOException ioe) {
+            result.completeExceptionally(new TwitterException(ioe.getMessage(), ioe));
+            return;
+        }
+        acquireAsync(request.uri()).whenComplete(new BiConsumer<Permit, Throwable>() {
+            @Override
+            public void accept(final Permit permit, Throwable t) {
+                if (t != null) {
+                    if (t instanceof TimeoutException) {
+                        result.completeExceptionally(new TwitterException("Timed out waiting for a connection to "
+                                + hostOf(request.uri()) + ": " + statistics));
+                    } else {
+                        result.completeExceptionally(new TwitterException(t.getMessage(), t));
+                    }
+                    return;
+                }
+                try {
+                    client.sendAsync(request, BodyHandlers.ofByteArray())
+                            .whenComplete(new BiConsumer<java.net.http.HttpResponse<byte[]>, Throwable>() {
+                                @Override
+                                public void accept(java.net.http.HttpResponse<byte[]> response, Throwable t) {
+                                    // the body is in memory already
+                                    permit.release();
+                                    if (t != null) {
+                                        onFailure(req, retriedCount, result, t);
+                                    } else {
+                                        onResponse(req, retriedCount, result, response);
+                                    }
+                                }
+                            });
+                } catch (RuntimeException re) {
+                    permit.release();
+                    onFailure(req, retriedCount, result, re);
+                }
+            }
+        });
+    }
+
+    private void onResponse(HttpRequest req, int retriedCount, CompletableFuture<HttpResponse> result,
+                            java.net.http.HttpResponse<byte[]> response) {
+        statistics.responseReceived(response.version() == java.net.http.HttpClient.Version.HTTP_2);
+        HttpResponse res;
+        try {
+            res = new JavaNetHttpResponse(response, new ByteArrayInputStream(response.body()), null, CONF);
+            res.setTrace(req.getTrace());
+        } catch (IOException ioe) {
+            result.completeExceptionally(new TwitterException(ioe.getMessage(), ioe, response.statusCode()));
+            return;
+        }
+        int responseCode = res.getStatusCode();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Response: ");
+            logger.debug(response.version() + " " + responseCode);
+        }
+        if (responseCode < OK || (responseCode != FOUND && MULTIPLE_CHOICES <= responseCode)) {
+            if (responseCode == ENHANCE_YOUR_CLAIM ||
+                    responseCode == BAD_REQUEST ||
+                    responseCode < INTERNAL_SERVER_ERROR ||
+                    retriedCount == CONF.getHttpRetryCount()) {
+                try {
+                    result.completeExceptionally(new TwitterException(res.asString(), res));
+                } catch (TwitterException te) {
+                    result.completeExceptionally(te);
+                }
+            } else {
+                // will retry if the status code is INTERNAL_SERVER_ERROR
+                retryLater(req, retriedCount, result);
+            }
+        } else {
+            result.complete(res);
+        }
+    }
+
+    private void onFailure(HttpRequest req, int retriedCount, CompletableFuture<HttpResponse> result, Throwable t) {
+        statistics.requestFailed();
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        // connection timeout or read timeout
+        if (retriedCount == CONF.getHttpRetryCount() || !(cause instanceof IOException)) {
+            result.completeExceptionally(new TwitterException(cause.getMessage(), cause));
+        } else {
+            retryLater(req, retriedCount, result);
+        }
+    }
+
+    private void retryLater(final HttpRequest req, final int retriedCount, final CompletableFuture<HttpResponse> result) {
+        logger.debug("Retrying in " + CONF.getHttpRetryIntervalSeconds() + " seconds.");
+        CompletableFuture.delayedExecutor(CONF.getHttpRetryIntervalSeconds(), TimeUnit.SECONDS).execute(new Runnable() {
+            @Override
+            public void run() {
+                sendAsync(req, retriedCount + 1, result);
+            }
+        });
+    }
+
+    private java.net.http.HttpRequest buildRequest(HttpRequest req) throws IOException {
+        java.net.http.HttpRequest.Builder builder;
+        try {
+            builder = java.net.http.HttpRequest.newBuilder(URI.create(req.getURL()));
+        } catch (IllegalArgumentException iae) {
+            throw new IOException(iae.getMessage(), iae);
+        }
+        if (CONF.getHttpReadTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(CONF.getHttpReadTimeout()));
+        }
+        setHeaders(req, builder);
+        if (req.getMethod() == RequestMethod.POST) {
+            if (HttpParameter.containsFile(req.getParameters())) {
+                MultipartFormBody body = new MultipartFormBody(req.getParameters());
+                builder.header("Content-Type", body.getContentType());
+                builder.POST(publisher(body));
+            } else {
+                String postParam;
+                if (HttpParameter.containsJson(req.getParameters())) {
+                    builder.header("Content-Type", "application/json");
+                    postParam = req.getParameters()[0].getJsonObject().toString();
+                } else {
+                    builder.header("Content-Type", "application/x-www-form-urlencoded");
+                    postParam = HttpParameter.encodeParameters(req.getParameters());
+                }
+                logger.debug("Post Params: ", postParam);
+                builder.POST(BodyPublishers.ofByteArray(postParam.getBytes(StandardCharsets.UTF_8)));
+            }
+        } else {
+            builder.method(req.getMethod().name(), BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Streams the multipart body. Files are opened lazily, each time the publisher is subscribed to.
+     */
+    private static BodyPublisher publisher(final MultipartFormBody body) {
+        BodyPublisher publisher = BodyPublishers.ofInputStream(new Supplier<InputStream>() {
+            @Override
+            public InputStream get() {
+                try {
+                    return body.newInputStream();
+                } catch (FileNotFoundException fnfe) {
+                    throw new UncheckedIOException(fnfe);
+                }
+            }
+        });
+        // a known length is sent as Content-Length instead of a chunked body
+        return body.getContentLength() >= 0 ? BodyPublishers.fromPublisher(publisher, body.getContentLength()) : publisher;
+    }
+
+    /**
+     * sets HTTP headers
+     *
+     * @param req     The request
+     * @param builder request builder
+     */
+    private void setHeaders(HttpRequest req, java.net.http.HttpRequest.Builder builder) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request: ");
+            logger.debug(req.getMethod().name() + " ", req.getURL());
+        }
+
+        String authorizationHeader;
+        if ((authorizationHeader = getAuthorizationHeader(req)) != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Authorization: ", authorizationHeader.replaceAll(".", "*"));
+            }
+            builder.header("Authorization", authorizationHeader);
+
+            // send additional headers if needed
+            Map<String, String> additionalHeaders = req.getAuthorization().getAdditionalHeaders();
+            if (additionalHeaders != null) {
+                for (String key : additionalHeaders.keySet()) {
+                    addHeader(builder, key, additionalHeaders.get(key));
+                }
+            }
+        }
+        if (req.getRequestHeaders() != null) {
+            for (String key : req.getRequestHeaders().keySet()) {
+                addHeader(builder, key, req.getRequestHeaders().get(key));
+                logger.debug(key + ": " + req.getRequestHeaders().get(key));
+            }
+        }
+    }
+
+    private static void addHeader(java.net.http.HttpRequest.Builder builder, String name, String value) {
+        if (RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+            logger.debug("Ignoring restricted header: " + name);
+            return;
+        }
+        builder.header(name, value);
+    }
+
+    /**
+     * Waits for both a global and a per-host slot.
+     *
+     * @param uri request URI
+     * @return permit to be released once the response is consumed
+     * @throws TwitterException when no slot became available within the connection timeout
+     */
+    private Permit acquire(URI uri) throws TwitterException, InterruptedException {
+        String host = hostOf(uri);
+        Semaphore hostSemaphore = hostSemaphore(host);
+        long before = System.currentTimeMillis();
+        if (!tryAcquire(hostSemaphore)) {
+            throw new TwitterException("Timed out waiting for a connection to " + host + ": " + statistics);
+        }
+        if (!tryAcquire(connections)) {
+            hostSemaphore.release();
+            throw new TwitterException("Timed out waiting for a connection: " + statistics);
+        }
+        statistics.connectionAcquired(System.currentTimeMillis() - before);
+        return new Permit(hostSemaphore, connections, this);
+    }
+
+    private static String hostOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    private Semaphore hostSemaphore(String host) {
+        Semaphore hostSemaphore = hostConnections.get(host);
+        if (hostSemaphore == null) {
+            Semaphore newSemaphore = new Semaphore(Math.max(1, CONF.getHttpMaxConnectionsPerHost()), true);
+            hostSemaphore = hostConnections.putIfAbsent(host, newSemaphore);
+            if (hostSemaphore == null) {
+                hostSemaphore = newSemaphore;
+                statistics.hostAdded();
+            }
+        }
+        return hostSemaphore;
+    }
+
+    /**
+     * Returns a future completing with a permit once both a global and a per-host slot are available.
+     * Waiting callers are queued instead of being parked, and are granted slots as permits are released.
+     */
+    private CompletableFuture<Permit> acquireAsync(URI uri) {
+        Waiter waiter = new Waiter(hostSemaphore(hostOf(uri)));
+        Permit permit = take(waiter);
+        if (permit != null) {
+            complete(waiter, permit);
+        } else {
+            if (CONF.getHttpConnectionTimeout() > 0) {
+                waiter.future.orTimeout(CONF.getHttpConnectionTimeout(), TimeUnit.MILLISECONDS);
+            }
+            synchronized (waiters) {
+                waiters.add(waiter);
+            }
+            // a permit may have been released in the meantime
+            grantWaiters();
+        }
+        return waiter.future;
+    }
+
+    /**
+     * @return a permit if both a global and a per-host slot were available, null otherwise
+     */
+    private Permit take(Waiter waiter) {
+        if (!waiter.hostSemaphore.tryAcquire()) {
+            return null;
+        }
+        if (!connections.tryAcquire()) {
+            waiter.hostSemaphore.release();
+            return null;
+        }
+        statistics.connectionAcquired(System.currentTimeMillis() - waiter.since);
+        return new Permit(waiter.hostSemaphore, connections, this);
+    }
+
+    // must not be called while holding the waiters lock, as completing runs the dependent stages
+    private static void complete(Waiter waiter, Permit permit) {
+        if (!waiter.future.complete(permit)) {
+            // timed out concurrently
+            permit.release();
+        }
+    }
+
+    private void grantWaiters() {
+        List<Waiter> granted = null;
+        List<Permit> permits = null;
+        synchronized (waiters) {
+            Iterator<Waiter> iterator = waiters.iterator();
+            while (iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+                if (waiter.future.isDone()) {
+                    iterator.remove();
+                    continue;
+                }
+                Permit permit = take(waiter);
+                if (permit != null) {
+                    iterator.remove();
+                    if (granted == null) {
+                        granted = new ArrayList<Waiter>();
+                        permits = new ArrayList<Permit>();
+                    }
+                    granted.add(waiter);
+                    permits.add(permit);
+                }
+            }
+        }
+        if (granted != null) {
+            for (int i = 0; i < granted.size(); i++) {
+                complete(granted.get(i), permits.get(i));
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final Semaphore hostSemaphore;
+        private final CompletableFuture<Permit> future = new CompletableFuture<Permit>();
+        private final long since = System.currentTimeMillis();
+
+        Waiter(Semaphore hostSemaphore) {
+            this.hostSemaphore = hostSemaphore;
+        }
+    }
+
+    private boolean tryAcquire(Semaphore semaphore) throws InterruptedException {
+        if (semaphore.tryAcquire()) {
+            return true;
+        }
+        if (CONF.getHttpConnectionTimeout() > 0) {
+            return semaphore.tryAcquire(CONF.getHttpConnectionTimeout(), TimeUnit.MILLISECONDS);
+        }
+        semaphore.acquire();
+        return true;
+    }
+
+    /**
+     * A slot in the pool, released exactly once.
+     */
+    /*package*/ static final class Permit {
+        private final Semaphore hostSemaphore;
+        private final Semaphore semaphore;
+        private final JavaNetHttpClientImpl client;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        Permit(Semaphore hostSemaphore, Semaphore semaphore, JavaNetHttpClientImpl client) {
+            this.hostSemaphore = hostSemaphore;
+            this.semaphore = semaphore;
+            this.client = client;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                client.statistics.connectionReleased();
+                semaphore.release();
+                hostSemaphore.release();
+                client.grantWaiters();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JavaNetHttpClientImpl{" +
+                "statistics=" + statistics +
+                '}';
+    }
+}
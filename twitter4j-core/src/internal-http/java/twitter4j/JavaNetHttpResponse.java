@@ -0,0 +1,81 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public class JavaNetHttpResponse extends HttpResponse {
+    private final java.net.http.HttpResponse<?> response;
+    // null when the pool slot has already been released, i.e. the body is in memory
+    private final JavaNetHttpClientImpl.Permit permit;
+
+    JavaNetHttpResponse(java.net.http.HttpResponse<?> response, InputStream body, final JavaNetHttpClientImpl.Permit permit,
+                        HttpClientConfiguration conf) throws IOException {
+        super(conf);
+        this.response = response;
+        this.permit = permit;
+        this.statusCode = response.statusCode();
+        if (permit == null) {
+            is = body;
+        } else {
+            // hand the slot back as soon as the body is closed
+            is = new FilterInputStream(body) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        permit.release();
+                    }
+                }
+            };
+        }
+        if ("gzip".equals(getResponseHeader("Content-Encoding"))) {
+            // the response is gzipped
+            is = new StreamingGZIPInputStream(is);
+        }
+    }
+
+    @Override
+    public String getResponseHeader(String name) {
+        return response.headers().firstValue(name).orElse(null);
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        return response.headers().map();
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+        try {
+            is.close();
+        } finally {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+}
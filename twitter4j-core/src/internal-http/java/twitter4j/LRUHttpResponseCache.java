@@ -0,0 +1,120 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HttpResponseCache} evicting the least recently used entry once the maximum number of entries is reached.<br>
+ * Responses are cached for a time to live configured per endpoint, matched against the request URL path. Endpoints
+ * without a time to live are not cached. By default, slowly changing endpoints are cached:
+ * <ul>
+ * <li>help/configuration, help/languages: 24 hours</li>
+ * <li>trends/available, users/suggestions: 1 hour</li>
+ * <li>users/show, lists/list: 5 minutes</li>
+ * </ul>
+ * Responses are cached per authorization, as they may depend on the authenticating user.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public final class LRUHttpResponseCache implements HttpResponseCache {
+    private static final Map<String, Long> DEFAULT_TIME_TO_LIVE;
+
+    static {
+        Map<String, Long> ttl = new LinkedHashMap<String, Long>();
+        ttl.put("help/configuration.json", TimeUnit.HOURS.toMillis(24));
+        ttl.put("help/languages.json", TimeUnit.HOURS.toMillis(24));
+        ttl.put("trends/available.json", TimeUnit.HOURS.toMillis(1));
+        ttl.put("users/suggestions", TimeUnit.HOURS.toMillis(1));
+        ttl.put("users/show.json", TimeUnit.MINUTES.toMillis(5));
+        ttl.put("lists/list.json", TimeUnit.MINUTES.toMillis(5));
+        DEFAULT_TIME_TO_LIVE = Collections.unmodifiableMap(ttl);
+    }
+
+    private final Map<String, Long> timeToLiveMillis;
+    // guarded by itself
+    private final LinkedHashMap<HttpRequest, HttpResponseCache.Entry> entries;
+
+    /**
+     * @param maxEntries maximum number of entries
+     */
+    public LRUHttpResponseCache(int maxEntries) {
+        this(maxEntries, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param maxEntries       maximum number of entries
+     * @param timeToLiveMillis time to live in milliseconds, keyed by the endpoint path relative to the API base URL
+     *                         (e.g. "users/show.json"). A path also matches the endpoints it is a prefix of
+     */
+    public LRUHttpResponseCache(final int maxEntries, Map<String, Long> timeToLiveMillis) {
+        this.timeToLiveMillis = new LinkedHashMap<String, Long>(timeToLiveMillis);
+        this.entries = new LinkedHashMap<HttpRequest, HttpResponseCache.Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 5212830766349011012L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<HttpRequest, HttpResponseCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public long getTimeToLiveMillis(HttpRequest request) {
+        String url = request.getURL();
+        int queryIndex = url.indexOf('?');
+        String path = queryIndex == -1 ? url : url.substring(0, queryIndex);
+        for (Map.Entry<String, Long> ttl : timeToLiveMillis.entrySet()) {
+            int index = path.indexOf(ttl.getKey());
+            if (index > 0 && path.charAt(index - 1) == '/') {
+                return ttl.getValue();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public HttpResponseCache.Entry get(HttpRequest request) {
+        synchronized (entries) {
+            return entries.get(request);
+        }
+    }
+
+    @Override
+    public void put(HttpRequest request, HttpResponseCache.Entry entry) {
+        synchronized (entries) {
+            entries.put(request, entry);
+        }
+    }
+
+    /*package*/ int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LRUHttpResponseCache{" +
+                "timeToLiveMillis=" + timeToLiveMillis +
+                ", size=" + size() +
+                '}';
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * multipart/form-data request body, shared by the HttpClient implementations.<br>
+ * The part headers are encoded once up front, and the length of file parameters is known from the file system, so
+ * {@link #getContentLength()} lets the connection stream the body with a fixed length instead of buffering it.
+ * Files are sent with {@link FileChannel#transferTo(long, long, WritableByteChannel)} rather than copied through a
+ * small heap buffer.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+final class MultipartFormBody {
+    private static final Logger logger = Logger.getLogger(MultipartFormBody.class);
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final String contentType;
+    private final HttpParameter[] params;
+    // part headers, including the value for non-file parameters
+    private final byte[][] heads;
+    private final byte[] trailer;
+    private final long contentLength;
+
+    /*package*/ MultipartFormBody(HttpParameter[] params) {
+        String boundary = "----Twitter4J-upload" + System.currentTimeMillis();
+        this.contentType = "multipart/form-data; boundary=" + boundary;
+        boundary = "--" + boundary;
+        this.params = params;
+        this.heads = new byte[params.length][];
+        long length = 0;
+        for (int i = 0; i < params.length; i++) {
+            HttpParameter param = params[i];
+            if (param.isFile()) {
+                heads[i] = ascii(boundary + "\r\n"
+                        + "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" + param.getFile().getName() + "\"\r\n"
+                        + "Content-Type: " + param.getContentType() + "\r\n\r\n");
+                long fileLength = fileLength(param);
+                length = length < 0 || fileLength < 0 ? -1 : length + fileLength;
+            } else {
+                logger.debug(param.getValue());
+                byte[] head = ascii(boundary + "\r\n"
+                        + "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n"
+                        + "Content-Type: text/plain; charset=UTF-8\r\n\r\n");
+                byte[] value = param.getValue().getBytes(StandardCharsets.UTF_8);
+                heads[i] = new byte[head.length + value.length];
+                System.arraycopy(head, 0, heads[i], 0, head.length);
+                System.arraycopy(value, 0, heads[i], head.length, value.length);
+            }
+            if (length >= 0) {
+                length += heads[i].length + CRLF.length;
+            }
+        }
+        this.trailer = ascii(boundary + "--\r\n\r\n");
+        this.contentLength = length < 0 ? -1 : length + trailer.length;
+    }
+
+    private static byte[] ascii(String str) {
+        return str.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static long fileLength(HttpParameter param) {
+        if (!param.hasFileBody()) {
+            return param.getFile().length();
+        }
+        // available() is exact for in-memory bodies like chunked upload segments
+        if (param.getFileBody() instanceof ByteArrayInputStream) {
+            return ((ByteArrayInputStream) param.getFileBody()).available();
+        }
+        return -1;
+    }
+
+    /*package*/ String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return length of the body in bytes, or -1 if a parameter is backed by a stream of unknown length
+     */
+    /*package*/ long getContentLength() {
+        return contentLength;
+    }
+
+    /*package*/ void writeTo(OutputStream out) throws IOException {
+        WritableByteChannel channel = null;
+        byte[] buffer = null;
+        for (int i = 0; i < params.length; i++) {
+            out.write(heads[i]);
+            HttpParameter param = params[i];
+            if (param.isFile()) {
+                if (param.hasFileBody()) {
+                    if (buffer == null) {
+                        buffer = new byte[8192];
+                    }
+                    InputStream in = param.getFileBody();
+                    try {
+                        int length;
+                        while ((length = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, length);
+                        }
+                    } finally {
+                        in.close();
+                    }
+                } else {
+                    if (channel == null) {
+                        // not closed, closing it would close the connection's stream
+                        channel = Channels.newChannel(out);
+                    }
+                    transfer(param, channel);
+                }
+            }
+            out.write(CRLF);
+        }
+        out.write(trailer);
+    }
+
+    private static void transfer(HttpParameter param, WritableByteChannel target) throws IOException {
+        FileChannel file = FileChannel.open(param.getFile().toPath(), StandardOpenOption.READ);
+        try {
+            long size = file.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = file.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of file: " + param.getFile());
+                }
+                position += transferred;
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * @return a new stream over the whole body
+     * @throws FileNotFoundException when a file parameter can't be opened
+     */
+    /*package*/ InputStream newInputStream() throws FileNotFoundException {
+        List<InputStream> parts = new ArrayList<InputStream>(params.length * 3 + 1);
+        for (int i = 0; i < params.length; i++) {
+            parts.add(new ByteArrayInputStream(heads[i]));
+            HttpParameter param = params[i];
+            if (param.isFile()) {
+                parts.add(param.hasFileBody() ? param.getFileBody() : new FileInputStream(param.getFile()));
+            }
+            parts.add(new ByteArrayInputStream(CRLF));
+        }
+        parts.add(new ByteArrayInputStream(trailer));
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+}
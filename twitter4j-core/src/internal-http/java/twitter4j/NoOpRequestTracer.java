@@ -0,0 +1,43 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * The default {@link RequestTracer}, ignoring everything.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+final class NoOpRequestTracer implements RequestTracer, RequestTracer.Trace {
+    static final NoOpRequestTracer INSTANCE = new NoOpRequestTracer();
+
+    private NoOpRequestTracer() {
+    }
+
+    @Override
+    public Trace start(HttpRequest request) {
+        return this;
+    }
+
+    @Override
+    public void phase(Phase phase, long nanos) {
+    }
+
+    @Override
+    public void completed(int statusCode, long nanos) {
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * Service provider interface receiving per-phase timings of every HTTP request Twitter4J sends: REST API calls,
+ * streams, media uploads, OAuth token requests and site stream controls alike.<br>
+ * An implementation is selected with -Dtwitter4j.http.requestTracer=fully.qualified.ClassName, the class needs a
+ * public no-arg constructor. {@link JMXRequestTracer} publishes the timings via JMX. When none is selected a no-op
+ * tracer is used, costing a couple of System.nanoTime() calls per request.<br>
+ * Not every HttpClient tells every phase apart: HttpURLConnection reports DNS, TCP and TLS handshake as CONNECT, and
+ * java.net.http reports them all as part of TIME_TO_FIRST_BYTE.<br>
+ * Implementations are called on the request path, from any thread, and need to be thread safe and fast.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public interface RequestTracer {
+
+    enum Phase {
+        DNS,
+        CONNECT,
+        TLS,
+        /**
+         * computing the Authorization header
+         */
+        SIGN,
+        REQUEST_WRITE,
+        /**
+         * from the request being sent (or from the start of the request, if the client can't tell) to the response
+         * headers being received
+         */
+        TIME_TO_FIRST_BYTE,
+        BODY_READ,
+        /**
+         * tokenizing the response body into JSON, including reading it when it is parsed straight from the stream
+         */
+        PARSE
+    }
+
+    /**
+     * @param request request about to be sent
+     * @return trace receiving the timings of the request
+     */
+    Trace start(HttpRequest request);
+
+    interface Trace {
+        /**
+         * @param phase phase completed, may be reported several times when the request is retried
+         * @param nanos time spent in the phase in nanoseconds
+         */
+        void phase(Phase phase, long nanos);
+
+        /**
+         * Called once the response headers have been received, or the request has failed. BODY_READ and PARSE are
+         * reported afterwards, when the body gets consumed.
+         *
+         * @param statusCode status code, -1 if no response has been received
+         * @param nanos      time in nanoseconds from the start of the request, retries included
+         */
+        void completed(int statusCode, long nanos);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see RequestTracer
+ * @since Twitter4J 4.0.8
+ */
+final class RequestTracerFactory {
+    private static final Logger logger = Logger.getLogger(RequestTracerFactory.class);
+    private static final String REQUEST_TRACER_IMPLEMENTATION = "twitter4j.http.requestTracer";
+    private static volatile RequestTracer tracer;
+
+    static {
+        RequestTracer requestTracer = NoOpRequestTracer.INSTANCE;
+        //-Dtwitter4j.http.requestTracer=twitter4j.JMXRequestTracer
+        String tracerImpl = System.getProperty(REQUEST_TRACER_IMPLEMENTATION);
+        if (tracerImpl != null) {
+            try {
+                requestTracer = (RequestTracer) Class.forName(tracerImpl).getConstructor().newInstance();
+            } catch (Exception e) {
+                logger.warn("Failed to instantiate " + tracerImpl + ", requests won't be traced: " + e);
+            }
+        }
+        tracer = requestTracer;
+    }
+
+    private RequestTracerFactory() {
+        throw new AssertionError();
+    }
+
+    static RequestTracer getInstance() {
+        return tracer;
+    }
+
+    /*package*/ static void setInstance(RequestTracer requestTracer) {
+        tracer = requestTracer != null ? requestTracer : NoOpRequestTracer.INSTANCE;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.Date;
+
+/**
+ * A parser dedicated to the fixed "EEE MMM dd HH:mm:ss Z yyyy" layout Twitter uses for created_at, e.g.
+ * "Mon Mar 11 19:37:00 +0000 2013".<br>
+ * Scans the chars directly instead of going through SimpleDateFormat, and remembers recently parsed values since
+ * statuses and users in a single response tend to share the same timestamps.<br>
+ * Thread safe and lock free.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class CreatedAtParser {
+    private static final int LENGTH = "Mon Mar 11 19:37:00 +0000 2013".length();
+    private static final int CACHE_SIZE = 512;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    // direct-mapped cache. entries are immutable, so racy reads and writes can only cause a miss, never a wrong value
+    private static final Entry[] cache = new Entry[CACHE_SIZE];
+
+    private CreatedAtParser() {
+        // should never be instantiated
+        throw new AssertionError();
+    }
+
+    /**
+     * Parses the given created_at value.
+     *
+     * @param dateString date string
+     * @return the parsed date, or null if the string doesn't follow the layout and should be parsed by SimpleDateFormat
+     */
+    /*package*/ static Date parse(String dateString) {
+        if (dateString.length() != LENGTH) {
+            return null;
+        }
+        int index = dateString.hashCode() & (CACHE_SIZE - 1);
+        Entry entry = cache[index];
+        if (entry != null && entry.dateString.equals(dateString)) {
+            return new Date(entry.time);
+        }
+        long time = toEpochMillis(dateString);
+        if (time == Long.MIN_VALUE) {
+            return null;
+        }
+        cache[index] = new Entry(dateString, time);
+        return new Date(time);
+    }
+
+    /**
+     * @return milliseconds since the epoch, or Long.MIN_VALUE if the string doesn't follow the layout
+     */
+    private static long toEpochMillis(String s) {
+        if (s.charAt(3) != ' ' || s.charAt(7) != ' ' || s.charAt(10) != ' ' || s.charAt(13) != ':'
+                || s.charAt(16) != ':' || s.charAt(19) != ' ' || s.charAt(25) != ' ') {
+            return Long.MIN_VALUE;
+        }
+        int month = month(s.charAt(4), s.charAt(5), s.charAt(6));
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        int offset = digits(s, 21, 4);
+        int year = digits(s, 26, 4);
+        char sign = s.charAt(20);
+        if (month == -1 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59
+                || offset == -1 || year == -1 || (sign != '+' && sign != '-')) {
+            return Long.MIN_VALUE;
+        }
+        int offsetMinutes = (offset / 100) * 60 + offset % 100;
+        if (sign == '-') {
+            offsetMinutes = -offsetMinutes;
+        }
+        long seconds = ((hour * 60L + minute - offsetMinutes) * 60L) + second;
+        return epochDay(year, month, day) * MILLIS_PER_DAY + seconds * 1000;
+    }
+
+    /**
+     * @return days since 1970-01-01 in the proleptic Gregorian calendar
+     */
+    private static long epochDay(int year, int month, int day) {
+        // shift the year to start from March so that the leap day comes last
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * @return the parsed non-negative value, or -1 if the range contains a non-digit char
+     */
+    private static int digits(String s, int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int month(char c1, char c2, char c3) {
+        switch (c1) {
+            case 'J':
+                if (c2 == 'a' && c3 == 'n') {
+                    return 1;
+                } else if (c2 == 'u' && c3 == 'n') {
+                    return 6;
+                } else if (c2 == 'u' && c3 == 'l') {
+                    return 7;
+                }
+                return -1;
+            case 'F':
+                return c2 == 'e' && c3 == 'b' ? 2 : -1;
+            case 'M':
+                if (c2 == 'a' && c3 == 'r') {
+                    return 3;
+                } else if (c2 == 'a' && c3 == 'y') {
+                    return 5;
+                }
+                return -1;
+            case 'A':
+                if (c2 == 'p' && c3 == 'r') {
+                    return 4;
+                } else if (c2 == 'u' && c3 == 'g') {
+                    return 8;
+                }
+                return -1;
+            case 'S':
+                return c2 == 'e' && c3 == 'p' ? 9 : -1;
+            case 'O':
+                return c2 == 'c' && c3 == 't' ? 10 : -1;
+            case 'N':
+                return c2 == 'o' && c3 == 'v' ? 11 : -1;
+            case 'D':
+                return c2 == 'e' && c3 == 'c' ? 12 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static final class Entry {
+        private final String dateString;
+        private final long time;
+
+        Entry(String dateString, long time) {
+            this.dateString = dateString;
+            this.time = time;
+        }
+    }
+}
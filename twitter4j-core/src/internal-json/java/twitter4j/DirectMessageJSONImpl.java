@@ -63,6 +63,11 @@ import java.util.List;
         init(json);
     }
 
+    /* Only for serialization purposes. */
+    /*package*/DirectMessageJSONImpl() {
+
+    }
+
     private void init(JSONObject json) throws TwitterException {
         try {
             id = ParseUtil.getLong("id", json);
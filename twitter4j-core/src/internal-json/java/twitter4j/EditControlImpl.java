@@ -27,6 +27,14 @@ public class EditControlImpl implements EditControl {
 
     }
 
+    /* Only for serialization purposes. */
+    /*package*/ EditControlImpl() {
+        editTweetIds = new long[0];
+        editableUntilMsecs = 0;
+        editsRemaining = 0;
+        editEligible = false;
+    }
+
     @NotNull
     @Override
     public long[] getEditTweetIds() {
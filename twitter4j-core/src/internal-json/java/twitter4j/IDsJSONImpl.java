@@ -34,11 +34,23 @@ import java.util.Arrays;
 
     /*package*/ IDsJSONImpl(HttpResponse res, Configuration conf) throws TwitterException {
         super(res);
-        String json = res.asString();
-        init(json);
         if (conf.isJSONStoreEnabled()) {
+            String json = res.asString();
+            init(json);
             TwitterObjectFactory.clearThreadLocalMap();
             TwitterObjectFactory.registerJSONObject(this, json);
+        } else {
+            // bind straight from the response stream. pages hold up to 5,000 IDs, which would otherwise be boxed
+            JSONPullParser parser = res.asJSONPullParser();
+            try {
+                init(parser);
+            } finally {
+                parser.close();
+                try {
+                    res.disconnect();
+                } catch (Exception ignore) {
+                }
+            }
         }
     }
 
@@ -78,6 +90,33 @@ import java.util.Arrays;
         }
     }
 
+    private void init(JSONPullParser parser) throws TwitterException {
+        try {
+            if (parser.peek() == '[') {
+                ids = parser.nextLongArray();
+                return;
+            }
+            parser.beginObject();
+            String name;
+            while ((name = parser.nextName()) != null) {
+                if ("ids".equals(name)) {
+                    ids = parser.nextLongArray();
+                } else if ("previous_cursor".equals(name)) {
+                    previousCursor = parser.nextLong();
+                } else if ("next_cursor".equals(name)) {
+                    nextCursor = parser.nextLong();
+                } else {
+                    parser.nextValue();
+                }
+            }
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+        if (ids == null) {
+            throw new TwitterException("Twitter API returned malformed response: ids not found");
+        }
+    }
+
     @Override
     public long[] getIDs() {
         return ids;
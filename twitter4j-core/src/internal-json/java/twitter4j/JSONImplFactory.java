@@ -127,7 +127,7 @@ class JSONImplFactory implements ObjectFactory {
 
     @Override
     public ResponseList<User> createUserListFromJSONArray(HttpResponse res) throws TwitterException {
-        return UserJSONImpl.createUserList(res.asJSONArray(), res, conf);
+        return UserJSONImpl.createUserList(res, conf);
     }
 
     @Override
@@ -0,0 +1,603 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A pull style JSON reader which consumes the input incrementally from a {@link Reader}, or from UTF-8 bytes.<br>
+ * Unlike {@link JSONTokener}, the whole document is never buffered as a single String, so that large array responses
+ * (e.g. timelines) can be bound element by element while only one element tree is alive at a time.<br>
+ * Values are materialized with the same types {@link JSONTokener} produces (String, Integer, Long, Double, Boolean,
+ * {@link JSONObject#NULL}, {@link JSONObject} and {@link JSONArray}). Only strict JSON is accepted.<br>
+ * Instances are not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class JSONPullParser {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DECODE_BUFFER_SIZE = 512;
+
+    private final Reader in;
+    private final char[] buf;
+    // UTF-8 source decoded in place of a Reader, see JSONPullParser(byte[], int, int)
+    private final byte[] bytes;
+    private int bytesPos;
+    private final int bytesLimit;
+    private int pos = 0;
+    private int limit = 0;
+    // number of chars consumed before the current buffer, for error reporting
+    private long consumed = 0;
+    private final StringBuilder scratch = new StringBuilder(64);
+
+    // container state for beginArray() / hasNext()
+    private boolean firstElement = true;
+
+    /*package*/ JSONPullParser(InputStream is) {
+        this(new InputStreamReader(is, StandardCharsets.UTF_8));
+    }
+
+    /*package*/ JSONPullParser(Reader in) {
+        this.in = in;
+        this.buf = new char[BUFFER_SIZE];
+        this.bytes = null;
+        this.bytesLimit = 0;
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON straight from a byte array, without going through a Reader.
+     *
+     * @param bytes  source
+     * @param offset index of the first byte to read
+     * @param length number of bytes to read
+     */
+    /*package*/ JSONPullParser(byte[] bytes, int offset, int length) {
+        this.in = null;
+        // decoding is cheap to resume, so a small window does. room for a surrogate pair at least
+        this.buf = new char[Math.max(2, Math.min(DECODE_BUFFER_SIZE, length))];
+        this.bytes = bytes;
+        this.bytesPos = offset;
+        this.bytesLimit = offset + length;
+    }
+
+    /**
+     * Consumes the opening bracket of the top level array.
+     *
+     * @throws JSONException when the next token is not '['
+     */
+    /*package*/ void beginArray() throws JSONException {
+        int c = nextClean();
+        if (c == 0xfeff) {
+            // consume an optional byte order mark (BOM)
+            c = nextClean();
+        }
+        if (c != '[') {
+            throw syntaxError("Expected '[' but was " + describe(c));
+        }
+        firstElement = true;
+    }
+
+    /**
+     * Returns true if the array opened by {@link #beginArray()} has more elements.
+     * Consumes the separating comma, or the closing bracket when the array is exhausted.
+     *
+     * @return true if there is another element
+     * @throws JSONException when the input is malformed
+     */
+    /*package*/ boolean hasNext() throws JSONException {
+        int c = nextClean();
+        if (c == ']') {
+            return false;
+        }
+        if (c == -1) {
+            throw syntaxError("Unterminated array");
+        }
+        if (firstElement) {
+            firstElement = false;
+            pos--;
+            return true;
+        }
+        if (c != ',') {
+            throw syntaxError("Unterminated array");
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next value, which must be an object.
+     *
+     * @return the object
+     * @throws JSONException when the next value is not an object or the input is malformed
+     */
+    /*package*/ JSONObject nextObject() throws JSONException {
+        int c = nextClean();
+        if (c != '{') {
+            throw syntaxError("Expected '{' but was " + describe(c));
+        }
+        return readObject();
+    }
+
+    /**
+     * Reads the next value.
+     *
+     * @return a {@link JSONObject}, {@link JSONArray}, String, Boolean, Integer, Long, Double or {@link JSONObject#NULL}.
+     * @throws JSONException if the input is malformed.
+     */
+    /*package*/ Object nextValue() throws JSONException {
+        int c = nextClean();
+        switch (c) {
+            case -1:
+                throw syntaxError("End of input");
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            default:
+                pos--;
+                return readLiteral();
+        }
+    }
+
+    /**
+     * Returns the next non-whitespace char without consuming it.
+     *
+     * @return the next char, or -1 at the end of input
+     * @throws JSONException when the input can't be read
+     */
+    /*package*/ int peek() throws JSONException {
+        int c = nextClean();
+        if (c != -1) {
+            pos--;
+        }
+        return c;
+    }
+
+    /**
+     * Consumes the opening brace of the top level object.
+     *
+     * @throws JSONException when the next token is not '{'
+     */
+    /*package*/ void beginObject() throws JSONException {
+        int c = nextClean();
+        if (c == 0xfeff) {
+            // consume an optional byte order mark (BOM)
+            c = nextClean();
+        }
+        if (c != '{') {
+            throw syntaxError("Expected '{' but was " + describe(c));
+        }
+        firstElement = true;
+    }
+
+    /**
+     * Reads the name of the next member of the object opened by {@link #beginObject()}, and the following colon.
+     * The value needs to be consumed before calling this method again.
+     *
+     * @return the name, or null when the object is exhausted. the closing brace is consumed then.
+     * @throws JSONException when the input is malformed
+     */
+    /*package*/ String nextName() throws JSONException {
+        int c = nextClean();
+        if (c == '}') {
+            return null;
+        }
+        if (!firstElement) {
+            if (c != ',') {
+                throw syntaxError("Unterminated object");
+            }
+            c = nextClean();
+        }
+        firstElement = false;
+        if (c != '"') {
+            throw syntaxError("Names must be strings, but was " + describe(c));
+        }
+        String name = readString();
+        if (nextClean() != ':') {
+            throw syntaxError("Expected ':' after " + name);
+        }
+        return name;
+    }
+
+    /**
+     * Reads the next value, which must be a number or a string holding a number, as a long.
+     *
+     * @return the value
+     * @throws JSONException when the next value is not an integral number or the input is malformed
+     */
+    /*package*/ long nextLong() throws JSONException {
+        int c = nextClean();
+        boolean quoted = c == '"';
+        if (quoted) {
+            c = read();
+        }
+        boolean negative = c == '-';
+        if (negative) {
+            c = read();
+        }
+        long value = 0;
+        int digits = 0;
+        while (c >= '0' && c <= '9') {
+            int digit = c - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw syntaxError("Number out of range");
+            }
+            value = value * 10 + digit;
+            digits++;
+            c = read();
+        }
+        if (digits == 0) {
+            throw syntaxError("Expected a number but was " + describe(c));
+        }
+        if (quoted) {
+            if (c != '"') {
+                throw syntaxError("Expected a number but was " + describe(c));
+            }
+        } else if (c != -1) {
+            // give the delimiter back
+            pos--;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads the next value, which must be an array of numbers, straight into a long[] without boxing the elements.
+     *
+     * @return the values
+     * @throws JSONException when the next value is not an array of integral numbers or the input is malformed
+     */
+    /*package*/ long[] nextLongArray() throws JSONException {
+        int c = nextClean();
+        if (c != '[') {
+            throw syntaxError("Expected '[' but was " + describe(c));
+        }
+        long[] values = new long[256];
+        int size = 0;
+        if (nextClean() != ']') {
+            pos--;
+            while (true) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = nextLong();
+                c = nextClean();
+                if (c == ']') {
+                    break;
+                }
+                if (c != ',') {
+                    throw syntaxError("Unterminated array");
+                }
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /*package*/ void close() {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    private JSONObject readObject() throws JSONException {
+        JSONObject result = new JSONObject();
+        int c = nextClean();
+        if (c == '}') {
+            return result;
+        }
+        while (true) {
+            if (c != '"') {
+                throw syntaxError("Names must be strings, but was " + describe(c));
+            }
+            String name = readString();
+            if (nextClean() != ':') {
+                throw syntaxError("Expected ':' after " + name);
+            }
+            result.put(name, nextValue());
+            c = nextClean();
+            if (c == '}') {
+                return result;
+            }
+            if (c != ',') {
+                throw syntaxError("Unterminated object");
+            }
+            c = nextClean();
+        }
+    }
+
+    private JSONArray readArray() throws JSONException {
+        JSONArray result = new JSONArray();
+        int c = nextClean();
+        if (c == ']') {
+            return result;
+        }
+        pos--;
+        while (true) {
+            result.put(nextValue());
+            c = nextClean();
+            if (c == ']') {
+                return result;
+            }
+            if (c != ',') {
+                throw syntaxError("Unterminated array");
+            }
+        }
+    }
+
+    /**
+     * Reads a string literal. The opening quote should have already been read.
+     */
+    private String readString() throws JSONException {
+        // fast path: the whole string is in the buffer and contains no escape sequences
+        for (int i = pos; i < limit; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                String value = new String(buf, pos, i - pos);
+                pos = i + 1;
+                return value;
+            }
+            if (c == '\\') {
+                break;
+            }
+        }
+        StringBuilder builder = scratch;
+        builder.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buf[pos++];
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c == '\\') {
+                builder.append(readEscapeCharacter());
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    private char readEscapeCharacter() throws JSONException {
+        int escaped = read();
+        switch (escaped) {
+            case -1:
+                throw syntaxError("Unterminated escape sequence");
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int hex = read();
+                    int digit = hex == -1 ? -1 : JSONTokener.dehexchar((char) hex);
+                    if (digit == -1) {
+                        throw syntaxError("Invalid escape sequence");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return (char) escaped;
+        }
+    }
+
+    /**
+     * Reads a null, boolean or numeric literal. Numeric values will be returned as an Integer, Long, or Double,
+     * in that order of preference, same as {@link JSONTokener}.
+     */
+    private Object readLiteral() throws JSONException {
+        StringBuilder builder = scratch;
+        builder.setLength(0);
+        while (pos < limit || fill()) {
+            char c = buf[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == ':') {
+                break;
+            }
+            builder.append(c);
+            pos++;
+        }
+        int length = builder.length();
+        if (length == 0) {
+            throw syntaxError("Expected literal value");
+        }
+        char first = builder.charAt(0);
+        if (first == 'n' && "null".contentEquals(builder)) {
+            return JSONObject.NULL;
+        } else if (first == 't' && "true".contentEquals(builder)) {
+            return Boolean.TRUE;
+        } else if (first == 'f' && "false".contentEquals(builder)) {
+            return Boolean.FALSE;
+        }
+        // integral values up to 18 digits can't overflow a long
+        boolean integral = length <= 18;
+        for (int i = (first == '-' ? 1 : 0); integral && i < length; i++) {
+            char c = builder.charAt(i);
+            integral = c >= '0' && c <= '9';
+        }
+        if (integral && length > (first == '-' ? 1 : 0)) {
+            long longValue = 0;
+            for (int i = (first == '-' ? 1 : 0); i < length; i++) {
+                longValue = longValue * 10 + (builder.charAt(i) - '0');
+            }
+            if (first == '-') {
+                longValue = -longValue;
+            }
+            if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                return (int) longValue;
+            } else {
+                return longValue;
+            }
+        }
+        String literal = builder.toString();
+        if (literal.indexOf('.') == -1) {
+            try {
+                return Long.parseLong(literal);
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        try {
+            return Double.valueOf(literal);
+        } catch (NumberFormatException nfe) {
+            throw syntaxError("Unexpected literal " + literal);
+        }
+    }
+
+    private int nextClean() throws JSONException {
+        while (pos < limit || fill()) {
+            char c = buf[pos++];
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private int read() throws JSONException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++];
+    }
+
+    private boolean fill() throws JSONException {
+        try {
+            consumed += limit;
+            pos = 0;
+            limit = 0;
+            if (in == null) {
+                limit = decode();
+                return limit > 0;
+            }
+            int n;
+            while ((n = in.read(buf, 0, buf.length)) == 0) {
+                // keep reading until the reader makes progress
+            }
+            if (n == -1) {
+                return false;
+            }
+            limit = n;
+            return true;
+        } catch (IOException ioe) {
+            throw new JSONException("Error reading JSON data", ioe);
+        }
+    }
+
+    /**
+     * Decodes UTF-8 from the byte source into buf. Malformed sequences are replaced with U+FFFD.
+     *
+     * @return number of chars decoded, 0 at the end of the source
+     */
+    private int decode() {
+        int n = 0;
+        // keeps room for the second half of a surrogate pair
+        int max = buf.length - 1;
+        while (n < max && bytesPos < bytesLimit) {
+            int b = bytes[bytesPos];
+            if (b >= 0) {
+                buf[n++] = (char) b;
+                bytesPos++;
+                continue;
+            }
+            // lead byte, and the range of the second byte which rules out overlong forms and code points past
+            // U+10FFFF. malformed sequences are replaced the same way java.nio does
+            b &= 0xff;
+            int length;
+            int cp;
+            int lo = 0x80;
+            int hi = 0xbf;
+            if (b >= 0xc2 && b <= 0xdf) {
+                length = 2;
+                cp = b & 0x1f;
+            } else if (b >= 0xe0 && b <= 0xef) {
+                length = 3;
+                cp = b & 0x0f;
+                if (b == 0xe0) {
+                    lo = 0xa0;
+                }
+            } else if (b >= 0xf0 && b <= 0xf4) {
+                length = 4;
+                cp = b & 0x07;
+                if (b == 0xf0) {
+                    lo = 0x90;
+                } else if (b == 0xf4) {
+                    hi = 0x8f;
+                }
+            } else {
+                buf[n++] = '\ufffd';
+                bytesPos++;
+                continue;
+            }
+            int i = 1;
+            for (; i < length && bytesPos + i < bytesLimit; i++) {
+                int next = bytes[bytesPos + i] & 0xff;
+                if (next < lo || next > hi) {
+                    break;
+                }
+                cp = cp << 6 | (next & 0x3f);
+                lo = 0x80;
+                hi = 0xbf;
+            }
+            if (i < length || (cp >= 0xd800 && cp <= 0xdfff)) {
+                // truncated, or an encoded surrogate
+                buf[n++] = '\ufffd';
+                bytesPos += i;
+                continue;
+            }
+            bytesPos += length;
+            if (cp < 0x10000) {
+                buf[n++] = (char) cp;
+            } else {
+                buf[n++] = Character.highSurrogate(cp);
+                buf[n++] = Character.lowSurrogate(cp);
+            }
+        }
+        return n;
+    }
+
+    private static String describe(int c) {
+        return c == -1 ? "end of input" : "'" + (char) c + "'";
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + (consumed + pos));
+    }
+
+    @Override
+    public String toString() {
+        return "JSONPullParser{" +
+                "position=" + (consumed + pos) +
+                '}';
+    }
+}
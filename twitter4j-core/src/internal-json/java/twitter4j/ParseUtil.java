@@ -21,10 +21,11 @@ import java.net.URLDecoder;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A tiny parse utility class.
@@ -95,14 +96,23 @@ final class ParseUtil {
         }
     }
 
-    private final static Map<String, LinkedBlockingQueue<SimpleDateFormat>> formatMapQueue = new HashMap<String,
-            LinkedBlockingQueue<SimpleDateFormat>>();
+    private final static ConcurrentMap<String, Queue<SimpleDateFormat>> formatMapQueue =
+            new ConcurrentHashMap<String, Queue<SimpleDateFormat>>();
 
     public static Date getDate(String dateString, String format) throws TwitterException {
-        LinkedBlockingQueue<SimpleDateFormat> simpleDateFormats = formatMapQueue.get(format);
+        if (isCreatedAtFormat(format)) {
+            Date createdAt = CreatedAtParser.parse(dateString);
+            if (createdAt != null) {
+                return createdAt;
+            }
+        }
+        Queue<SimpleDateFormat> simpleDateFormats = formatMapQueue.get(format);
         if (simpleDateFormats == null) {
-            simpleDateFormats = new LinkedBlockingQueue<SimpleDateFormat>();
-            formatMapQueue.put(format, simpleDateFormats);
+            simpleDateFormats = new ConcurrentLinkedQueue<SimpleDateFormat>();
+            Queue<SimpleDateFormat> existing = formatMapQueue.putIfAbsent(format, simpleDateFormats);
+            if (existing != null) {
+                simpleDateFormats = existing;
+            }
         }
         SimpleDateFormat sdf = simpleDateFormats.poll();
         if (null == sdf) {
@@ -114,15 +124,14 @@ final class ParseUtil {
         } catch (ParseException pe) {
             throw new TwitterException("Unexpected date format(" + dateString + ") returned from twitter.com", pe);
         } finally {
-            try {
-                simpleDateFormats.put(sdf);
-            } catch (InterruptedException ignore) {
-                // the size of LinkedBlockingQueue is Integer.MAX by default.
-                // there is no need to concern about this situation
-            }
+            simpleDateFormats.offer(sdf);
         }
     }
 
+    private static boolean isCreatedAtFormat(String format) {
+        return "EEE MMM d HH:mm:ss z yyyy".equals(format) || "EEE MMM dd HH:mm:ss z yyyy".equals(format);
+    }
+
     public static int getInt(String name, JSONObject json) {
         return getInt(getRawString(name, json));
     }
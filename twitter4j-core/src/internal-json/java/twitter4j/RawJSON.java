@@ -0,0 +1,236 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Raw JSON form of a model object, kept as a slice of the UTF-8 encoded response body it was parsed from.<br>
+ * Slices taken from the same response share its body instead of copying it, and are decoded only when
+ * {@link #toString()} is called. Elements of a list are retained as copies of their own bytes, so that
+ * keeping one of them doesn't keep the whole response body reachable. Immutable and thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.conf.Configuration#isRawJSONRetentionEnabled()
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class RawJSON {
+    private static final Logger logger = Logger.getLogger(RawJSON.class);
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    private RawJSON(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Reads the response body, logged at debug level as {@link HttpResponse#asString()} does.
+     *
+     * @param res response to read the body from
+     * @return the whole response body, without surrounding whitespaces
+     * @throws TwitterException when the response has no body or there is any network issue upon response body consumption
+     */
+    /*package*/ static RawJSON of(HttpResponse res) throws TwitterException {
+        byte[] body = res.asBytes();
+        int start = 0;
+        int end = body.length;
+        while (start < end && isWhitespace(body[start])) {
+            start++;
+        }
+        while (end > start && isWhitespace(body[end - 1])) {
+            end--;
+        }
+        RawJSON raw = new RawJSON(body, start, end - start);
+        if (logger.isDebugEnabled()) {
+            logger.debug(raw.toString());
+        }
+        return raw;
+    }
+
+    /**
+     * @return the slice parsed as a JSONObject
+     * @throws TwitterException when the slice is not a JSON object
+     */
+    /*package*/ JSONObject asJSONObject() throws TwitterException {
+        try {
+            return new JSONPullParser(bytes, offset, length).nextObject();
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+    }
+
+    /**
+     * @return slice backed by an array of its own bytes
+     */
+    /*package*/ RawJSON copy() {
+        if (offset == 0 && length == bytes.length) {
+            return this;
+        }
+        return new RawJSON(Arrays.copyOfRange(bytes, offset, offset + length), 0, length);
+    }
+
+    /**
+     * Binds an element of a JSON array.
+     *
+     * @param <T> type of the model object
+     */
+    /*package*/ interface Binder<T> {
+        /**
+         * @param json element parsed as a JSONObject
+         * @param raw  raw JSON form of the element, to be retained by the model object
+         * @return the model object
+         * @throws TwitterException when the element can't be bound
+         */
+        T bind(JSONObject json, RawJSON raw) throws TwitterException;
+    }
+
+    /**
+     * Binds a JSON array response, retaining the raw JSON forms of the list and of its elements.
+     *
+     * @param res    response containing a JSON array
+     * @param conf   configuration
+     * @param binder binds each element
+     * @param <T>    type of the elements
+     * @return list of the bound elements
+     * @throws TwitterException when the response is not a well-formed JSON array or an element can't be bound
+     */
+    /*package*/ static <T> ResponseList<T> createList(HttpResponse res, Configuration conf, Binder<T> binder) throws TwitterException {
+        RawJSON raw = of(res);
+        if (conf.isJSONStoreEnabled()) {
+            TwitterObjectFactory.clearThreadLocalMap();
+        }
+        // elements are parsed one by one while binding, so the whole loop is reported as parsing
+        long start = System.nanoTime();
+        List<RawJSON> elements = raw.elements();
+        ResponseListImpl<T> list = new ResponseListImpl<T>(elements.size(), res);
+        for (RawJSON element : elements) {
+            JSONObject json = element.asJSONObject();
+            T bound = binder.bind(json, element.copy());
+            if (conf.isJSONStoreEnabled()) {
+                TwitterObjectFactory.registerJSONObject(bound, json);
+            }
+            list.add(bound);
+        }
+        res.getTrace().phase(RequestTracer.Phase.PARSE, System.nanoTime() - start);
+        list.setRawJSON(raw);
+        if (conf.isJSONStoreEnabled()) {
+            TwitterObjectFactory.registerJSONObject(list, raw);
+        }
+        return list;
+    }
+
+    /**
+     * Splits a JSON array into slices of its elements. The elements themselves are not parsed.
+     *
+     * @return slices of the array elements, sharing this slice's bytes
+     * @throws TwitterException when the slice is not a well-formed JSON array
+     */
+    /*package*/ List<RawJSON> elements() throws TwitterException {
+        int end = offset + length;
+        int i = skipWhitespaces(offset, end);
+        if (i == end || bytes[i] != '[') {
+            throw new TwitterException("A JSONArray text must start with '['");
+        }
+        List<RawJSON> elements = new ArrayList<RawJSON>();
+        i = skipWhitespaces(i + 1, end);
+        if (i < end && bytes[i] == ']') {
+            return elements;
+        }
+        while (true) {
+            int start = skipWhitespaces(i, end);
+            i = skipValue(start, end);
+            if (i == start) {
+                throw new TwitterException("Missing value at byte " + (start - offset));
+            }
+            elements.add(new RawJSON(bytes, start, i - start));
+            i = skipWhitespaces(i, end);
+            if (i == end) {
+                throw new TwitterException("Unterminated array");
+            }
+            byte b = bytes[i++];
+            if (b == ']') {
+                return elements;
+            } else if (b != ',') {
+                throw new TwitterException("Expected a ',' or ']' at byte " + (i - 1 - offset));
+            }
+        }
+    }
+
+    // bytes of multi-byte UTF-8 sequences are all >= 0x80, so structural characters can be matched byte by byte
+    private int skipValue(int i, int end) throws TwitterException {
+        int depth = 0;
+        boolean inString = false;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (inString) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inString = false;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (depth == 0) {
+                    return i;
+                }
+                if (--depth == 0) {
+                    return i + 1;
+                }
+            } else if (depth == 0 && (b == ',' || isWhitespace(b))) {
+                return i;
+            }
+        }
+        if (depth != 0 || inString) {
+            throw new TwitterException("Unterminated value");
+        }
+        return end;
+    }
+
+    private int skipWhitespaces(int i, int end) {
+        while (i < end && isWhitespace(bytes[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * @return the slice decoded as a String
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+}
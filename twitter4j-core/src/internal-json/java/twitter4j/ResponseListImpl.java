@@ -26,6 +26,8 @@ class ResponseListImpl<T> extends ArrayList<T> implements ResponseList<T> {
     private static final long serialVersionUID = 9105950888010803544L;
     private transient RateLimitStatus rateLimitStatus = null;
     private transient int accessLevel;
+    // set only when rawJSONRetentionEnabled, see RawJSON
+    private transient RawJSON rawJSON = null;
 
     ResponseListImpl(HttpResponse res) {
         super();
@@ -57,4 +59,12 @@ class ResponseListImpl<T> extends ArrayList<T> implements ResponseList<T> {
     public int getAccessLevel() {
         return accessLevel;
     }
+
+    /*package*/ RawJSON getRawJSON() {
+        return rawJSON;
+    }
+
+    /*package*/ void setRawJSON(RawJSON rawJSON) {
+        this.rawJSON = rawJSON;
+    }
 }
@@ -75,8 +75,17 @@ import twitter4j.conf.Configuration;
 
     /*package*/StatusJSONImpl(HttpResponse res, Configuration conf) throws TwitterException {
         super(res);
-        JSONObject json = res.asJSONObject();
-        init(json);
+        JSONObject json;
+        if (conf.isRawJSONRetentionEnabled()) {
+            RawJSON raw = RawJSON.of(res);
+            long start = System.nanoTime();
+            json = raw.asJSONObject();
+            res.getTrace().phase(RequestTracer.Phase.PARSE, System.nanoTime() - start);
+            setRawJSON(raw);
+        } else {
+            json = res.asJSONObject();
+        }
+        init(json, UserCache.getInstance(conf));
         if (conf.isJSONStoreEnabled()) {
             TwitterObjectFactory.clearThreadLocalMap();
             TwitterObjectFactory.registerJSONObject(this, json);
@@ -85,7 +94,7 @@ import twitter4j.conf.Configuration;
 
     /*package*/StatusJSONImpl(JSONObject json, Configuration conf) throws TwitterException {
         super();
-        init(json);
+        init(json, UserCache.getInstance(conf));
         if (conf.isJSONStoreEnabled()) {
             TwitterObjectFactory.registerJSONObject(this, json);
         }
@@ -93,7 +102,16 @@ import twitter4j.conf.Configuration;
 
     /*package*/ StatusJSONImpl(JSONObject json) throws TwitterException {
         super();
-        init(json);
+        init(json, null);
+    }
+
+    /**
+     * @param json      status JSON object
+     * @param userCache cache to canonicalize the users with, or null
+     */
+    /*package*/ StatusJSONImpl(JSONObject json, UserCache userCache) throws TwitterException {
+        super();
+        init(json, userCache);
     }
 
     /* Only for serialization purposes. */
@@ -101,7 +119,7 @@ import twitter4j.conf.Configuration;
 
     }
 
-    private void init(JSONObject json) throws TwitterException {
+    private void init(JSONObject json, UserCache userCache) throws TwitterException {
         id = ParseUtil.getLong("id", json);
         source = ParseUtil.getUnescapedString("source", json);
         createdAt = getDate("created_at", json);
@@ -116,7 +134,8 @@ import twitter4j.conf.Configuration;
         isPossiblySensitive = ParseUtil.getBoolean("possibly_sensitive", json);
         try {
             if (!json.isNull("user")) {
-                user = new UserJSONImpl(json.getJSONObject("user"));
+                JSONObject userJSON = json.getJSONObject("user");
+                user = userCache != null ? userCache.getUser(userJSON) : new UserJSONImpl(userJSON);
             }
             geoLocation = JSONImplFactory.createGeoLocation(json);
             if (!json.isNull("place")) {
@@ -124,7 +143,7 @@ import twitter4j.conf.Configuration;
             }
 
             if (!json.isNull("retweeted_status")) {
-                retweetedStatus = new StatusJSONImpl(json.getJSONObject("retweeted_status"));
+                retweetedStatus = new StatusJSONImpl(json.getJSONObject("retweeted_status"), userCache);
             }
             if (!json.isNull("contributors")) {
                 JSONArray contributorsArray = json.getJSONArray("contributors");
@@ -138,12 +157,6 @@ import twitter4j.conf.Configuration;
 
             collectEntities(json);
             mergeExtendedEntities(json);
-            if (!json.isNull("quoted_status")) {
-                quotedStatus = new StatusJSONImpl(json.getJSONObject("quoted_status"));
-            }
-            if (!json.isNull("quoted_status_id")) {
-                quotedStatusId = ParseUtil.getLong("quoted_status_id", json);
-            }
 
             // edit controls
             JSONObject extEditControlJson = json.optJSONObject("ext_edit_control");
@@ -159,10 +172,6 @@ import twitter4j.conf.Configuration;
                 }
             }
 
-            if (!json.isNull("quoted_status")) {
-                quotedStatus = new StatusJSONImpl(json.getJSONObject("quoted_status"));
-            }
-
             if (!json.isNull("display_text_range")) {
                 JSONArray indicesArray = json.getJSONArray("display_text_range");
                 displayTextRangeStart = indicesArray.getInt(0);
@@ -183,8 +192,17 @@ import twitter4j.conf.Configuration;
                         urlEntities, hashtagEntities, mediaEntities);
             }
 
+            JSONObject quotedStatusJSON = json.isNull("quoted_status") ? null : json.getJSONObject("quoted_status");
             if (!json.isNull("extended_tweet")) {
-                mergeExtendedTweet(json.getJSONObject("extended_tweet"));
+                JSONObject extendedTweet = json.getJSONObject("extended_tweet");
+                mergeExtendedTweet(extendedTweet);
+                if (!extendedTweet.isNull("quoted_status")) {
+                    quotedStatusJSON = extendedTweet.getJSONObject("quoted_status");
+                }
+            }
+            // bind the nested status only once, as a quote of a quote would otherwise be bound exponentially many times
+            if (quotedStatusJSON != null) {
+                quotedStatus = new StatusJSONImpl(quotedStatusJSON, userCache);
             }
 
             if (!json.isNull("current_user_retweet")) {
@@ -228,9 +246,6 @@ import twitter4j.conf.Configuration;
             symbolEntities = EntitiesParseUtil.getSymbols(entities);
             mediaEntities = EntitiesParseUtil.getMedia(entities);
         }
-        if (!json.isNull("quoted_status")) {
-            quotedStatus = new StatusJSONImpl(json.getJSONObject("quoted_status"));
-        }
         if (!json.isNull("quoted_status_id")) {
             quotedStatusId = ParseUtil.getLong("quoted_status_id", json);
         }
@@ -532,6 +547,17 @@ import twitter4j.conf.Configuration;
 
     /*package*/
     static ResponseList<Status> createStatusList(HttpResponse res, Configuration conf) throws TwitterException {
+        if (conf.isRawJSONRetentionEnabled()) {
+            final UserCache userCache = UserCache.getInstance(conf);
+            return RawJSON.createList(res, conf, new RawJSON.Binder<Status>() {
+                @Override
+                public Status bind(JSONObject json, RawJSON raw) throws TwitterException {
+                    StatusJSONImpl status = new StatusJSONImpl(json, userCache);
+                    status.setRawJSON(raw);
+                    return status;
+                }
+            });
+        }
         try {
             if (conf.isJSONStoreEnabled()) {
                 TwitterObjectFactory.clearThreadLocalMap();
@@ -539,9 +565,10 @@ import twitter4j.conf.Configuration;
             JSONArray list = res.asJSONArray();
             int size = list.length();
             ResponseList<Status> statuses = new ResponseListImpl<Status>(size, res);
+            UserCache userCache = UserCache.getInstance(conf);
             for (int i = 0; i < size; i++) {
                 JSONObject json = list.getJSONObject(i);
-                Status status = new StatusJSONImpl(json);
+                Status status = new StatusJSONImpl(json, userCache);
                 if (conf.isJSONStoreEnabled()) {
                     TwitterObjectFactory.registerJSONObject(status, json);
                 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+/**
+ * An {@link ObjectFactory} which binds array responses (timelines, statuses/lookup, users/lookup, ...) straight from
+ * the response stream.<br>
+ * {@link JSONImplFactory} reads the whole body into a String, tokenizes it into a JSONArray holding every element
+ * tree, and only then binds each element. This factory pulls one element at a time with {@link JSONPullParser} and
+ * binds it immediately, so neither the body String nor the full array tree is ever materialized.<br>
+ * Each element is still read into its own JSONObject and bound by the same constructors {@link JSONImplFactory}
+ * uses; what is saved is the memory held by the rest of the array, as only one element tree is alive at a time.<br>
+ * When the JSON store or raw JSON retention is enabled, the raw document needs to be retained anyway, so the factory
+ * falls back to {@link JSONImplFactory}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.conf.Configuration#isStreamingJSONParserEnabled()
+ * @since Twitter4J 4.0.8
+ */
+class StreamingJSONImplFactory extends JSONImplFactory {
+    private static final long serialVersionUID = 3937421547633125484L;
+    private final Configuration conf;
+
+    public StreamingJSONImplFactory(Configuration conf) {
+        super(conf);
+        this.conf = conf;
+    }
+
+    @Override
+    public ResponseList<Status> createStatusList(HttpResponse res) throws TwitterException {
+        if (conf.isJSONStoreEnabled() || conf.isRawJSONRetentionEnabled()) {
+            return super.createStatusList(res);
+        }
+        long start = System.nanoTime();
+        JSONPullParser parser = res.asJSONPullParser();
+        try {
+            ResponseList<Status> statuses = new ResponseListImpl<Status>(res);
+            UserCache userCache = UserCache.getInstance(conf);
+            parser.beginArray();
+            while (parser.hasNext()) {
+                statuses.add(new StatusJSONImpl(parser.nextObject(), userCache));
+            }
+            return statuses;
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        } finally {
+            close(parser, res, start);
+        }
+    }
+
+    @Override
+    public ResponseList<User> createUserList(HttpResponse res) throws TwitterException {
+        return createUserListFromJSONArray(res);
+    }
+
+    @Override
+    public ResponseList<User> createUserListFromJSONArray(HttpResponse res) throws TwitterException {
+        if (conf.isJSONStoreEnabled() || conf.isRawJSONRetentionEnabled()) {
+            return super.createUserListFromJSONArray(res);
+        }
+        long start = System.nanoTime();
+        JSONPullParser parser = res.asJSONPullParser();
+        try {
+            ResponseList<User> users = new ResponseListImpl<User>(res);
+            parser.beginArray();
+            while (parser.hasNext()) {
+                users.add(new UserJSONImpl(parser.nextObject()));
+            }
+            return users;
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        } finally {
+            close(parser, res, start);
+        }
+    }
+
+    private static void close(JSONPullParser parser, HttpResponse res, long start) {
+        // reading and parsing are interleaved, so the whole pull is reported as parsing
+        res.getTrace().phase(RequestTracer.Phase.PARSE, System.nanoTime() - start);
+        parser.close();
+        try {
+            res.disconnect();
+        } catch (Exception ignore) {
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof StreamingJSONImplFactory && super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingJSONImplFactory{" +
+                "conf=" + conf +
+                '}';
+    }
+}
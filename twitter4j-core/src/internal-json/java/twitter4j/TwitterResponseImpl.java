@@ -30,6 +30,8 @@ package twitter4j;
     private static final long serialVersionUID = 7422171124869859808L;
     private transient RateLimitStatus rateLimitStatus = null;
     private final transient int accessLevel;
+    // set only when rawJSONRetentionEnabled, see RawJSON
+    private transient RawJSON rawJSON = null;
 
     public TwitterResponseImpl() {
         accessLevel = NONE;
@@ -49,4 +51,12 @@ package twitter4j;
     public int getAccessLevel() {
         return accessLevel;
     }
+
+    /*package*/ RawJSON getRawJSON() {
+        return rawJSON;
+    }
+
+    /*package*/ void setRawJSON(RawJSON rawJSON) {
+        this.rawJSON = rawJSON;
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizing cache of the users embedded in statuses, so that statuses by the same user share one {@link User}
+ * instance within and across responses.<br>
+ * A cached user is reused as long as its statuses_count is unchanged and it was parsed less than
+ * {@link Configuration#getUserCacheMaxAgeMillis()} ago; otherwise the embedded user is parsed and replaces the cached
+ * one. Users are weakly referenced and at most {@link Configuration#getUserCacheMaxEntries()} ids are remembered, least
+ * recently used first out, so the cache itself never keeps a user alive.<br>
+ * Thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class UserCache {
+    // weakly keyed, so that neither the configurations (credentials included) nor their caches outlive their users.
+    // guarded by itself
+    private static final Map<Configuration, UserCache> confCacheMap = new WeakHashMap<Configuration, UserCache>();
+
+    private final long maxAgeMillis;
+    // guarded by itself
+    private final LinkedHashMap<Long, CachedUser> users;
+
+    private static final class CachedUser extends WeakReference<User> {
+        private final int statusesCount;
+        private final long parsedAt;
+
+        CachedUser(User user, int statusesCount, long parsedAt) {
+            super(user);
+            this.statusesCount = statusesCount;
+            this.parsedAt = parsedAt;
+        }
+    }
+
+    /*package*/ UserCache(final int maxEntries, long maxAgeMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.users = new LinkedHashMap<Long, CachedUser>(16, 0.75f, true) {
+            private static final long serialVersionUID = -1306278543916224834L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedUser> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param conf configuration
+     * @return cache shared by the factories with the given configuration, or null if the cache is disabled
+     */
+    /*package*/ static UserCache getInstance(Configuration conf) {
+        if (conf == null || conf.getUserCacheMaxEntries() <= 0) {
+            return null;
+        }
+        synchronized (confCacheMap) {
+            UserCache cache = confCacheMap.get(conf);
+            if (cache == null) {
+                cache = new UserCache(conf.getUserCacheMaxEntries(), conf.getUserCacheMaxAgeMillis());
+                confCacheMap.put(conf, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * @param json user JSON object
+     * @return the cached user with the same id if still fresh, or the newly parsed user
+     * @throws TwitterException when the user couldn't be parsed
+     */
+    /*package*/ User getUser(JSONObject json) throws TwitterException {
+        long id = ParseUtil.getLong("id", json);
+        // users carrying their latest status aren't interchangeable with the ones embedded in statuses
+        if (id == -1 || !json.isNull("status")) {
+            return new UserJSONImpl(json);
+        }
+        int statusesCount = ParseUtil.getInt("statuses_count", json);
+        long now = System.currentTimeMillis();
+        synchronized (users) {
+            CachedUser cached = users.get(id);
+            if (cached != null && cached.statusesCount == statusesCount && now - cached.parsedAt < maxAgeMillis) {
+                User user = cached.get();
+                if (user != null) {
+                    return user;
+                }
+            }
+        }
+        User user = new UserJSONImpl(json);
+        synchronized (users) {
+            users.put(id, new CachedUser(user, statusesCount, now));
+        }
+        return user;
+    }
+
+    /*package*/ int size() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+}
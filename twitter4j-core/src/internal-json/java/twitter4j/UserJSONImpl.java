@@ -70,7 +70,16 @@ import twitter4j.conf.Configuration;
         if (conf.isJSONStoreEnabled()) {
             TwitterObjectFactory.clearThreadLocalMap();
         }
-        JSONObject json = res.asJSONObject();
+        JSONObject json;
+        if (conf.isRawJSONRetentionEnabled()) {
+            RawJSON raw = RawJSON.of(res);
+            long start = System.nanoTime();
+            json = raw.asJSONObject();
+            res.getTrace().phase(RequestTracer.Phase.PARSE, System.nanoTime() - start);
+            setRawJSON(raw);
+        } else {
+            json = res.asJSONObject();
+        }
         init(json);
         if (conf.isJSONStoreEnabled()) {
             TwitterObjectFactory.registerJSONObject(this, json);
@@ -471,6 +480,16 @@ import twitter4j.conf.Configuration;
 
     /*package*/
     static ResponseList<User> createUserList(HttpResponse res, Configuration conf) throws TwitterException {
+        if (conf.isRawJSONRetentionEnabled()) {
+            return RawJSON.createList(res, conf, new RawJSON.Binder<User>() {
+                @Override
+                public User bind(JSONObject json, RawJSON raw) throws TwitterException {
+                    UserJSONImpl user = new UserJSONImpl(json);
+                    user.setRawJSON(raw);
+                    return user;
+                }
+            });
+        }
         return createUserList(res.asJSONArray(), res, conf);
     }
 
@@ -18,6 +18,9 @@ package twitter4j.management;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Container for all InvocationStatisticsCalculators in a given API (like Twitter)
@@ -26,7 +29,7 @@ import java.util.Map;
  */
 public class APIStatistics implements APIStatisticsMBean {
     private final InvocationStatisticsCalculator API_STATS_CALCULATOR;
-    private final Map<String, InvocationStatisticsCalculator> METHOD_STATS_MAP;
+    private final ConcurrentMap<String, InvocationStatisticsCalculator> METHOD_STATS_MAP;
     private final int HISTORY_SIZE;
 
     /**
@@ -34,39 +37,54 @@ public class APIStatistics implements APIStatisticsMBean {
      */
     public APIStatistics(int historySize) {
         API_STATS_CALCULATOR = new InvocationStatisticsCalculator("API", historySize);
-        METHOD_STATS_MAP = new HashMap<String, InvocationStatisticsCalculator>(100);
+        METHOD_STATS_MAP = new ConcurrentHashMap<String, InvocationStatisticsCalculator>(100);
         HISTORY_SIZE = historySize;
     }
 
     /**
      * @param method   the method invoked
-     * @param time     the method execution time
+     * @param time     the method execution time in milliseconds
      * @param success success
      */
-    public synchronized void methodCalled(String method, long time, boolean success) {
-        getMethodStatistics(method).increment(time, success);
+    public void methodCalled(String method, long time, boolean success) {
+        methodCalled(method, time, TimeUnit.MILLISECONDS, success);
+    }
+
+    /**
+     * @param method  the method invoked
+     * @param time    the method execution time
+     * @param unit    unit of the execution time
+     * @param success success
+     * @since Twitter4J 4.0.8
+     */
+    public void methodCalled(String method, long time, TimeUnit unit, boolean success) {
+        long nanos = unit.toNanos(time);
+        getMethodStatistics(method).record(nanos, success);
 
         // increment for entire API
-        API_STATS_CALCULATOR.increment(time, success);
+        API_STATS_CALCULATOR.record(nanos, success);
     }
 
-    private synchronized InvocationStatisticsCalculator getMethodStatistics(String method) {
+    private InvocationStatisticsCalculator getMethodStatistics(String method) {
         InvocationStatisticsCalculator methodStats = METHOD_STATS_MAP.get(method);
 
         if (methodStats == null) {
             methodStats = new InvocationStatisticsCalculator(method, HISTORY_SIZE);
-            METHOD_STATS_MAP.put(method, methodStats);
+            InvocationStatisticsCalculator existing = METHOD_STATS_MAP.putIfAbsent(method, methodStats);
+            if (existing != null) {
+                methodStats = existing;
+            }
         }
         return methodStats;
     }
 
     @Override
-    public synchronized Iterable<? extends InvocationStatistics> getInvocationStatistics() {
+    public Iterable<? extends InvocationStatistics> getInvocationStatistics() {
         return METHOD_STATS_MAP.values();
     }
 
     @Override
-    public synchronized void reset() {
+    public void reset() {
         API_STATS_CALCULATOR.reset();
         METHOD_STATS_MAP.clear();
     }
@@ -101,7 +119,17 @@ public class APIStatistics implements APIStatisticsMBean {
     }
 
     @Override
-    public synchronized Map<String, String> getMethodLevelSummariesAsString() {
+    public long getPercentileTimeNanos(double percentile) {
+        return API_STATS_CALCULATOR.getPercentileTimeNanos(percentile);
+    }
+
+    @Override
+    public long getMaxTimeNanos() {
+        return API_STATS_CALCULATOR.getMaxTimeNanos();
+    }
+
+    @Override
+    public Map<String, String> getMethodLevelSummariesAsString() {
         Map<String, String> summariesMap = new HashMap<String, String>();
 
         Collection<InvocationStatisticsCalculator> allMethodStats = METHOD_STATS_MAP.values();
@@ -113,7 +141,7 @@ public class APIStatistics implements APIStatisticsMBean {
     }
 
     @Override
-    public synchronized String getMethodLevelSummary(String methodName) {
+    public String getMethodLevelSummary(String methodName) {
         return METHOD_STATS_MAP.get(methodName).toString();
     }
-}
\ No newline at end of file
+}
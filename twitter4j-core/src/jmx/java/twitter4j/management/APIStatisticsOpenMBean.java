@@ -27,15 +27,21 @@ import javax.management.openmbean.*;
  */
 public class APIStatisticsOpenMBean implements DynamicMBean {
     // metadata
-    private static final String[] ITEM_NAMES = {"methodName", "callCount", "errorCount", "totalTime", "avgTime"};
+    private static final String[] ITEM_NAMES = {"methodName", "callCount", "errorCount", "totalTime", "avgTime",
+            "p50Time", "p99Time", "p999Time", "maxTime"};
     private static final OpenType[] ITEM_TYPES =
-            {SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG};
+            {SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG,
+                    SimpleType.DOUBLE, SimpleType.DOUBLE, SimpleType.DOUBLE, SimpleType.DOUBLE};
     private static final String[] ITEM_DESCRIPTIONS =
             {"The method name",
                     "The number of times this method has been called",
                     "The number of calls that failed",
                     "The total amount of time spent invoking this method in milliseconds",
-                    "The average amount of time spent invoking this method in milliseconds"};
+                    "The average amount of time spent invoking this method in milliseconds",
+                    "The median time spent invoking this method in milliseconds",
+                    "The 99th percentile of the time spent invoking this method in milliseconds",
+                    "The 99.9th percentile of the time spent invoking this method in milliseconds",
+                    "The longest time spent invoking this method in milliseconds"};
     private final CompositeType METHOD_STATS_TYPE;
 
     private final APIStatisticsMBean API_STATISTICS;
@@ -62,7 +68,7 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
     @Override
     public MBeanInfo getMBeanInfo() {
         OpenMBeanInfoSupport info;
-        OpenMBeanAttributeInfoSupport[] attributes = new OpenMBeanAttributeInfoSupport[5];
+        OpenMBeanAttributeInfoSupport[] attributes = new OpenMBeanAttributeInfoSupport[9];
         OpenMBeanConstructorInfoSupport[] constructors = new OpenMBeanConstructorInfoSupport[1];
         OpenMBeanOperationInfoSupport[] operations = new OpenMBeanOperationInfoSupport[1];
         MBeanNotificationInfo[] notifications = new MBeanNotificationInfo[0];
@@ -88,6 +94,26 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                         "Average time spent invoking any API method",
                         SimpleType.LONG, true, false, false);
 
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("p50Time",
+                        "Median time spent invoking any API method in milliseconds",
+                        SimpleType.DOUBLE, true, false, false);
+
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("p99Time",
+                        "99th percentile of the time spent invoking any API method in milliseconds",
+                        SimpleType.DOUBLE, true, false, false);
+
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("p999Time",
+                        "99.9th percentile of the time spent invoking any API method in milliseconds",
+                        SimpleType.DOUBLE, true, false, false);
+
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("maxTime",
+                        "Longest time spent invoking any API method in milliseconds",
+                        SimpleType.DOUBLE, true, false, false);
+
         attributes[attrIdx++] =
                 new OpenMBeanAttributeInfoSupport("statisticsTable",
                         "Table of statisics for all API methods",
@@ -121,7 +147,11 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                     methodStats.getCallCount(),
                     methodStats.getErrorCount(),
                     methodStats.getTotalTime(),
-                    methodStats.getAverageTime()};
+                    methodStats.getAverageTime(),
+                    toMillis(methodStats.getPercentileTimeNanos(50)),
+                    toMillis(methodStats.getPercentileTimeNanos(99)),
+                    toMillis(methodStats.getPercentileTimeNanos(99.9)),
+                    toMillis(methodStats.getMaxTimeNanos())};
 
             try {
                 CompositeData result = new CompositeDataSupport(METHOD_STATS_TYPE,
@@ -141,6 +171,10 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
         API_STATISTICS.reset();
     }
 
+    private static Double toMillis(long nanos) {
+        return nanos / 1000000d;
+    }
+
     @Override
     public Object getAttribute(String attribute)
             throws AttributeNotFoundException, MBeanException, ReflectionException {
@@ -154,6 +188,14 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
             return API_STATISTICS.getTotalTime();
         } else if (attribute.equals("averageTime")) {
             return API_STATISTICS.getAverageTime();
+        } else if (attribute.equals("p50Time")) {
+            return toMillis(API_STATISTICS.getPercentileTimeNanos(50));
+        } else if (attribute.equals("p99Time")) {
+            return toMillis(API_STATISTICS.getPercentileTimeNanos(99));
+        } else if (attribute.equals("p999Time")) {
+            return toMillis(API_STATISTICS.getPercentileTimeNanos(99.9));
+        } else if (attribute.equals("maxTime")) {
+            return toMillis(API_STATISTICS.getMaxTimeNanos());
         }
         throw new AttributeNotFoundException("Cannot find " + attribute + " attribute ");
     }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j.management;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free counters backing {@link ConnectionPoolStatisticsMBean}, updated by the owning HttpClient.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public class ConnectionPoolStatistics implements ConnectionPoolStatisticsMBean {
+    private final String name;
+    private final int maxConnections;
+    private final int maxConnectionsPerHost;
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger peakActiveConnections = new AtomicInteger();
+    private final AtomicInteger hostCount = new AtomicInteger();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong http2ResponseCount = new AtomicLong();
+    private final AtomicLong http1ResponseCount = new AtomicLong();
+    private final AtomicLong poolHitCount = new AtomicLong();
+    private final AtomicLong poolMissCount = new AtomicLong();
+
+    public ConnectionPoolStatistics(String name, int maxConnections, int maxConnectionsPerHost) {
+        this.name = name;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * @param waitTime time in milliseconds spent waiting for the connection, 0 if one was immediately available
+     */
+    public void connectionAcquired(long waitTime) {
+        requestCount.incrementAndGet();
+        if (waitTime > 0) {
+            waitCount.incrementAndGet();
+            totalWaitTime.addAndGet(waitTime);
+        }
+        int active = activeConnections.incrementAndGet();
+        int peak;
+        while (active > (peak = peakActiveConnections.get())) {
+            if (peakActiveConnections.compareAndSet(peak, active)) {
+                break;
+            }
+        }
+    }
+
+    public void connectionReleased() {
+        activeConnections.decrementAndGet();
+    }
+
+    /**
+     * @param reused true if the request was served over a pooled connection, false if a new one had to be opened
+     */
+    public void connectionPooled(boolean reused) {
+        if (reused) {
+            poolHitCount.incrementAndGet();
+        } else {
+            poolMissCount.incrementAndGet();
+        }
+    }
+
+    public void hostAdded() {
+        hostCount.incrementAndGet();
+    }
+
+    /**
+     * @param http2 true if the response was received over HTTP/2
+     */
+    public void responseReceived(boolean http2) {
+        if (http2) {
+            http2ResponseCount.incrementAndGet();
+        } else {
+            http1ResponseCount.incrementAndGet();
+        }
+    }
+
+    public void requestFailed() {
+        errorCount.incrementAndGet();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @Override
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    @Override
+    public int getPeakActiveConnections() {
+        return peakActiveConnections.get();
+    }
+
+    @Override
+    public int getHostCount() {
+        return hostCount.get();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    @Override
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    @Override
+    public long getTotalWaitTime() {
+        return totalWaitTime.get();
+    }
+
+    @Override
+    public long getHttp2ResponseCount() {
+        return http2ResponseCount.get();
+    }
+
+    @Override
+    public long getHttp1ResponseCount() {
+        return http1ResponseCount.get();
+    }
+
+    @Override
+    public long getPoolHitCount() {
+        return poolHitCount.get();
+    }
+
+    @Override
+    public long getPoolMissCount() {
+        return poolMissCount.get();
+    }
+
+    @Override
+    public void reset() {
+        peakActiveConnections.set(activeConnections.get());
+        requestCount.set(0);
+        errorCount.set(0);
+        waitCount.set(0);
+        totalWaitTime.set(0);
+        http2ResponseCount.set(0);
+        http1ResponseCount.set(0);
+        poolHitCount.set(0);
+        poolMissCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStatistics{" +
+                "name='" + name + '\'' +
+                ", maxConnections=" + maxConnections +
+                ", maxConnectionsPerHost=" + maxConnectionsPerHost +
+                ", activeConnections=" + activeConnections +
+                ", peakActiveConnections=" + peakActiveConnections +
+                ", hostCount=" + hostCount +
+                ", requestCount=" + requestCount +
+                ", errorCount=" + errorCount +
+                ", waitCount=" + waitCount +
+                ", totalWaitTime=" + totalWaitTime +
+                ", http2ResponseCount=" + http2ResponseCount +
+                ", http1ResponseCount=" + http1ResponseCount +
+                ", poolHitCount=" + poolHitCount +
+                ", poolMissCount=" + poolMissCount +
+                '}';
+    }
+}
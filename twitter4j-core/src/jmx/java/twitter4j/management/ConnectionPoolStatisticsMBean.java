@@ -0,0 +1,69 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j.management;
+
+/**
+ * Connection pool level statistics of a pooling {@link twitter4j.HttpClient} implementation.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public interface ConnectionPoolStatisticsMBean {
+    public String getName();
+
+    public int getMaxConnections();
+
+    public int getMaxConnectionsPerHost();
+
+    /**
+     * @return number of requests currently holding a connection (or an HTTP/2 stream)
+     */
+    public int getActiveConnections();
+
+    public int getPeakActiveConnections();
+
+    public int getHostCount();
+
+    public long getRequestCount();
+
+    public long getErrorCount();
+
+    /**
+     * @return number of requests which had to wait for a connection because the pool was exhausted
+     */
+    public long getWaitCount();
+
+    /**
+     * @return total time in milliseconds requests spent waiting for a connection
+     */
+    public long getTotalWaitTime();
+
+    public long getHttp2ResponseCount();
+
+    public long getHttp1ResponseCount();
+
+    /**
+     * @return number of requests served over an already open, pooled connection. 0 if the client can't tell
+     */
+    public long getPoolHitCount();
+
+    /**
+     * @return number of requests which had to open a new connection. 0 if the client can't tell
+     */
+    public long getPoolMissCount();
+
+    public void reset();
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j.management;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free counters backing {@link HttpResponseCacheStatisticsMBean}, updated by the owning HttpClient.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public class HttpResponseCacheStatistics implements HttpResponseCacheStatisticsMBean {
+    private final String name;
+    private final int maxEntries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong revalidationCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public HttpResponseCacheStatistics(String name, int maxEntries) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+    }
+
+    public void hit() {
+        hitCount.incrementAndGet();
+    }
+
+    public void miss() {
+        missCount.incrementAndGet();
+    }
+
+    public void revalidated() {
+        revalidationCount.incrementAndGet();
+    }
+
+    public void coalesced() {
+        coalescedCount.incrementAndGet();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getRevalidationCount() {
+        return revalidationCount.get();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    @Override
+    public void reset() {
+        hitCount.set(0);
+        missCount.set(0);
+        revalidationCount.set(0);
+        coalescedCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpResponseCacheStatistics{" +
+                "name='" + name + '\'' +
+                ", maxEntries=" + maxEntries +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", revalidationCount=" + revalidationCount +
+                ", coalescedCount=" + coalescedCount +
+                '}';
+    }
+}
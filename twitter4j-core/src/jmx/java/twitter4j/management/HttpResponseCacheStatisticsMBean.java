@@ -0,0 +1,51 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j.management;
+
+/**
+ * Statistics of the response cache of a {@link twitter4j.HttpClient}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.HttpResponseCache
+ * @since Twitter4J 4.0.8
+ */
+public interface HttpResponseCacheStatisticsMBean {
+    public String getName();
+
+    public int getMaxEntries();
+
+    /**
+     * @return number of requests served from a fresh cache entry
+     */
+    public long getHitCount();
+
+    /**
+     * @return number of cacheable requests which had to be fetched from the network
+     */
+    public long getMissCount();
+
+    /**
+     * @return number of stale entries the server confirmed to be unchanged (304 Not Modified)
+     */
+    public long getRevalidationCount();
+
+    /**
+     * @return number of requests which waited for an identical request already in flight instead of sending their own
+     */
+    public long getCoalescedCount();
+
+    public void reset();
+}
@@ -29,5 +29,23 @@ public interface InvocationStatistics {
 
     public long getAverageTime();
 
+    /**
+     * @param percentile percentile between 0 and 100, e.g. 99.9
+     * @return invocation time in nanoseconds at the given percentile, 0 if there has been no invocation or the
+     * implementation doesn't track invocation times
+     * @since Twitter4J 4.0.8
+     */
+    public default long getPercentileTimeNanos(double percentile) {
+        return 0;
+    }
+
+    /**
+     * @return longest invocation time in nanoseconds, 0 if the implementation doesn't track invocation times
+     * @since Twitter4J 4.0.8
+     */
+    public default long getMaxTimeNanos() {
+        return 0;
+    }
+
     public void reset();
 }
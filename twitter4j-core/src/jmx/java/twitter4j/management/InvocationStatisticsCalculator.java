@@ -16,19 +16,27 @@
 
 package twitter4j.management;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Object that collects/aggregates statistics for the invocation of a given method.
+ * Object that collects/aggregates statistics for the invocation of a given method.<br>
+ * Lock-free: counters are {@link LongAdder}s, the latency distribution is kept in a {@link LatencyHistogram} and the
+ * average is taken over a ring of the most recent invocation times.
  *
  * @author Nick Dellamaggiore (nick.dellamaggiore at gmail.com)
  */
 public class InvocationStatisticsCalculator implements InvocationStatistics {
     private final String name;
-    private long[] times;
-    private int index;
-    private long callCount;
-    private long errorCount;
-    private long totalTime;
+    // most recent invocation times in nanoseconds
+    private final AtomicLongArray times;
+    private final AtomicLong index = new AtomicLong();
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
 
     /**
      * @param name        the name of this API method
@@ -36,18 +44,30 @@ public class InvocationStatisticsCalculator implements InvocationStatistics {
      */
     public InvocationStatisticsCalculator(String name, int historySize) {
         this.name = name;
-        times = new long[historySize];
+        times = new AtomicLongArray(historySize);
     }
 
+    /**
+     * @param time    the method execution time in milliseconds
+     * @param success success
+     */
     void increment(long time, boolean success) {
-        callCount++;
-        errorCount += success ? 0 : 1;
-        totalTime += time;
-
-        times[index] = time;
+        record(TimeUnit.MILLISECONDS.toNanos(time), success);
+    }
 
-        if (++index >= times.length)
-            index = 0;
+    /**
+     * @param nanos   the method execution time in nanoseconds
+     * @param success success
+     * @since Twitter4J 4.0.8
+     */
+    void record(long nanos, boolean success) {
+        callCount.increment();
+        if (!success) {
+            errorCount.increment();
+        }
+        totalTime.add(nanos);
+        histogram.record(nanos);
+        times.set((int) (index.getAndIncrement() % times.length()), nanos);
     }
 
     @Override
@@ -57,41 +77,53 @@ public class InvocationStatisticsCalculator implements InvocationStatistics {
 
     @Override
     public long getCallCount() {
-        return callCount;
+        return callCount.sum();
     }
 
     @Override
     public long getErrorCount() {
-        return errorCount;
+        return errorCount.sum();
     }
 
     @Override
     public long getTotalTime() {
-        return totalTime;
+        return TimeUnit.NANOSECONDS.toMillis(totalTime.sum());
     }
 
     @Override
-    public synchronized long getAverageTime() {
-        int stopIndex = Math.min(Math.abs((int) callCount), times.length);
+    public long getAverageTime() {
+        int stopIndex = (int) Math.min(index.get(), times.length());
         if (stopIndex == 0) {
             return 0;
         }
 
         long totalTime = 0;
         for (int i = 0; i < stopIndex; i++) {
-            totalTime += times[i];
-
+            totalTime += times.get(i);
         }
-        return totalTime / stopIndex;
+        return TimeUnit.NANOSECONDS.toMillis(totalTime / stopIndex);
     }
 
     @Override
-    public synchronized void reset() {
-        callCount = 0;
-        errorCount = 0;
-        totalTime = 0;
-        times = new long[times.length];
-        index = 0;
+    public long getPercentileTimeNanos(double percentile) {
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    @Override
+    public long getMaxTimeNanos() {
+        return histogram.getMax();
+    }
+
+    @Override
+    public void reset() {
+        callCount.reset();
+        errorCount.reset();
+        totalTime.reset();
+        histogram.reset();
+        for (int i = 0; i < times.length(); i++) {
+            times.set(i, 0);
+        }
+        index.set(0);
     }
 
     @Override
@@ -101,8 +133,12 @@ public class InvocationStatisticsCalculator implements InvocationStatistics {
         sb.append("calls=").append(getCallCount()).append(",")
                 .append("errors=").append(getErrorCount()).append(",")
                 .append("totalTime=").append(getTotalTime()).append(",")
-                .append("avgTime=").append(getAverageTime());
+                .append("avgTime=").append(getAverageTime()).append(",")
+                .append("p50Time=").append(TimeUnit.NANOSECONDS.toMillis(getPercentileTimeNanos(50))).append(",")
+                .append("p99Time=").append(TimeUnit.NANOSECONDS.toMillis(getPercentileTimeNanos(99))).append(",")
+                .append("p999Time=").append(TimeUnit.NANOSECONDS.toMillis(getPercentileTimeNanos(99.9))).append(",")
+                .append("maxTime=").append(TimeUnit.NANOSECONDS.toMillis(getMaxTimeNanos()));
 
         return sb.toString();
     }
-}
\ No newline at end of file
+}
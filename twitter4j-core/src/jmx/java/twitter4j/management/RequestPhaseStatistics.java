@@ -0,0 +1,117 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.management;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-phase latency statistics of HTTP requests, backing {@link RequestPhaseStatisticsMBean}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.RequestTracer
+ * @since Twitter4J 4.0.8
+ */
+public class RequestPhaseStatistics implements RequestPhaseStatisticsMBean {
+    private final InvocationStatisticsCalculator requests;
+    private final InvocationStatisticsCalculator[] phases;
+
+    /**
+     * @param phaseNames  names of the phases, in the order of their indexes
+     * @param historySize the number of calls to track (for invocation time averaging)
+     */
+    public RequestPhaseStatistics(String[] phaseNames, int historySize) {
+        requests = new InvocationStatisticsCalculator("request", historySize);
+        phases = new InvocationStatisticsCalculator[phaseNames.length];
+        for (int i = 0; i < phaseNames.length; i++) {
+            phases[i] = new InvocationStatisticsCalculator(phaseNames[i], historySize);
+        }
+    }
+
+    /**
+     * @param phase index of the phase
+     * @param nanos time spent in the phase in nanoseconds
+     */
+    public void phaseCompleted(int phase, long nanos) {
+        phases[phase].record(nanos, true);
+    }
+
+    /**
+     * @param success false if the request failed or got an error response
+     * @param nanos   time spent until the response headers were received in nanoseconds
+     */
+    public void requestCompleted(boolean success, long nanos) {
+        requests.record(nanos, success);
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requests.getCallCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return requests.getErrorCount();
+    }
+
+    @Override
+    public Map<String, String> getPhaseSummaries() {
+        Map<String, String> summaries = new LinkedHashMap<String, String>();
+        summaries.put(requests.getName(), requests.toString());
+        for (InvocationStatisticsCalculator phase : phases) {
+            summaries.put(phase.getName(), phase.toString());
+        }
+        return summaries;
+    }
+
+    @Override
+    public long getPercentileTimeNanos(String phase, double percentile) {
+        InvocationStatistics statistics = get(phase);
+        return statistics == null ? 0 : statistics.getPercentileTimeNanos(percentile);
+    }
+
+    @Override
+    public long getMaxTimeNanos(String phase) {
+        InvocationStatistics statistics = get(phase);
+        return statistics == null ? 0 : statistics.getMaxTimeNanos();
+    }
+
+    private InvocationStatistics get(String phase) {
+        if (requests.getName().equals(phase)) {
+            return requests;
+        }
+        for (InvocationStatisticsCalculator calculator : phases) {
+            if (calculator.getName().equals(phase)) {
+                return calculator;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        requests.reset();
+        for (InvocationStatisticsCalculator phase : phases) {
+            phase.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestPhaseStatistics" + getPhaseSummaries();
+    }
+}
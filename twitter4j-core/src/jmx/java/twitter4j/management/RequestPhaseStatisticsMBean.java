@@ -0,0 +1,54 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.management;
+
+import java.util.Map;
+
+/**
+ * Per-phase latency statistics of all HTTP requests, see {@link twitter4j.RequestTracer.Phase} for the phases.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public interface RequestPhaseStatisticsMBean {
+    public long getRequestCount();
+
+    /**
+     * @return number of requests which failed or got an error response
+     */
+    public long getErrorCount();
+
+    /**
+     * @return formatted statistics of the whole requests (up to the response headers) and of each phase
+     */
+    public Map<String, String> getPhaseSummaries();
+
+    /**
+     * @param phase      phase name, or "request"
+     * @param percentile percentile between 0 and 100, e.g. 99.9
+     * @return time in nanoseconds at the given percentile
+     */
+    public long getPercentileTimeNanos(String phase, double percentile);
+
+    /**
+     * @param phase phase name, or "request"
+     * @return longest time in nanoseconds
+     */
+    public long getMaxTimeNanos(String phase);
+
+    public void reset();
+}
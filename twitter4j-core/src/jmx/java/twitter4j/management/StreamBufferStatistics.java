@@ -0,0 +1,194 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j.management;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free counters backing {@link StreamBufferStatisticsMBean}, updated by the owning stream.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public class StreamBufferStatistics implements StreamBufferStatisticsMBean {
+    private final String name;
+    private final int capacity;
+    private final String overflowPolicy;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicLong totalBlockedTime = new AtomicLong();
+    private final AtomicLong lag = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicLong fallingBehindCount = new AtomicLong();
+
+    public StreamBufferStatistics(String name, int capacity, String overflowPolicy) {
+        this.name = name;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void eventReceived() {
+        receivedCount.incrementAndGet();
+    }
+
+    public void eventQueued() {
+        int depth = queueDepth.incrementAndGet();
+        int peak;
+        while (depth > (peak = peakQueueDepth.get())) {
+            if (peakQueueDepth.compareAndSet(peak, depth)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param queued true if the event was evicted from the buffer, false if it was never queued
+     */
+    public void eventDropped(boolean queued) {
+        if (queued) {
+            queueDepth.decrementAndGet();
+        }
+        droppedCount.incrementAndGet();
+    }
+
+    /**
+     * @param lag time in milliseconds the event spent in the buffer
+     */
+    public void eventDelivered(long lag) {
+        queueDepth.decrementAndGet();
+        deliveredCount.incrementAndGet();
+        this.lag.set(lag);
+        long max;
+        while (lag > (max = maxLag.get())) {
+            if (maxLag.compareAndSet(max, lag)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param waitTime time in milliseconds the reading thread waited for room in the buffer
+     */
+    public void readerBlocked(long waitTime) {
+        blockedCount.incrementAndGet();
+        totalBlockedTime.addAndGet(waitTime);
+    }
+
+    public void fallingBehind() {
+        fallingBehindCount.incrementAndGet();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    @Override
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    @Override
+    public long getTotalBlockedTime() {
+        return totalBlockedTime.get();
+    }
+
+    @Override
+    public long getLag() {
+        return lag.get();
+    }
+
+    @Override
+    public long getMaxLag() {
+        return maxLag.get();
+    }
+
+    @Override
+    public long getFallingBehindCount() {
+        return fallingBehindCount.get();
+    }
+
+    @Override
+    public void reset() {
+        peakQueueDepth.set(queueDepth.get());
+        receivedCount.set(0);
+        deliveredCount.set(0);
+        droppedCount.set(0);
+        blockedCount.set(0);
+        totalBlockedTime.set(0);
+        maxLag.set(lag.get());
+        fallingBehindCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamBufferStatistics{" +
+                "name='" + name + '\'' +
+                ", capacity=" + capacity +
+                ", overflowPolicy='" + overflowPolicy + '\'' +
+                ", queueDepth=" + queueDepth +
+                ", peakQueueDepth=" + peakQueueDepth +
+                ", receivedCount=" + receivedCount +
+                ", deliveredCount=" + deliveredCount +
+                ", droppedCount=" + droppedCount +
+                ", blockedCount=" + blockedCount +
+                ", totalBlockedTime=" + totalBlockedTime +
+                ", lag=" + lag +
+                ", maxLag=" + maxLag +
+                ", fallingBehindCount=" + fallingBehindCount +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j.management;
+
+/**
+ * Statistics of the bounded buffer between a stream's reading thread and its listeners.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public interface StreamBufferStatisticsMBean {
+    public String getName();
+
+    /**
+     * @return number of events the buffer can hold, over all partitions
+     */
+    public int getCapacity();
+
+    /**
+     * @return BLOCK, DROP_OLDEST or SAMPLE
+     */
+    public String getOverflowPolicy();
+
+    /**
+     * @return number of events read but not yet handed to the listeners
+     */
+    public int getQueueDepth();
+
+    public int getPeakQueueDepth();
+
+    public long getReceivedCount();
+
+    public long getDeliveredCount();
+
+    /**
+     * @return number of events discarded by the DROP_OLDEST or SAMPLE policy
+     */
+    public long getDroppedCount();
+
+    /**
+     * @return number of times the reading thread had to wait for room in the buffer
+     */
+    public long getBlockedCount();
+
+    /**
+     * @return total time in milliseconds the reading thread spent waiting for room in the buffer
+     */
+    public long getTotalBlockedTime();
+
+    /**
+     * @return time in milliseconds between reading and delivering the most recently delivered event
+     */
+    public long getLag();
+
+    public long getMaxLag();
+
+    /**
+     * @return number of times a partition filled past the falling-behind threshold
+     */
+    public long getFallingBehindCount();
+
+    public void reset();
+}
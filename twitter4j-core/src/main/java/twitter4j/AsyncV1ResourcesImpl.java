@@ -0,0 +1,464 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.api.AsyncV1Resources;
+import twitter4j.conf.ChunkedUploadConfiguration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Requests are sent with {@link TwitterImpl#getAsync(String, HttpParameter...)} /
+ * {@link TwitterImpl#postAsync(String, HttpParameter...)}, and responses are bound on a shared pool sized to the
+ * number of available processors.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class AsyncV1ResourcesImpl implements AsyncV1Resources {
+    private static volatile ExecutorService parserExecutor;
+
+    private final TwitterImpl twitter;
+
+    private final Parser<ResponseList<Status>> statusList;
+    private final Parser<Status> status;
+    private final Parser<IDs> ids;
+    private final Parser<ResponseList<User>> userList;
+    private final Parser<User> user;
+    private final Parser<PagableResponseList<User>> pagableUserList;
+    private final Parser<ResponseList<Friendship>> friendshipList;
+    private final Parser<Relationship> relationship;
+    private final Parser<ResponseList<UserList>> userListList;
+    private final Parser<UserList> aUserList;
+    private final Parser<PagableResponseList<UserList>> pagableUserListList;
+
+    AsyncV1ResourcesImpl(TwitterImpl twitter) {
+        this.twitter = twitter;
+        final ObjectFactory factory = twitter.factory;
+        statusList = new Parser<ResponseList<Status>>() {
+            @Override
+            ResponseList<Status> parse(HttpResponse res) throws TwitterException {
+                return factory.createStatusList(res);
+            }
+        };
+        status = new Parser<Status>() {
+            @Override
+            Status parse(HttpResponse res) throws TwitterException {
+                return factory.createStatus(res);
+            }
+        };
+        ids = new Parser<IDs>() {
+            @Override
+            IDs parse(HttpResponse res) throws TwitterException {
+                return factory.createIDs(res);
+            }
+        };
+        userList = new Parser<ResponseList<User>>() {
+            @Override
+            ResponseList<User> parse(HttpResponse res) throws TwitterException {
+                return factory.createUserList(res);
+            }
+        };
+        user = new Parser<User>() {
+            @Override
+            User parse(HttpResponse res) throws TwitterException {
+                return factory.createUser(res);
+            }
+        };
+        pagableUserList = new Parser<PagableResponseList<User>>() {
+            @Override
+            PagableResponseList<User> parse(HttpResponse res) throws TwitterException {
+                return factory.createPagableUserList(res);
+            }
+        };
+        friendshipList = new Parser<ResponseList<Friendship>>() {
+            @Override
+            ResponseList<Friendship> parse(HttpResponse res) throws TwitterException {
+                return factory.createFriendshipList(res);
+            }
+        };
+        relationship = new Parser<Relationship>() {
+            @Override
+            Relationship parse(HttpResponse res) throws TwitterException {
+                return factory.createRelationship(res);
+            }
+        };
+        userListList = new Parser<ResponseList<UserList>>() {
+            @Override
+            ResponseList<UserList> parse(HttpResponse res) throws TwitterException {
+                return factory.createUserListList(res);
+            }
+        };
+        aUserList = new Parser<UserList>() {
+            @Override
+            UserList parse(HttpResponse res) throws TwitterException {
+                return factory.createAUserList(res);
+            }
+        };
+        pagableUserListList = new Parser<PagableResponseList<UserList>>() {
+            @Override
+            PagableResponseList<UserList> parse(HttpResponse res) throws TwitterException {
+                return factory.createPagableUserListList(res);
+            }
+        };
+    }
+
+    /**
+     * Binds a response to a model object. Checked TwitterExceptions are rethrown as the cause of a
+     * CompletionException, so that the returned future completes exceptionally with the TwitterException.
+     */
+    private abstract static class Parser<T> implements Function<HttpResponse, T> {
+        abstract T parse(HttpResponse res) throws TwitterException;
+
+        @Override
+        public final T apply(HttpResponse res) {
+            try {
+                return parse(res);
+            } catch (TwitterException te) {
+                throw new CompletionException(te);
+            }
+        }
+    }
+
+    private static ExecutorService getParserExecutor() {
+        if (parserExecutor == null) {
+            synchronized (AsyncV1ResourcesImpl.class) {
+                if (parserExecutor == null) {
+                    parserExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                            new ThreadFactory() {
+                                final AtomicInteger count = new AtomicInteger();
+
+                                @Override
+                                public Thread newThread(Runnable r) {
+                                    Thread thread = new Thread(r);
+                                    thread.setName(String.format("Twitter4J Async Parser[%d]", count.getAndIncrement()));
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }
+                            });
+                }
+            }
+        }
+        return parserExecutor;
+    }
+
+    private <T> CompletableFuture<T> get(String url, Parser<T> parser) {
+        return twitter.getAsync(url).thenApplyAsync(parser, getParserExecutor());
+    }
+
+    private <T> CompletableFuture<T> get(String url, Parser<T> parser, HttpParameter... params) {
+        return twitter.getAsync(url, params).thenApplyAsync(parser, getParserExecutor());
+    }
+
+    private <T> CompletableFuture<T> post(String url, Parser<T> parser) {
+        return twitter.postAsync(url).thenApplyAsync(parser, getParserExecutor());
+    }
+
+    private <T> CompletableFuture<T> post(String url, Parser<T> parser, HttpParameter... params) {
+        return twitter.postAsync(url, params).thenApplyAsync(parser, getParserExecutor());
+    }
+
+    private String rest(String path) {
+        return twitter.conf.getRestBaseURL() + path;
+    }
+
+    /* Timelines Resources */
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getMentionsTimeline() {
+        return get(rest("statuses/mentions_timeline.json"), statusList);
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getMentionsTimeline(Paging paging) {
+        return get(rest("statuses/mentions_timeline.json"), statusList, paging.asPostParameterArray());
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getHomeTimeline() {
+        return get(rest("statuses/home_timeline.json"), statusList, twitter.INCLUDE_MY_RETWEET);
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getHomeTimeline(Paging paging) {
+        return get(rest("statuses/home_timeline.json"), statusList,
+                twitter.mergeParameters(paging.asPostParameterArray(), new HttpParameter[]{twitter.INCLUDE_MY_RETWEET}));
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getRetweetsOfMe() {
+        return get(rest("statuses/retweets_of_me.json"), statusList);
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getRetweetsOfMe(Paging paging) {
+        return get(rest("statuses/retweets_of_me.json"), statusList, paging.asPostParameterArray());
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getUserTimeline(String screenName, Paging paging) {
+        return get(rest("statuses/user_timeline.json"), statusList,
+                twitter.mergeParameters(new HttpParameter[]{new HttpParameter("screen_name", screenName)
+                        , twitter.INCLUDE_MY_RETWEET}, paging.asPostParameterArray()));
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getUserTimeline(long userId, Paging paging) {
+        return get(rest("statuses/user_timeline.json"), statusList,
+                twitter.mergeParameters(new HttpParameter[]{new HttpParameter("user_id", userId)
+                        , twitter.INCLUDE_MY_RETWEET}, paging.asPostParameterArray()));
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getUserTimeline(String screenName) {
+        return getUserTimeline(screenName, new Paging());
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getUserTimeline(long userId) {
+        return getUserTimeline(userId, new Paging());
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getUserTimeline() {
+        return getUserTimeline(new Paging());
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getUserTimeline(Paging paging) {
+        return get(rest("statuses/user_timeline.json"), statusList,
+                twitter.mergeParameters(new HttpParameter[]{twitter.INCLUDE_MY_RETWEET}, paging.asPostParameterArray()));
+    }
+
+    /* Tweets Resources */
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getRetweets(long statusId) {
+        return get(rest("statuses/retweets/" + statusId + ".json?count=100"), statusList);
+    }
+
+    @Override
+    public CompletableFuture<IDs> getRetweeterIds(long statusId, long cursor) {
+        return getRetweeterIds(statusId, 100, cursor);
+    }
+
+    @Override
+    public CompletableFuture<IDs> getRetweeterIds(long statusId, int count, long cursor) {
+        return get(rest("statuses/retweeters/ids.json?id=" + statusId + "&cursor=" + cursor + "&count=" + count), ids);
+    }
+
+    @Override
+    public CompletableFuture<Status> showStatus(long id) {
+        return get(rest("statuses/show/" + id + ".json"), status, twitter.INCLUDE_MY_RETWEET);
+    }
+
+    @Override
+    public CompletableFuture<Status> destroyStatus(long statusId) {
+        return post(rest("statuses/destroy/" + statusId + ".json"), status);
+    }
+
+    @Override
+    public CompletableFuture<Status> updateStatus(String status) {
+        return post(rest("statuses/update.json"), this.status, new HttpParameter("status", status));
+    }
+
+    @Override
+    public CompletableFuture<Status> updateStatus(StatusUpdate latestStatus) {
+        return post(rest(latestStatus.isForUpdateWithMedia() ? "statuses/update_with_media.json" : "statuses/update.json"),
+                status, latestStatus.asHttpParameterArray());
+    }
+
+    @Override
+    public CompletableFuture<Status> retweetStatus(long statusId) {
+        return post(rest("statuses/retweet/" + statusId + ".json"), status);
+    }
+
+    @Override
+    public CompletableFuture<Status> unRetweetStatus(long statusId) {
+        return post(rest("statuses/unretweet/" + statusId + ".json"), status);
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> lookup(long... ids) {
+        return get(rest("statuses/lookup.json?id=" + StringUtil.join(ids)), statusList);
+    }
+
+    @Override
+    public CompletableFuture<UploadedMedia> uploadMediaChunked(ChunkedUploadConfiguration chunkedUploadConfiguration) {
+        return new ChunkedUploadDelegate(twitter).uploadMediaChunkedAsync(chunkedUploadConfiguration);
+    }
+
+    /* Users Resources */
+
+    @Override
+    public CompletableFuture<User> verifyCredentials() {
+        return get(rest("account/verify_credentials.json"), user,
+                new HttpParameter("include_email", twitter.conf.isIncludeEmailEnabled()));
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<User>> lookupUsers(long... ids) {
+        return get(rest("users/lookup.json"), userList, new HttpParameter("user_id", StringUtil.join(ids)));
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<User>> lookupUsers(String... screenNames) {
+        return get(rest("users/lookup.json"), userList, new HttpParameter("screen_name", StringUtil.join(screenNames)));
+    }
+
+    @Override
+    public CompletableFuture<User> showUser(long userId) {
+        return get(rest("users/show.json?user_id=" + userId), user);
+    }
+
+    @Override
+    public CompletableFuture<User> showUser(String screenName) {
+        return get(rest("users/show.json"), user, new HttpParameter("screen_name", screenName));
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<User>> searchUsers(String query, int page) {
+        return get(rest("users/search.json"), userList, new HttpParameter("q", query),
+                new HttpParameter("per_page", 20), new HttpParameter("page", page));
+    }
+
+    /* Friends & Followers Resources */
+
+    @Override
+    public CompletableFuture<IDs> getFriendsIDs(long userId, long cursor) {
+        return get(rest("friends/ids.json?user_id=" + userId + "&cursor=" + cursor), ids);
+    }
+
+    @Override
+    public CompletableFuture<IDs> getFriendsIDs(String screenName, long cursor) {
+        return get(rest("friends/ids.json"), ids, new HttpParameter("screen_name", screenName),
+                new HttpParameter("cursor", cursor));
+    }
+
+    @Override
+    public CompletableFuture<IDs> getFollowersIDs(long userId, long cursor) {
+        return get(rest("followers/ids.json?user_id=" + userId + "&cursor=" + cursor), ids);
+    }
+
+    @Override
+    public CompletableFuture<IDs> getFollowersIDs(String screenName, long cursor) {
+        return get(rest("followers/ids.json"), ids, new HttpParameter("screen_name", screenName),
+                new HttpParameter("cursor", cursor));
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Friendship>> lookupFriendships(long... ids) {
+        return get(rest("friendships/lookup.json?user_id=" + StringUtil.join(ids)), friendshipList);
+    }
+
+    @Override
+    public CompletableFuture<User> createFriendship(long userId) {
+        return post(rest("friendships/create.json?user_id=" + userId), user);
+    }
+
+    @Override
+    public CompletableFuture<User> destroyFriendship(long userId) {
+        return post(rest("friendships/destroy.json?user_id=" + userId), user);
+    }
+
+    @Override
+    public CompletableFuture<Relationship> showFriendship(long sourceId, long targetId) {
+        return get(rest("friendships/show.json"), relationship, new HttpParameter("source_id", sourceId),
+                new HttpParameter("target_id", targetId));
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<User>> getFriendsList(long userId, long cursor) {
+        return get(rest("friends/list.json?user_id=" + userId + "&cursor=" + cursor + "&count=20"), pagableUserList);
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<User>> getFriendsList(String screenName, long cursor) {
+        return get(rest("friends/list.json"), pagableUserList, new HttpParameter("screen_name", screenName),
+                new HttpParameter("cursor", cursor), new HttpParameter("count", 20));
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<User>> getFollowersList(long userId, long cursor) {
+        return get(rest("followers/list.json?user_id=" + userId + "&cursor=" + cursor + "&count=20"), pagableUserList);
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<User>> getFollowersList(String screenName, long cursor) {
+        return get(rest("followers/list.json"), pagableUserList, new HttpParameter("screen_name", screenName),
+                new HttpParameter("cursor", cursor), new HttpParameter("count", 20));
+    }
+
+    /* Lists Resources */
+
+    @Override
+    public CompletableFuture<ResponseList<UserList>> getUserLists(long listOwnerUserId) {
+        return get(rest("lists/list.json"), userListList, new HttpParameter("user_id", listOwnerUserId),
+                new HttpParameter("reverse", false));
+    }
+
+    @Override
+    public CompletableFuture<UserList> showUserList(long listId) {
+        return get(rest("lists/show.json?list_id=" + listId), aUserList);
+    }
+
+    @Override
+    public CompletableFuture<ResponseList<Status>> getUserListStatuses(long listId, Paging paging) {
+        return get(rest("lists/statuses.json"), statusList,
+                twitter.mergeParameters(paging.asPostParameterArray(Paging.SMCP, Paging.COUNT)
+                        , new HttpParameter("list_id", listId)));
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<User>> getUserListMembers(long listId, long cursor) {
+        return get(rest("lists/members.json"), pagableUserList, new HttpParameter("list_id", listId),
+                new HttpParameter("count", 20), new HttpParameter("cursor", cursor),
+                new HttpParameter("skip_status", false));
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<UserList>> getUserListMemberships(long listMemberId, long cursor) {
+        return get(rest("lists/memberships.json"), pagableUserListList, new HttpParameter("user_id", listMemberId),
+                new HttpParameter("count", 20), new HttpParameter("cursor", cursor),
+                new HttpParameter("filter_to_owned_lists", false));
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<UserList>> getUserListSubscriptions(long listSubscriberId, long cursor) {
+        return get(rest("lists/subscriptions.json"), pagableUserListList, new HttpParameter("user_id", listSubscriberId),
+                new HttpParameter("count", 20), new HttpParameter("cursor", cursor));
+    }
+
+    @Override
+    public CompletableFuture<PagableResponseList<UserList>> getUserListsOwnerships(long listOwnerId, long cursor) {
+        return get(rest("lists/ownerships.json"), pagableUserListList, new HttpParameter("user_id", listOwnerId),
+                new HttpParameter("count", 20), new HttpParameter("cursor", cursor));
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncV1ResourcesImpl{" +
+                "twitter=" + twitter +
+                '}';
+    }
+}
@@ -1,25 +1,49 @@
 package twitter4j;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 import twitter4j.conf.ChunkedUploadConfiguration;
 
 /**
- * Delegate class for chunked uploading
+ * Delegate class for chunked uploading<br>
+ * APPEND commands carry the segment index, so up to {@link ChunkedUploadConfiguration#getParallelism()} segments are
+ * read and sent concurrently. Segments of a file are read with positional reads on a shared {@link FileChannel},
+ * segments of a stream are read one after another.
  *
  * @author Hiroaki Takeuchi - takke30 at gmail.com
  * @since Twitter4J 4.0.7
  */
 /*package*/ class ChunkedUploadDelegate {
 
+    private static final Logger logger = Logger.getLogger(ChunkedUploadDelegate.class);
+
     private final static int MAX_VIDEO_SIZE = 512 * 1024 * 1024; // 512MB is a constraint imposed by Twitter for video files
 
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
     private final TwitterImpl twitter;
 
     private ChunkedUploadConfiguration uploadConfiguration;
@@ -29,76 +53,465 @@ import twitter4j.conf.ChunkedUploadConfiguration;
     }
 
     /*package*/ UploadedMedia uploadMediaChunked(ChunkedUploadConfiguration uploadConfiguration) throws TwitterException {
-        File mediaFile = uploadConfiguration.getFile();
         this.uploadConfiguration = uploadConfiguration;
+        Media media = openMedia();
+        UploadedMedia uploadedMedia;
+        try {
+            onProgress("Initializing", 0, media.length, "", 0);
+            uploadedMedia = sendInit(uploadConfiguration.getMediaType(), uploadConfiguration.getMediaCategory(), media.length);
+            onProgress("Initialized", 0, media.length, "", 0);
+            sendSegments(media.fileName, media.source, uploadedMedia.getMediaId(), media.length);
+        } finally {
+            media.close();
+        }
+        return sendAndWaitForFinalize(uploadedMedia.getMediaId(), media.length);
+    }
+
+    /**
+     * Non-blocking variant of {@link #uploadMediaChunked(ChunkedUploadConfiguration)}.<br>
+     * Commands are sent with {@link TwitterImpl#postAsync(String, HttpParameter...)}, and while the media is being
+     * processed the STATUS polls are scheduled check_after_secs later with
+     * {@link CompletableFuture#delayedExecutor(long, TimeUnit)} instead of sleeping, so no thread waits for an upload.
+     */
+    /*package*/ CompletableFuture<UploadedMedia> uploadMediaChunkedAsync(ChunkedUploadConfiguration uploadConfiguration) {
+        this.uploadConfiguration = uploadConfiguration;
+        final CompletableFuture<UploadedMedia> result = new CompletableFuture<UploadedMedia>();
+        final Media media;
+        try {
+            media = openMedia();
+        } catch (TwitterException te) {
+            result.completeExceptionally(te);
+            return result;
+        }
+        try {
+            onProgress("Initializing", 0, media.length, "", 0);
+            twitter.postAsync(uploadURL(), initParameters(uploadConfiguration.getMediaType(),
+                    uploadConfiguration.getMediaCategory(), media.length))
+                    .whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                        @Override
+                        public void accept(HttpResponse res, Throwable t) {
+                            try {
+                                final UploadedMedia uploadedMedia = new UploadedMedia(response(res, t).asJSONObject());
+                                onProgress("Initialized", 0, media.length, "", 0);
+                                new AsyncAppender(media, uploadedMedia.getMediaId()).start()
+                                        .whenComplete(new BiConsumer<Void, Throwable>() {
+                                            @Override
+                                            public void accept(Void ignore, Throwable t) {
+                                                media.close();
+                                                if (t != null) {
+                                                    result.completeExceptionally(t);
+                                                } else {
+                                                    finalizeAsync(uploadedMedia.getMediaId(), media.length, result);
+                                                }
+                                            }
+                                        });
+                            } catch (Throwable failure) {
+                                media.close();
+                                result.completeExceptionally(toTwitterException(failure));
+                            }
+                        }
+                    });
+        } catch (Throwable failure) {
+            media.close();
+            result.completeExceptionally(toTwitterException(failure));
+        }
+        return result;
+    }
+
+    /**
+     * @return the response, or throws the TwitterException an async request failed with
+     */
+    private static HttpResponse response(HttpResponse res, Throwable t) throws TwitterException {
+        if (t == null) {
+            return res;
+        }
+        throw toTwitterException(t);
+    }
+
+    /**
+     * Callbacks of the non-blocking upload catch every Throwable, including the ones thrown by the progress callback,
+     * and fail the upload with it, so the returned future never stays pending.
+     */
+    private static TwitterException toTwitterException(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        return cause instanceof TwitterException ? (TwitterException) cause
+                : new TwitterException(cause.getMessage(), cause);
+    }
+
+    private Media openMedia() throws TwitterException {
+        Media media;
+        File mediaFile = uploadConfiguration.getFile();
         if (mediaFile != null) {
             ((V1ResourcesImpl)twitter.v1Resources()).checkFileValidity(mediaFile);
             try {
-                return upload(
-                        uploadConfiguration.getMediaType(), uploadConfiguration.getMediaCategory(),
-                        mediaFile.getName(), new FileInputStream(mediaFile), mediaFile.length());
+                media = new Media(mediaFile.getName(), mediaFile.length(), new FileSegmentSource(
+                        FileChannel.open(mediaFile.toPath(), StandardOpenOption.READ), uploadConfiguration.getSegmentSizeBytes()));
             } catch (IOException e) {
                 throw new TwitterException(e);
             }
         } else {
-            return upload(uploadConfiguration.getMediaType(), uploadConfiguration.getMediaCategory(),
-                    uploadConfiguration.getFilename(), uploadConfiguration.getStream(), uploadConfiguration.getLength());
+            media = new Media(uploadConfiguration.getFilename(), uploadConfiguration.getLength(),
+                    new StreamSegmentSource(uploadConfiguration.getStream()));
         }
-
-    }
-
-    private UploadedMedia upload(String mediaType, String mediaCategory, String fileName, InputStream stream, long mediaLength) throws TwitterException {
-        if (mediaLength > MAX_VIDEO_SIZE) {
+        if (media.length > MAX_VIDEO_SIZE) {
+            media.close();
             throw new TwitterException(String.format(Locale.US,
                     "video file can't be longer than: %d MBytes",
                     MAX_VIDEO_SIZE / (1024 * 1024)));
         }
+        return media;
+    }
+
+    private static final class Media {
+        private final String fileName;
+        private final long length;
+        private final SegmentSource source;
+
+        Media(String fileName, long length, SegmentSource source) {
+            this.fileName = fileName;
+            this.length = length;
+            this.source = source;
+        }
+
+        void close() {
+            try {
+                source.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private void sendSegments(String fileName, SegmentSource source, long mediaId, long mediaLength) throws TwitterException {
+        int parallelism = uploadConfiguration.getParallelism();
+        AppendTask[] tasks = new AppendTask[parallelism];
+        AtomicBoolean failed = new AtomicBoolean();
+        long[] uploadedBytes = new long[1];
+        for (int i = 0; i < parallelism; i++) {
+            tasks[i] = new AppendTask(fileName, source, mediaId, mediaLength, failed, uploadedBytes);
+        }
+        if (parallelism == 1) {
+            tasks[0].call();
+            return;
+        }
+        ExecutorService executor = newExecutor(parallelism);
         try {
-            onProgress("Initializing", 0, mediaLength, "", 0);
-            UploadedMedia uploadedMedia = sendInit(mediaType, mediaCategory, mediaLength);
-            onProgress("Initialized", 0, mediaLength, "", 0);
-            BufferedInputStream buffered = new BufferedInputStream(stream);
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(parallelism);
+            for (AppendTask task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            TwitterException failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ee) {
+                    if (failure == null) {
+                        failure = ee.getCause() instanceof TwitterException ? (TwitterException) ee.getCause()
+                                : new TwitterException(ee.getCause().getMessage(), ee.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            failed.set(true);
+            throw new TwitterException("Interrupted while appending segments.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            byte[] segmentData = new byte[uploadConfiguration.getSegmentSizeBytes()];
-            long totalRead = 0;
+    private static ExecutorService newExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r);
+                thread.setName(String.format("Twitter4J Chunked Upload[%d]", threadCount.getAndIncrement()));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
 
-            for (int bytesRead, segmentIndex = 0; (bytesRead = buffered.read(segmentData)) > 0; ++segmentIndex) {
-                totalRead += bytesRead;
-                //no need to close ByteArrayInputStream
-                sendAppend(fileName, new ByteArrayInputStream(segmentData, 0, bytesRead), segmentIndex, uploadedMedia.getMediaId());
-                onProgress("Appended", totalRead, mediaLength, "", 0);
+    /**
+     * Appends segments until the source is exhausted or another task failed. Each task owns one segment buffer.
+     */
+    private final class AppendTask implements Callable<Void> {
+        private final String fileName;
+        private final SegmentSource source;
+        private final long mediaId;
+        private final long mediaLength;
+        private final AtomicBoolean failed;
+        private final long[] uploadedBytes;
+
+        AppendTask(String fileName, SegmentSource source, long mediaId, long mediaLength, AtomicBoolean failed,
+                   long[] uploadedBytes) {
+            this.fileName = fileName;
+            this.source = source;
+            this.mediaId = mediaId;
+            this.mediaLength = mediaLength;
+            this.failed = failed;
+            this.uploadedBytes = uploadedBytes;
+        }
+
+        @Override
+        public Void call() throws TwitterException {
+            Segment segment = new Segment(uploadConfiguration.getSegmentSizeBytes());
+            try {
+                while (!failed.get() && source.next(segment)) {
+                    sendAppendWithRetry(segment);
+                    synchronized (uploadedBytes) {
+                        uploadedBytes[0] += segment.length;
+                        onProgress("Appended", uploadedBytes[0], mediaLength, "", 0);
+                    }
+                }
+                return null;
+            } catch (IOException e) {
+                failed.set(true);
+                throw new TwitterException(e);
+            } catch (TwitterException te) {
+                failed.set(true);
+                throw te;
+            }
+        }
+
+        private void sendAppendWithRetry(Segment segment) throws TwitterException {
+            for (int retriedCount = 0; ; retriedCount++) {
+                try {
+                    sendAppend(fileName, segment, mediaId);
+                    return;
+                } catch (TwitterException te) {
+                    boolean clientError = 400 <= te.getStatusCode() && te.getStatusCode() < 500;
+                    if (clientError || retriedCount >= uploadConfiguration.getSegmentRetryCount() || failed.get()) {
+                        throw te;
+                    }
+                    logger.warn("Retrying segment " + segment.index + " of media " + mediaId + ": " + te.getMessage());
+                }
             }
-            return sendAndWaitForFinalize(uploadedMedia.getMediaId(), mediaLength);
-        } catch (IOException e) {
-            throw new TwitterException(e);
         }
     }
 
-    private UploadedMedia sendInit(String mediaType, String mediaCategory, long size) throws TwitterException {
-        return new UploadedMedia(
-                twitter.post(twitter.conf.getUploadBaseURL() + "media/upload.json",
-                        new HttpParameter("command", "INIT"),
-                        new HttpParameter("media_type", mediaType),
-                        new HttpParameter("media_category", mediaCategory),
-                        new HttpParameter("total_bytes", size)).asJSONObject());
+    /**
+     * Sends segments with {@link TwitterImpl#postAsync(String, HttpParameter...)}, keeping up to
+     * {@link ChunkedUploadConfiguration#getParallelism()} segments in flight. Each lane owns one segment buffer and
+     * reads the next segment once its previous one has been appended. Segments are read on the appender's own
+     * threads, as reading the media blocks and must not hold up the HTTP client's completion threads.
+     */
+    private final class AsyncAppender {
+        private final Media media;
+        private final long mediaId;
+        private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+        private final AtomicInteger activeLanes = new AtomicInteger();
+        private final long[] uploadedBytes = new long[1];
+        private final ExecutorService reader;
+
+        AsyncAppender(Media media, long mediaId) {
+            this.media = media;
+            this.mediaId = mediaId;
+            this.reader = newExecutor(uploadConfiguration.getParallelism());
+        }
+
+        CompletableFuture<Void> start() {
+            int parallelism = uploadConfiguration.getParallelism();
+            activeLanes.set(parallelism);
+            done.whenComplete(new BiConsumer<Void, Throwable>() {
+                @Override
+                public void accept(Void ignore, Throwable t) {
+                    reader.shutdown();
+                }
+            });
+            for (int i = 0; i < parallelism; i++) {
+                next(new Segment(uploadConfiguration.getSegmentSizeBytes()));
+            }
+            return done;
+        }
+
+        private void next(final Segment segment) {
+            if (done.isDone()) {
+                return;
+            }
+            try {
+                reader.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (done.isDone()) {
+                                return;
+                            }
+                            if (media.source.next(segment)) {
+                                send(segment, 0);
+                            } else if (activeLanes.decrementAndGet() == 0) {
+                                done.complete(null);
+                            }
+                        } catch (Throwable t) {
+                            done.completeExceptionally(toTwitterException(t));
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ignore) {
+                // the upload has already completed
+            }
+        }
+
+        private void send(final Segment segment, final int retriedCount) {
+            twitter.postAsync(uploadURL(), appendParameters(media.fileName, segment, mediaId))
+                    .whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                        @Override
+                        public void accept(HttpResponse res, Throwable t) {
+                            try {
+                                try {
+                                    response(res, t);
+                                } catch (TwitterException te) {
+                                    boolean clientError = 400 <= te.getStatusCode() && te.getStatusCode() < 500;
+                                    if (clientError || retriedCount >= uploadConfiguration.getSegmentRetryCount() || done.isDone()) {
+                                        done.completeExceptionally(te);
+                                    } else {
+                                        logger.warn("Retrying segment " + segment.index + " of media " + mediaId + ": " + te.getMessage());
+                                        send(segment, retriedCount + 1);
+                                    }
+                                    return;
+                                }
+                                synchronized (uploadedBytes) {
+                                    uploadedBytes[0] += segment.length;
+                                    onProgress("Appended", uploadedBytes[0], media.length, "", 0);
+                                }
+                                next(segment);
+                            } catch (Throwable failure) {
+                                done.completeExceptionally(toTwitterException(failure));
+                            }
+                        }
+                    });
+        }
+    }
+
+    private String uploadURL() {
+        return twitter.conf.getUploadBaseURL() + "media/upload.json";
     }
 
-    private void sendAppend(String fileName, InputStream segmentData, int segmentIndex, long mediaId) throws TwitterException {
-        twitter.post(twitter.conf.getUploadBaseURL() + "media/upload.json",
+    private static HttpParameter[] initParameters(String mediaType, String mediaCategory, long size) {
+        return new HttpParameter[]{
+                new HttpParameter("command", "INIT"),
+                new HttpParameter("media_type", mediaType),
+                new HttpParameter("media_category", mediaCategory),
+                new HttpParameter("total_bytes", size)};
+    }
+
+    private static HttpParameter[] appendParameters(String fileName, Segment segment, long mediaId) {
+        return new HttpParameter[]{
                 new HttpParameter("command", "APPEND"),
                 new HttpParameter("media_id", mediaId),
-                new HttpParameter("segment_index", segmentIndex),
-                new HttpParameter("media", fileName, segmentData));
+                new HttpParameter("segment_index", segment.index),
+                //no need to close ByteArrayInputStream
+                new HttpParameter("media", fileName, new ByteArrayInputStream(segment.data, 0, segment.length))};
+    }
+
+    private static HttpParameter[] finalizeParameters(long mediaId) {
+        return new HttpParameter[]{
+                new HttpParameter("command", "FINALIZE"),
+                new HttpParameter("media_id", mediaId)};
+    }
+
+    private static HttpParameter[] statusParameters(long mediaId) {
+        return new HttpParameter[]{
+                new HttpParameter("command", "STATUS"),
+                new HttpParameter("media_id", mediaId)};
+    }
+
+    private UploadedMedia sendInit(String mediaType, String mediaCategory, long size) throws TwitterException {
+        return new UploadedMedia(twitter.post(uploadURL(), initParameters(mediaType, mediaCategory, size)).asJSONObject());
+    }
+
+    private void sendAppend(String fileName, Segment segment, long mediaId) throws TwitterException {
+        twitter.post(uploadURL(), appendParameters(fileName, segment, mediaId));
     }
 
     private UploadedMedia sendAndWaitForFinalize(long mediaId, long mediaLength) throws TwitterException {
-        int tries = 0;
-        int maxTries = 20;
-        int lastProgressPercent = 0;
-        int currentProgressPercent = 0;
-        int totalWaitSec = 0;
+        FinalizeProgress progress = new FinalizeProgress(mediaLength);
         UploadedMedia uploadedMedia = sendFinalize(mediaId);
-        while (tries < maxTries) {
+        int waitSec;
+        while ((waitSec = progress.check(uploadedMedia)) >= 0) {
+            if (waitSec > 0) {
+                try {
+                    Thread.sleep(waitSec * 1000);
+                } catch (InterruptedException e) {
+                    throw new TwitterException("Failed to finalize the chunked upload.", e);
+                }
+            }
+            uploadedMedia = getStatus(mediaId);
+        }
+        return uploadedMedia;
+    }
+
+    private void finalizeAsync(final long mediaId, long mediaLength, final CompletableFuture<UploadedMedia> result) {
+        final FinalizeProgress progress = new FinalizeProgress(mediaLength);
+        try {
+            twitter.postAsync(uploadURL(), finalizeParameters(mediaId)).whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                @Override
+                public void accept(HttpResponse res, Throwable t) {
+                    checkAsync(mediaId, res, t, progress, result);
+                }
+            });
+        } catch (Throwable failure) {
+            result.completeExceptionally(toTwitterException(failure));
+        }
+    }
+
+    private void checkAsync(final long mediaId, HttpResponse res, Throwable t, final FinalizeProgress progress,
+                            final CompletableFuture<UploadedMedia> result) {
+        UploadedMedia uploadedMedia;
+        int waitSec;
+        try {
+            uploadedMedia = new UploadedMedia(response(res, t).asJSONObject());
+            waitSec = progress.check(uploadedMedia);
+        } catch (Throwable failure) {
+            result.completeExceptionally(toTwitterException(failure));
+            return;
+        }
+        if (waitSec < 0) {
+            result.complete(uploadedMedia);
+            return;
+        }
+        CompletableFuture.delayedExecutor(waitSec, TimeUnit.SECONDS).execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    twitter.getAsync(uploadURL(), statusParameters(mediaId)).whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                        @Override
+                        public void accept(HttpResponse res, Throwable t) {
+                            checkAsync(mediaId, res, t, progress, result);
+                        }
+                    });
+                } catch (Throwable failure) {
+                    result.completeExceptionally(toTwitterException(failure));
+                }
+            }
+        });
+    }
+
+    /**
+     * Tracks the processing of the media after FINALIZE, shared by the blocking and the non-blocking uploads.
+     */
+    private final class FinalizeProgress {
+        private final int maxTries = 20;
+        private final long mediaLength;
+        private int tries = 0;
+        private int lastProgressPercent = 0;
+        private int currentProgressPercent = 0;
+        private int totalWaitSec = 0;
+
+        FinalizeProgress(long mediaLength) {
+            this.mediaLength = mediaLength;
+        }
+
+        /**
+         * @param uploadedMedia response of FINALIZE or STATUS
+         * @return seconds to wait before checking the STATUS, or -1 once the media is ready
+         * @throws TwitterException when the processing failed, timed out or stopped progressing
+         */
+        int check(UploadedMedia uploadedMedia) throws TwitterException {
+            if (tries >= maxTries) {
+                throw new TwitterException("Failed to finalize the chunked upload, progress has stopped, tried " + tries+1 + " times.");
+            }
             if (lastProgressPercent == currentProgressPercent) {
                 tries++;
             }
@@ -108,7 +521,7 @@ import twitter4j.conf.ChunkedUploadConfiguration;
             if (state == null) {
                 // uploaded jpeg or png
                 onProgress("Finalized", mediaLength, mediaLength, state, uploadedMedia.getProgressPercent());
-                return uploadedMedia;
+                return -1;
             }
             if (state.equals("failed")) {
                 if (uploadedMedia.getProcessingErrorMessage() != null) {
@@ -132,34 +545,116 @@ import twitter4j.conf.ChunkedUploadConfiguration;
 
                 onProgress("Finalizing... wait for:" + waitSec + " sec", mediaLength, mediaLength,
                         state, currentProgressPercent < 0 ? 0 : currentProgressPercent);
-
-                try {
-                    Thread.sleep(waitSec * 1000);
-                } catch (InterruptedException e) {
-                    throw new TwitterException("Failed to finalize the chunked upload.", e);
-                }
+                return waitSec;
             }
             if (state.equals("succeeded")) {
                 onProgress("Finalized", mediaLength, mediaLength, state, uploadedMedia.getProgressPercent());
-                return uploadedMedia;
+                return -1;
             }
-            uploadedMedia = getStatus(mediaId);
+            return 0;
         }
-        throw new TwitterException("Failed to finalize the chunked upload, progress has stopped, tried " + tries+1 + " times.");
     }
 
     private UploadedMedia sendFinalize(long mediaId) throws TwitterException {
-        return new UploadedMedia(
-                twitter.post(twitter.conf.getUploadBaseURL() + "media/upload.json",
-                            new HttpParameter("command", "FINALIZE"),
-                            new HttpParameter("media_id", mediaId)).asJSONObject());
+        return new UploadedMedia(twitter.post(uploadURL(), finalizeParameters(mediaId)).asJSONObject());
     }
 
     private UploadedMedia getStatus(long mediaId) throws TwitterException {
-        return new UploadedMedia(
-                twitter.get(twitter.conf.getUploadBaseURL() + "media/upload.json",
-                        new HttpParameter("command", "STATUS"),
-                        new HttpParameter("media_id", mediaId)).asJSONObject());
+        return new UploadedMedia(twitter.get(uploadURL(), statusParameters(mediaId)).asJSONObject());
+    }
+
+    private static final class Segment {
+        private final byte[] data;
+        private int index;
+        private int length;
+
+        Segment(int size) {
+            data = new byte[size];
+        }
+    }
+
+    private interface SegmentSource extends Closeable {
+        /**
+         * Reads the next segment nobody has claimed yet.
+         *
+         * @param segment segment to read into
+         * @return false if the media has been read completely
+         * @throws IOException when the media couldn't be read
+         */
+        boolean next(Segment segment) throws IOException;
+    }
+
+    /**
+     * Reads segments with positional reads, so segments are read concurrently without sharing a position.
+     */
+    private static final class FileSegmentSource implements SegmentSource {
+        private final FileChannel channel;
+        private final int segmentSize;
+        private final long size;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+
+        FileSegmentSource(FileChannel channel, int segmentSize) throws IOException {
+            this.channel = channel;
+            this.segmentSize = segmentSize;
+            this.size = channel.size();
+        }
+
+        @Override
+        public boolean next(Segment segment) throws IOException {
+            int index = nextIndex.getAndIncrement();
+            long position = (long) index * segmentSize;
+            if (position >= size) {
+                return false;
+            }
+            int length = (int) Math.min(segmentSize, size - position);
+            ByteBuffer buffer = ByteBuffer.wrap(segment.data, 0, length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+                }
+            }
+            segment.index = index;
+            segment.length = length;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads segments one after another, as a stream has a single position.
+     */
+    private static final class StreamSegmentSource implements SegmentSource {
+        private final InputStream stream;
+        private int nextIndex;
+
+        StreamSegmentSource(InputStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public synchronized boolean next(Segment segment) throws IOException {
+            int length = 0;
+            int bytesRead;
+            while (length < segment.data.length
+                    && (bytesRead = stream.read(segment.data, length, segment.data.length - length)) > 0) {
+                length += bytesRead;
+            }
+            if (length == 0) {
+                return false;
+            }
+            segment.index = nextIndex++;
+            segment.length = length;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // the stream belongs to the caller
+        }
     }
 
     private void onProgress(String progress, long uploadedBytes, long totalBytes, String finalizeProcessingState, int finalizeProgressPercent) {
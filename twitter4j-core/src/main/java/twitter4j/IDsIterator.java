@@ -0,0 +1,112 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a cursored IDs endpoint (friends/ids, followers/ids) page by page.<br>
+ * The first page is requested on the first call to {@link #hasNext()}. Every time a page arrives, the page after it
+ * is requested right away, so it is fetched in the background while the current one is consumed. At most two pages
+ * are held at a time.<br>
+ * Failures are thrown as {@link java.util.concurrent.CompletionException} with the TwitterException as the cause.
+ * Not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class IDsIterator implements PrimitiveIterator.OfLong {
+    private static final long[] EMPTY = new long[0];
+
+    private final LongFunction<CompletableFuture<IDs>> fetcher;
+    private long[] ids = EMPTY;
+    private int index = 0;
+    private boolean started = false;
+    // null once the last page has been taken
+    private CompletableFuture<IDs> next;
+
+    /**
+     * @param fetcher requests the page at the given cursor
+     */
+    /*package*/ IDsIterator(LongFunction<CompletableFuture<IDs>> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = fetcher.apply(-1L);
+        }
+        while (index == ids.length) {
+            if (next == null) {
+                return false;
+            }
+            IDs page = next.join();
+            next = page.hasNext() ? fetcher.apply(page.getNextCursor()) : null;
+            ids = page.getIDs();
+            index = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public long nextLong() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ids[index++];
+    }
+
+    /**
+     * Cancels the page being prefetched, if any, and stops the iteration.
+     */
+    /*package*/ void close() {
+        started = true;
+        ids = EMPTY;
+        index = 0;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    /**
+     * Returns a sequential stream over the IDs. Closing the stream cancels the page being prefetched.
+     *
+     * @param fetcher requests the page at the given cursor
+     * @return the stream
+     */
+    /*package*/ static LongStream stream(LongFunction<CompletableFuture<IDs>> fetcher) {
+        final IDsIterator iterator = new IDsIterator(fetcher);
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        iterator.close();
+                    }
+                });
+    }
+}
@@ -16,6 +16,8 @@
 
 package twitter4j;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * @author Dan Checkoway - dcheckoway at gmail.com
  * @since Twitter4J 2.1.9
@@ -72,81 +74,267 @@ public final class JSONObjectType {
         // This code originally lived in AbstractStreamImplementation.
         // I've moved it in here to expose it as a public encapsulation of
         // the object type determination logic.
-        if (!json.isNull("sender")) {
+        int found = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            if (!json.isNull(KEYS[i])) {
+                found |= 1 << i;
+            }
+        }
+        String event = null;
+        if ((found & EVENT) != 0) {
+            try {
+                event = json.getString("event");
+            } catch (JSONException jsone) {
+                try {
+                    logger.warn("Failed to get event element: ", json.toString(2));
+                } catch (JSONException ignore) {
+                }
+            }
+        }
+        return determine(found, event);
+    }
+
+    /**
+     * Determine the respective object type of a raw JSON message, without parsing it into a JSONObject.<br>
+     * Only the top level keys and the "event" value are looked at, nested objects are skipped over, so classifying a
+     * message costs a fraction of parsing it. Gives the same result as {@link #determine(JSONObject)} for well-formed
+     * messages.
+     *
+     * @param json raw JSON message
+     * @return the determined JSONObjectType, UNKNOWN if not recognized or malformed
+     * @since Twitter4J 4.0.8
+     */
+    public static Type determine(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return determine(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Determine the respective object type of a UTF-8 encoded JSON message, without parsing it into a JSONObject.
+     *
+     * @param json   buffer holding the message
+     * @param offset index of the message in the buffer
+     * @param length length of the message. bytes following the top level object are ignored
+     * @return the determined JSONObjectType, UNKNOWN if not recognized or malformed
+     * @see #determine(String)
+     * @since Twitter4J 4.0.8
+     */
+    public static Type determine(byte[] json, int offset, int length) {
+        int end = offset + length;
+        int i = skipWhitespace(json, offset, end);
+        if (i == end || json[i] != '{') {
+            return Type.UNKNOWN;
+        }
+        i++;
+        int found = 0;
+        String event = null;
+        while (true) {
+            i = skipWhitespace(json, i, end);
+            if (i == end) {
+                return Type.UNKNOWN;
+            }
+            if (json[i] == '}') {
+                break;
+            }
+            if (json[i] == ',') {
+                i++;
+                continue;
+            }
+            if (json[i] != '"') {
+                return Type.UNKNOWN;
+            }
+            int keyStart = i + 1;
+            i = skipString(json, i, end);
+            if (i == -1) {
+                return Type.UNKNOWN;
+            }
+            int key = key(json, keyStart, i - 1);
+            i = skipWhitespace(json, i, end);
+            if (i == end || json[i] != ':') {
+                return Type.UNKNOWN;
+            }
+            i = skipWhitespace(json, i + 1, end);
+            if (i == end) {
+                return Type.UNKNOWN;
+            }
+            int valueStart = i;
+            i = skipValue(json, i, end);
+            if (i == -1) {
+                return Type.UNKNOWN;
+            }
+            boolean isNull = i - valueStart == 4 && json[valueStart] == 'n';
+            if (key != 0 && !isNull) {
+                found |= key;
+                if (key == EVENT && json[valueStart] == '"') {
+                    // event names are plain ASCII
+                    event = new String(json, valueStart + 1, i - valueStart - 2, StandardCharsets.ISO_8859_1);
+                }
+            }
+        }
+        return determine(found, event);
+    }
+
+    // top level keys telling the types apart, in order of precedence
+    private static final String[] KEYS = {"sender", "text", "direct_message", "delete", "limit", "warning",
+            "scrub_geo", "friends", "event", "disconnect"};
+    private static final byte[][] KEY_BYTES = new byte[KEYS.length][];
+    private static final int EVENT = 1 << 8;
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEY_BYTES[i] = KEYS[i].getBytes(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static Type determine(int found, String event) {
+        if ((found & 1) != 0) {
             return Type.SENDER;
-        } else if (!json.isNull("text")) {
+        } else if ((found & 1 << 1) != 0) {
             return Type.STATUS;
-        } else if (!json.isNull("direct_message")) {
+        } else if ((found & 1 << 2) != 0) {
             return Type.DIRECT_MESSAGE;
-        } else if (!json.isNull("delete")) {
+        } else if ((found & 1 << 3) != 0) {
             return Type.DELETE;
-        } else if (!json.isNull("limit")) {
+        } else if ((found & 1 << 4) != 0) {
             return Type.LIMIT;
-        } else if (!json.isNull("warning")) {
+        } else if ((found & 1 << 5) != 0) {
             return Type.STALL_WARNING;
-        } else if (!json.isNull("scrub_geo")) {
+        } else if ((found & 1 << 6) != 0) {
             return Type.SCRUB_GEO;
-        } else if (!json.isNull("friends")) {
+        } else if ((found & 1 << 7) != 0) {
             return Type.FRIENDS;
-        } else if (!json.isNull("event")) {
-            String event;
-            try {
-                event = json.getString("event");
-                if ("favorite".equals(event)) {
-                    return Type.FAVORITE;
-                } else if ("unfavorite".equals(event)) {
-                    return Type.UNFAVORITE;
-                } else if ("follow".equals(event)) {
-                    return Type.FOLLOW;
-                } else if ("unfollow".equals(event)) {
-                    return Type.UNFOLLOW;
-                } else if (event.startsWith("list")) {
-                    if ("list_member_added".equals(event)) {
-                        return Type.USER_LIST_MEMBER_ADDED;
-                    } else if ("list_member_removed".equals(event)) {
-                        return Type.USER_LIST_MEMBER_DELETED;
-                    } else if ("list_user_subscribed".equals(event)) {
-                        return Type.USER_LIST_SUBSCRIBED;
-                    } else if ("list_user_unsubscribed".equals(event)) {
-                        return Type.USER_LIST_UNSUBSCRIBED;
-                    } else if ("list_created".equals(event)) {
-                        return Type.USER_LIST_CREATED;
-                    } else if ("list_updated".equals(event)) {
-                        return Type.USER_LIST_UPDATED;
-                    } else if ("list_destroyed".equals(event)) {
-                        return Type.USER_LIST_DESTROYED;
-                    }
-                } else if ("user_update".equals(event)) {
-                    return Type.USER_UPDATE;
-                } else if ("user_delete".equals(event)) {
-                    return Type.USER_DELETE;
-                } else if ("user_suspend".equals(event)) {
-                    return Type.USER_SUSPEND;
-                } else if ("block".equals(event)) {
-                    return Type.BLOCK;
-                } else if ("unblock".equals(event)) {
-                    return Type.UNBLOCK;
-                } else if("retweeted_retweet".equals(event)){
-                    return Type.RETWEETED_RETWEET;
-                } else if("favorited_retweet".equals(event)){
-                    return Type.FAVORITED_RETWEET;
-                } else if("quoted_tweet".equals(event)){
-                    return Type.QUOTED_TWEET;
-                } else if("mute".equals(event)) {
-                    return Type.MUTE;
-                } else if("unmute".equals(event)) {
-                    return Type.UNMUTE;
-                }
-
-            } catch (JSONException jsone) {
-                try {
-                    logger.warn("Failed to get event element: ", json.toString(2));
-                } catch (JSONException ignore) {
+        } else if ((found & EVENT) != 0) {
+            if (event == null) {
+                return Type.UNKNOWN;
+            }
+            if ("favorite".equals(event)) {
+                return Type.FAVORITE;
+            } else if ("unfavorite".equals(event)) {
+                return Type.UNFAVORITE;
+            } else if ("follow".equals(event)) {
+                return Type.FOLLOW;
+            } else if ("unfollow".equals(event)) {
+                return Type.UNFOLLOW;
+            } else if (event.startsWith("list")) {
+                if ("list_member_added".equals(event)) {
+                    return Type.USER_LIST_MEMBER_ADDED;
+                } else if ("list_member_removed".equals(event)) {
+                    return Type.USER_LIST_MEMBER_DELETED;
+                } else if ("list_user_subscribed".equals(event)) {
+                    return Type.USER_LIST_SUBSCRIBED;
+                } else if ("list_user_unsubscribed".equals(event)) {
+                    return Type.USER_LIST_UNSUBSCRIBED;
+                } else if ("list_created".equals(event)) {
+                    return Type.USER_LIST_CREATED;
+                } else if ("list_updated".equals(event)) {
+                    return Type.USER_LIST_UPDATED;
+                } else if ("list_destroyed".equals(event)) {
+                    return Type.USER_LIST_DESTROYED;
                 }
+            } else if ("user_update".equals(event)) {
+                return Type.USER_UPDATE;
+            } else if ("user_delete".equals(event)) {
+                return Type.USER_DELETE;
+            } else if ("user_suspend".equals(event)) {
+                return Type.USER_SUSPEND;
+            } else if ("block".equals(event)) {
+                return Type.BLOCK;
+            } else if ("unblock".equals(event)) {
+                return Type.UNBLOCK;
+            } else if("retweeted_retweet".equals(event)){
+                return Type.RETWEETED_RETWEET;
+            } else if("favorited_retweet".equals(event)){
+                return Type.FAVORITED_RETWEET;
+            } else if("quoted_tweet".equals(event)){
+                return Type.QUOTED_TWEET;
+            } else if("mute".equals(event)) {
+                return Type.MUTE;
+            } else if("unmute".equals(event)) {
+                return Type.UNMUTE;
             }
-        } else if (!json.isNull("disconnect")) {
+        } else if ((found & 1 << 9) != 0) {
             return Type.DISCONNECTION;
         }
         return Type.UNKNOWN;
     }
+
+    /**
+     * @return the bit of the key spanning json[start, end), 0 if the key doesn't tell types apart
+     */
+    private static int key(byte[] json, int start, int end) {
+        outer:
+        for (int i = 0; i < KEY_BYTES.length; i++) {
+            byte[] key = KEY_BYTES[i];
+            if (key.length != end - start) {
+                continue;
+            }
+            for (int j = 0; j < key.length; j++) {
+                if (json[start + j] != key[j]) {
+                    continue outer;
+                }
+            }
+            return 1 << i;
+        }
+        return 0;
+    }
+
+    private static int skipWhitespace(byte[] json, int i, int end) {
+        while (i < end && (json[i] == ' ' || json[i] == '\t' || json[i] == '\r' || json[i] == '\n')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @param i index of the opening quote
+     * @return index following the closing quote, -1 if unterminated
+     */
+    private static int skipString(byte[] json, int i, int end) {
+        for (i++; i < end; i++) {
+            if (json[i] == '\\') {
+                i++;
+            } else if (json[i] == '"') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param i index of the first byte of the value
+     * @return index following the value, -1 if malformed
+     */
+    private static int skipValue(byte[] json, int i, int end) {
+        byte c = json[i];
+        if (c == '"') {
+            return skipString(json, i, end);
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (i < end) {
+                c = json[i];
+                if (c == '"') {
+                    i = skipString(json, i, end);
+                    if (i == -1) {
+                        return -1;
+                    }
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) {
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+            return -1;
+        }
+        // number, true, false or null
+        while (i < end && (c = json[i]) != ',' && c != '}' && c != ']' && c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+            i++;
+        }
+        return i;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces concurrent single id lookups into batch lookups of up to 100 ids.<br>
+ * The first caller of a batch waits for the coalescing window to elapse, or for the batch to fill up, and then sends
+ * the batch lookup on its own thread, while the other callers of the batch wait for its result. Callers asking for an
+ * id which is already queued or being looked up share the pending result instead of adding it again.<br>
+ * Ids missing from the batch response are requested again on their own by the callers asking for them, so that they
+ * get the same error as without coalescing (e.g. 403 rather than 404 for a suspended user). A failed batch lookup is
+ * thrown to each caller as its own exception, having the shared one as the cause.<br>
+ * Thread safe.
+ *
+ * @param <T> type of the looked up objects
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.conf.Configuration#getLookupCoalescingWindowMillis()
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class LookupCoalescer<T> {
+    // users/lookup and statuses/lookup accept up to 100 ids per request
+    /*package*/ static final int MAX_BATCH_SIZE = 100;
+
+    /*package*/ interface Loader<T> {
+        /**
+         * @param ids ids to look up
+         * @return the objects found, keyed by id
+         * @throws TwitterException when the lookup failed
+         */
+        Map<Long, T> load(long[] ids) throws TwitterException;
+
+        /**
+         * @param id id missing from the lookup response
+         * @return the object with the given id, looked up with the single id request
+         * @throws TwitterException when the object wasn't found or the lookup failed
+         */
+        T loadOne(long id) throws TwitterException;
+    }
+
+    private final long windowNanos;
+    private final Loader<T> loader;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchFull = lock.newCondition();
+    // guarded by lock
+    private final Map<Long, CompletableFuture<T>> inFlight = new HashMap<Long, CompletableFuture<T>>();
+    // the batch accepting ids, guarded by lock
+    private List<Long> filling;
+
+    /*package*/ LookupCoalescer(long windowMillis, Loader<T> loader) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.loader = loader;
+    }
+
+    /**
+     * @param id id to look up
+     * @return the object with the given id
+     * @throws TwitterException when the object wasn't found or the lookup failed
+     */
+    /*package*/ T get(long id) throws TwitterException {
+        CompletableFuture<T> future;
+        List<Long> batch = null;
+        lock.lock();
+        try {
+            future = inFlight.get(id);
+            if (future == null) {
+                future = new CompletableFuture<T>();
+                inFlight.put(id, future);
+                if (filling == null) {
+                    filling = new ArrayList<Long>(MAX_BATCH_SIZE);
+                    batch = filling;
+                }
+                filling.add(id);
+                if (filling.size() == MAX_BATCH_SIZE) {
+                    // the next caller starts a new batch
+                    filling = null;
+                    batchFull.signalAll();
+                }
+            }
+            if (batch != null) {
+                long remaining = windowNanos;
+                try {
+                    while (filling == batch && remaining > 0) {
+                        remaining = batchFull.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    // send what has been gathered so far
+                    Thread.currentThread().interrupt();
+                }
+                if (filling == batch) {
+                    filling = null;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+        T value;
+        try {
+            value = future.get();
+        } catch (ExecutionException ee) {
+            throw ((TwitterException) ee.getCause()).copy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TwitterException("Interrupted while waiting for the lookup of " + id, e);
+        }
+        if (value == null) {
+            return loader.loadOne(id);
+        }
+        return value;
+    }
+
+    private void send(List<Long> batch) {
+        long[] ids = new long[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = batch.get(i);
+        }
+        Map<Long, T> found = null;
+        TwitterException failure = null;
+        try {
+            found = loader.load(ids);
+        } catch (TwitterException te) {
+            failure = te;
+        } catch (RuntimeException re) {
+            failure = new TwitterException(re);
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<CompletableFuture<T>>(ids.length);
+        lock.lock();
+        try {
+            // later callers start a new lookup rather than getting this result
+            for (long id : ids) {
+                futures.add(inFlight.remove(id));
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (failure != null) {
+                futures.get(i).completeExceptionally(failure);
+            } else {
+                // null for the ids missing from the response
+                futures.get(i).complete(found.get(ids[i]));
+            }
+        }
+    }
+}
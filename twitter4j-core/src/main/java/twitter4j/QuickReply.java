@@ -32,6 +32,11 @@ public final class QuickReply implements java.io.Serializable{
         this.metadata = metadata;
     }
 
+    /* Only for serialization purposes. */
+    private QuickReply() {
+        this(null, null, null);
+    }
+
     public String getLabel() {
         return label;
     }
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.auth.Authorization;
+import twitter4j.conf.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Tracks the rate limit status per authorization and per endpoint family from the X-Rate-Limit-* response headers,
+ * and holds calls back before they would be rejected with 429 Too Many Requests.<br>
+ * The endpoint family of a URL is its path with numeric segments replaced by ":id", e.g. "/1.1/statuses/show/:id".<br>
+ * Two policies are supported:
+ * <ul>
+ * <li>{@link Policy#DELAY} lets calls through while the window has quota left, and holds them until the window
+ * resets once exhausted.</li>
+ * <li>{@link Policy#FAIR_SHARE} spreads the remaining quota evenly over the rest of the window, and hands out the
+ * slots in the order callers arrive. Thus many threads calling an endpoint family with the same authorization (e.g.
+ * an application-only bearer token) can't drain the window with a burst from one of them. The share is computed per
+ * authorization and endpoint family only: calls made with different tokens have separate quotas and are not
+ * balanced against each other.</li>
+ * </ul>
+ * An unknown policy name disables the scheduler with a warning, as "NONE" does.<br>
+ * Endpoints never seen before, and endpoints without rate limit headers, are not throttled.<br>
+ * The status of a family is forgotten once its window has reset, until a response reports the new window.<br>
+ * An instance is shared by all Twitter instances built with an equal configuration. Thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.conf.Configuration#getRateLimitSchedulerPolicy()
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class RateLimitScheduler {
+    private static final Logger logger = Logger.getLogger(RateLimitScheduler.class);
+    // tolerates clock skew between the client and the API
+    private static final long RESET_MARGIN_MILLIS = 1000;
+    // how often update() looks for families whose window has reset without being called since
+    private static final long EVICTION_INTERVAL_MILLIS = 60 * 1000;
+
+    private static final ConcurrentHashMap<Configuration, RateLimitScheduler> instances = new ConcurrentHashMap<Configuration, RateLimitScheduler>();
+
+    /*package*/ enum Policy {
+        DELAY,
+        FAIR_SHARE
+    }
+
+    private final Policy policy;
+    private final ConcurrentHashMap<Key, Bucket> buckets = new ConcurrentHashMap<Key, Bucket>();
+    private final AtomicLong nextEvictionMillis = new AtomicLong();
+
+    /*package*/ RateLimitScheduler(Policy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @param conf configuration
+     * @return the scheduler shared by the instances with the given configuration, or null if disabled
+     */
+    /*package*/ static RateLimitScheduler getInstance(Configuration conf) {
+        String policy = conf.getRateLimitSchedulerPolicy();
+        if (policy == null || "NONE".equals(policy)) {
+            return null;
+        }
+        RateLimitScheduler scheduler = instances.get(conf);
+        if (scheduler == null) {
+            Policy parsed;
+            try {
+                parsed = Policy.valueOf(policy);
+            } catch (IllegalArgumentException iae) {
+                logger.warn("Unknown rate limit scheduler policy: " + policy + ", rate limits are not scheduled");
+                return null;
+            }
+            scheduler = new RateLimitScheduler(parsed);
+            RateLimitScheduler existing = instances.putIfAbsent(conf, scheduler);
+            if (existing != null) {
+                scheduler = existing;
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Blocks until a call to the given URL is allowed.
+     *
+     * @param auth authorization the call will be made with
+     * @param url  URL
+     * @throws TwitterException when interrupted while waiting
+     */
+    /*package*/ void acquire(Authorization auth, String url) throws TwitterException {
+        long delay;
+        do {
+            delay = reserve(auth, url);
+            if (delay != 0) {
+                logger.debug("Delaying " + Math.abs(delay) + " ms to stay within the rate limit: ", url);
+                try {
+                    Thread.sleep(Math.abs(delay));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new TwitterException("Interrupted while waiting for the rate limit to reset", ie);
+                }
+            }
+        } while (delay < 0);
+    }
+
+    /**
+     * @param auth authorization the call will be made with
+     * @param url  URL
+     * @return a future completed when a call to the given URL is allowed, without blocking any thread
+     */
+    /*package*/ CompletableFuture<Void> acquireAsync(final Authorization auth, final String url) {
+        final long delay = reserve(auth, url);
+        if (delay == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.debug("Delaying " + Math.abs(delay) + " ms to stay within the rate limit: ", url);
+        CompletableFuture<Void> delayed = CompletableFuture.runAsync(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, CompletableFuture.delayedExecutor(Math.abs(delay), TimeUnit.MILLISECONDS));
+        if (delay > 0) {
+            return delayed;
+        }
+        return delayed.thenCompose(new Function<Void, CompletionStage<Void>>() {
+            @Override
+            public CompletionStage<Void> apply(Void ignore) {
+                return acquireAsync(auth, url);
+            }
+        });
+    }
+
+    /**
+     * Reserves a call to the given URL.
+     *
+     * @param auth authorization the call will be made with
+     * @param url  URL
+     * @return 0 if the call has been reserved and can be made right away.<br>
+     * A positive value if the call has been reserved and can be made after waiting the returned milliseconds.<br>
+     * A negative value if the quota is exhausted. reserve() needs to be called again after waiting the absolute
+     * value in milliseconds.
+     */
+    /*package*/ long reserve(Authorization auth, String url) {
+        Key key = new Key(auth, toFamily(url));
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long delay = bucket.reserve(now);
+        if (delay == Bucket.EXPIRED) {
+            // the window has been reset since the last response. not throttled until told otherwise
+            buckets.remove(key, bucket);
+            return 0;
+        }
+        return delay;
+    }
+
+    /**
+     * Records the rate limit status reported by the API.
+     *
+     * @param auth   authorization the call was made with
+     * @param url    URL
+     * @param status rate limit status
+     */
+    /*package*/ void update(Authorization auth, String url, RateLimitStatus status) {
+        Key key = new Key(auth, toFamily(url));
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket(policy);
+            Bucket existing = buckets.putIfAbsent(key, bucket);
+            if (existing != null) {
+                bucket = existing;
+            }
+        }
+        bucket.update(status.getRemaining(), status.getResetTimeInSeconds() * 1000L + RESET_MARGIN_MILLIS);
+
+        long now = System.currentTimeMillis();
+        long next = nextEvictionMillis.get();
+        if (now >= next && nextEvictionMillis.compareAndSet(next, now + EVICTION_INTERVAL_MILLIS)) {
+            evictExpired(now);
+        }
+    }
+
+    /**
+     * Removes the buckets whose window has reset.
+     *
+     * @param now current time in milliseconds
+     */
+    /*package*/ void evictExpired(long now) {
+        for (Map.Entry<Key, Bucket> entry : buckets.entrySet()) {
+            if (entry.getValue().isExpired(now)) {
+                buckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @param url URL
+     * @return the path of the URL with numeric segments but the version replaced by ":id" and the .json extension removed
+     */
+    /*package*/ static String toFamily(String url) {
+        int start = url.indexOf("://");
+        start = url.indexOf('/', start == -1 ? 0 : start + 3);
+        if (start == -1) {
+            return "/";
+        }
+        int end = url.indexOf('?', start);
+        if (end == -1) {
+            end = url.length();
+        }
+        if (url.startsWith(".json", end - 5)) {
+            end -= 5;
+        }
+        StringBuilder family = new StringBuilder(end - start + 4);
+        int segmentStart = start;
+        while (segmentStart < end) {
+            int segmentEnd = url.indexOf('/', segmentStart + 1);
+            if (segmentEnd == -1 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            // segmentStart points to the leading '/'. the first segment is the API version, e.g. "/2"
+            boolean numeric = segmentStart != start && segmentEnd - segmentStart > 1;
+            for (int i = segmentStart + 1; numeric && i < segmentEnd; i++) {
+                char c = url.charAt(i);
+                numeric = c >= '0' && c <= '9';
+            }
+            if (numeric) {
+                family.append("/:id");
+            } else {
+                family.append(url, segmentStart, segmentEnd);
+            }
+            segmentStart = segmentEnd;
+        }
+        return family.toString();
+    }
+
+    /*package*/ int size() {
+        return buckets.size();
+    }
+
+    private static final class Key {
+        private final Authorization auth;
+        private final String family;
+        private final int hash;
+
+        Key(Authorization auth, String family) {
+            this.auth = auth;
+            this.family = family;
+            this.hash = 31 * auth.hashCode() + family.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            // Authorization implementations only compare with their own kind
+            return hash == that.hash && family.equals(that.family)
+                    && auth.getClass() == that.auth.getClass() && auth.equals(that.auth);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Bucket {
+        // returned by reserve() once the window has reset
+        static final long EXPIRED = Long.MIN_VALUE;
+        private final Policy policy;
+        private int remaining;
+        private long resetMillis;
+        // next slot handed out by FAIR_SHARE
+        private long nextSlotMillis;
+
+        Bucket(Policy policy) {
+            this.policy = policy;
+        }
+
+        synchronized void update(int remaining, long resetMillis) {
+            if (resetMillis > this.resetMillis) {
+                // a new window
+                this.remaining = remaining;
+                this.resetMillis = resetMillis;
+            } else if (resetMillis == this.resetMillis) {
+                // responses may arrive out of order, and calls reserved locally may not have been reported yet
+                this.remaining = Math.min(this.remaining, remaining);
+            }
+        }
+
+        synchronized boolean isExpired(long now) {
+            return now >= resetMillis;
+        }
+
+        synchronized long reserve(long now) {
+            if (now >= resetMillis) {
+                return EXPIRED;
+            }
+            if (remaining <= 0) {
+                return -Math.max(1, resetMillis - now);
+            }
+            remaining--;
+            if (policy == Policy.DELAY) {
+                return 0;
+            }
+            long slot = Math.max(now, nextSlotMillis);
+            nextSlotMillis = slot + (resetMillis - slot) / (remaining + 1);
+            return slot - now;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitScheduler{" +
+                "policy=" + policy +
+                ", buckets=" + buckets.size() +
+                '}';
+    }
+}
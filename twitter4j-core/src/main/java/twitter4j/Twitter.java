@@ -15,6 +15,7 @@
  */
 package twitter4j;
 
+import twitter4j.api.AsyncV1Resources;
 import twitter4j.api.V1Resources;
 import twitter4j.auth.OAuth2Support;
 import twitter4j.auth.OAuthSupport;
@@ -35,4 +36,12 @@ public interface Twitter extends java.io.Serializable,
      */
     V1Resources v1Resources();
 
+    /**
+     * Provides v1.1 APIs returning {@link java.util.concurrent.CompletableFuture}s instead of blocking the caller
+     *
+     * @return {@link twitter4j.api.AsyncV1Resources}
+     * @since Twitter4J 4.0.8
+     */
+    AsyncV1Resources asyncV1Resources();
+
 }
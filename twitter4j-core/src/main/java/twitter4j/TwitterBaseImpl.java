@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static twitter4j.HttpResponseCode.*;
 
@@ -32,7 +33,7 @@ import static twitter4j.HttpResponseCode.*;
  *
  * @author Yusuke Yamamoto - yusuke at mac.com
  */
-abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAuthSupport, OAuth2Support, HttpResponseListener {
+abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAuthSupport, OAuth2Support, HttpResponseListener, HttpRequestGate {
     private static final String WWW_DETAILS = "See http://twitter4j.org/en/configuration.html for details. See and register at http://apps.twitter.com/";
     private static final long serialVersionUID = -7824361938865528554L;
 
@@ -41,10 +42,12 @@ abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAu
     private transient long id = 0;
 
     transient HttpClient http;
-    private List<RateLimitStatusListener> rateLimitStatusListeners = new ArrayList<RateLimitStatusListener>(0);
+    private List<RateLimitStatusListener> rateLimitStatusListeners = new CopyOnWriteArrayList<RateLimitStatusListener>();
 
     ObjectFactory factory;
 
+    transient RateLimitScheduler rateLimitScheduler;
+
     Authorization auth;
 
     /*package*/ TwitterBaseImpl(Configuration conf, Authorization auth) {
@@ -53,6 +56,23 @@ abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAu
         init();
     }
 
+    /**
+     * Creates an instance sharing the transport, the object factory and the rate limit status listeners with the
+     * given instance, only the authorization differs.
+     *
+     * @param shared instance to share the resources with
+     * @param auth   authorization
+     * @see TwitterPool
+     */
+    /*package*/ TwitterBaseImpl(TwitterBaseImpl shared, Authorization auth) {
+        this.conf = shared.conf;
+        this.auth = auth;
+        this.http = shared.http;
+        this.factory = shared.factory;
+        this.rateLimitStatusListeners = shared.rateLimitStatusListeners;
+        this.rateLimitScheduler = shared.rateLimitScheduler;
+    }
+
     private void init() {
         if (null == auth) {
             // try to populate OAuthAuthorization if available in the configuration
@@ -83,11 +103,16 @@ abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAu
             }
         }
         http = HttpClientFactory.getInstance(conf.getHttpClientConfiguration());
+        rateLimitScheduler = RateLimitScheduler.getInstance(conf);
         setFactory();
     }
 
     void setFactory() {
-        factory = new JSONImplFactory(conf);
+        if (conf.isStreamingJSONParserEnabled()) {
+            factory = new StreamingJSONImplFactory(conf);
+        } else {
+            factory = new JSONImplFactory(conf);
+        }
     }
 
     @Override
@@ -130,7 +155,12 @@ abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAu
     
     User fillInIDAndScreenName(HttpParameter[] parameters) throws TwitterException {
         ensureAuthorizationEnabled();
-        User user = new UserJSONImpl(http.get(conf.getRestBaseURL() + "account/verify_credentials.json", parameters, auth, this), conf);
+        String url = conf.getRestBaseURL() + "account/verify_credentials.json";
+        if (rateLimitScheduler != null && !(http instanceof HttpClientBase)) {
+            // HttpClientBase calls awaitRequest() instead
+            rateLimitScheduler.acquire(auth, url);
+        }
+        User user = new UserJSONImpl(http.get(url, parameters, auth, this), conf);
         this.screenName = user.getScreenName();
         this.id = user.getId();
         return user;
@@ -169,9 +199,19 @@ abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAu
         });
     }
 
+    /**
+     * Holds the request back until the rate limit allows it, if the rate limit scheduler is enabled.
+     */
+    @Override
+    public void awaitRequest(HttpRequest req) throws TwitterException {
+        if (rateLimitScheduler != null && req.getAuthorization() != null) {
+            rateLimitScheduler.acquire(req.getAuthorization(), req.getURL());
+        }
+    }
+
     @Override
     public void httpResponseReceived(HttpResponseEvent event) {
-        if (rateLimitStatusListeners.size() != 0) {
+        if (rateLimitStatusListeners.size() != 0 || rateLimitScheduler != null) {
             HttpResponse res = event.getResponse();
             TwitterException te = event.getTwitterException();
             RateLimitStatus rateLimitStatus;
@@ -184,6 +224,10 @@ abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAu
                 statusCode = res.getStatusCode();
             }
             if (rateLimitStatus != null) {
+                if (rateLimitScheduler != null) {
+                    HttpRequest req = event.getRequest();
+                    rateLimitScheduler.update(req.getAuthorization(), req.getURL(), rateLimitStatus);
+                }
                 RateLimitStatusEvent statusEvent
                         = new RateLimitStatusEvent(this, rateLimitStatus, event.isAuthenticated());
                 if (statusCode == ENHANCE_YOUR_CLAIM
@@ -251,8 +295,10 @@ abstract class TwitterBaseImpl implements TwitterBase, java.io.Serializable, OAu
 
         conf = (Configuration) stream.readObject();
         auth = (Authorization) stream.readObject();
-        rateLimitStatusListeners = (List<RateLimitStatusListener>) stream.readObject();
+        rateLimitStatusListeners = new CopyOnWriteArrayList<RateLimitStatusListener>(
+                (List<RateLimitStatusListener>) stream.readObject());
         http = HttpClientFactory.getInstance(conf.getHttpClientConfiguration());
+        rateLimitScheduler = RateLimitScheduler.getInstance(conf);
         setFactory();
     }
 
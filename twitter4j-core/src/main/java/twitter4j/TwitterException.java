@@ -33,6 +33,8 @@ public class TwitterException extends Exception implements TwitterResponse, Http
     private ExceptionDiagnosis exceptionDiagnosis = null;
     private HttpResponse response;
     private String errorMessage = null;
+    // set by copy(), whose cause is the copied exception
+    private boolean causedByNetworkIssue = false;
 
     public TwitterException(String message, Throwable cause) {
         super(message, cause);
@@ -171,7 +173,7 @@ public class TwitterException extends Exception implements TwitterResponse, Http
      * @since Twitter4J 2.1.2
      */
     public boolean isCausedByNetworkIssue() {
-        return getCause() instanceof java.io.IOException;
+        return causedByNetworkIssue || getCause() instanceof java.io.IOException;
     }
 
     /**
@@ -226,6 +228,19 @@ public class TwitterException extends Exception implements TwitterResponse, Http
         nested = true;
     }
 
+    /**
+     * @return an exception with the status, error and response of this exception, having it as the cause
+     */
+    /*package*/ TwitterException copy() {
+        TwitterException copy = new TwitterException(super.getMessage(), this);
+        copy.statusCode = statusCode;
+        copy.errorCode = errorCode;
+        copy.errorMessage = errorMessage;
+        copy.response = response;
+        copy.causedByNetworkIssue = isCausedByNetworkIssue();
+        return copy;
+    }
+
     /**
      * Returns error message from the API if available.
      *
@@ -18,9 +18,22 @@
 package twitter4j;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+import twitter4j.api.AsyncV1Resources;
 import twitter4j.api.V1Resources;
 import twitter4j.auth.Authorization;
 import twitter4j.conf.Configuration;
@@ -42,6 +55,15 @@ class TwitterImpl extends TwitterBaseImpl implements Twitter {
     private static final ConcurrentHashMap<Configuration, HttpParameter[]> implicitParamsMap = new ConcurrentHashMap<Configuration, HttpParameter[]>();
     private static final ConcurrentHashMap<Configuration, String> implicitParamsStrMap = new ConcurrentHashMap<Configuration, String>();
 
+    private static final AtomicInteger requestThreadCount = new AtomicInteger();
+
+    // runs blocking calls for asyncV1Resources() unless the configured client is non-blocking, lazily initialized
+    private transient ThreadPoolExecutor requestExecutor;
+
+    // coalesce showUser(long) / showStatus(long) into lookups, lazily initialized
+    private transient LookupCoalescer<User> userCoalescer;
+    private transient LookupCoalescer<Status> statusCoalescer;
+
     /*package*/
     TwitterImpl(Configuration conf, Authorization auth) {
         super(conf, auth);
@@ -103,13 +125,94 @@ class TwitterImpl extends TwitterBaseImpl implements Twitter {
         }
     }
 
+    /**
+     * Creates an instance sharing the transport, the object factory, the implicit parameters and the rate limit
+     * status listeners with the given instance.
+     *
+     * @param shared instance to share the resources with
+     * @param auth   authorization
+     * @see TwitterPool
+     */
+    /*package*/ TwitterImpl(TwitterImpl shared, Authorization auth) {
+        super(shared, auth);
+        this.INCLUDE_MY_RETWEET = shared.INCLUDE_MY_RETWEET;
+        this.IMPLICIT_PARAMS = shared.IMPLICIT_PARAMS;
+        this.IMPLICIT_PARAMS_STR = shared.IMPLICIT_PARAMS_STR;
+    }
+
+    /**
+     * @return coalescer turning showUser(long) calls into users/lookup calls
+     * @see twitter4j.conf.Configuration#getLookupCoalescingWindowMillis()
+     */
+    /*package*/ synchronized LookupCoalescer<User> userCoalescer() {
+        if (userCoalescer == null) {
+            userCoalescer = new LookupCoalescer<User>(conf.getLookupCoalescingWindowMillis(), new LookupCoalescer.Loader<User>() {
+                @Override
+                public Map<Long, User> load(long[] ids) throws TwitterException {
+                    Map<Long, User> users = new HashMap<Long, User>();
+                    try {
+                        for (User user : factory.createUserList(get(conf.getRestBaseURL() + "users/lookup.json",
+                                new HttpParameter("user_id", StringUtil.join(ids))))) {
+                            users.put(user.getId(), user);
+                        }
+                    } catch (TwitterException te) {
+                        // users/lookup responds with 404 if none of the users was found
+                        if (te.getStatusCode() != 404) {
+                            throw te;
+                        }
+                    }
+                    return users;
+                }
+
+                @Override
+                public User loadOne(long id) throws TwitterException {
+                    // e.g. suspended users are missing from users/lookup, while users/show tells why
+                    return factory.createUser(get(conf.getRestBaseURL() + "users/show.json?user_id=" + id));
+                }
+            });
+        }
+        return userCoalescer;
+    }
+
+    /**
+     * @return coalescer turning showStatus(long) calls into statuses/lookup calls
+     * @see twitter4j.conf.Configuration#getLookupCoalescingWindowMillis()
+     */
+    /*package*/ synchronized LookupCoalescer<Status> statusCoalescer() {
+        if (statusCoalescer == null) {
+            statusCoalescer = new LookupCoalescer<Status>(conf.getLookupCoalescingWindowMillis(), new LookupCoalescer.Loader<Status>() {
+                @Override
+                public Map<Long, Status> load(long[] ids) throws TwitterException {
+                    Map<Long, Status> statuses = new HashMap<Long, Status>();
+                    for (Status status : factory.createStatusList(get(conf.getRestBaseURL() + "statuses/lookup.json",
+                            new HttpParameter("id", StringUtil.join(ids)), INCLUDE_MY_RETWEET))) {
+                        statuses.put(status.getId(), status);
+                    }
+                    return statuses;
+                }
+
+                @Override
+                public Status loadOne(long id) throws TwitterException {
+                    return factory.createStatus(get(conf.getRestBaseURL() + "statuses/show/" + id + ".json", new HttpParameter[]{INCLUDE_MY_RETWEET}));
+                }
+            });
+        }
+        return statusCoalescer;
+    }
+
     @Override
     public V1Resources v1Resources() {
         return new V1ResourcesImpl(this);
     }
 
+    @Override
+    public AsyncV1Resources asyncV1Resources() {
+        return new AsyncV1ResourcesImpl(this);
+    }
+
     /*package*/ HttpResponse get(String url) throws TwitterException {
         ensureAuthorizationEnabled();
+        awaitRateLimit(url);
         if (IMPLICIT_PARAMS_STR.length() > 0) {
             if (url.contains("?")) {
                 url = url + "&" + IMPLICIT_PARAMS_STR;
@@ -122,11 +225,11 @@ class TwitterImpl extends TwitterBaseImpl implements Twitter {
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 response = http.get(url, null, auth, this);
             } finally {
-                long elapsedTime = System.currentTimeMillis() - start;
+                long elapsedTime = System.nanoTime() - start;
                 TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
             }
             return response;
@@ -135,16 +238,17 @@ class TwitterImpl extends TwitterBaseImpl implements Twitter {
 
     /*package*/ HttpResponse get(String url, HttpParameter... params) throws TwitterException {
         ensureAuthorizationEnabled();
+        awaitRateLimit(url);
         if (!conf.isMBeanEnabled()) {
             return http.get(url, mergeImplicitParams(params), auth, this);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 response = http.get(url, mergeImplicitParams(params), auth, this);
             } finally {
-                long elapsedTime = System.currentTimeMillis() - start;
+                long elapsedTime = System.nanoTime() - start;
                 TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
             }
             return response;
@@ -153,16 +257,17 @@ class TwitterImpl extends TwitterBaseImpl implements Twitter {
 
     /*package*/ HttpResponse post(String url) throws TwitterException {
         ensureAuthorizationEnabled();
+        awaitRateLimit(url);
         if (!conf.isMBeanEnabled()) {
             return http.post(url, IMPLICIT_PARAMS, auth, this);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 response = http.post(url, IMPLICIT_PARAMS, auth, this);
             } finally {
-                long elapsedTime = System.currentTimeMillis() - start;
+                long elapsedTime = System.nanoTime() - start;
                 TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
             }
             return response;
@@ -171,16 +276,17 @@ class TwitterImpl extends TwitterBaseImpl implements Twitter {
 
     /*package*/ HttpResponse post(String url, HttpParameter... params) throws TwitterException {
         ensureAuthorizationEnabled();
+        awaitRateLimit(url);
         if (!conf.isMBeanEnabled()) {
             return http.post(url, mergeImplicitParams(params), auth, this);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 response = http.post(url, mergeImplicitParams(params), auth, this);
             } finally {
-                long elapsedTime = System.currentTimeMillis() - start;
+                long elapsedTime = System.nanoTime() - start;
                 TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
             }
             return response;
@@ -189,22 +295,146 @@ class TwitterImpl extends TwitterBaseImpl implements Twitter {
 
     /*package*/ HttpResponse post(String url, JSONObject json) throws TwitterException {
         ensureAuthorizationEnabled();
+        awaitRateLimit(url);
         if (!conf.isMBeanEnabled()) {
             return http.post(url, new HttpParameter[]{new HttpParameter(json)}, auth, this);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 response = http.post(url, new HttpParameter[]{new HttpParameter(json)}, auth, this);
             } finally {
-                long elapsedTime = System.currentTimeMillis() - start;
+                long elapsedTime = System.nanoTime() - start;
                 TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
             }
             return response;
         }
     }
 
+    /*package*/ CompletableFuture<HttpResponse> getAsync(String url) {
+        if (IMPLICIT_PARAMS_STR.length() > 0) {
+            if (url.contains("?")) {
+                url = url + "&" + IMPLICIT_PARAMS_STR;
+            } else {
+                url = url + "?" + IMPLICIT_PARAMS_STR;
+            }
+        }
+        return requestAsync(RequestMethod.GET, url, null);
+    }
+
+    /*package*/ CompletableFuture<HttpResponse> getAsync(String url, HttpParameter... params) {
+        return requestAsync(RequestMethod.GET, url, mergeImplicitParams(params));
+    }
+
+    /*package*/ CompletableFuture<HttpResponse> postAsync(String url) {
+        return requestAsync(RequestMethod.POST, url, IMPLICIT_PARAMS);
+    }
+
+    /*package*/ CompletableFuture<HttpResponse> postAsync(String url, HttpParameter... params) {
+        return requestAsync(RequestMethod.POST, url, mergeImplicitParams(params));
+    }
+
+    /**
+     * Sends the request with the configured {@link HttpClient}: without blocking any thread if it is a
+     * {@link JavaNetHttpClientImpl}, as a blocking call on a pool sized to
+     * {@link HttpClientConfiguration#getHttpMaxConnections()} otherwise.
+     */
+    private CompletableFuture<HttpResponse> requestAsync(RequestMethod method, final String url, HttpParameter[] params) {
+        ensureAuthorizationEnabled();
+        final HttpRequest req = new HttpRequest(method, url, params, auth, http.getRequestHeaders());
+        final long start = System.nanoTime();
+        CompletableFuture<HttpResponse> future;
+        if (http instanceof JavaNetHttpClientImpl) {
+            future = sendAsync((JavaNetHttpClientImpl) http, req);
+        } else {
+            future = sendBlocking(req);
+        }
+        if (!conf.isMBeanEnabled()) {
+            return future;
+        }
+        return future.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+            @Override
+            public void accept(HttpResponse response, Throwable t) {
+                // monitoring purposes
+                long elapsedTime = System.nanoTime() - start;
+                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse> sendAsync(final JavaNetHttpClientImpl client, final HttpRequest req) {
+        CompletableFuture<HttpResponse> future;
+        if (rateLimitScheduler == null) {
+            future = client.requestAsync(req);
+        } else {
+            future = rateLimitScheduler.acquireAsync(auth, req.getURL()).thenCompose(new Function<Void, CompletionStage<HttpResponse>>() {
+                @Override
+                public CompletionStage<HttpResponse> apply(Void ignore) {
+                    return client.requestAsync(req);
+                }
+            });
+        }
+        return future.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+            @Override
+            public void accept(HttpResponse response, Throwable t) {
+                TwitterException te = null;
+                if (t != null) {
+                    Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                    te = cause instanceof TwitterException ? (TwitterException) cause : new TwitterException(cause.getMessage(), cause);
+                }
+                httpResponseReceived(new HttpResponseEvent(req, response, te));
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse> sendBlocking(final HttpRequest req) {
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<HttpResponse>();
+        getRequestExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    awaitRateLimit(req.getURL());
+                    // this instance is notified of the response as the listener
+                    future.complete(http.request(req, TwitterImpl.this));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            }
+        });
+        return future;
+    }
+
+    private synchronized ThreadPoolExecutor getRequestExecutor() {
+        if (requestExecutor == null) {
+            int threads = Math.max(1, conf.getHttpClientConfiguration().getHttpMaxConnections());
+            requestExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r);
+                    thread.setName(String.format("Twitter4J Async Request[%d]", requestThreadCount.getAndIncrement()));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            // idle threads go away, so that the pool doesn't need to be shut down
+            requestExecutor.allowCoreThreadTimeOut(true);
+        }
+        return requestExecutor;
+    }
+
+    /**
+     * Holds the call back until the rate limit allows it, if the rate limit scheduler is enabled.<br>
+     * {@link HttpClientBase} holds requests back via {@link #awaitRequest(HttpRequest)} instead, once they missed the
+     * response cache, so that cached responses don't count against the rate limit.
+     */
+    private void awaitRateLimit(String url) throws TwitterException {
+        if (rateLimitScheduler != null && !(http instanceof HttpClientBase)) {
+            rateLimitScheduler.acquire(auth, url);
+        }
+    }
+
     /*package*/ HttpParameter[] mergeParameters(HttpParameter[] params1, HttpParameter[] params2) {
         if (params1 != null && params2 != null) {
             HttpParameter[] params = new HttpParameter[params1.length + params2.length];
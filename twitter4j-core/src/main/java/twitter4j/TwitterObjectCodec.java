@@ -0,0 +1,644 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary codec for {@link Status}, {@link User}, {@link DirectMessage}, {@link Place} and the entities they
+ * carry, as an alternative to Java serialization and to keeping raw JSON.<br>
+ * An {@link Encoder} writes a stream of objects sharing one string table, so that screen names, URLs, sources and the
+ * like repeating across the stream are written once. Integral values are written as variable length integers and
+ * fields holding their default value are omitted altogether.<br>
+ * Each field is written with its number and a type tag: a decoder skips the fields and object types it doesn't know
+ * and leaves the fields missing from the stream at their defaults, so streams written by other versions of
+ * Twitter4J remain readable.<br>
+ * Encoders and decoders are not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public final class TwitterObjectCodec {
+    private static final byte[] MAGIC = {'T', '4', 'J'};
+    /*package*/ static final int FORMAT_VERSION = 1;
+
+    // value tags
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    // string added to the string table
+    private static final int STRING = 6;
+    // index into the string table
+    private static final int STRING_REF = 7;
+    // string not added to the string table
+    private static final int STRING_LITERAL = 8;
+    private static final int DATE = 9;
+    private static final int LONG_ARRAY = 10;
+    private static final int ARRAY = 11;
+    private static final int OBJECT = 12;
+    private static final int MAP = 13;
+
+    // longer strings, typically tweet texts, are unlikely to repeat
+    private static final int MAX_INTERNED_LENGTH = 128;
+    private static final int MAX_STRING_TABLE_SIZE = 1 << 16;
+    // lengths read from a stream are not trusted: buffers start at most this large and grow as elements are read
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+    // model objects nest a dozen levels at most, deeper nesting only comes from malformed streams
+    private static final int MAX_DEPTH = 64;
+
+    private static final Map<Class<?>, ClassInfo> CLASS_INFO = new HashMap<Class<?>, ClassInfo>();
+    private static final ClassInfo[] CLASSES = new ClassInfo[16];
+
+    static {
+        // class ids and field numbers (position in the list + 1) are part of the format:
+        // append new classes and fields, never reorder or reuse them
+        register(1, StatusJSONImpl.class, "createdAt", "id", "text", "displayTextRangeStart", "displayTextRangeEnd",
+                "source", "isTruncated", "inReplyToStatusId", "inReplyToUserId", "isFavorited", "isRetweeted",
+                "favoriteCount", "inReplyToScreenName", "geoLocation", "place", "retweetCount", "isPossiblySensitive",
+                "lang", "contributorsIDs", "retweetedStatus", "userMentionEntities", "urlEntities", "hashtagEntities",
+                "mediaEntities", "symbolEntities", "currentUserRetweetId", "scopes", "user", "withheldInCountries",
+                "quotedStatus", "quotedStatusId", "quotedStatusPermalink", "editControl", "initialTweetId");
+        register(2, UserJSONImpl.class, "id", "name", "email", "screenName", "location", "description",
+                "descriptionURLEntities", "urlEntity", "isContributorsEnabled", "profileImageUrlHttps",
+                "isDefaultProfileImage", "url", "isProtected", "followersCount", "status", "isDefaultProfile",
+                "showAllInlineMedia", "friendsCount", "createdAt", "favouritesCount", "utcOffset", "timeZone",
+                "profileBannerImageUrl", "lang", "statusesCount", "isGeoEnabled", "isVerified", "translator",
+                "listedCount", "isFollowRequestSent", "withheldInCountries");
+        register(3, URLEntityJSONImpl.class, "url", "expandedURL", "displayURL", "start", "end");
+        register(4, HashtagEntityJSONImpl.class, "text", "start", "end");
+        register(5, UserMentionEntityJSONImpl.class, "name", "screenName", "id", "start", "end");
+        register(6, MediaEntityJSONImpl.class, "id", "url", "mediaURL", "mediaURLHttps", "expandedURL", "displayURL",
+                "sizes", "type", "videoAspectRatioWidth", "videoAspectRatioHeight", "videoDurationMillis",
+                "videoVariants", "extAltText", "additionalMediaTitle", "additionalMediaDescription",
+                "additionalMediaEmbeddable", "additionalMediaMonetizable", "additionalMediaSourceUser", "start", "end");
+        register(7, MediaEntityJSONImpl.Size.class, "width", "height", "resize");
+        register(8, MediaEntityJSONImpl.Variant.class, "bitrate", "contentType", "url");
+        register(9, PlaceJSONImpl.class, "name", "streetAddress", "countryCode", "id", "country", "placeType", "url",
+                "fullName", "boundingBoxType", "boundingBoxCoordinates", "geometryType", "geometryCoordinates",
+                "containedWithIn");
+        register(10, GeoLocation.class, "latitude", "longitude");
+        register(11, DirectMessageJSONImpl.class, "id", "text", "senderId", "recipientId", "createdAt",
+                "userMentionEntities", "urlEntities", "hashtagEntities", "mediaEntities", "symbolEntities",
+                "quickReplies", "quickReplyResponse");
+        register(12, ScopesImpl.class, "placeIds");
+        register(13, EditControlImpl.class, "editTweetIds", "editableUntilMsecs", "editsRemaining", "editEligible");
+        register(14, QuotedStatusPermalinkJSONImpl.class, "url", "expandedURL", "displayURL", "start", "end");
+        register(15, QuickReply.class, "label", "description", "metadata");
+    }
+
+    private static void register(int id, Class<?> clazz, String... fieldNames) {
+        ClassInfo info = new ClassInfo(id, clazz, fieldNames);
+        CLASSES[id] = info;
+        CLASS_INFO.put(clazz, info);
+    }
+
+    private static final class ClassInfo {
+        private final int id;
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+        // field values of a newly constructed instance, which need not be written
+        private final Object[] defaults;
+
+        ClassInfo(int id, Class<?> clazz, String[] fieldNames) {
+            this.id = id;
+            try {
+                constructor = clazz.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                fields = new Field[fieldNames.length];
+                for (int i = 0; i < fieldNames.length; i++) {
+                    fields[i] = findField(clazz, fieldNames[i]);
+                    fields[i].setAccessible(true);
+                }
+                Object prototype = constructor.newInstance();
+                defaults = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    defaults[i] = fields[i].get(prototype);
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        private static Field findField(Class<?> clazz, String name) throws NoSuchFieldException {
+            for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+                try {
+                    return c.getDeclaredField(name);
+                } catch (NoSuchFieldException ignore) {
+                }
+            }
+            throw new NoSuchFieldException(clazz.getName() + "." + name);
+        }
+
+        Object newInstance() throws IOException {
+            try {
+                return constructor.newInstance();
+            } catch (Exception e) {
+                throw new IOException("Failed to instantiate " + constructor.getDeclaringClass().getName(), e);
+            }
+        }
+    }
+
+    private TwitterObjectCodec() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @return classes the codec supports
+     */
+    /*package*/ static List<Class<?>> getSupportedClasses() {
+        return new ArrayList<Class<?>>(CLASS_INFO.keySet());
+    }
+
+    /**
+     * @param clazz supported class
+     * @return the fields encoded, in field number order
+     */
+    /*package*/ static List<Field> getEncodedFields(Class<?> clazz) {
+        return Collections.unmodifiableList(Arrays.asList(CLASS_INFO.get(clazz).fields));
+    }
+
+    /**
+     * Encodes a single object.
+     *
+     * @param object object to encode
+     * @return encoded form
+     * @throws IllegalArgumentException when the object, or an object it refers to, is not supported
+     */
+    public static byte[] encode(Object object) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        try {
+            Encoder encoder = new Encoder(out);
+            encoder.write(object);
+            encoder.close();
+        } catch (IOException ioe) {
+            // ByteArrayOutputStream never throws
+            throw new AssertionError(ioe);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a single object encoded with {@link #encode(Object)}.
+     *
+     * @param encoded encoded form
+     * @param type    expected type
+     * @param <T>     expected type
+     * @return decoded object
+     * @throws IOException when the encoded form is malformed or the object is not of the expected type
+     */
+    public static <T> T decode(byte[] encoded, Class<T> type) throws IOException {
+        Decoder decoder = new Decoder(new ByteArrayInputStream(encoded));
+        T object = decoder.read(type);
+        if (object == null) {
+            throw new EOFException("No object encoded");
+        }
+        return object;
+    }
+
+    /**
+     * Writes a stream of objects sharing one string table.
+     */
+    public static final class Encoder implements Closeable, Flushable {
+        private final OutputStream out;
+        private final byte[] buf = new byte[8192];
+        private int pos = 0;
+        private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+        /**
+         * @param out stream to write to
+         * @throws IOException when the header couldn't be written
+         */
+        public Encoder(OutputStream out) throws IOException {
+            this.out = out;
+            writeBytes(MAGIC, 0, MAGIC.length);
+            writeByte(FORMAT_VERSION);
+        }
+
+        /**
+         * @param object object to write
+         * @throws IOException              when the stream couldn't be written
+         * @throws IllegalArgumentException when the object, or an object it refers to, is not supported
+         */
+        public void write(Object object) throws IOException {
+            if (object == null) {
+                throw new NullPointerException("object must not be null");
+            }
+            writeValue(object);
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                writeByte(NULL);
+            } else if (value instanceof String) {
+                writeString((String) value);
+            } else if (value instanceof Long) {
+                writeByte(LONG);
+                writeVarLong(zigZag((Long) value));
+            } else if (value instanceof Integer) {
+                writeByte(INT);
+                writeVarLong(zigZag((Integer) value));
+            } else if (value instanceof Boolean) {
+                writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Double) {
+                writeByte(DOUBLE);
+                long bits = Double.doubleToLongBits((Double) value);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    writeByte((int) (bits >>> shift));
+                }
+            } else if (value instanceof Date) {
+                writeByte(DATE);
+                writeVarLong(zigZag(((Date) value).getTime()));
+            } else if (value instanceof long[]) {
+                long[] longs = (long[]) value;
+                writeByte(LONG_ARRAY);
+                writeVarLong(longs.length);
+                for (long l : longs) {
+                    writeVarLong(zigZag(l));
+                }
+            } else if (value instanceof Object[]) {
+                Object[] array = (Object[]) value;
+                writeByte(ARRAY);
+                writeVarLong(array.length);
+                for (Object element : array) {
+                    writeValue(element);
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                writeByte(MAP);
+                writeVarLong(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            } else {
+                writeObject(value);
+            }
+        }
+
+        private void writeObject(Object object) throws IOException {
+            ClassInfo info = CLASS_INFO.get(object.getClass());
+            if (info == null) {
+                throw new IllegalArgumentException("Unsupported type: " + object.getClass().getName());
+            }
+            writeByte(OBJECT);
+            writeVarLong(info.id);
+            try {
+                for (int i = 0; i < info.fields.length; i++) {
+                    Object value = info.fields[i].get(object);
+                    if (value == null ? info.defaults[i] != null : !value.equals(info.defaults[i])) {
+                        writeVarLong(i + 1);
+                        writeValue(value);
+                    }
+                }
+            } catch (IllegalAccessException iae) {
+                throw new AssertionError(iae);
+            }
+            writeVarLong(0);
+        }
+
+        private void writeString(String str) throws IOException {
+            if (str.length() <= MAX_INTERNED_LENGTH) {
+                Integer index = strings.get(str);
+                if (index != null) {
+                    writeByte(STRING_REF);
+                    writeVarLong(index);
+                    return;
+                }
+                if (strings.size() < MAX_STRING_TABLE_SIZE) {
+                    strings.put(str, strings.size());
+                    writeByte(STRING);
+                } else {
+                    writeByte(STRING_LITERAL);
+                }
+            } else {
+                writeByte(STRING_LITERAL);
+            }
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void writeByte(int b) throws IOException {
+            if (pos == buf.length) {
+                flushBuffer();
+            }
+            buf[pos++] = (byte) b;
+        }
+
+        private void writeBytes(byte[] bytes, int off, int len) throws IOException {
+            if (len > buf.length - pos) {
+                flushBuffer();
+                if (len > buf.length) {
+                    out.write(bytes, off, len);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, off, buf, pos, len);
+            pos += len;
+        }
+
+        private void flushBuffer() throws IOException {
+            if (pos > 0) {
+                out.write(buf, 0, pos);
+                pos = 0;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a stream of objects written by an {@link Encoder}.
+     */
+    public static final class Decoder implements Closeable {
+        private final InputStream in;
+        private final byte[] buf = new byte[8192];
+        private int pos = 0;
+        private int limit = 0;
+        private final ArrayList<String> strings = new ArrayList<String>();
+        private int depth = 0;
+
+        /**
+         * @param in stream to read from
+         * @throws IOException when the header couldn't be read, or the stream was not written by an {@link Encoder}
+         */
+        public Decoder(InputStream in) throws IOException {
+            this.in = in;
+            for (byte magic : MAGIC) {
+                if (readByte() != magic) {
+                    throw new IOException("Not a Twitter4J object stream");
+                }
+            }
+            int version = readByte();
+            if (version > FORMAT_VERSION) {
+                throw new IOException("Unsupported format version: " + version);
+            }
+        }
+
+        /**
+         * @return the next object, or null at the end of the stream
+         * @throws IOException when the stream couldn't be read or is malformed
+         */
+        public Object read() throws IOException {
+            if (pos == limit && !fill()) {
+                return null;
+            }
+            return readValue(readByte(), Object.class);
+        }
+
+        /**
+         * @param type expected type
+         * @param <T>  expected type
+         * @return the next object, or null at the end of the stream
+         * @throws IOException when the stream couldn't be read, is malformed, or the object is not of the expected type
+         */
+        public <T> T read(Class<T> type) throws IOException {
+            Object object = read();
+            if (object != null && !type.isInstance(object)) {
+                throw new IOException("Expected " + type.getName() + " but was " + object.getClass().getName());
+            }
+            return type.cast(object);
+        }
+
+        private Object readValue(int tag, Class<?> expected) throws IOException {
+            if (tag != ARRAY && tag != MAP && tag != OBJECT) {
+                return readScalar(tag);
+            }
+            if (++depth > MAX_DEPTH) {
+                throw new IOException("Malformed stream: nested deeper than " + MAX_DEPTH + " levels");
+            }
+            try {
+                switch (tag) {
+                    case ARRAY:
+                        return readArray(expected.isArray() ? expected.getComponentType() : Object.class);
+                    case MAP:
+                        int size = readLength();
+                        Map<Object, Object> map = new HashMap<Object, Object>();
+                        for (int i = 0; i < size; i++) {
+                            Object key = readValue(readByte(), Object.class);
+                            map.put(key, readValue(readByte(), Object.class));
+                        }
+                        return map;
+                    default:
+                        return readObject();
+                }
+            } finally {
+                depth--;
+            }
+        }
+
+        private Object readScalar(int tag) throws IOException {
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case INT:
+                    return (int) unZigZag(readVarLong());
+                case LONG:
+                    return unZigZag(readVarLong());
+                case DOUBLE:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | readByte();
+                    }
+                    return Double.longBitsToDouble(bits);
+                case STRING:
+                    String str = readUTF8();
+                    strings.add(str);
+                    return str;
+                case STRING_REF:
+                    long index = readVarLong();
+                    if (index < 0 || index >= strings.size()) {
+                        throw new IOException("Malformed stream: string reference " + index + " out of range");
+                    }
+                    return strings.get((int) index);
+                case STRING_LITERAL:
+                    return readUTF8();
+                case DATE:
+                    return new Date(unZigZag(readVarLong()));
+                case LONG_ARRAY:
+                    int length = readLength();
+                    long[] longs = new long[Math.min(length, MAX_INITIAL_CAPACITY)];
+                    for (int i = 0; i < length; i++) {
+                        if (i == longs.length) {
+                            longs = Arrays.copyOf(longs, (int) Math.min(length, 2L * longs.length));
+                        }
+                        longs[i] = unZigZag(readVarLong());
+                    }
+                    return longs;
+                default:
+                    throw new IOException("Malformed stream: unknown tag " + tag);
+            }
+        }
+
+        private Object readArray(Class<?> componentType) throws IOException {
+            int length = readLength();
+            List<Object> elements = new ArrayList<Object>(Math.min(length, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < length; i++) {
+                Object element = readValue(readByte(), componentType);
+                if (element != null && !componentType.isInstance(element)) {
+                    throw new IOException("Malformed stream: " + element.getClass().getName()
+                            + " in an array of " + componentType.getName());
+                }
+                elements.add(element);
+            }
+            Object array = Array.newInstance(componentType, length);
+            for (int i = 0; i < length; i++) {
+                Array.set(array, i, elements.get(i));
+            }
+            return array;
+        }
+
+        private Object readObject() throws IOException {
+            long id = readVarLong();
+            ClassInfo info = id > 0 && id < CLASSES.length ? CLASSES[(int) id] : null;
+            // objects of unknown types are skipped
+            Object object = info != null ? info.newInstance() : null;
+            long number;
+            while ((number = readVarLong()) != 0) {
+                int tag = readByte();
+                if (object == null || number > info.fields.length) {
+                    readValue(tag, Object.class);
+                    continue;
+                }
+                Field field = info.fields[(int) number - 1];
+                Object value = readValue(tag, field.getType());
+                try {
+                    field.set(object, value);
+                } catch (IllegalArgumentException iae) {
+                    throw new IOException("Malformed stream: can't assign " + value + " to " + field, iae);
+                } catch (IllegalAccessException iae) {
+                    throw new AssertionError(iae);
+                }
+            }
+            return object;
+        }
+
+        private String readUTF8() throws IOException {
+            int length = readLength();
+            if (length <= limit - pos) {
+                String str = new String(buf, pos, length, StandardCharsets.UTF_8);
+                pos += length;
+                return str;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(length, buf.length * 2));
+            int read = 0;
+            while (read < length) {
+                if (pos == limit && !fill()) {
+                    throw new EOFException();
+                }
+                int count = Math.min(length - read, limit - pos);
+                bytes.write(buf, pos, count);
+                pos += count;
+                read += count;
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private int readLength() throws IOException {
+            long length = readVarLong();
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Malformed stream: length " + length);
+            }
+            return (int) length;
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed stream: variable length integer too long");
+        }
+
+        private int readByte() throws IOException {
+            if (pos == limit && !fill()) {
+                throw new EOFException();
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        private boolean fill() throws IOException {
+            int count = in.read(buf, 0, buf.length);
+            if (count <= 0) {
+                return false;
+            }
+            pos = 0;
+            limit = count;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
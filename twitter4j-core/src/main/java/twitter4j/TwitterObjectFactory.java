@@ -21,13 +21,24 @@ public final class TwitterObjectFactory {
 
     /**
      * Returns a raw JSON form of the provided object.<br>
-     * Note that raw JSON forms can be retrieved only from the same thread invoked the last method call and will become inaccessible once another method call
+     * Note that raw JSON forms can be retrieved only from the same thread invoked the last method call and will become inaccessible once another method call<br>
+     * Objects bound with rawJSONRetentionEnabled carry their raw JSON forms themselves, which can be retrieved from any thread at any time.
      *
      * @param obj target object to retrieve JSON
      * @return raw JSON
+     * @see twitter4j.conf.Configuration#isRawJSONRetentionEnabled()
      * @since Twitter4J 2.1.7
      */
     public static String getRawJSON(Object obj) {
+        RawJSON raw = null;
+        if (obj instanceof TwitterResponseImpl) {
+            raw = ((TwitterResponseImpl) obj).getRawJSON();
+        } else if (obj instanceof ResponseListImpl) {
+            raw = ((ResponseListImpl<?>) obj).getRawJSON();
+        }
+        if (raw != null) {
+            return raw.toString();
+        }
         if (!registeredAtleastOnce) {
             throw new IllegalStateException("Apparently jsonStoreEnabled is not set to true.");
         }
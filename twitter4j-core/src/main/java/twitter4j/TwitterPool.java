@@ -0,0 +1,115 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.auth.AccessToken;
+import twitter4j.auth.Authorization;
+import twitter4j.auth.NullAuthorization;
+import twitter4j.auth.OAuthAuthorization;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationContext;
+
+/**
+ * A multi-account client. Hands out {@link Twitter} instances acting on behalf of many users of one application.<br>
+ * Unlike {@link TwitterFactory#getInstance(AccessToken)}, instances returned by this class don't build their own
+ * client graph. They all share one HttpClient, one object factory, one set of implicit parameters and one list of
+ * rate limit status listeners, and only hold their own authorization. Thus obtaining an instance per request is
+ * cheap, and so is holding instances for thousands of tokens.<br>
+ * Listeners added to the pool, or to any instance of the pool, are notified of the rate limit status of every
+ * instance of the pool. {@link RateLimitStatusEvent#getSource()} tells which instance the event came from.<br>
+ * Reusing the same {@link AccessToken} instance for the same user also reuses the HMAC-SHA1 signer initialized for it.<br>
+ * An instance of this class is completely thread safe and can be re-used and used concurrently.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+public final class TwitterPool {
+    private final Configuration conf;
+    private final TwitterImpl shared;
+
+    /**
+     * Creates a TwitterPool with the root configuration.
+     */
+    public TwitterPool() {
+        this(ConfigurationContext.getInstance());
+    }
+
+    /**
+     * Creates a TwitterPool with the given configuration.
+     *
+     * @param conf the configuration to use
+     */
+    public TwitterPool(Configuration conf) {
+        if (conf == null) {
+            throw new NullPointerException("configuration cannot be null");
+        }
+        this.conf = conf;
+        this.shared = new TwitterImpl(conf, NullAuthorization.getInstance());
+    }
+
+    /**
+     * Returns an instance acting on behalf of the user of the given access token.<br>
+     * consumer key and consumer Secret must be provided by the configuration.
+     *
+     * @param accessToken access token
+     * @return an instance
+     */
+    public Twitter getInstance(AccessToken accessToken) {
+        if (null == conf.getOAuthConsumerKey() && null == conf.getOAuthConsumerSecret()) {
+            throw new IllegalStateException("Consumer key and Consumer secret not supplied.");
+        }
+        OAuthAuthorization oauth = new OAuthAuthorization(conf);
+        oauth.setOAuthAccessToken(accessToken);
+        return getInstance(oauth);
+    }
+
+    /**
+     * Returns an instance with the given authorization.
+     *
+     * @param auth authorization
+     * @return an instance
+     */
+    public Twitter getInstance(Authorization auth) {
+        if (auth == null) {
+            throw new NullPointerException("authorization cannot be null");
+        }
+        return new TwitterImpl(shared, auth);
+    }
+
+    /**
+     * Registers a listener notified of the rate limit status of every instance of this pool.
+     *
+     * @param listener listener
+     */
+    public void addRateLimitStatusListener(RateLimitStatusListener listener) {
+        shared.addRateLimitStatusListener(listener);
+    }
+
+    /**
+     * @return the configuration shared by the instances of this pool
+     */
+    public Configuration getConfiguration() {
+        return conf;
+    }
+
+    @Override
+    public String toString() {
+        return "TwitterPool{" +
+                "conf=" + conf +
+                '}';
+    }
+}
@@ -12,7 +12,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
 
+import twitter4j.api.AsyncV1Resources;
 import twitter4j.api.DirectMessagesResources;
 import twitter4j.api.FavoritesResources;
 import twitter4j.api.FriendsFollowersResources;
@@ -217,6 +221,9 @@ class V1ResourcesImpl implements V1Resources {
 
     @Override
     public Status showStatus(long id) throws TwitterException {
+        if (twitter.conf.getLookupCoalescingWindowMillis() > 0) {
+            return twitter.statusCoalescer().get(id);
+        }
         return twitter.factory.createStatus(twitter.get(twitter.conf.getRestBaseURL() + "statuses/show/" + id + ".json", new HttpParameter[]{twitter.INCLUDE_MY_RETWEET}));
     }
 
@@ -507,6 +514,50 @@ class V1ResourcesImpl implements V1Resources {
                 new HttpParameter("count", count)));
     }
 
+    @Override
+    public LongStream streamFriendsIDs(final long userId) {
+        final AsyncV1Resources async = twitter.asyncV1Resources();
+        return IDsIterator.stream(new LongFunction<CompletableFuture<IDs>>() {
+            @Override
+            public CompletableFuture<IDs> apply(long cursor) {
+                return async.getFriendsIDs(userId, cursor);
+            }
+        });
+    }
+
+    @Override
+    public LongStream streamFriendsIDs(final String screenName) {
+        final AsyncV1Resources async = twitter.asyncV1Resources();
+        return IDsIterator.stream(new LongFunction<CompletableFuture<IDs>>() {
+            @Override
+            public CompletableFuture<IDs> apply(long cursor) {
+                return async.getFriendsIDs(screenName, cursor);
+            }
+        });
+    }
+
+    @Override
+    public LongStream streamFollowersIDs(final long userId) {
+        final AsyncV1Resources async = twitter.asyncV1Resources();
+        return IDsIterator.stream(new LongFunction<CompletableFuture<IDs>>() {
+            @Override
+            public CompletableFuture<IDs> apply(long cursor) {
+                return async.getFollowersIDs(userId, cursor);
+            }
+        });
+    }
+
+    @Override
+    public LongStream streamFollowersIDs(final String screenName) {
+        final AsyncV1Resources async = twitter.asyncV1Resources();
+        return IDsIterator.stream(new LongFunction<CompletableFuture<IDs>>() {
+            @Override
+            public CompletableFuture<IDs> apply(long cursor) {
+                return async.getFollowersIDs(screenName, cursor);
+            }
+        });
+    }
+
     @Override
     public ResponseList<Friendship> lookupFriendships(long... ids) throws TwitterException {
         return twitter.factory.createFriendshipList(twitter.get(twitter.conf.getRestBaseURL() + "friendships/lookup.json?user_id=" + StringUtil.join(ids)));
@@ -891,6 +942,9 @@ class V1ResourcesImpl implements V1Resources {
 
     @Override
     public User showUser(long userId) throws TwitterException {
+        if (twitter.conf.getLookupCoalescingWindowMillis() > 0) {
+            return twitter.userCoalescer().get(userId);
+        }
         return twitter.factory.createUser(twitter.get(twitter.conf.getRestBaseURL() + "users/show.json?user_id=" + userId));
     }
 
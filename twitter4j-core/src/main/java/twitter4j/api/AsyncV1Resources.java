@@ -0,0 +1,402 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.api;
+
+import twitter4j.*;
+import twitter4j.conf.ChunkedUploadConfiguration;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link V1Resources}.<br>
+ * Each method returns immediately, and the returned future completes once the response is received and bound, or
+ * exceptionally with a {@link TwitterException}. Requests go through the configured {@link twitter4j.HttpClient}:
+ * the default {@code twitter4j.JavaNetHttpClientImpl} sends them without parking any thread, other clients run
+ * blocking calls on a pool sized to the maximum number of connections.
+ * Responses are bound on a small CPU bound pool.<br>
+ * The semantics of each method are the same as the blocking method referred to by {@code @see}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see twitter4j.Twitter#asyncV1Resources()
+ * @since Twitter4J 4.0.8
+ */
+public interface AsyncV1Resources {
+
+    /* Timelines Resources */
+
+    /**
+     * @return mentions timeline
+     * @see TimelinesResources#getMentionsTimeline()
+     */
+    CompletableFuture<ResponseList<Status>> getMentionsTimeline();
+
+    /**
+     * @param paging controls pagination
+     * @return mentions timeline
+     * @see TimelinesResources#getMentionsTimeline(Paging)
+     */
+    CompletableFuture<ResponseList<Status>> getMentionsTimeline(Paging paging);
+
+    /**
+     * @return home timeline
+     * @see TimelinesResources#getHomeTimeline()
+     */
+    CompletableFuture<ResponseList<Status>> getHomeTimeline();
+
+    /**
+     * @param paging controls pagination
+     * @return home timeline
+     * @see TimelinesResources#getHomeTimeline(Paging)
+     */
+    CompletableFuture<ResponseList<Status>> getHomeTimeline(Paging paging);
+
+    /**
+     * @return the most recent tweets authored by the authenticating user that have been retweeted by others
+     * @see TimelinesResources#getRetweetsOfMe()
+     */
+    CompletableFuture<ResponseList<Status>> getRetweetsOfMe();
+
+    /**
+     * @param paging controls pagination
+     * @return the most recent tweets authored by the authenticating user that have been retweeted by others
+     * @see TimelinesResources#getRetweetsOfMe(Paging)
+     */
+    CompletableFuture<ResponseList<Status>> getRetweetsOfMe(Paging paging);
+
+    /**
+     * @param screenName specifies the screen name of the user for whom to return the user_timeline
+     * @param paging     controls pagination
+     * @return user timeline
+     * @see TimelinesResources#getUserTimeline(String, Paging)
+     */
+    CompletableFuture<ResponseList<Status>> getUserTimeline(String screenName, Paging paging);
+
+    /**
+     * @param userId specifies the ID of the user for whom to return the user_timeline
+     * @param paging controls pagination
+     * @return user timeline
+     * @see TimelinesResources#getUserTimeline(long, Paging)
+     */
+    CompletableFuture<ResponseList<Status>> getUserTimeline(long userId, Paging paging);
+
+    /**
+     * @param screenName specifies the screen name of the user for whom to return the user_timeline
+     * @return user timeline
+     * @see TimelinesResources#getUserTimeline(String)
+     */
+    CompletableFuture<ResponseList<Status>> getUserTimeline(String screenName);
+
+    /**
+     * @param userId specifies the ID of the user for whom to return the user_timeline
+     * @return user timeline
+     * @see TimelinesResources#getUserTimeline(long)
+     */
+    CompletableFuture<ResponseList<Status>> getUserTimeline(long userId);
+
+    /**
+     * @return the authenticating user's timeline
+     * @see TimelinesResources#getUserTimeline()
+     */
+    CompletableFuture<ResponseList<Status>> getUserTimeline();
+
+    /**
+     * @param paging controls pagination
+     * @return the authenticating user's timeline
+     * @see TimelinesResources#getUserTimeline(Paging)
+     */
+    CompletableFuture<ResponseList<Status>> getUserTimeline(Paging paging);
+
+    /* Tweets Resources */
+
+    /**
+     * @param statusId the numerical ID of the tweet you want the retweets of
+     * @return the retweets of a given tweet
+     * @see TweetsResources#getRetweets(long)
+     */
+    CompletableFuture<ResponseList<Status>> getRetweets(long statusId);
+
+    /**
+     * @param statusId the numerical ID of the tweet you want the retweeters of
+     * @param cursor   the cursor of the page to fetch. Use -1 to start.
+     * @return the retweeters of a given tweet
+     * @see TweetsResources#getRetweeterIds(long, long)
+     */
+    CompletableFuture<IDs> getRetweeterIds(long statusId, long cursor);
+
+    /**
+     * @param statusId the numerical ID of the tweet you want the retweeters of
+     * @param count    the maximum number of retweeter IDs to retrieve
+     * @param cursor   the cursor of the page to fetch. Use -1 to start.
+     * @return the retweeters of a given tweet
+     * @see TweetsResources#getRetweeterIds(long, int, long)
+     */
+    CompletableFuture<IDs> getRetweeterIds(long statusId, int count, long cursor);
+
+    /**
+     * @param id the numerical ID of the status you're trying to retrieve
+     * @return a single status
+     * @see TweetsResources#showStatus(long)
+     */
+    CompletableFuture<Status> showStatus(long id);
+
+    /**
+     * @param statusId the ID of the status to destroy
+     * @return the deleted status
+     * @see TweetsResources#destroyStatus(long)
+     */
+    CompletableFuture<Status> destroyStatus(long statusId);
+
+    /**
+     * @param status the text of your status update
+     * @return the latest status
+     * @see TweetsResources#updateStatus(String)
+     */
+    CompletableFuture<Status> updateStatus(String status);
+
+    /**
+     * @param latestStatus the latest status to be updated
+     * @return the latest status
+     * @see TweetsResources#updateStatus(StatusUpdate)
+     */
+    CompletableFuture<Status> updateStatus(StatusUpdate latestStatus);
+
+    /**
+     * @param statusId the ID of the status to retweet
+     * @return the retweeted status
+     * @see TweetsResources#retweetStatus(long)
+     */
+    CompletableFuture<Status> retweetStatus(long statusId);
+
+    /**
+     * @param statusId the ID of the status to unretweet
+     * @return the unretweeted status
+     * @see TweetsResources#unRetweetStatus(long)
+     */
+    CompletableFuture<Status> unRetweetStatus(long statusId);
+
+    /**
+     * @param ids array of the ids to lookup
+     * @return list of the tweets
+     * @see TweetsResources#lookup(long...)
+     */
+    CompletableFuture<ResponseList<Status>> lookup(long... ids);
+
+    /**
+     * Uploads media in chunks. No thread is held while waiting for the media to be processed: the STATUS checks
+     * are scheduled after the check_after_secs the server asks for.
+     *
+     * @param chunkedUploadConfiguration Configuration for chunked uploading
+     * @return upload result
+     * @see TweetsResources#uploadMediaChunked(ChunkedUploadConfiguration)
+     */
+    CompletableFuture<UploadedMedia> uploadMediaChunked(ChunkedUploadConfiguration chunkedUploadConfiguration);
+
+    /* Users Resources */
+
+    /**
+     * @return user
+     * @see UsersResources#verifyCredentials()
+     */
+    CompletableFuture<User> verifyCredentials();
+
+    /**
+     * @param ids Specifies the screen names of the users to return.
+     * @return users
+     * @see UsersResources#lookupUsers(long...)
+     */
+    CompletableFuture<ResponseList<User>> lookupUsers(long... ids);
+
+    /**
+     * @param screenNames Specifies the screen names of the users to return.
+     * @return users
+     * @see UsersResources#lookupUsers(String...)
+     */
+    CompletableFuture<ResponseList<User>> lookupUsers(String... screenNames);
+
+    /**
+     * @param userId the ID of the user for whom to request the detail
+     * @return users
+     * @see UsersResources#showUser(long)
+     */
+    CompletableFuture<User> showUser(long userId);
+
+    /**
+     * @param screenName the screen name of the user for whom to request the detail
+     * @return User
+     * @see UsersResources#showUser(String)
+     */
+    CompletableFuture<User> showUser(String screenName);
+
+    /**
+     * @param query The query to run against people search.
+     * @param page  Specifies the page of results to retrieve. Number of statuses per page is fixed to 20.
+     * @return the list of Users matches the provided
+     * @see UsersResources#searchUsers(String, int)
+     */
+    CompletableFuture<ResponseList<User>> searchUsers(String query, int page);
+
+    /* Friends &amp; Followers Resources */
+
+    /**
+     * @param userId Specifies the ID of the user for whom to return the friends list.
+     * @param cursor Causes the results to be broken into pages of no more than 5000 IDs at a time.
+     * @return an array of numeric IDs for every user the specified user is following
+     * @see FriendsFollowersResources#getFriendsIDs(long, long)
+     */
+    CompletableFuture<IDs> getFriendsIDs(long userId, long cursor);
+
+    /**
+     * @param screenName Specifies the screen name of the user for whom to return the friends list.
+     * @param cursor     Causes the results to be broken into pages of no more than 5000 IDs at a time.
+     * @return an array of numeric IDs for every user the specified user is following
+     * @see FriendsFollowersResources#getFriendsIDs(String, long)
+     */
+    CompletableFuture<IDs> getFriendsIDs(String screenName, long cursor);
+
+    /**
+     * @param userId Specifies the ID of the user for whom to return the followers list.
+     * @param cursor Causes the results to be broken into pages of no more than 5000 IDs at a time.
+     * @return The ID or screen_name of the user to retrieve the friends ID list for.
+     * @see FriendsFollowersResources#getFollowersIDs(long, long)
+     */
+    CompletableFuture<IDs> getFollowersIDs(long userId, long cursor);
+
+    /**
+     * @param screenName Specifies the screen name of the user for whom to return the followers list.
+     * @param cursor     Causes the results to be broken into pages of no more than 5000 IDs at a time.
+     * @return The ID or screen_name of the user to retrieve the friends ID list for.
+     * @see FriendsFollowersResources#getFollowersIDs(String, long)
+     */
+    CompletableFuture<IDs> getFollowersIDs(String screenName, long cursor);
+
+    /**
+     * @param ids array of the ids to lookup
+     * @return list of Relationships
+     * @see FriendsFollowersResources#lookupFriendships(long...)
+     */
+    CompletableFuture<ResponseList<Friendship>> lookupFriendships(long... ids);
+
+    /**
+     * @param userId the ID of the user to be befriended
+     * @return the befriended user
+     * @see FriendsFollowersResources#createFriendship(long)
+     */
+    CompletableFuture<User> createFriendship(long userId);
+
+    /**
+     * @param userId the ID of the user for whom to request the detail
+     * @return User
+     * @see FriendsFollowersResources#destroyFriendship(long)
+     */
+    CompletableFuture<User> destroyFriendship(long userId);
+
+    /**
+     * @param sourceId the ID of the source user
+     * @param targetId the ID of the target user
+     * @return Relationship
+     * @see FriendsFollowersResources#showFriendship(long, long)
+     */
+    CompletableFuture<Relationship> showFriendship(long sourceId, long targetId);
+
+    /**
+     * @param userId The ID of the user for whom to return results for.
+     * @param cursor Breaks the results into pages.
+     * @return list of friends
+     * @see FriendsFollowersResources#getFriendsList(long, long)
+     */
+    CompletableFuture<PagableResponseList<User>> getFriendsList(long userId, long cursor);
+
+    /**
+     * @param screenName The screen name of the user for whom to return results for.
+     * @param cursor     Breaks the results into pages.
+     * @return list of friends
+     * @see FriendsFollowersResources#getFriendsList(String, long)
+     */
+    CompletableFuture<PagableResponseList<User>> getFriendsList(String screenName, long cursor);
+
+    /**
+     * @param userId The ID of the user for whom to return results for.
+     * @param cursor Breaks the results into pages.
+     * @return list of followers
+     * @see FriendsFollowersResources#getFollowersList(long, long)
+     */
+    CompletableFuture<PagableResponseList<User>> getFollowersList(long userId, long cursor);
+
+    /**
+     * @param screenName The screen name of the user for whom to return results for.
+     * @param cursor     Breaks the results into pages.
+     * @return list of followers
+     * @see FriendsFollowersResources#getFollowersList(String, long)
+     */
+    CompletableFuture<PagableResponseList<User>> getFollowersList(String screenName, long cursor);
+
+    /* Lists Resources */
+
+    /**
+     * @param listOwnerUserId The id of the list owner
+     * @return list of available lists
+     * @see ListsResources#getUserLists(long)
+     */
+    CompletableFuture<ResponseList<UserList>> getUserLists(long listOwnerUserId);
+
+    /**
+     * @param listId The id of the list
+     * @return the specified list
+     * @see ListsResources#showUserList(long)
+     */
+    CompletableFuture<UserList> showUserList(long listId);
+
+    /**
+     * @param listId The id of the list
+     * @param paging controls pagination. Supports since_id, max_id, count and page parameters.
+     * @return list of statuses for members of the specified list
+     * @see ListsResources#getUserListStatuses(long, Paging)
+     */
+    CompletableFuture<ResponseList<Status>> getUserListStatuses(long listId, Paging paging);
+
+    /**
+     * @param listId The id of the list
+     * @param cursor Breaks the results into pages.
+     * @return the members of the specified list
+     * @see ListsResources#getUserListMembers(long, long)
+     */
+    CompletableFuture<PagableResponseList<User>> getUserListMembers(long listId, long cursor);
+
+    /**
+     * @param listMemberId The id of the list member
+     * @param cursor       Breaks the results into pages.
+     * @return the lists the specified user has been added to
+     * @see ListsResources#getUserListMemberships(long, long)
+     */
+    CompletableFuture<PagableResponseList<UserList>> getUserListMemberships(long listMemberId, long cursor);
+
+    /**
+     * @param listSubscriberId The id of the list subscriber
+     * @param cursor           Breaks the results into pages.
+     * @return list of lists
+     * @see ListsResources#getUserListSubscriptions(long, long)
+     */
+    CompletableFuture<PagableResponseList<UserList>> getUserListSubscriptions(long listSubscriberId, long cursor);
+
+    /**
+     * @param listOwnerId The id of the list owner
+     * @param cursor      Breaks the results into pages.
+     * @return lists owned by the specified user
+     * @see ListsResources#getUserListsOwnerships(long, long)
+     */
+    CompletableFuture<PagableResponseList<UserList>> getUserListsOwnerships(long listOwnerId, long cursor);
+}
@@ -18,6 +18,15 @@ package twitter4j.api;
 
 import twitter4j.*;
 
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 /**
  * @author Joern Huxhorn - jhuxhorn at googlemail.com
  * @author Mocel - docel77 at gmail.com
@@ -184,6 +193,150 @@ public interface FriendsFollowersResources {
      */
     IDs getFollowersIDs(String screenName, long cursor,int count) throws TwitterException;
 
+    /**
+     * Returns the numeric IDs of every user the specified user is following, walking every page of
+     * https://api.twitter.com/1.1/friends/ids.json lazily.<br>
+     * The first page is requested when the stream is first consumed. The default implementation requests each page once
+     * the previous one has been consumed, while the instances built by {@link twitter4j.TwitterFactory} fetch the next
+     * page in the background.<br>
+     * Failures are thrown as {@link java.util.concurrent.CompletionException} with the {@link TwitterException} as the
+     * cause. Closing the stream cancels the page being prefetched.
+     *
+     * @param userId Specifies the ID of the user for whom to return the friends list.
+     * @return a sequential stream over the IDs
+     * @see #getFriendsIDs(long, long)
+     * @since Twitter4J 4.0.8
+     */
+    default LongStream streamFriendsIDs(final long userId) {
+        return pageIDs(new LongFunction<IDs>() {
+            @Override
+            public IDs apply(long cursor) {
+                try {
+                    return getFriendsIDs(userId, cursor);
+                } catch (TwitterException te) {
+                    throw new CompletionException(te);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the numeric IDs of every user the specified user is following, walking every page of
+     * https://api.twitter.com/1.1/friends/ids.json lazily.<br>
+     * The first page is requested when the stream is first consumed. The default implementation requests each page once
+     * the previous one has been consumed, while the instances built by {@link twitter4j.TwitterFactory} fetch the next
+     * page in the background.<br>
+     * Failures are thrown as {@link java.util.concurrent.CompletionException} with the {@link TwitterException} as the
+     * cause. Closing the stream cancels the page being prefetched.
+     *
+     * @param screenName Specifies the screen name of the user for whom to return the friends list.
+     * @return a sequential stream over the IDs
+     * @see #getFriendsIDs(String, long)
+     * @since Twitter4J 4.0.8
+     */
+    default LongStream streamFriendsIDs(final String screenName) {
+        return pageIDs(new LongFunction<IDs>() {
+            @Override
+            public IDs apply(long cursor) {
+                try {
+                    return getFriendsIDs(screenName, cursor);
+                } catch (TwitterException te) {
+                    throw new CompletionException(te);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the numeric IDs of every user the specified user is followed by, walking every page of
+     * https://api.twitter.com/1.1/followers/ids.json lazily.<br>
+     * The first page is requested when the stream is first consumed. The default implementation requests each page once
+     * the previous one has been consumed, while the instances built by {@link twitter4j.TwitterFactory} fetch the next
+     * page in the background.<br>
+     * Failures are thrown as {@link java.util.concurrent.CompletionException} with the {@link TwitterException} as the
+     * cause. Closing the stream cancels the page being prefetched.
+     *
+     * @param userId Specifies the ID of the user for whom to return the followers list.
+     * @return a sequential stream over the IDs
+     * @see #getFollowersIDs(long, long)
+     * @since Twitter4J 4.0.8
+     */
+    default LongStream streamFollowersIDs(final long userId) {
+        return pageIDs(new LongFunction<IDs>() {
+            @Override
+            public IDs apply(long cursor) {
+                try {
+                    return getFollowersIDs(userId, cursor);
+                } catch (TwitterException te) {
+                    throw new CompletionException(te);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the numeric IDs of every user the specified user is followed by, walking every page of
+     * https://api.twitter.com/1.1/followers/ids.json lazily.<br>
+     * The first page is requested when the stream is first consumed. The default implementation requests each page once
+     * the previous one has been consumed, while the instances built by {@link twitter4j.TwitterFactory} fetch the next
+     * page in the background.<br>
+     * Failures are thrown as {@link java.util.concurrent.CompletionException} with the {@link TwitterException} as the
+     * cause. Closing the stream cancels the page being prefetched.
+     *
+     * @param screenName Specifies the screen name of the user for whom to return the followers list.
+     * @return a sequential stream over the IDs
+     * @see #getFollowersIDs(String, long)
+     * @since Twitter4J 4.0.8
+     */
+    default LongStream streamFollowersIDs(final String screenName) {
+        return pageIDs(new LongFunction<IDs>() {
+            @Override
+            public IDs apply(long cursor) {
+                try {
+                    return getFollowersIDs(screenName, cursor);
+                } catch (TwitterException te) {
+                    throw new CompletionException(te);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param fetcher returns the page at the given cursor, throwing failures as CompletionException
+     * @return a sequential stream over the IDs of every page, starting with the cursor -1
+     */
+    private static LongStream pageIDs(final LongFunction<IDs> fetcher) {
+        PrimitiveIterator.OfLong iterator = new PrimitiveIterator.OfLong() {
+            private long[] ids = new long[0];
+            private int index = 0;
+            private long cursor = -1;
+
+            @Override
+            public boolean hasNext() {
+                while (index == ids.length) {
+                    if (cursor == 0) {
+                        return false;
+                    }
+                    IDs page = fetcher.apply(cursor);
+                    ids = page.getIDs();
+                    index = 0;
+                    cursor = page.getNextCursor();
+                }
+                return true;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return ids[index++];
+            }
+        };
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
 
     /**
      * Returns the relationship of the authenticating user to the specified users.
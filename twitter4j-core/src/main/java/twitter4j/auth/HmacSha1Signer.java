@@ -0,0 +1,126 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import twitter4j.BASE64Encoder;
+import twitter4j.HttpParameter;
+import twitter4j.Logger;
+
+/**
+ * Computes HMAC-SHA1 signatures with a fixed consumer secret / token secret pair.<br>
+ * Mac instances are expensive to look up and initialize, so initialized instances are pooled and reused. The pool
+ * only grows up to the number of concurrent signers and is capped, so that a large number of tokens doesn't retain
+ * a large number of Macs.<br>
+ * Thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class HmacSha1Signer {
+    private static final String HMAC_SHA1 = "HmacSHA1";
+    private static final int MAX_POOLED_MACS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final Logger logger = Logger.getLogger(HmacSha1Signer.class);
+
+    private final String consumerSecret;
+    private final SecretKeySpec spec;
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<Mac>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * @param consumerSecret consumer secret
+     * @param tokenSecret    token secret, or null to sign with the consumer secret only
+     */
+    /*package*/ HmacSha1Signer(String consumerSecret, String tokenSecret) {
+        this.consumerSecret = consumerSecret;
+        String key = HttpParameter.encode(consumerSecret) + "&" + (tokenSecret == null ? "" : HttpParameter.encode(tokenSecret));
+        this.spec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_SHA1);
+    }
+
+    /**
+     * @param consumerSecret consumer secret
+     * @return true if this signer was created with the given consumer secret
+     */
+    /*package*/ boolean isFor(String consumerSecret) {
+        return this.consumerSecret.equals(consumerSecret);
+    }
+
+    /**
+     * @param data the data to be signed. must consist of ASCII chars only, which is always the case for percent
+     *             encoded signature base strings
+     * @return Base64 encoded signature
+     */
+    /*package*/ String sign(CharSequence data) {
+        int length = data.length();
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) data.charAt(i);
+        }
+        return sign(bytes);
+    }
+
+    /**
+     * @param data the data to be signed
+     * @return Base64 encoded signature
+     */
+    /*package*/ String sign(byte[] data) {
+        Mac mac = macs.poll();
+        if (mac == null) {
+            mac = newMac();
+        } else {
+            pooled.decrementAndGet();
+        }
+        // doFinal() resets the Mac, so that it can be reused with the same key
+        byte[] byteHMAC = mac.doFinal(data);
+        if (pooled.incrementAndGet() <= MAX_POOLED_MACS) {
+            macs.offer(mac);
+        } else {
+            pooled.decrementAndGet();
+        }
+        return BASE64Encoder.encode(byteHMAC);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA1);
+            mac.init(spec);
+            return mac;
+        } catch (InvalidKeyException ike) {
+            logger.error("Failed initialize \"Message Authentication Code\" (MAC)", ike);
+            throw new AssertionError(ike);
+        } catch (NoSuchAlgorithmException nsae) {
+            logger.error("Failed to get HmacSHA1 \"Message Authentication Code\" (MAC)", nsae);
+            throw new AssertionError(nsae);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HmacSha1Signer{" +
+                "pooled=" + pooled +
+                '}';
+    }
+}
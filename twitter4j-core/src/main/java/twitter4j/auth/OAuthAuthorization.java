@@ -18,8 +18,7 @@ package twitter4j.auth;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,10 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-import twitter4j.BASE64Encoder;
 import twitter4j.HttpClient;
 import twitter4j.HttpClientFactory;
 import twitter4j.HttpParameter;
@@ -48,7 +43,6 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
     private final Configuration conf;
     private transient static HttpClient http;
 
-    private static final String HMAC_SHA1 = "HmacSHA1";
     private static final HttpParameter OAUTH_SIGNATURE_METHOD = new HttpParameter("oauth_signature_method", "HMAC-SHA1");
     private static final Logger logger = Logger.getLogger(OAuthAuthorization.class);
     private String consumerKey = "";
@@ -58,6 +52,9 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
 
     private OAuthToken oauthToken = null;
 
+    private transient String encodedConsumerKey;
+    private transient HmacSha1Signer consumerSigner;
+
     // constructors
 
     /**
@@ -203,36 +200,166 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
         if (null == params) {
             params = new HttpParameter[0];
         }
-        List<HttpParameter> oauthHeaderParams = new ArrayList<HttpParameter>(5);
-        oauthHeaderParams.add(new HttpParameter("oauth_consumer_key", consumerKey));
-        oauthHeaderParams.add(OAUTH_SIGNATURE_METHOD);
-        oauthHeaderParams.add(new HttpParameter("oauth_timestamp", timestamp));
-        oauthHeaderParams.add(new HttpParameter("oauth_nonce", nonce));
-        oauthHeaderParams.add(new HttpParameter("oauth_version", "1.0"));
+        List<HttpParameter> requestParams = new ArrayList<HttpParameter>(params.length);
+        if (!HttpParameter.containsFile(params)) {
+            requestParams.addAll(Arrays.asList(params));
+        }
+        parseGetParameters(url, requestParams);
+        StringBuilder buf = new StringBuilder(256);
+        String signature = sign(buf, method, url, requestParams, nonce, timestamp, otoken);
+
+        // reuse the buffer to build the header
+        buf.setLength(0);
+        buf.append("OAuth ");
+        appendHeaderParameter(buf, "oauth_consumer_key", getEncodedConsumerKey(), false);
+        appendHeaderParameter(buf, "oauth_signature_method", "HMAC-SHA1", false);
+        appendHeaderParameter(buf, "oauth_timestamp", timestamp, true);
+        appendHeaderParameter(buf, "oauth_nonce", nonce, true);
+        appendHeaderParameter(buf, "oauth_version", "1.0", false);
         if (otoken != null) {
-            oauthHeaderParams.add(new HttpParameter("oauth_token", otoken.getToken()));
+            appendHeaderParameter(buf, "oauth_token", otoken.getToken(), true);
         }
-        List<HttpParameter> signatureBaseParams = new ArrayList<HttpParameter>(oauthHeaderParams.size() + params.length);
-        signatureBaseParams.addAll(oauthHeaderParams);
-        if (!HttpParameter.containsFile(params)) {
-            signatureBaseParams.addAll(toParamList(params));
+        appendHeaderParameter(buf, "oauth_signature", signature, true);
+        // http://oauth.net/core/1.0/#rfc.section.9.1.1
+        if (realm != null) {
+            appendHeaderParameter(buf, "realm", realm, true);
+        }
+        return buf.toString();
+    }
+
+    private static void appendHeaderParameter(StringBuilder buf, String name, String value, boolean encode) {
+        if (buf.length() != "OAuth ".length()) {
+            buf.append(',');
+        }
+        buf.append(name).append("=\"");
+        if (encode) {
+            appendEncoded(buf, value, false);
+        } else {
+            buf.append(value);
+        }
+        buf.append('"');
+    }
+
+    /**
+     * Builds the signature base string into the given buffer and signs it.
+     *
+     * @param buf           buffer to build the signature base string
+     * @param requestParams request parameters, including the query parameters. will be sorted
+     * @return signature
+     * @see <a href="http://oauth.net/core/1.0a/#rfc.section.9.1">OAuth Core - 9.1.  Signature Base String</a>
+     */
+    private String sign(StringBuilder buf, String method, String url, List<HttpParameter> requestParams, String nonce, String timestamp, OAuthToken otoken) {
+        Collections.sort(requestParams);
+        buf.append(method).append('&');
+        appendEncoded(buf, constructRequestURL(url), false);
+        buf.append('&');
+
+        // the oauth_* parameters are already in lexicographical order, merge them into the sorted request parameters
+        String[] oauthNames = otoken != null ? OAUTH_PARAMETER_NAMES : OAUTH_PARAMETER_NAMES_WITHOUT_TOKEN;
+        String[] oauthValues = otoken != null
+                ? new String[]{consumerKey, nonce, "HMAC-SHA1", timestamp, otoken.getToken(), "1.0"}
+                : new String[]{consumerKey, nonce, "HMAC-SHA1", timestamp, "1.0"};
+        int oauthIndex = 0;
+        int requestIndex = 0;
+        boolean first = true;
+        while (oauthIndex < oauthNames.length || requestIndex < requestParams.size()) {
+            String name;
+            String value;
+            HttpParameter param = requestIndex < requestParams.size() ? requestParams.get(requestIndex) : null;
+            if (param != null && (param.isFile() || param.isJson())) {
+                requestIndex++;
+                continue;
+            }
+            if (param == null || (oauthIndex < oauthNames.length
+                    && compare(oauthNames[oauthIndex], oauthValues[oauthIndex], param) <= 0)) {
+                name = oauthNames[oauthIndex];
+                value = oauthValues[oauthIndex];
+                oauthIndex++;
+            } else {
+                name = param.getName();
+                value = param.getValue();
+                requestIndex++;
+            }
+            if (!first) {
+                buf.append("%26");
+            }
+            first = false;
+            appendEncoded(buf, name, true);
+            buf.append("%3D");
+            appendEncoded(buf, value, true);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("OAuth base string: ", buf.toString());
         }
-        parseGetParameters(url, signatureBaseParams);
-        StringBuilder base = new StringBuilder(method).append("&")
-                .append(HttpParameter.encode(constructRequestURL(url))).append("&");
-        base.append(HttpParameter.encode(normalizeRequestParameters(signatureBaseParams)));
-        String oauthBaseString = base.toString();
-        logger.debug("OAuth base string: ", oauthBaseString);
-        String signature = generateSignature(oauthBaseString, otoken);
+        String signature = getSigner(otoken).sign(buf);
         logger.debug("OAuth signature: ", signature);
+        return signature;
+    }
 
-        oauthHeaderParams.add(new HttpParameter("oauth_signature", signature));
+    private static int compare(String name, String value, HttpParameter param) {
+        // same ordering as HttpParameter#compareTo()
+        int compared = name.compareTo(param.getName());
+        return compared != 0 ? compared : value.compareTo(param.getValue());
+    }
 
-        // http://oauth.net/core/1.0/#rfc.section.9.1.1
-        if (realm != null) {
-            oauthHeaderParams.add(new HttpParameter("realm", realm));
+    private static final String[] OAUTH_PARAMETER_NAMES = {"oauth_consumer_key", "oauth_nonce",
+            "oauth_signature_method", "oauth_timestamp", "oauth_token", "oauth_version"};
+    private static final String[] OAUTH_PARAMETER_NAMES_WITHOUT_TOKEN = {"oauth_consumer_key", "oauth_nonce",
+            "oauth_signature_method", "oauth_timestamp", "oauth_version"};
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Percent encodes the given value into the buffer, the same way {@link HttpParameter#encode(String)} does.
+     *
+     * @param buf   buffer
+     * @param value value to be encoded
+     * @param twice true to encode the encoded value again, as the parameters in the signature base string are
+     */
+    private static void appendEncoded(StringBuilder buf, String value, boolean twice) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                // slow path for non-ASCII values
+                for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                    appendEncoded(buf, b & 0xff, twice);
+                }
+                return;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            appendEncoded(buf, value.charAt(i), twice);
+        }
+    }
+
+    private static void appendEncoded(StringBuilder buf, int c, boolean twice) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~') {
+            buf.append((char) c);
+        } else {
+            buf.append(twice ? "%25" : "%").append(HEX[c >> 4]).append(HEX[c & 0xf]);
         }
-        return "OAuth " + encodeParameters(oauthHeaderParams, ",", true);
+    }
+
+    private String getEncodedConsumerKey() {
+        String encoded = encodedConsumerKey;
+        if (encoded == null) {
+            encoded = HttpParameter.encode(consumerKey);
+            encodedConsumerKey = encoded;
+        }
+        return encoded;
+    }
+
+    private HmacSha1Signer getSigner(OAuthToken token) {
+        HmacSha1Signer signer = token == null ? consumerSigner : token.getSigner();
+        if (signer == null || !signer.isFor(consumerSecret)) {
+            signer = new HmacSha1Signer(consumerSecret, token == null ? null : token.getTokenSecret());
+            if (token == null) {
+                consumerSigner = signer;
+            } else {
+                token.setSigner(signer);
+            }
+        }
+        return signer;
     }
 
     private void parseGetParameters(String url, List<HttpParameter> signatureBaseParams) {
@@ -288,16 +415,10 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
             oauthHeaderParams.add(new HttpParameter("oauth_token", oauthToken.getToken()));
         }
 
-        List<HttpParameter> signatureBaseParams = new ArrayList<HttpParameter>(oauthHeaderParams.size());
-        signatureBaseParams.addAll(oauthHeaderParams);
-        parseGetParameters(url, signatureBaseParams);
-
-        StringBuilder base = new StringBuilder(method).append("&")
-                .append(HttpParameter.encode(constructRequestURL(url))).append("&");
-        base.append(HttpParameter.encode(normalizeRequestParameters(signatureBaseParams)));
-
-        String oauthBaseString = base.toString();
-        String signature = generateSignature(oauthBaseString, oauthToken);
+        List<HttpParameter> requestParams = new ArrayList<HttpParameter>();
+        parseGetParameters(url, requestParams);
+        String signature = sign(new StringBuilder(256), method, url, requestParams, String.valueOf(nonce),
+                String.valueOf(timestamp), oauthToken);
 
         oauthHeaderParams.add(new HttpParameter("oauth_signature", signature));
 
@@ -313,31 +434,7 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
      * @see <a href="http://oauth.net/core/1.0a/#rfc.section.9.2.1">OAuth Core - 9.2.1.  Generating Signature</a>
      */
     /*package*/ String generateSignature(String data, OAuthToken token) {
-        byte[] byteHMAC = null;
-        try {
-            Mac mac = Mac.getInstance(HMAC_SHA1);
-            SecretKeySpec spec;
-            if (null == token) {
-                String oauthSignature = HttpParameter.encode(consumerSecret) + "&";
-                spec = new SecretKeySpec(oauthSignature.getBytes(), HMAC_SHA1);
-            } else {
-                spec = token.getSecretKeySpec();
-                if (null == spec) {
-                    String oauthSignature = HttpParameter.encode(consumerSecret) + "&" + HttpParameter.encode(token.getTokenSecret());
-                    spec = new SecretKeySpec(oauthSignature.getBytes(), HMAC_SHA1);
-                    token.setSecretKeySpec(spec);
-                }
-            }
-            mac.init(spec);
-            byteHMAC = mac.doFinal(data.getBytes());
-        } catch (InvalidKeyException ike) {
-            logger.error("Failed initialize \"Message Authentication Code\" (MAC)", ike);
-            throw new AssertionError(ike);
-        } catch (NoSuchAlgorithmException nsae) {
-            logger.error("Failed to get HmacSHA1 \"Message Authentication Code\" (MAC)", nsae);
-            throw new AssertionError(nsae);
-        }
-        return BASE64Encoder.encode(byteHMAC);
+        return getSigner(token).sign(data.getBytes(StandardCharsets.UTF_8));
     }
 
     /*package*/
@@ -457,6 +554,8 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
     public void setOAuthConsumer(String consumerKey, String consumerSecret) {
         this.consumerKey = consumerKey != null ? consumerKey : "";
         this.consumerSecret = consumerSecret != null ? consumerSecret : "";
+        this.encodedConsumerKey = null;
+        this.consumerSigner = null;
     }
 
 
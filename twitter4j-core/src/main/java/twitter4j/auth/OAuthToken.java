@@ -19,15 +19,13 @@ package twitter4j.auth;
 import twitter4j.HttpResponse;
 import twitter4j.TwitterException;
 
-import javax.crypto.spec.SecretKeySpec;
-
 abstract class OAuthToken implements java.io.Serializable {
 
     private static final long serialVersionUID = -7841506492508140600L;
     private final String token;
     private final String tokenSecret;
 
-    private transient SecretKeySpec secretKeySpec;
+    private transient HmacSha1Signer signer;
     private String[] responseStr = null;
 
     public OAuthToken(String token, String tokenSecret) {
@@ -57,12 +55,12 @@ abstract class OAuthToken implements java.io.Serializable {
         return tokenSecret;
     }
 
-    /*package*/ void setSecretKeySpec(SecretKeySpec secretKeySpec) {
-        this.secretKeySpec = secretKeySpec;
+    /*package*/ void setSigner(HmacSha1Signer signer) {
+        this.signer = signer;
     }
 
-    /*package*/ SecretKeySpec getSecretKeySpec() {
-        return secretKeySpec;
+    /*package*/ HmacSha1Signer getSigner() {
+        return signer;
     }
 
     public String getParameter(String parameter) {
@@ -101,7 +99,7 @@ abstract class OAuthToken implements java.io.Serializable {
         return "OAuthToken{" +
                 "token='" + token + '\'' +
                 ", tokenSecret='" + tokenSecret + '\'' +
-                ", secretKeySpec=" + secretKeySpec +
+                ", signer=" + signer +
                 '}';
     }
 }
@@ -41,6 +41,8 @@ public final class ChunkedUploadConfiguration {
 
     private int finalizeTimeout = 30;           // When doing a chunked upload, bail out after 30 seconds by default
     private int segmentSizeBytes = 1024 * 1024; // Segment size defaults to 1MB
+    private int parallelism = 1;                // Segments are appended one at a time by default
+    private int segmentRetryCount = 2;          // Each failed segment is retried twice by default
 
     private Callback callback = null;
 
@@ -100,6 +102,26 @@ public final class ChunkedUploadConfiguration {
         return segmentSizeBytes;
     }
 
+    /**
+     * Number of segments appended concurrently when performing a chunked upload
+     *
+     * @return Number of segments appended concurrently
+     * @since Twitter4J 4.0.8
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Number of times a segment is sent again after a failed APPEND command
+     *
+     * @return Number of retries per segment
+     * @since Twitter4J 4.0.8
+     */
+    public int getSegmentRetryCount() {
+        return segmentRetryCount;
+    }
+
     public final static class Builder {
 
         private ChunkedUploadConfiguration conf = new ChunkedUploadConfiguration();
@@ -167,6 +189,27 @@ public final class ChunkedUploadConfiguration {
             return this;
         }
 
+        /**
+         * @param parallelism number of segments appended concurrently, each holding a segment-sized buffer.
+         *                    The callback is invoked from the upload threads when more than 1.
+         * @return this instance
+         * @since Twitter4J 4.0.8
+         */
+        public Builder parallelism(int parallelism) {
+            conf.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param segmentRetryCount number of times a segment is sent again after a failed APPEND command
+         * @return this instance
+         * @since Twitter4J 4.0.8
+         */
+        public Builder segmentRetryCount(int segmentRetryCount) {
+            conf.segmentRetryCount = segmentRetryCount;
+            return this;
+        }
+
         public ChunkedUploadConfiguration build() throws TwitterException {
 
             // must specify file or filename/stream/length
@@ -181,6 +224,10 @@ public final class ChunkedUploadConfiguration {
                 throw new TwitterException("specify media type");
             }
 
+            if (conf.parallelism < 1) {
+                throw new TwitterException("parallelism must be 1 or more");
+            }
+
             return conf;
         }
     }
@@ -132,4 +132,24 @@ public interface Configuration extends AuthorizationConfiguration, java.io.Seria
     boolean isIncludeEmailEnabled();
 
     String getStreamThreadName();
+
+    boolean isStreamingJSONParserEnabled();
+
+    String getRateLimitSchedulerPolicy();
+
+    int getStreamDispatchPartitions();
+
+    int getStreamPartitionQueueSize();
+
+    String getStreamOverflowPolicy();
+
+    int getStreamFallingBehindThreshold();
+
+    int getLookupCoalescingWindowMillis();
+
+    int getUserCacheMaxEntries();
+
+    int getUserCacheMaxAgeMillis();
+
+    boolean isRawJSONRetentionEnabled();
 }
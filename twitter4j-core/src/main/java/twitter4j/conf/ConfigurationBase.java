@@ -42,6 +42,10 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
     private int httpStreamingReadTimeout = 40 * 1000;
     private int httpRetryCount = 0;
     private int httpRetryIntervalSeconds = 5;
+    private int httpMaxConnections = 20;
+    private int httpMaxConnectionsPerHost = 10;
+    private int httpKeepAliveMillis = 60 * 1000;
+    private int httpResponseCacheMaxEntries = 0;
 
     private String cookie = null;
     private String bearerToken = null;
@@ -66,7 +70,7 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
     private String siteStreamBaseURL = "https://sitestream.twitter.com/1.1/";
     private String uploadBaseURL = "https://upload.twitter.com/1.1/";
 
-    private String dispatcherImpl = "twitter4j.DispatcherImpl";
+    private String dispatcherImpl = "twitter4j.VirtualThreadDispatcher";
     private int asyncNumThreads = 1;
 
     private String loggerFactory = null;
@@ -85,6 +89,27 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
 
     private boolean mbeanEnabled = false;
 
+    private boolean streamingJSONParserEnabled = false;
+
+    private String rateLimitSchedulerPolicy = "NONE";
+
+    private int lookupCoalescingWindowMillis = 0;
+
+    private int userCacheMaxEntries = 0;
+
+    private int userCacheMaxAgeMillis = 60 * 1000;
+
+    private boolean rawJSONRetentionEnabled = false;
+
+    // a single partition delivers every event in order, as streams did before partitioning
+    private int streamDispatchPartitions = 1;
+
+    private int streamPartitionQueueSize = 1000;
+
+    private String streamOverflowPolicy = "BLOCK";
+
+    private int streamFallingBehindThreshold = 50;
+
     private boolean userStreamRepliesAllEnabled = false;
     private boolean userStreamWithFollowingsEnabled = true;
     private boolean stallWarningsEnabled = true;
@@ -180,6 +205,31 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
             return httpRetryIntervalSeconds;
         }
 
+        @Override
+        public int getHttpMaxConnections() {
+            return httpMaxConnections;
+        }
+
+        @Override
+        public int getHttpMaxConnectionsPerHost() {
+            return httpMaxConnectionsPerHost;
+        }
+
+        @Override
+        public int getHttpKeepAliveMillis() {
+            return httpKeepAliveMillis;
+        }
+
+        @Override
+        public int getHttpResponseCacheMaxEntries() {
+            return httpResponseCacheMaxEntries;
+        }
+
+        @Override
+        public boolean isMBeanEnabled() {
+            return mbeanEnabled;
+        }
+
         @Override
         public boolean isPrettyDebugEnabled() {
             return prettyDebug;
@@ -204,6 +254,11 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
             if (httpProxySocks != that.httpProxySocks) return false;
             if (httpReadTimeout != that.httpReadTimeout) return false;
             if (prettyDebug != that.prettyDebug) return false;
+            if (getHttpMaxConnections() != that.getHttpMaxConnections()) return false;
+            if (getHttpMaxConnectionsPerHost() != that.getHttpMaxConnectionsPerHost()) return false;
+            if (getHttpKeepAliveMillis() != that.getHttpKeepAliveMillis()) return false;
+            if (getHttpResponseCacheMaxEntries() != that.getHttpResponseCacheMaxEntries()) return false;
+            if (isMBeanEnabled() != that.isMBeanEnabled()) return false;
             if (httpProxyHost != null ? !httpProxyHost.equals(that.httpProxyHost) : that.httpProxyHost != null)
                 return false;
             if (httpProxyPassword != null ? !httpProxyPassword.equals(that.httpProxyPassword) : that.httpProxyPassword != null)
@@ -225,6 +280,11 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
             result = 31 * result + httpReadTimeout;
             result = 31 * result + (prettyDebug ? 1 : 0);
             result = 31 * result + (gzipEnabled ? 1 : 0);
+            result = 31 * result + getHttpMaxConnections();
+            result = 31 * result + getHttpMaxConnectionsPerHost();
+            result = 31 * result + getHttpKeepAliveMillis();
+            result = 31 * result + getHttpResponseCacheMaxEntries();
+            result = 31 * result + (isMBeanEnabled() ? 1 : 0);
             return result;
         }
 
@@ -240,6 +300,11 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
                     ", httpReadTimeout=" + httpReadTimeout +
                     ", prettyDebug=" + prettyDebug +
                     ", gzipEnabled=" + gzipEnabled +
+                    ", httpMaxConnections=" + getHttpMaxConnections() +
+                    ", httpMaxConnectionsPerHost=" + getHttpMaxConnectionsPerHost() +
+                    ", httpKeepAliveMillis=" + getHttpKeepAliveMillis() +
+                    ", httpResponseCacheMaxEntries=" + getHttpResponseCacheMaxEntries() +
+                    ", mbeanEnabled=" + isMBeanEnabled() +
                     '}';
         }
     }
@@ -422,6 +487,22 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         this.httpRetryIntervalSeconds = retryIntervalSeconds;
     }
 
+    protected final void setHttpMaxConnections(int httpMaxConnections) {
+        this.httpMaxConnections = httpMaxConnections;
+    }
+
+    protected final void setHttpMaxConnectionsPerHost(int httpMaxConnectionsPerHost) {
+        this.httpMaxConnectionsPerHost = httpMaxConnectionsPerHost;
+    }
+
+    protected final void setHttpKeepAliveMillis(int httpKeepAliveMillis) {
+        this.httpKeepAliveMillis = httpKeepAliveMillis;
+    }
+
+    protected final void setHttpResponseCacheMaxEntries(int httpResponseCacheMaxEntries) {
+        this.httpResponseCacheMaxEntries = httpResponseCacheMaxEntries;
+    }
+
     // oauth related setter/getters
 
     @Override
@@ -818,6 +899,96 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         }
     }
 
+    @Override
+    public boolean isStreamingJSONParserEnabled() {
+        return streamingJSONParserEnabled;
+    }
+
+    protected final void setStreamingJSONParserEnabled(boolean streamingJSONParserEnabled) {
+        this.streamingJSONParserEnabled = streamingJSONParserEnabled;
+    }
+
+    @Override
+    public String getRateLimitSchedulerPolicy() {
+        return rateLimitSchedulerPolicy;
+    }
+
+    protected final void setRateLimitSchedulerPolicy(String rateLimitSchedulerPolicy) {
+        this.rateLimitSchedulerPolicy = rateLimitSchedulerPolicy;
+    }
+
+    @Override
+    public int getStreamDispatchPartitions() {
+        return streamDispatchPartitions;
+    }
+
+    protected final void setStreamDispatchPartitions(int streamDispatchPartitions) {
+        this.streamDispatchPartitions = streamDispatchPartitions;
+    }
+
+    @Override
+    public int getStreamPartitionQueueSize() {
+        return streamPartitionQueueSize;
+    }
+
+    protected final void setStreamPartitionQueueSize(int streamPartitionQueueSize) {
+        this.streamPartitionQueueSize = streamPartitionQueueSize;
+    }
+
+    @Override
+    public String getStreamOverflowPolicy() {
+        return streamOverflowPolicy;
+    }
+
+    protected final void setStreamOverflowPolicy(String streamOverflowPolicy) {
+        this.streamOverflowPolicy = streamOverflowPolicy;
+    }
+
+    @Override
+    public int getStreamFallingBehindThreshold() {
+        return streamFallingBehindThreshold;
+    }
+
+    protected final void setStreamFallingBehindThreshold(int streamFallingBehindThreshold) {
+        this.streamFallingBehindThreshold = streamFallingBehindThreshold;
+    }
+
+    @Override
+    public int getLookupCoalescingWindowMillis() {
+        return lookupCoalescingWindowMillis;
+    }
+
+    protected final void setLookupCoalescingWindowMillis(int lookupCoalescingWindowMillis) {
+        this.lookupCoalescingWindowMillis = lookupCoalescingWindowMillis;
+    }
+
+    @Override
+    public int getUserCacheMaxEntries() {
+        return userCacheMaxEntries;
+    }
+
+    protected final void setUserCacheMaxEntries(int userCacheMaxEntries) {
+        this.userCacheMaxEntries = userCacheMaxEntries;
+    }
+
+    @Override
+    public int getUserCacheMaxAgeMillis() {
+        return userCacheMaxAgeMillis;
+    }
+
+    protected final void setUserCacheMaxAgeMillis(int userCacheMaxAgeMillis) {
+        this.userCacheMaxAgeMillis = userCacheMaxAgeMillis;
+    }
+
+    @Override
+    public boolean isRawJSONRetentionEnabled() {
+        return rawJSONRetentionEnabled;
+    }
+
+    protected final void setRawJSONRetentionEnabled(boolean rawJSONRetentionEnabled) {
+        this.rawJSONRetentionEnabled = rawJSONRetentionEnabled;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -829,6 +1000,10 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         if (httpStreamingReadTimeout != that.httpStreamingReadTimeout) return false;
         if (httpRetryCount != that.httpRetryCount) return false;
         if (httpRetryIntervalSeconds != that.httpRetryIntervalSeconds) return false;
+        if (httpMaxConnections != that.httpMaxConnections) return false;
+        if (httpMaxConnectionsPerHost != that.httpMaxConnectionsPerHost) return false;
+        if (httpKeepAliveMillis != that.httpKeepAliveMillis) return false;
+        if (httpResponseCacheMaxEntries != that.httpResponseCacheMaxEntries) return false;
         if (asyncNumThreads != that.asyncNumThreads) return false;
         if (contributingTo != that.contributingTo) return false;
         if (includeMyRetweetEnabled != that.includeMyRetweetEnabled) return false;
@@ -845,6 +1020,16 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         if (stallWarningsEnabled != that.stallWarningsEnabled) return false;
         if (applicationOnlyAuthEnabled != that.applicationOnlyAuthEnabled) return false;
         if (daemonEnabled != that.daemonEnabled) return false;
+        if (streamingJSONParserEnabled != that.streamingJSONParserEnabled) return false;
+        if (rateLimitSchedulerPolicy != null ? !rateLimitSchedulerPolicy.equals(that.rateLimitSchedulerPolicy) : that.rateLimitSchedulerPolicy != null) return false;
+        if (streamDispatchPartitions != that.streamDispatchPartitions) return false;
+        if (streamPartitionQueueSize != that.streamPartitionQueueSize) return false;
+        if (streamOverflowPolicy != null ? !streamOverflowPolicy.equals(that.streamOverflowPolicy) : that.streamOverflowPolicy != null) return false;
+        if (streamFallingBehindThreshold != that.streamFallingBehindThreshold) return false;
+        if (lookupCoalescingWindowMillis != that.lookupCoalescingWindowMillis) return false;
+        if (userCacheMaxEntries != that.userCacheMaxEntries) return false;
+        if (userCacheMaxAgeMillis != that.userCacheMaxAgeMillis) return false;
+        if (rawJSONRetentionEnabled != that.rawJSONRetentionEnabled) return false;
         if (user != null ? !user.equals(that.user) : that.user != null) return false;
         if (password != null ? !password.equals(that.password) : that.password != null) return false;
         if (httpConf != null ? !httpConf.equals(that.httpConf) : that.httpConf != null) return false;
@@ -905,6 +1090,10 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         result = 31 * result + httpStreamingReadTimeout;
         result = 31 * result + httpRetryCount;
         result = 31 * result + httpRetryIntervalSeconds;
+        result = 31 * result + httpMaxConnections;
+        result = 31 * result + httpMaxConnectionsPerHost;
+        result = 31 * result + httpKeepAliveMillis;
+        result = 31 * result + httpResponseCacheMaxEntries;
         result = 31 * result + (oAuthConsumerKey != null ? oAuthConsumerKey.hashCode() : 0);
         result = 31 * result + (oAuthConsumerSecret != null ? oAuthConsumerSecret.hashCode() : 0);
         result = 31 * result + (oAuthAccessToken != null ? oAuthAccessToken.hashCode() : 0);
@@ -940,6 +1129,16 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         result = 31 * result + (userStreamWithFollowingsEnabled ? 1 : 0);
         result = 31 * result + (stallWarningsEnabled ? 1 : 0);
         result = 31 * result + (applicationOnlyAuthEnabled ? 1 : 0);
+        result = 31 * result + (streamingJSONParserEnabled ? 1 : 0);
+        result = 31 * result + (rateLimitSchedulerPolicy != null ? rateLimitSchedulerPolicy.hashCode() : 0);
+        result = 31 * result + streamDispatchPartitions;
+        result = 31 * result + streamPartitionQueueSize;
+        result = 31 * result + (streamOverflowPolicy != null ? streamOverflowPolicy.hashCode() : 0);
+        result = 31 * result + streamFallingBehindThreshold;
+        result = 31 * result + lookupCoalescingWindowMillis;
+        result = 31 * result + userCacheMaxEntries;
+        result = 31 * result + userCacheMaxAgeMillis;
+        result = 31 * result + (rawJSONRetentionEnabled ? 1 : 0);
         result = 31 * result + (mediaProvider != null ? mediaProvider.hashCode() : 0);
         result = 31 * result + (mediaProviderAPIKey != null ? mediaProviderAPIKey.hashCode() : 0);
         result = 31 * result + (mediaProviderParameters != null ? mediaProviderParameters.hashCode() : 0);
@@ -958,6 +1157,10 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
                 ", httpStreamingReadTimeout=" + httpStreamingReadTimeout +
                 ", httpRetryCount=" + httpRetryCount +
                 ", httpRetryIntervalSeconds=" + httpRetryIntervalSeconds +
+                ", httpMaxConnections=" + httpMaxConnections +
+                ", httpMaxConnectionsPerHost=" + httpMaxConnectionsPerHost +
+                ", httpKeepAliveMillis=" + httpKeepAliveMillis +
+                ", httpResponseCacheMaxEntries=" + httpResponseCacheMaxEntries +
                 ", oAuthConsumerKey='" + oAuthConsumerKey + '\'' +
                 ", oAuthConsumerSecret='" + oAuthConsumerSecret + '\'' +
                 ", oAuthAccessToken='" + oAuthAccessToken + '\'' +
@@ -993,6 +1196,16 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
                 ", userStreamWithFollowingsEnabled=" + userStreamWithFollowingsEnabled +
                 ", stallWarningsEnabled=" + stallWarningsEnabled +
                 ", applicationOnlyAuthEnabled=" + applicationOnlyAuthEnabled +
+                ", streamingJSONParserEnabled=" + streamingJSONParserEnabled +
+                ", rateLimitSchedulerPolicy='" + rateLimitSchedulerPolicy + '\'' +
+                ", streamDispatchPartitions=" + streamDispatchPartitions +
+                ", streamPartitionQueueSize=" + streamPartitionQueueSize +
+                ", streamOverflowPolicy='" + streamOverflowPolicy + '\'' +
+                ", streamFallingBehindThreshold=" + streamFallingBehindThreshold +
+                ", lookupCoalescingWindowMillis=" + lookupCoalescingWindowMillis +
+                ", userCacheMaxEntries=" + userCacheMaxEntries +
+                ", userCacheMaxAgeMillis=" + userCacheMaxAgeMillis +
+                ", rawJSONRetentionEnabled=" + rawJSONRetentionEnabled +
                 ", mediaProvider='" + mediaProvider + '\'' +
                 ", mediaProviderAPIKey='" + mediaProviderAPIKey + '\'' +
                 ", mediaProviderParameters=" + mediaProviderParameters +
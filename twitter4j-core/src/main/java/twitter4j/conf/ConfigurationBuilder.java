@@ -126,6 +126,30 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setHttpMaxConnections(int httpMaxConnections) {
+        checkNotBuilt();
+        configurationBean.setHttpMaxConnections(httpMaxConnections);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpMaxConnectionsPerHost(int httpMaxConnectionsPerHost) {
+        checkNotBuilt();
+        configurationBean.setHttpMaxConnectionsPerHost(httpMaxConnectionsPerHost);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpKeepAliveMillis(int httpKeepAliveMillis) {
+        checkNotBuilt();
+        configurationBean.setHttpKeepAliveMillis(httpKeepAliveMillis);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpResponseCacheMaxEntries(int httpResponseCacheMaxEntries) {
+        checkNotBuilt();
+        configurationBean.setHttpResponseCacheMaxEntries(httpResponseCacheMaxEntries);
+        return this;
+    }
+
     public ConfigurationBuilder setCookie(String cookie) {
         checkNotBuilt();
         configurationBean.setCookie(cookie);
@@ -336,6 +360,66 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setStreamingJSONParserEnabled(boolean streamingJSONParserEnabled) {
+        checkNotBuilt();
+        configurationBean.setStreamingJSONParserEnabled(streamingJSONParserEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setRateLimitSchedulerPolicy(String rateLimitSchedulerPolicy) {
+        checkNotBuilt();
+        configurationBean.setRateLimitSchedulerPolicy(rateLimitSchedulerPolicy);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamDispatchPartitions(int streamDispatchPartitions) {
+        checkNotBuilt();
+        configurationBean.setStreamDispatchPartitions(streamDispatchPartitions);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamPartitionQueueSize(int streamPartitionQueueSize) {
+        checkNotBuilt();
+        configurationBean.setStreamPartitionQueueSize(streamPartitionQueueSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamOverflowPolicy(String streamOverflowPolicy) {
+        checkNotBuilt();
+        configurationBean.setStreamOverflowPolicy(streamOverflowPolicy);
+        return this;
+    }
+
+    public ConfigurationBuilder setStreamFallingBehindThreshold(int streamFallingBehindThreshold) {
+        checkNotBuilt();
+        configurationBean.setStreamFallingBehindThreshold(streamFallingBehindThreshold);
+        return this;
+    }
+
+    public ConfigurationBuilder setLookupCoalescingWindowMillis(int lookupCoalescingWindowMillis) {
+        checkNotBuilt();
+        configurationBean.setLookupCoalescingWindowMillis(lookupCoalescingWindowMillis);
+        return this;
+    }
+
+    public ConfigurationBuilder setUserCacheMaxEntries(int userCacheMaxEntries) {
+        checkNotBuilt();
+        configurationBean.setUserCacheMaxEntries(userCacheMaxEntries);
+        return this;
+    }
+
+    public ConfigurationBuilder setUserCacheMaxAgeMillis(int userCacheMaxAgeMillis) {
+        checkNotBuilt();
+        configurationBean.setUserCacheMaxAgeMillis(userCacheMaxAgeMillis);
+        return this;
+    }
+
+    public ConfigurationBuilder setRawJSONRetentionEnabled(boolean rawJSONRetentionEnabled) {
+        checkNotBuilt();
+        configurationBean.setRawJSONRetentionEnabled(rawJSONRetentionEnabled);
+        return this;
+    }
+
     public ConfigurationBuilder setMediaProvider(String mediaProvider) {
         checkNotBuilt();
         configurationBean.setMediaProvider(mediaProvider);
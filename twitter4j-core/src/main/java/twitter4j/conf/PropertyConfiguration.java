@@ -45,6 +45,10 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
 
     private static final String HTTP_RETRY_COUNT = "http.retryCount";
     private static final String HTTP_RETRY_INTERVAL_SECS = "http.retryIntervalSecs";
+    private static final String HTTP_MAX_CONNECTIONS = "http.maxConnections";
+    private static final String HTTP_MAX_CONNECTIONS_PER_HOST = "http.maxConnectionsPerHost";
+    private static final String HTTP_KEEP_ALIVE_MILLIS = "http.keepAliveMillis";
+    private static final String HTTP_RESPONSE_CACHE_MAX_ENTRIES = "http.responseCacheMaxEntries";
 
     private static final String OAUTH_CONSUMER_KEY = "oauth.consumerKey";
     private static final String OAUTH_CONSUMER_SECRET = "oauth.consumerSecret";
@@ -85,6 +89,16 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
     private static final String STREAM_USER_WITH_FOLLOWINGS = "stream.user.withFollowings";
     private static final String STREAM_STALL_WARNINGS_ENABLED = "stream.enableStallWarnings";
     private static final String APPLICATION_ONLY_AUTH_ENABLED = "enableApplicationOnlyAuth";
+    private static final String STREAMING_JSON_PARSER_ENABLED = "streamingJSONParserEnabled";
+    private static final String RATE_LIMIT_SCHEDULER_POLICY = "rateLimitSchedulerPolicy";
+    private static final String STREAM_DISPATCH_PARTITIONS = "stream.dispatchPartitions";
+    private static final String STREAM_PARTITION_QUEUE_SIZE = "stream.partitionQueueSize";
+    private static final String STREAM_OVERFLOW_POLICY = "stream.overflowPolicy";
+    private static final String STREAM_FALLING_BEHIND_THRESHOLD = "stream.fallingBehindThreshold";
+    private static final String LOOKUP_COALESCING_WINDOW_MILLIS = "lookupCoalescingWindowMillis";
+    private static final String USER_CACHE_MAX_ENTRIES = "userCacheMaxEntries";
+    private static final String USER_CACHE_MAX_AGE_MILLIS = "userCacheMaxAgeMillis";
+    private static final String RAW_JSON_RETENTION_ENABLED = "rawJSONRetentionEnabled";
 
     private static final String MEDIA_PROVIDER = "media.provider";
     private static final String MEDIA_PROVIDER_API_KEY = "media.providerAPIKey";
@@ -277,6 +291,18 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
         if (notNull(props, prefix, HTTP_RETRY_INTERVAL_SECS)) {
             setHttpRetryIntervalSeconds(getIntProperty(props, prefix, HTTP_RETRY_INTERVAL_SECS));
         }
+        if (notNull(props, prefix, HTTP_MAX_CONNECTIONS)) {
+            setHttpMaxConnections(getIntProperty(props, prefix, HTTP_MAX_CONNECTIONS));
+        }
+        if (notNull(props, prefix, HTTP_MAX_CONNECTIONS_PER_HOST)) {
+            setHttpMaxConnectionsPerHost(getIntProperty(props, prefix, HTTP_MAX_CONNECTIONS_PER_HOST));
+        }
+        if (notNull(props, prefix, HTTP_KEEP_ALIVE_MILLIS)) {
+            setHttpKeepAliveMillis(getIntProperty(props, prefix, HTTP_KEEP_ALIVE_MILLIS));
+        }
+        if (notNull(props, prefix, HTTP_RESPONSE_CACHE_MAX_ENTRIES)) {
+            setHttpResponseCacheMaxEntries(getIntProperty(props, prefix, HTTP_RESPONSE_CACHE_MAX_ENTRIES));
+        }
         if (notNull(props, prefix, OAUTH_CONSUMER_KEY)) {
             setOAuthConsumerKey(getString(props, prefix, OAUTH_CONSUMER_KEY));
         }
@@ -390,6 +416,36 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
         if (notNull(props, prefix, APPLICATION_ONLY_AUTH_ENABLED)) {
             setApplicationOnlyAuthEnabled(getBoolean(props, prefix, APPLICATION_ONLY_AUTH_ENABLED));
         }
+        if (notNull(props, prefix, STREAMING_JSON_PARSER_ENABLED)) {
+            setStreamingJSONParserEnabled(getBoolean(props, prefix, STREAMING_JSON_PARSER_ENABLED));
+        }
+        if (notNull(props, prefix, RATE_LIMIT_SCHEDULER_POLICY)) {
+            setRateLimitSchedulerPolicy(getString(props, prefix, RATE_LIMIT_SCHEDULER_POLICY));
+        }
+        if (notNull(props, prefix, STREAM_DISPATCH_PARTITIONS)) {
+            setStreamDispatchPartitions(getIntProperty(props, prefix, STREAM_DISPATCH_PARTITIONS));
+        }
+        if (notNull(props, prefix, STREAM_PARTITION_QUEUE_SIZE)) {
+            setStreamPartitionQueueSize(getIntProperty(props, prefix, STREAM_PARTITION_QUEUE_SIZE));
+        }
+        if (notNull(props, prefix, STREAM_OVERFLOW_POLICY)) {
+            setStreamOverflowPolicy(getString(props, prefix, STREAM_OVERFLOW_POLICY));
+        }
+        if (notNull(props, prefix, STREAM_FALLING_BEHIND_THRESHOLD)) {
+            setStreamFallingBehindThreshold(getIntProperty(props, prefix, STREAM_FALLING_BEHIND_THRESHOLD));
+        }
+        if (notNull(props, prefix, LOOKUP_COALESCING_WINDOW_MILLIS)) {
+            setLookupCoalescingWindowMillis(getIntProperty(props, prefix, LOOKUP_COALESCING_WINDOW_MILLIS));
+        }
+        if (notNull(props, prefix, USER_CACHE_MAX_ENTRIES)) {
+            setUserCacheMaxEntries(getIntProperty(props, prefix, USER_CACHE_MAX_ENTRIES));
+        }
+        if (notNull(props, prefix, USER_CACHE_MAX_AGE_MILLIS)) {
+            setUserCacheMaxAgeMillis(getIntProperty(props, prefix, USER_CACHE_MAX_AGE_MILLIS));
+        }
+        if (notNull(props, prefix, RAW_JSON_RETENTION_ENABLED)) {
+            setRawJSONRetentionEnabled(getBoolean(props, prefix, RAW_JSON_RETENTION_ENABLED));
+        }
         if (notNull(props, prefix, MEDIA_PROVIDER)) {
             setMediaProvider(getString(props, prefix, MEDIA_PROVIDER));
         }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import twitter4j.api.AsyncV1Resources;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link AsyncV1Resources} against a local HTTP server.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class AsyncV1ResourcesTest {
+    private LocalHttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalHttpServer();
+        server.handle("/1.1/users/lookup.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int current = inFlight.incrementAndGet();
+                int peak;
+                while (current > (peak = peakInFlight.get()) && !peakInFlight.compareAndSet(peak, current)) {
+                }
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ignore) {
+                }
+                String query = exchange.getRequestURI().getRawQuery();
+                String id = query.replaceAll(".*user_id=([0-9]+).*", "$1");
+                inFlight.decrementAndGet();
+                LocalHttpServer.respond(exchange, 200, "[{\"id\":" + id + ",\"screen_name\":\"user" + id + "\"}]");
+            }
+        });
+        server.handle("/1.1/statuses/show/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                LocalHttpServer.respond(exchange, 404, "{\"errors\":[{\"code\":144,\"message\":\"No status found with that ID.\"}]}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private Twitter newTwitter(int maxConnections) {
+        return new TwitterFactory(server.newConfigurationBuilder()
+                .setHttpMaxConnections(maxConnections).setHttpMaxConnectionsPerHost(maxConnections)
+                .build()).getInstance();
+    }
+
+    @Test
+    void testManyConcurrentRequestsWithFewConnections() throws Exception {
+        AsyncV1Resources async = newTwitter(4).asyncV1Resources();
+        int threadsBefore = Thread.activeCount();
+        List<CompletableFuture<ResponseList<User>>> futures = new ArrayList<CompletableFuture<ResponseList<User>>>();
+        for (long id = 1; id <= 200; id++) {
+            futures.add(async.lookupUsers(id));
+        }
+        // requests are queued rather than parking a thread each
+        assertTrue(Thread.activeCount() - threadsBefore < 100);
+        for (int i = 0; i < futures.size(); i++) {
+            ResponseList<User> users = futures.get(i).get(30, TimeUnit.SECONDS);
+            assertEquals(1, users.size());
+            assertEquals(i + 1, users.get(0).getId());
+            assertEquals("user" + (i + 1), users.get(0).getScreenName());
+        }
+        assertTrue(peakInFlight.get() <= 4, "peak in-flight requests: " + peakInFlight.get());
+    }
+
+    @Test
+    void testErrorResponse() throws Exception {
+        CompletableFuture<Status> future = newTwitter(4).asyncV1Resources().showStatus(1L);
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            fail("should fail with TwitterException");
+        } catch (ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof TwitterException);
+            TwitterException te = (TwitterException) ee.getCause();
+            assertEquals(404, te.getStatusCode());
+            assertEquals(144, te.getErrorCode());
+        }
+    }
+}
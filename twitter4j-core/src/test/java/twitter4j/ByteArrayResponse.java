@@ -0,0 +1,59 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 200 OK response with the given body and no headers, for binding tests without a server.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class ByteArrayResponse extends HttpResponse {
+    private static final HttpClientConfiguration HTTP_CONF = new ConfigurationBuilder().build().getHttpClientConfiguration();
+
+    ByteArrayResponse(byte[] body) {
+        super(HTTP_CONF);
+        this.statusCode = 200;
+        this.is = new ByteArrayInputStream(body);
+    }
+
+    ByteArrayResponse(String body) {
+        this(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String getResponseHeader(String name) {
+        return null;
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public void disconnect() {
+    }
+}
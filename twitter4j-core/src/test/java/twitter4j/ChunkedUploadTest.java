@@ -0,0 +1,293 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.ChunkedUploadConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs chunked uploads against a local HTTP server.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class ChunkedUploadTest {
+    private static final Pattern COMMAND = Pattern.compile("name=\"command\"\r\n[^\r]*\r\n\r\n([A-Z]+)\r\n");
+    private static final Pattern SEGMENT_INDEX = Pattern.compile("name=\"segment_index\"\r\n[^\r]*\r\n\r\n([0-9]+)\r\n");
+    private static final Pattern MEDIA = Pattern.compile("name=\"media\"; [^\r]*\r\n[^\r]*\r\n\r\n(.*?)\r\n--", Pattern.DOTALL);
+
+    private LocalHttpServer server;
+    private final Map<Integer, String> segments = new ConcurrentHashMap<Integer, String>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    // FINALIZE and STATUS responses, in order
+    private final Queue<String> processingResponses = new ConcurrentLinkedQueue<String>();
+    private final AtomicInteger statusRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalHttpServer();
+        server.handle("/1.1/media/upload.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                InputStream is = exchange.getRequestBody();
+                byte[] buf = new byte[8192];
+                int read;
+                while ((read = is.read(buf)) != -1) {
+                    body.write(buf, 0, read);
+                }
+                // media bytes are ASCII in these tests
+                String request = new String(body.toByteArray(), StandardCharsets.ISO_8859_1);
+                Matcher command = COMMAND.matcher(request);
+                // only APPEND is sent as multipart
+                if (command.find() && command.group(1).equals("APPEND")) {
+                    int current = inFlight.incrementAndGet();
+                    int peak;
+                    while (current > (peak = peakInFlight.get()) && !peakInFlight.compareAndSet(peak, current)) {
+                    }
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException ignore) {
+                    }
+                    inFlight.decrementAndGet();
+                    Matcher index = SEGMENT_INDEX.matcher(request);
+                    Matcher media = MEDIA.matcher(request);
+                    assertTrue(index.find());
+                    assertTrue(media.find());
+                    if (index.group(1).equals("3") && failuresLeft.getAndDecrement() > 0) {
+                        LocalHttpServer.respond(exchange, 503, "{\"errors\":[{\"code\":131,\"message\":\"Internal error\"}]}");
+                        return;
+                    }
+                    segments.put(Integer.parseInt(index.group(1)), media.group(1));
+                    exchange.sendResponseHeaders(204, -1);
+                    exchange.close();
+                } else if (request.contains("command=FINALIZE") || exchange.getRequestMethod().equals("GET")) {
+                    if (exchange.getRequestMethod().equals("GET")) {
+                        assertTrue(exchange.getRequestURI().getQuery().contains("command=STATUS"));
+                        statusRequests.incrementAndGet();
+                    }
+                    String processing = processingResponses.poll();
+                    LocalHttpServer.respond(exchange, 200, "{\"media_id\":710511363345354753,\"size\":0"
+                            + (processing != null ? ",\"processing_info\":" + processing : "") + "}");
+                } else {
+                    // INIT
+                    LocalHttpServer.respond(exchange, 200, "{\"media_id\":710511363345354753,\"size\":0}");
+                }
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private Twitter newTwitter() {
+        return new TwitterFactory(server.newConfigurationBuilder().build()).getInstance();
+    }
+
+    private static byte[] media(int length) {
+        byte[] media = new byte[length];
+        for (int i = 0; i < length; i++) {
+            media[i] = (byte) ('a' + i % 26);
+        }
+        return media;
+    }
+
+    private String reassembled() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < segments.size(); i++) {
+            assertTrue(segments.containsKey(i), "missing segment " + i);
+            buf.append(segments.get(i));
+        }
+        return buf.toString();
+    }
+
+    @Test
+    void testParallelFileUploadRetriesFailedSegment() throws Exception {
+        byte[] media = media(10 * 1024 + 100);
+        File file = File.createTempFile("twitter4j", ".mp4");
+        file.deleteOnExit();
+        Files.write(file.toPath(), media);
+        failuresLeft.set(1);
+        final AtomicInteger lastUploadedBytes = new AtomicInteger();
+
+        UploadedMedia uploaded = newTwitter().v1Resources().tweets().uploadMediaChunked(
+                new ChunkedUploadConfiguration.Builder().tweetVideo().from(file)
+                        .segmentSizeBytes(1024).parallelism(4)
+                        .callback(new ChunkedUploadConfiguration.Callback() {
+                            @Override
+                            public void onProgress(String progress, long uploadedBytes, long totalBytes,
+                                                   String finalizeProcessingState, int finalizeProgressPercent) {
+                                assertTrue(uploadedBytes >= lastUploadedBytes.get(), "progress must not go backwards");
+                                lastUploadedBytes.set((int) uploadedBytes);
+                            }
+                        }).build());
+
+        assertEquals(710511363345354753L, uploaded.getMediaId());
+        assertEquals(11, segments.size());
+        assertEquals(new String(media, StandardCharsets.ISO_8859_1), reassembled());
+        assertEquals(media.length, lastUploadedBytes.get());
+        assertTrue(peakInFlight.get() > 1, "peak in-flight segments: " + peakInFlight.get());
+        assertTrue(peakInFlight.get() <= 4, "peak in-flight segments: " + peakInFlight.get());
+    }
+
+    @Test
+    void testParallelStreamUpload() throws Exception {
+        byte[] media = media(5 * 1000);
+        // hands out a few bytes per read
+        InputStream stream = new ByteArrayInputStream(media) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 300));
+            }
+        };
+        newTwitter().v1Resources().tweets().uploadMediaChunked(
+                new ChunkedUploadConfiguration.Builder().tweetVideo().from("media.mp4", stream, media.length)
+                        .segmentSizeBytes(1000).parallelism(3).build());
+
+        assertEquals(5, segments.size());
+        for (String segment : segments.values()) {
+            assertEquals(1000, segment.length());
+        }
+        assertEquals(new String(media, StandardCharsets.ISO_8859_1), reassembled());
+    }
+
+    @Test
+    void testFailedSegmentFailsUpload() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        try {
+            newTwitter().v1Resources().tweets().uploadMediaChunked(
+                    new ChunkedUploadConfiguration.Builder().tweetVideo()
+                            .from("media.mp4", new ByteArrayInputStream(media(8 * 100)), 8 * 100)
+                            .segmentSizeBytes(100).parallelism(2).segmentRetryCount(1).build());
+            fail("should throw TwitterException");
+        } catch (TwitterException te) {
+            assertEquals(503, te.getStatusCode());
+        }
+        // initial attempt and one retry
+        assertEquals(Integer.MAX_VALUE - 2, failuresLeft.get());
+    }
+
+    @Test
+    void testAsyncUploadPollsStatus() throws Exception {
+        byte[] media = media(3 * 1000 + 1);
+        File file = File.createTempFile("twitter4j", ".mp4");
+        file.deleteOnExit();
+        Files.write(file.toPath(), media);
+        failuresLeft.set(1);
+        processingResponses.add("{\"state\":\"pending\",\"check_after_secs\":1}");
+        processingResponses.add("{\"state\":\"in_progress\",\"check_after_secs\":1,\"progress_percent\":50}");
+        processingResponses.add("{\"state\":\"succeeded\",\"progress_percent\":100}");
+
+        long before = System.nanoTime();
+        CompletableFuture<UploadedMedia> future = newTwitter().asyncV1Resources().uploadMediaChunked(
+                new ChunkedUploadConfiguration.Builder().tweetVideo().from(file)
+                        .segmentSizeBytes(1000).parallelism(2).build());
+        // two STATUS checks, each scheduled a second later
+        assertFalse(future.isDone());
+        UploadedMedia uploaded = future.get(30, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - before >= TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals(710511363345354753L, uploaded.getMediaId());
+        assertEquals("succeeded", uploaded.getProcessingState());
+        assertEquals(2, statusRequests.get());
+        assertEquals(new String(media, StandardCharsets.ISO_8859_1), reassembled());
+    }
+
+    @Test
+    void testAsyncUploadProcessingFailure() throws Exception {
+        processingResponses.add("{\"state\":\"failed\",\"error\":{\"code\":1,\"name\":\"InvalidMedia\",\"message\":\"Unsupported video format\"}}");
+        CompletableFuture<UploadedMedia> future = newTwitter().asyncV1Resources().uploadMediaChunked(
+                new ChunkedUploadConfiguration.Builder().tweetVideo()
+                        .from("media.mp4", new ByteArrayInputStream(media(100)), 100).build());
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            fail("should fail with TwitterException");
+        } catch (ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof TwitterException);
+            assertTrue(ee.getCause().getMessage().contains("Unsupported video format (InvalidMedia)"));
+        }
+    }
+
+    @Test
+    void testAsyncUploadFailsOnRuntimeExceptions() throws Exception {
+        // thrown by the progress callback once the first segment has been appended
+        CompletableFuture<UploadedMedia> future = newTwitter().asyncV1Resources().uploadMediaChunked(
+                new ChunkedUploadConfiguration.Builder().tweetVideo()
+                        .from("media.mp4", new ByteArrayInputStream(media(300)), 300).segmentSizeBytes(100)
+                        .callback(new ChunkedUploadConfiguration.Callback() {
+                            @Override
+                            public void onProgress(String progress, long uploadedBytes, long totalBytes,
+                                                   String finalizeProcessingState, int finalizeProgressPercent) {
+                                if (progress.equals("Appended")) {
+                                    throw new IllegalStateException("callback failure");
+                                }
+                            }
+                        }).build());
+        assertFailsWith(future, "callback failure");
+
+        // thrown while reading the stream
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("read failure");
+            }
+        };
+        assertFailsWith(newTwitter().asyncV1Resources().uploadMediaChunked(
+                new ChunkedUploadConfiguration.Builder().tweetVideo().from("media.mp4", broken, 100).build()),
+                "read failure");
+    }
+
+    private static void assertFailsWith(CompletableFuture<UploadedMedia> future, String message) throws Exception {
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            fail("should fail with TwitterException");
+        } catch (ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof TwitterException);
+            assertTrue(ee.getCause().getCause() instanceof IllegalStateException);
+            assertEquals(message, ee.getCause().getCause().getMessage());
+        }
+    }
+}
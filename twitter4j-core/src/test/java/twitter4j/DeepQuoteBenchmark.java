@@ -0,0 +1,80 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures binding quote tweets nested {@code depth} levels deep, as seen in sample / filter streams.<br>
+ * Each nested quoted_status should be bound exactly once, so the cost per op is expected to grow linearly with the
+ * depth. Reports ops/s and bytes allocated per op (the latter on HotSpot only).
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class DeepQuoteBenchmark {
+    private static final String STATUS = "\"created_at\":\"Mon Mar 11 19:37:00 +0000 2013\", \"id_str\":\"311199093852618752\", \"text\":\"Introducing application-only authentication for the Twitter REST API v1.1 https:\\/\\/t.co\\/BrLLpVyuCe ^TS\", \"source\":\"web\", \"truncated\":false, \"in_reply_to_status_id\":null, \"in_reply_to_user_id\":null, \"in_reply_to_screen_name\":null, \"user\":{ \"id\":6253282, \"id_str\":\"6253282\", \"name\":\"Twitter API\", \"screen_name\":\"twitterapi\", \"location\":\"San Francisco, CA\", \"description\":\"The Real Twitter API.\", \"url\":\"http:\\/\\/dev.twitter.com\", \"entities\":{ \"url\":{ \"urls\":[ { \"url\":\"http:\\/\\/dev.twitter.com\", \"expanded_url\":null, \"indices\":[ 0, 22 ] } ] }, \"description\":{ \"urls\":[ ] } }, \"protected\":false, \"followers_count\":1533137, \"friends_count\":33, \"listed_count\":11369, \"created_at\":\"Wed May 23 06:01:13 +0000 2007\", \"favourites_count\":25, \"verified\":true, \"statuses_count\":3392, \"lang\":\"en\" }, \"geo\":null, \"coordinates\":null, \"place\":null, \"contributors\":null, \"retweet_count\":131, \"entities\":{ \"hashtags\":[ ], \"urls\":[ { \"url\":\"https:\\/\\/t.co\\/BrLLpVyuCe\", \"expanded_url\":\"https:\\/\\/dev.twitter.com\\/docs\\/auth\\/application-only-auth\", \"display_url\":\"dev.twitter.com\\/docs\\/auth\\/appl\\u2026\", \"indices\":[ 74, 97 ] } ], \"user_mentions\":[ ] }, \"favorited\":false, \"retweeted\":false, \"lang\":\"en\"";
+
+    public static void main(String[] args) throws Exception {
+        int warmup = 2000;
+        int iterations = 5000;
+        for (int depth = 0; depth <= 4; depth++) {
+            JSONObject json = new JSONObject(quoteChain(depth));
+            run(json, warmup);
+            long allocatedBefore = allocatedBytes();
+            long before = System.nanoTime();
+            run(json, iterations);
+            long elapsed = System.nanoTime() - before;
+            long allocated = allocatedBytes() - allocatedBefore;
+            System.out.printf("depth %d %10.1f ops/s %12d bytes/op%n", depth,
+                    iterations / (elapsed / 1000000000d), allocated < 0 ? -1 : allocated / iterations);
+        }
+    }
+
+    /**
+     * @param depth number of nested quoted statuses
+     * @return a status quoting a status quoting a status ...
+     */
+    static String quoteChain(int depth) {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i <= depth; i++) {
+            json.append("{\"id\":").append(1000 + i).append(", ").append(STATUS);
+            if (i < depth) {
+                json.append(", \"quoted_status_id\":").append(1000 + i + 1).append(", \"quoted_status\":");
+            }
+        }
+        for (int i = 0; i <= depth; i++) {
+            json.append('}');
+        }
+        return json.toString();
+    }
+
+    private static void run(JSONObject json, int iterations) throws TwitterException {
+        for (int i = 0; i < iterations; i++) {
+            if (new StatusJSONImpl(json).getId() == 0) {
+                throw new AssertionError();
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -19,11 +19,17 @@ package twitter4j;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
 import twitter4j.conf.ConfigurationContext;
 
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -42,8 +48,10 @@ class DispatcherTest {
     @Test
     void testInvokeLater() throws Exception {
         String name = "Twitter4J Async Dispatcher";
-        int threadCount = ConfigurationContext.getInstance().getAsyncNumThreads();
-        dispatcher = new DispatcherFactory(ConfigurationContext.getInstance()).getInstance();
+        // virtual threads are not listed by Thread.getAllStackTraces()
+        Configuration conf = new ConfigurationBuilder().setDispatcherImpl("twitter4j.DispatcherImpl").build();
+        int threadCount = conf.getAsyncNumThreads();
+        dispatcher = new DispatcherFactory(conf).getInstance();
         count = 0;
         dispatcher.invokeLater(new IncrementTask());
         dispatcher.invokeLater(new IncrementTask());
@@ -56,6 +64,48 @@ class DispatcherTest {
         assertEquals(0, countThread(name));
     }
 
+    @Test
+    void testDefaultDispatcher() throws Exception {
+        dispatcher = new DispatcherFactory(ConfigurationContext.getInstance()).getInstance();
+        assertEquals(VirtualThreadDispatcher.isAvailable() ? VirtualThreadDispatcher.class : DispatcherImpl.class,
+                dispatcher.getClass());
+        dispatcher.shutdown();
+        // explicitly configured
+        dispatcher = new DispatcherFactory(new ConfigurationBuilder().setDispatcherImpl("twitter4j.DispatcherImpl").build()).getInstance();
+        assertEquals(DispatcherImpl.class, dispatcher.getClass());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testVirtualThreadDispatcher() throws Exception {
+        if (!VirtualThreadDispatcher.isAvailable()) {
+            return;
+        }
+        Configuration conf = new ConfigurationBuilder().setAsyncNumThreads(4).build();
+        dispatcher = new VirtualThreadDispatcher(conf);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    int current = running.incrementAndGet();
+                    int previous;
+                    while (current > (previous = peak.get()) && !peak.compareAndSet(previous, current)) {
+                    }
+                    Thread.yield();
+                    running.decrementAndGet();
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        // capped at async.numThreads
+        assertTrue(peak.get() <= 4, "peak: " + peak.get());
+        dispatcher.shutdown();
+    }
+
     private int countThread(String name) {
         int count = 0;
         Map<Thread, StackTraceElement[]> allThreads = Thread.getAllStackTraces();
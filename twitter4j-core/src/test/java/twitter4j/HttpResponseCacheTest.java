@@ -0,0 +1,236 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.management.HttpResponseCacheStatistics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class HttpResponseCacheTest {
+    private static final String CONFIGURATION = "{\"photo_size_limit\":3145728}";
+    private LocalHttpServer server;
+    private final AtomicInteger configurationRequests = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private final AtomicInteger timelineRequests = new AtomicInteger();
+
+    /**
+     * Caches help/configuration.json for 100 milliseconds.
+     */
+    public static final class ShortLivedCache implements HttpResponseCache {
+        private final LRUHttpResponseCache cache;
+
+        public ShortLivedCache(int maxEntries) {
+            cache = new LRUHttpResponseCache(maxEntries, Collections.singletonMap("help/configuration.json", 100L));
+        }
+
+        @Override
+        public long getTimeToLiveMillis(HttpRequest request) {
+            return cache.getTimeToLiveMillis(request);
+        }
+
+        @Override
+        public Entry get(HttpRequest request) {
+            return cache.get(request);
+        }
+
+        @Override
+        public void put(HttpRequest request, Entry entry) {
+            cache.put(request, entry);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalHttpServer();
+        server.handle("/1.1/help/configuration.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                configurationRequests.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignore) {
+                }
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                exchange.getResponseHeaders().add("X-Rate-Limit-Remaining", "14");
+                if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                LocalHttpServer.respond(exchange, 200, CONFIGURATION);
+            }
+        });
+        server.handle("/1.1/statuses/home_timeline.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                LocalHttpServer.respond(exchange, 200, "[" + timelineRequests.incrementAndGet() + "]");
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("twitter4j.http.responseCache");
+        server.stop();
+    }
+
+    private String url(String path) {
+        return server.url("/1.1/" + path);
+    }
+
+    private static HttpClientImpl newClient(int maxEntries) {
+        return new HttpClientImpl(new ConfigurationBuilder().setHttpResponseCacheMaxEntries(maxEntries)
+                .setHttpRetryCount(0).build().getHttpClientConfiguration());
+    }
+
+    @Test
+    void testIdenticalRequestsHitTheNetworkOnce() throws Exception {
+        final HttpClientImpl client = newClient(10);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    start.await();
+                    return client.get(url("help/configuration.json")).asString();
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<String> future : futures) {
+            assertEquals(CONFIGURATION, future.get(30, TimeUnit.SECONDS).trim());
+        }
+        executor.shutdown();
+        assertEquals(1, configurationRequests.get());
+
+        HttpResponse res = client.get(url("help/configuration.json"));
+        assertEquals(200, res.getStatusCode());
+        assertEquals("\"v1\"", res.getResponseHeader("etag"));
+        assertEquals(CONFIGURATION, res.asJSONObject().toString());
+        assertEquals(1, configurationRequests.get());
+
+        HttpResponseCacheStatistics statistics = client.getResponseCacheStatistics();
+        assertEquals(1, statistics.getMissCount());
+        // a waiter may arrive after the leader completed and count as a hit instead
+        assertEquals(10, statistics.getCoalescedCount() + statistics.getHitCount());
+    }
+
+    @Test
+    void testCacheHitsBypassTheRateLimit() throws Exception {
+        HttpClientImpl client = newClient(10);
+        final AtomicInteger awaited = new AtomicInteger();
+        class Gate implements HttpResponseListener, HttpRequestGate {
+            @Override
+            public void awaitRequest(HttpRequest req) {
+                awaited.incrementAndGet();
+            }
+
+            @Override
+            public void httpResponseReceived(HttpResponseEvent event) {
+            }
+        }
+        Gate gate = new Gate();
+        HttpResponse res = client.get(url("help/configuration.json"), null, null, gate);
+        res.asString();
+        assertEquals(1, awaited.get());
+
+        res = client.get(url("help/configuration.json"), null, null, gate);
+        assertEquals(CONFIGURATION, res.asString().trim());
+        assertEquals(1, awaited.get());
+        // the rate limit headers of the cached response are outdated
+        assertNull(res.getResponseHeader("X-Rate-Limit-Remaining"));
+        assertFalse(res.getResponseHeaderFields().containsKey("X-Rate-Limit-Remaining"));
+        assertEquals("\"v1\"", res.getResponseHeader("ETag"));
+    }
+
+    @Test
+    void testStaleEntryIsRevalidated() throws Exception {
+        System.setProperty("twitter4j.http.responseCache", ShortLivedCache.class.getName());
+        HttpClientImpl client = newClient(10);
+        assertEquals(CONFIGURATION, client.get(url("help/configuration.json")).asString().trim());
+        Thread.sleep(200);
+        assertEquals(CONFIGURATION, client.get(url("help/configuration.json")).asString().trim());
+        assertEquals(2, configurationRequests.get());
+        assertEquals(1, notModifiedResponses.get());
+        assertEquals(1, client.getResponseCacheStatistics().getRevalidationCount());
+        // fresh again after revalidation
+        client.get(url("help/configuration.json")).asString();
+        assertEquals(2, configurationRequests.get());
+    }
+
+    @Test
+    void testUncacheableRequests() throws Exception {
+        HttpClientImpl client = newClient(10);
+        assertEquals("[1]", client.get(url("statuses/home_timeline.json")).asString().trim());
+        assertEquals("[2]", client.get(url("statuses/home_timeline.json")).asString().trim());
+
+        HttpClientImpl disabled = newClient(0);
+        assertNull(disabled.getResponseCacheStatistics());
+        disabled.get(url("help/configuration.json")).asString();
+        disabled.get(url("help/configuration.json")).asString();
+        assertEquals(2, configurationRequests.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        LRUHttpResponseCache cache = new LRUHttpResponseCache(2);
+        HttpRequest[] requests = new HttpRequest[3];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new HttpRequest(RequestMethod.GET, url("users/show.json"),
+                    new HttpParameter[]{new HttpParameter("user_id", i)}, null, null);
+            assertEquals(TimeUnit.MINUTES.toMillis(5), cache.getTimeToLiveMillis(requests[i]));
+        }
+        HttpResponseCache.Entry entry = new HttpResponseCache.Entry(200,
+                Collections.<String, List<String>>emptyMap(), new byte[0], 1000);
+        cache.put(requests[0], entry);
+        cache.put(requests[1], entry);
+        cache.get(requests[0]);
+        cache.put(requests[2], entry);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(requests[0]));
+        assertNull(cache.get(requests[1]));
+        assertNotNull(cache.get(requests[2]));
+        assertEquals(0, cache.getTimeToLiveMillis(new HttpRequest(RequestMethod.GET, url("statuses/show.json"),
+                null, null, null)));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import twitter4j.api.FriendsFollowersResources;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks paged followers/ids served by a local HTTP server.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class IDsIteratorTest {
+    private static final int PAGE_SIZE = 5000;
+    private LocalHttpServer server;
+    private final List<String> cursors = new CopyOnWriteArrayList<String>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalHttpServer();
+        server.handle("/1.1/followers/ids.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String cursor = exchange.getRequestURI().getRawQuery().replaceAll(".*cursor=(-?[0-9]+).*", "$1");
+                cursors.add(cursor);
+                // pages 1 and 2 are full, page 3 holds 10 IDs
+                int page = "-1".equals(cursor) ? 1 : Integer.parseInt(cursor);
+                int size = page == 3 ? 10 : PAGE_SIZE;
+                StringBuilder body = new StringBuilder("{\"ids\":[");
+                for (int i = 0; i < size; i++) {
+                    if (i != 0) {
+                        body.append(',');
+                    }
+                    body.append((page - 1) * PAGE_SIZE + i + 1);
+                }
+                body.append("],\"next_cursor\":").append(page == 3 ? 0 : page + 1)
+                        .append(",\"next_cursor_str\":\"").append(page == 3 ? 0 : page + 1)
+                        .append("\",\"previous_cursor\":").append(page == 1 ? 0 : -(page - 1)).append('}');
+                LocalHttpServer.respond(exchange, 200, body.toString());
+            }
+        });
+        server.handle("/1.1/friends/ids.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                LocalHttpServer.respond(exchange, 401, "{\"errors\":[{\"code\":89,\"message\":\"Invalid or expired token.\"}]}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private Twitter newTwitter() {
+        return new TwitterFactory(server.newConfigurationBuilder().build()).getInstance();
+    }
+
+    @Test
+    void testWalksEveryPage() {
+        LongStream ids = newTwitter().v1Resources().friendsFollowers().streamFollowersIDs(1L);
+        try {
+            long expected = 1;
+            PrimitiveIterator.OfLong iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                assertEquals(expected++, iterator.nextLong());
+            }
+            assertEquals(2 * PAGE_SIZE + 11, expected);
+        } finally {
+            ids.close();
+        }
+        assertEquals("[-1, 2, 3]", cursors.toString());
+    }
+
+    @Test
+    void testPrefetchesNextPage() throws Exception {
+        LongStream ids = newTwitter().v1Resources().friendsFollowers().streamFollowersIDs(1L);
+        PrimitiveIterator.OfLong iterator = ids.iterator();
+        assertTrue(cursors.isEmpty(), "nothing is requested until the stream is consumed");
+        assertEquals(1L, iterator.nextLong());
+        // the second page is requested while the first one is still being consumed
+        for (int i = 0; i < 100 && cursors.size() < 2; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals("[-1, 2]", cursors.toString());
+        ids.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testDefaultImplementation() {
+        final FriendsFollowersResources resources = newTwitter().v1Resources().friendsFollowers();
+        // implements the abstract methods only
+        FriendsFollowersResources implementor = (FriendsFollowersResources) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{FriendsFollowersResources.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        try {
+                            if (method.isDefault()) {
+                                return MethodHandles.privateLookupIn(FriendsFollowersResources.class, MethodHandles.lookup())
+                                        .unreflectSpecial(method, FriendsFollowersResources.class)
+                                        .bindTo(proxy).invokeWithArguments(args);
+                            }
+                            return method.invoke(resources, args);
+                        } catch (InvocationTargetException ite) {
+                            throw ite.getCause();
+                        }
+                    }
+                });
+        assertEquals(2 * PAGE_SIZE + 10, implementor.streamFollowersIDs(1L).count());
+        assertEquals(2 * PAGE_SIZE + 10, implementor.streamFollowersIDs(1L).distinct().count());
+        assertEquals("[-1, 2, 3, -1, 2, 3]", cursors.toString());
+        try {
+            implementor.streamFriendsIDs("twit4j").count();
+            fail("should fail with TwitterException");
+        } catch (CompletionException ce) {
+            assertTrue(ce.getCause() instanceof TwitterException);
+            assertEquals(401, ((TwitterException) ce.getCause()).getStatusCode());
+        }
+    }
+
+    @Test
+    void testFailure() {
+        try {
+            newTwitter().v1Resources().friendsFollowers().streamFriendsIDs("twit4j").count();
+            fail("should fail with TwitterException");
+        } catch (CompletionException ce) {
+            assertTrue(ce.getCause() instanceof TwitterException);
+            assertEquals(401, ((TwitterException) ce.getCause()).getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares {@link JSONImplFactory} and {@link StreamingJSONImplFactory} binding a 200 status timeline.<br>
+ * Run with -Xmx256m or so to make the difference in allocation visible. Reports ops/s and bytes allocated per op
+ * (the latter on HotSpot only).
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class JSONBindingBenchmark {
+    private static final String STATUS = "{ \"created_at\":\"Mon Mar 11 19:37:00 +0000 2013\", \"id\":311199093852618752, \"id_str\":\"311199093852618752\", \"text\":\"Introducing application-only authentication for the Twitter REST API v1.1 https:\\/\\/t.co\\/BrLLpVyuCe ^TS\", \"source\":\"web\", \"truncated\":false, \"in_reply_to_status_id\":null, \"in_reply_to_status_id_str\":null, \"in_reply_to_user_id\":null, \"in_reply_to_user_id_str\":null, \"in_reply_to_screen_name\":null, \"user\":{ \"id\":6253282, \"id_str\":\"6253282\", \"name\":\"Twitter API\", \"screen_name\":\"twitterapi\", \"location\":\"San Francisco, CA\", \"description\":\"The Real Twitter API. I tweet about API changes, service issues and happily answer questions about Twitter and our API. Don't get an answer? It's on my website.\", \"url\":\"http:\\/\\/dev.twitter.com\", \"entities\":{ \"url\":{ \"urls\":[ { \"url\":\"http:\\/\\/dev.twitter.com\", \"expanded_url\":null, \"indices\":[ 0, 22 ] } ] }, \"description\":{ \"urls\":[ ] } }, \"protected\":false, \"followers_count\":1533137, \"friends_count\":33, \"listed_count\":11369, \"created_at\":\"Wed May 23 06:01:13 +0000 2007\", \"favourites_count\":25, \"utc_offset\":-28800, \"time_zone\":\"Pacific Time (US & Canada)\", \"geo_enabled\":true, \"verified\":true, \"statuses_count\":3392, \"lang\":\"en\", \"contributors_enabled\":true, \"is_translator\":false, \"profile_background_color\":\"C0DEED\", \"profile_image_url_https\":\"https:\\/\\/si0.twimg.com\\/profile_images\\/2284174872\\/7df3h38zabcvjylnyfe3_normal.png\", \"profile_link_color\":\"0084B4\", \"following\":null, \"follow_request_sent\":false, \"notifications\":null }, \"geo\":null, \"coordinates\":null, \"place\":null, \"contributors\":[ 819797 ], \"retweet_count\":131, \"entities\":{ \"hashtags\":[ ], \"urls\":[ { \"url\":\"https:\\/\\/t.co\\/BrLLpVyuCe\", \"expanded_url\":\"https:\\/\\/dev.twitter.com\\/docs\\/auth\\/application-only-auth\", \"display_url\":\"dev.twitter.com\\/docs\\/auth\\/appl\\u2026\", \"indices\":[ 74, 97 ] } ], \"user_mentions\":[ ] }, \"favorited\":false, \"retweeted\":true, \"possibly_sensitive\":false, \"lang\":\"en\" }";
+
+    public static void main(String[] args) throws Exception {
+        int statuses = 200;
+        int warmup = 2000;
+        int iterations = 5000;
+
+        StringBuilder timeline = new StringBuilder("[");
+        for (int i = 0; i < statuses; i++) {
+            if (i != 0) {
+                timeline.append(',');
+            }
+            timeline.append(STATUS);
+        }
+        byte[] body = timeline.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        Configuration conf = new ConfigurationBuilder().build();
+        ObjectFactory[] factories = {new JSONImplFactory(conf), new StreamingJSONImplFactory(conf)};
+        for (ObjectFactory factory : factories) {
+            run(factory, body, warmup);
+        }
+        for (ObjectFactory factory : factories) {
+            long allocatedBefore = allocatedBytes();
+            long before = System.nanoTime();
+            run(factory, body, iterations);
+            long elapsed = System.nanoTime() - before;
+            long allocated = allocatedBytes() - allocatedBefore;
+            System.out.printf("%-26s %10.1f ops/s %12d bytes/op%n", factory.getClass().getSimpleName(),
+                    iterations / (elapsed / 1000000000d), allocated < 0 ? -1 : allocated / iterations);
+        }
+    }
+
+    private static void run(ObjectFactory factory, byte[] body, int iterations) throws TwitterException {
+        for (int i = 0; i < iterations; i++) {
+            if (factory.createStatusList(new ByteArrayResponse(body)).size() == 0) {
+                throw new AssertionError();
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class JSONPullParserTest {
+
+    @Test
+    void testProducesSameTreeAsJSONTokener() throws Exception {
+        String json = "[{\"id\":311199093852618752,\"id_str\":\"311199093852618752\",\"text\":\"escaped \\\"quote\\\" \\u3042 https:\\/\\/t.co\"," +
+                "\"truncated\":false,\"retweeted\":true,\"geo\":null,\"retweet_count\":131,\"lat\":-35.5," +
+                "\"contributors\":[ 819797 ],\"entities\":{\"hashtags\":[],\"urls\":[{\"indices\":[74,97]}]}} ,\n" +
+                " {\"id\":-1,\"empty\":{}} ]";
+        JSONArray expected = new JSONArray(json);
+
+        JSONPullParser parser = new JSONPullParser(new StringReader(json));
+        parser.beginArray();
+        List<JSONObject> actual = new ArrayList<JSONObject>();
+        while (parser.hasNext()) {
+            actual.add(parser.nextObject());
+        }
+        assertEquals(expected.length(), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(expected.getJSONObject(i).toString(), actual.get(i).toString());
+        }
+
+        JSONObject first = actual.get(0);
+        assertEquals(311199093852618752L, first.getLong("id"));
+        assertEquals("311199093852618752", first.getString("id_str"));
+        assertEquals("escaped \"quote\" \u3042 https://t.co", first.getString("text"));
+        assertTrue(first.getBoolean("retweeted"));
+        assertTrue(first.isNull("geo"));
+        assertEquals(-35.5, first.getDouble("lat"));
+        assertEquals(819797L, first.getJSONArray("contributors").getLong(0));
+        assertEquals(97, first.getJSONObject("entities").getJSONArray("urls").getJSONObject(0)
+                .getJSONArray("indices").getInt(1));
+        assertEquals(0, actual.get(1).getJSONObject("empty").length());
+    }
+
+    @Test
+    void testStringsSpanningBufferBoundary() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        String json = "[{\"text\":\"" + text + "\\n\"}]";
+        JSONPullParser parser = new JSONPullParser(new StringReader(json));
+        parser.beginArray();
+        assertTrue(parser.hasNext());
+        assertEquals(text + "\n", parser.nextObject().getString("text"));
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    void testEmptyArray() throws Exception {
+        JSONPullParser parser = new JSONPullParser(new StringReader(" [ ] "));
+        parser.beginArray();
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    void testLongArray() throws Exception {
+        String json = "{\"ids\":[ 1, 9223372036854775807,-2,\"1234567890123456789\"],\"next\":{\"a\":[1]}," +
+                "\"next_cursor\":1645453487234565434 }";
+        JSONPullParser parser = new JSONPullParser(new StringReader(json));
+        assertEquals('{', parser.peek());
+        parser.beginObject();
+        assertEquals("ids", parser.nextName());
+        assertArrayEquals(new long[]{1L, Long.MAX_VALUE, -2L, 1234567890123456789L}, parser.nextLongArray());
+        assertEquals("next", parser.nextName());
+        parser.nextValue();
+        assertEquals("next_cursor", parser.nextName());
+        assertEquals(1645453487234565434L, parser.nextLong());
+        assertNull(parser.nextName());
+
+        long[] large = new JSONPullParser(new StringReader("[" + join(1000) + "]")).nextLongArray();
+        assertEquals(1000, large.length);
+        assertEquals(999L, large[999]);
+        assertEquals(0, new JSONPullParser(new StringReader("[]")).nextLongArray().length);
+    }
+
+    private static String join(int count) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                buf.append(',');
+            }
+            buf.append(i);
+        }
+        return buf.toString();
+    }
+
+    @Test
+    void testMalformedLongArray() {
+        String[] malformed = {"[1,]", "[1.5]", "[9223372036854775808]", "[\"1]", "[1 2]", "[true]"};
+        for (String json : malformed) {
+            try {
+                new JSONPullParser(new StringReader(json)).nextLongArray();
+                fail("should throw JSONException: " + json);
+            } catch (JSONException ignore) {
+            }
+        }
+    }
+
+    @Test
+    void testUTF8Bytes() throws Exception {
+        String text = "ascii \u00e9\u3042\uD83D\uDE00 \\u3042";
+        StringBuilder json = new StringBuilder("{\"text\":\"");
+        // spans several decode buffers
+        for (int i = 0; i < 2000; i++) {
+            json.append(text);
+        }
+        json.append("\"}");
+        byte[] bytes = ("xx" + json + "xx").getBytes(StandardCharsets.UTF_8);
+        JSONObject expected = new JSONObject(json.toString());
+        assertEquals(expected.getString("text"),
+                new JSONPullParser(bytes, 2, bytes.length - 4).nextObject().getString("text"));
+
+        byte[] malformed = {'"', 'a', (byte) 0xe3, (byte) 0x81, 'b', (byte) 0xff, (byte) 0xc0, (byte) 0xaf, '"'};
+        assertEquals("a\ufffdb\ufffd\ufffd\ufffd", new JSONPullParser(malformed, 0, malformed.length).nextValue());
+    }
+
+    @Test
+    void testMalformedInput() {
+        JSONPullParser parser = new JSONPullParser(new StringReader("[{\"id\":1}"));
+        try {
+            parser.beginArray();
+            while (parser.hasNext()) {
+                parser.nextObject();
+            }
+            fail("should throw JSONException");
+        } catch (JSONException ignore) {
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the connection pool of {@link JavaNetHttpClientImpl} against a local HTTP server.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class JavaNetHttpClientImplTest {
+    private LocalHttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    // holds the responses of /1.1/slow.json, which take 100 milliseconds otherwise, until counted down
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalHttpServer();
+        server.handle("/1.1/slow.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int current = inFlight.incrementAndGet();
+                int peak;
+                while (current > (peak = peakInFlight.get()) && !peakInFlight.compareAndSet(peak, current)) {
+                }
+                try {
+                    Thread.sleep(100);
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignore) {
+                }
+                inFlight.decrementAndGet();
+                LocalHttpServer.respond(exchange, 200, "{}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop();
+    }
+
+    private static JavaNetHttpClientImpl newClient(int maxConnections, int maxConnectionsPerHost) {
+        return new JavaNetHttpClientImpl(new ConfigurationBuilder()
+                .setHttpMaxConnections(maxConnections).setHttpMaxConnectionsPerHost(maxConnectionsPerHost)
+                .setHttpRetryCount(0).build().getHttpClientConfiguration());
+    }
+
+    private int peakOf(final HttpClient client, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return client.get(server.url("/1.1/slow.json")).asString();
+                    }
+                }));
+            }
+            for (Future<String> future : futures) {
+                assertEquals("{}", future.get(30, TimeUnit.SECONDS).trim());
+            }
+            return peakInFlight.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testMaxConnections() throws Exception {
+        JavaNetHttpClientImpl client = newClient(2, 10);
+        assertEquals(2, peakOf(client, 8));
+        assertEquals(0, client.getStatistics().getActiveConnections());
+        client.close();
+    }
+
+    @Test
+    void testMaxConnectionsPerHost() throws Exception {
+        JavaNetHttpClientImpl client = newClient(10, 1);
+        assertEquals(1, peakOf(client, 4));
+        client.close();
+    }
+
+    @Test
+    void testAcquireTimeout() throws Exception {
+        release = new CountDownLatch(1);
+        final JavaNetHttpClientImpl client = new JavaNetHttpClientImpl(new ConfigurationBuilder()
+                .setHttpMaxConnections(1).setHttpConnectionTimeout(200)
+                .setHttpRetryCount(0).build().getHttpClientConfiguration());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> holding = executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return client.get(server.url("/1.1/slow.json")).asString();
+                }
+            });
+            for (int i = 0; i < 100 && inFlight.get() == 0; i++) {
+                Thread.sleep(50);
+            }
+            long start = System.currentTimeMillis();
+            try {
+                client.get(server.url("/1.1/slow.json"));
+                fail("should time out waiting for a connection");
+            } catch (TwitterException te) {
+                assertTrue(te.getMessage().contains("Timed out waiting for a connection"), te.getMessage());
+            }
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            release.countDown();
+            assertEquals("{}", holding.get(30, TimeUnit.SECONDS).trim());
+            // the slot is given back once the response has been consumed
+            assertEquals("{}", client.get(server.url("/1.1/slow.json")).asString().trim());
+        } finally {
+            executor.shutdown();
+            client.close();
+        }
+    }
+
+    @Test
+    void testDeserializedClient() throws Exception {
+        JavaNetHttpClientImpl client = newClient(2, 2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bytes);
+        oos.writeObject(client);
+        oos.close();
+        JavaNetHttpClientImpl deserialized = (JavaNetHttpClientImpl) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        client.close();
+
+        assertEquals(2, peakOf(deserialized, 4));
+        assertEquals(0, deserialized.getStatistics().getActiveConnections());
+        deserialized.close();
+    }
+
+    @Test
+    void testCloseStopsFactoryFromHandingOutTheClient() {
+        HttpClientConfiguration conf = new ConfigurationBuilder().setHttpRetryCount(7).build().getHttpClientConfiguration();
+        HttpClient client = HttpClientFactory.getInstance(conf);
+        assertSame(client, HttpClientFactory.getInstance(conf));
+        ((HttpClientBase) client).close();
+        HttpClient another = HttpClientFactory.getInstance(conf);
+        assertNotSame(client, another);
+        ((HttpClientBase) another).close();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class LookupCoalescerTest {
+
+    /**
+     * Returns the id as string for even ids, odd ids are not found.
+     */
+    private static final class RecordingLoader implements LookupCoalescer.Loader<String> {
+        private final List<long[]> batches = new CopyOnWriteArrayList<long[]>();
+        private final List<Long> singles = new CopyOnWriteArrayList<Long>();
+        private volatile TwitterException failure;
+        private volatile long latencyMillis;
+
+        @Override
+        public Map<Long, String> load(long[] ids) throws TwitterException {
+            batches.add(ids);
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                throw new TwitterException(e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            Map<Long, String> found = new HashMap<Long, String>();
+            for (long id : ids) {
+                if (id % 2 == 0) {
+                    found.put(id, String.valueOf(id));
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public String loadOne(long id) throws TwitterException {
+            singles.add(id);
+            throw new TwitterException("{\"errors\":[{\"code\":144,\"message\":\"No status found with that ID.\"}]}", null, 404);
+        }
+    }
+
+    private static List<Future<String>> getConcurrently(final LookupCoalescer<String> coalescer, long[] ids)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(ids.length);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (final long id : ids) {
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    start.await();
+                    return coalescer.get(id);
+                }
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        return futures;
+    }
+
+    @Test
+    void testCoalescesAndDedupes() throws Exception {
+        RecordingLoader loader = new RecordingLoader();
+        // duplicate ids arrive while the first batch is still in flight
+        loader.latencyMillis = 500;
+        LookupCoalescer<String> coalescer = new LookupCoalescer<String>(200, loader);
+        // 250 callers asking for 150 distinct ids
+        long[] ids = new long[250];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i % 150;
+        }
+        List<Future<String>> futures = getConcurrently(coalescer, ids);
+
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] % 2 == 0) {
+                assertEquals(String.valueOf(ids[i]), futures.get(i).get());
+            } else {
+                try {
+                    futures.get(i).get();
+                    fail("should throw TwitterException");
+                } catch (ExecutionException ee) {
+                    TwitterException te = (TwitterException) ee.getCause();
+                    assertEquals(404, te.getStatusCode());
+                    assertEquals(144, te.getErrorCode());
+                }
+            }
+        }
+        int lookedUp = 0;
+        for (long[] batch : loader.batches) {
+            assertTrue(batch.length <= LookupCoalescer.MAX_BATCH_SIZE);
+            lookedUp += batch.length;
+        }
+        assertEquals(150, lookedUp, "each id should be looked up once");
+        // the callers of missing ids fall back to the single id request
+        assertEquals(125, loader.singles.size());
+        assertTrue(loader.batches.size() < 10, "lookups: " + loader.batches.size());
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaiting() throws Exception {
+        RecordingLoader loader = new RecordingLoader();
+        LookupCoalescer<String> coalescer = new LookupCoalescer<String>(60 * 1000, loader);
+        long[] ids = new long[LookupCoalescer.MAX_BATCH_SIZE];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i * 2;
+        }
+        long before = System.nanoTime();
+        getConcurrently(coalescer, ids);
+        assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(30));
+        assertEquals(1, loader.batches.size());
+    }
+
+    @Test
+    void testFailureIsSharedByTheBatch() throws Exception {
+        RecordingLoader loader = new RecordingLoader();
+        loader.failure = new TwitterException("{\"errors\":[{\"code\":88,\"message\":\"Rate limit exceeded\"}]}", null, 429);
+        LookupCoalescer<String> coalescer = new LookupCoalescer<String>(100, loader);
+        List<TwitterException> thrown = new ArrayList<TwitterException>();
+        for (Future<String> future : getConcurrently(coalescer, new long[]{2, 4, 6})) {
+            try {
+                future.get();
+                fail("should throw TwitterException");
+            } catch (ExecutionException ee) {
+                TwitterException te = (TwitterException) ee.getCause();
+                assertEquals(429, te.getStatusCode());
+                assertEquals(88, te.getErrorCode());
+                assertSame(loader.failure, te.getCause());
+                // each caller gets its own exception
+                for (TwitterException other : thrown) {
+                    assertNotSame(other, te);
+                }
+                thrown.add(te);
+            }
+        }
+        assertEquals(1, loader.batches.size());
+        // failed ids are not retained
+        loader.failure = null;
+        assertEquals("2", coalescer.get(2));
+    }
+
+    @Test
+    void testShowUserIsSentAsLookup() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        LocalHttpServer server = new LocalHttpServer();
+        server.handle("/1.1/users/lookup.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                lookups.incrementAndGet();
+                String query = exchange.getRequestURI().getQuery();
+                String[] ids = query.replaceAll(".*user_id=([0-9,]+).*", "$1").split(",");
+                StringBuilder body = new StringBuilder("[");
+                for (String id : ids) {
+                    if (!id.equals("63")) {
+                        body.append(body.length() > 1 ? "," : "").append("{\"id\":").append(id)
+                                .append(",\"screen_name\":\"user").append(id).append("\"}");
+                    }
+                }
+                LocalHttpServer.respond(exchange, 200, body.append(']').toString());
+            }
+        });
+        server.handle("/1.1/users/show.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                LocalHttpServer.respond(exchange, 403, "{\"errors\":[{\"code\":63,\"message\":\"User has been suspended.\"}]}");
+            }
+        });
+        server.start();
+        try {
+            final Twitter twitter = new TwitterFactory(server.newConfigurationBuilder()
+                    .setLookupCoalescingWindowMillis(200)
+                    .build()).getInstance();
+            ExecutorService executor = Executors.newFixedThreadPool(20);
+            List<Future<User>> futures = new ArrayList<Future<User>>();
+            for (long id = 1; id <= 20; id++) {
+                final long userId = id;
+                futures.add(executor.submit(new Callable<User>() {
+                    @Override
+                    public User call() throws Exception {
+                        return twitter.v1Resources().users().showUser(userId);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("user" + (i + 1), futures.get(i).get(30, TimeUnit.SECONDS).getScreenName());
+            }
+            executor.shutdown();
+            assertTrue(lookups.get() < 20, "lookups: " + lookups.get());
+
+            // suspended users are missing from users/lookup, users/show tells why
+            try {
+                twitter.v1Resources().users().showUser(63);
+                fail("should throw TwitterException");
+            } catch (TwitterException te) {
+                assertEquals(403, te.getStatusCode());
+                assertEquals(63, te.getErrorCode());
+            }
+        } finally {
+            server.stop();
+        }
+    }
+}
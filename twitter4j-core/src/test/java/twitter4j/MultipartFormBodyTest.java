@@ -0,0 +1,127 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class MultipartFormBodyTest {
+
+    private static File newFile(int length) throws IOException {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) i;
+        }
+        File file = File.createTempFile("twitter4j", ".png");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int read;
+        while ((read = is.read(buf)) != -1) {
+            out.write(buf, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void testContentLength() throws Exception {
+        File file = newFile(100000);
+        HttpParameter[] params = {new HttpParameter("media", file), new HttpParameter("status", "あ"),
+                new HttpParameter("segment", "segment.mp4", new ByteArrayInputStream(new byte[1234]))};
+        MultipartFormBody body = new MultipartFormBody(params);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        byte[] written = out.toByteArray();
+        assertEquals(written.length, body.getContentLength());
+
+        String str = new String(written, StandardCharsets.ISO_8859_1);
+        String boundary = "--" + body.getContentType().substring("multipart/form-data; boundary=".length());
+        assertTrue(str.startsWith(boundary + "\r\nContent-Disposition: form-data; name=\"media\"; filename=\"" + file.getName() + "\"\r\nContent-Type: image/png\r\n\r\n"));
+        assertTrue(str.endsWith("\r\n" + boundary + "--\r\n\r\n"));
+        assertTrue(str.contains("\r\n\r\n" + new String("あ".getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1) + "\r\n"));
+
+        body = new MultipartFormBody(new HttpParameter[]{params[0], params[1]});
+        out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        assertArrayEquals(out.toByteArray(), readFully(body.newInputStream()));
+    }
+
+    @Test
+    void testUnknownLength() throws Exception {
+        InputStream stream = new FilterInputStream(new ByteArrayInputStream(new byte[10])) {
+        };
+        assertEquals(-1, new MultipartFormBody(new HttpParameter[]{new HttpParameter("media", "media.png", stream),
+                new HttpParameter("status", "hello")}).getContentLength());
+    }
+
+    @Test
+    void testFixedLengthUpload() throws Exception {
+        final AtomicReference<String> contentLength = new AtomicReference<String>();
+        final AtomicReference<byte[]> received = new AtomicReference<byte[]>();
+        LocalHttpServer server = new LocalHttpServer();
+        server.handle("/1.1/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                contentLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+                received.set(readFully(exchange.getRequestBody()));
+                LocalHttpServer.respond(exchange, 200, "{}");
+            }
+        });
+        server.start();
+        try {
+            String url = server.url("/1.1/media/upload.json");
+            File file = newFile(300000);
+            HttpClientConfiguration conf = new ConfigurationBuilder().setHttpRetryCount(0).build().getHttpClientConfiguration();
+            HttpClient[] clients = {new HttpClientImpl(conf), new JavaNetHttpClientImpl(conf)};
+            for (HttpClient client : clients) {
+                received.set(null);
+                client.post(url, new HttpParameter[]{new HttpParameter("media", file)}, null, null).asString();
+                assertEquals(String.valueOf(received.get().length), contentLength.get(), client.getClass().getName());
+                String str = new String(received.get(), StandardCharsets.ISO_8859_1);
+                int start = str.indexOf("\r\n\r\n") + 4;
+                assertArrayEquals(Files.readAllBytes(file.toPath()),
+                        Arrays.copyOfRange(received.get(), start, start + 300000));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -19,9 +19,13 @@ package twitter4j;
 import org.junit.jupiter.api.Test;
 
 import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
 import java.util.TimeZone;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -47,4 +51,82 @@ class ParseUtilTest {
                 , sdf.format(ParseUtil.parseTrendsDate("2011-07-11T05:31:52Z")));
     }
 
+    @Test
+    void testParseCreatedAt() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("EEE MMM d HH:mm:ss z yyyy", Locale.US);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String[] dates = {"Mon Mar 11 19:37:00 +0000 2013", "Thu Jan 01 00:00:00 +0000 1970",
+                "Wed Dec 31 23:59:59 +0000 1969", "Tue Feb 29 12:00:00 +0000 2000", "Sun Feb 29 00:00:01 +0000 2004",
+                "Sat Jul 01 09:15:30 +0900 2023", "Fri Nov 17 03:04:05 -0530 2017", "Mon Jan 01 00:00:00 +0000 1601",
+                "Fri Dec 31 23:59:59 +0000 2100", "Mon Feb 30 10:00:00 +0000 2015"};
+        for (String date : dates) {
+            assertEquals(sdf.parse(date), CreatedAtParser.parse(date), date);
+            assertEquals(sdf.parse(date), ParseUtil.getDate(date, "EEE MMM d HH:mm:ss z yyyy"), date);
+            assertEquals(sdf.parse(date), ParseUtil.getDate(date, "EEE MMM dd HH:mm:ss z yyyy"), date);
+        }
+        // cached values must not leak the same mutable Date instance
+        Date first = CreatedAtParser.parse(dates[0]);
+        Date second = CreatedAtParser.parse(dates[0]);
+        assertEquals(first, second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void testParseCreatedAtFallback() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("EEE MMM d HH:mm:ss z yyyy", Locale.US);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String singleDigitDay = "Fri Mar 1 19:37:00 +0000 2013";
+        assertNull(CreatedAtParser.parse(singleDigitDay));
+        assertEquals(sdf.parse(singleDigitDay), ParseUtil.getDate(singleDigitDay, "EEE MMM d HH:mm:ss z yyyy"));
+        String namedZone = "Mon Mar 11 19:37:00 UTC 2013";
+        assertNull(CreatedAtParser.parse(namedZone));
+        assertEquals(sdf.parse(namedZone), ParseUtil.getDate(namedZone, "EEE MMM d HH:mm:ss z yyyy"));
+        assertNull(CreatedAtParser.parse("Mon Foo 11 19:37:00 +0000 2013"));
+        assertNull(CreatedAtParser.parse("Mon Mar 11 24:37:00 +0000 2013"));
+    }
+
+    @Test
+    void testParseCreatedAtConcurrently() throws Exception {
+        final SimpleDateFormat sdf = new SimpleDateFormat("EEE MMM d HH:mm:ss z yyyy", Locale.US);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final String[] dates = new String[2000];
+        final Date[] expected = new Date[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = String.format("Mon Mar %02d %02d:%02d:%02d +0000 2013", i % 28 + 1, i % 24, i % 60, (i * 7) % 60);
+            expected[i] = sdf.parse(dates[i]);
+        }
+        final Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int n = 0; n < 20; n++) {
+                            for (int i = 0; i < dates.length; i++) {
+                                int index = (i + offset * 97) % dates.length;
+                                assertEquals(expected[index], ParseUtil.getDate(dates[index], "EEE MMM d HH:mm:ss z yyyy"));
+                                assertEquals(expected[index], ParseUtil.getDate(dates[index], "EEE MMM d HH:mm:ss Z yyyy"));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failure) {
+                            failure[0] = e;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        synchronized (failure) {
+            if (failure[0] != null) {
+                throw new AssertionError(failure[0]);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.Test;
+import twitter4j.auth.AccessToken;
+import twitter4j.auth.Authorization;
+import twitter4j.auth.OAuthAuthorization;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class RateLimitSchedulerTest {
+    private static final Configuration CONF = new ConfigurationBuilder()
+            .setOAuthConsumerKey("key").setOAuthConsumerSecret("secret").build();
+
+    @Test
+    void testToFamily() {
+        assertEquals("/1.1/statuses/show/:id", RateLimitScheduler.toFamily("https://api.twitter.com/1.1/statuses/show/210462857140252672.json?include_entities=true"));
+        assertEquals("/1.1/statuses/home_timeline", RateLimitScheduler.toFamily("https://api.twitter.com/1.1/statuses/home_timeline.json"));
+        assertEquals("/1.1/lists/members/show", RateLimitScheduler.toFamily("https://api.twitter.com/1.1/lists/members/show.json?list_id=1&user_id=2"));
+        assertEquals("/2/tweets/:id/liking_users", RateLimitScheduler.toFamily("https://api.twitter.com/2/tweets/1/liking_users"));
+        assertEquals("/1.1/statuses/1a", RateLimitScheduler.toFamily("http://127.0.0.1:8080/1.1/statuses/1a"));
+    }
+
+    @Test
+    void testGetInstance() {
+        assertNull(RateLimitScheduler.getInstance(new ConfigurationBuilder().build()));
+        assertNull(RateLimitScheduler.getInstance(new ConfigurationBuilder().setRateLimitSchedulerPolicy("NONE").build()));
+        // unknown policies fall back to the default instead of failing to build Twitter instances
+        assertNull(RateLimitScheduler.getInstance(new ConfigurationBuilder().setRateLimitSchedulerPolicy("fair_share").build()));
+        Configuration conf = new ConfigurationBuilder().setRateLimitSchedulerPolicy("FAIR_SHARE").build();
+        assertNotNull(RateLimitScheduler.getInstance(conf));
+        assertSame(RateLimitScheduler.getInstance(conf), RateLimitScheduler.getInstance(conf));
+    }
+
+    @Test
+    void testUnknownEndpointsAreNotThrottled() {
+        RateLimitScheduler scheduler = new RateLimitScheduler(RateLimitScheduler.Policy.DELAY);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, scheduler.reserve(user("token1"), "https://api.twitter.com/1.1/statuses/home_timeline.json"));
+        }
+    }
+
+    @Test
+    void testDelay() {
+        RateLimitScheduler scheduler = new RateLimitScheduler(RateLimitScheduler.Policy.DELAY);
+        String url = "https://api.twitter.com/1.1/statuses/show/1.json";
+        long reset = System.currentTimeMillis() / 1000 + 60;
+        scheduler.update(user("token1"), url, status(180, 2, reset));
+
+        assertEquals(0, scheduler.reserve(user("token1"), "https://api.twitter.com/1.1/statuses/show/2.json"));
+        assertEquals(0, scheduler.reserve(user("token1"), url));
+        long delay = scheduler.reserve(user("token1"), url);
+        assertTrue(delay < -55000 && delay > -62000, String.valueOf(delay));
+        // the quota is tracked per token and per endpoint family
+        assertEquals(0, scheduler.reserve(user("token2"), url));
+        assertEquals(0, scheduler.reserve(user("token1"), "https://api.twitter.com/1.1/statuses/user_timeline.json"));
+
+        // responses reported out of order don't bring the quota back
+        scheduler.update(user("token1"), url, status(180, 1, reset));
+        assertTrue(scheduler.reserve(user("token1"), url) < 0);
+        // a new window does
+        scheduler.update(user("token1"), url, status(180, 179, reset + 900));
+        assertEquals(0, scheduler.reserve(user("token1"), url));
+    }
+
+    @Test
+    void testFairShare() {
+        RateLimitScheduler scheduler = new RateLimitScheduler(RateLimitScheduler.Policy.FAIR_SHARE);
+        String url = "https://api.twitter.com/1.1/users/lookup.json";
+        long reset = System.currentTimeMillis() / 1000 + 10;
+        scheduler.update(user("token1"), url, status(900, 10, reset));
+
+        // 10 calls left for ~11 seconds: one call per ~1.1 seconds
+        long previous = -1;
+        for (int i = 0; i < 10; i++) {
+            long delay = scheduler.reserve(user("token1"), url);
+            assertTrue(delay >= 0, String.valueOf(delay));
+            assertTrue(i == 0 ? delay == 0 : delay - previous > 700 && delay - previous < 1300, i + ":" + delay + " after " + previous);
+            previous = delay;
+        }
+        assertTrue(scheduler.reserve(user("token1"), url) < 0);
+    }
+
+    @Test
+    void testEvictsResetWindows() {
+        RateLimitScheduler scheduler = new RateLimitScheduler(RateLimitScheduler.Policy.DELAY);
+        String url = "https://api.twitter.com/1.1/statuses/show/1.json";
+        long now = System.currentTimeMillis();
+        scheduler.update(user("token1"), url, status(180, 0, now / 1000 + 60));
+        scheduler.update(user("token2"), url, status(180, 0, now / 1000 + 60));
+        scheduler.update(user("token3"), url, status(180, 0, now / 1000 + 600));
+        assertEquals(3, scheduler.size());
+        assertTrue(scheduler.reserve(user("token1"), url) < 0);
+
+        scheduler.evictExpired(now + 120 * 1000);
+        assertEquals(1, scheduler.size());
+        assertTrue(scheduler.reserve(user("token3"), url) < 0);
+
+        // a window that has reset is forgotten by the next call
+        scheduler.update(user("token1"), url, status(180, 0, now / 1000 - 10));
+        assertEquals(2, scheduler.size());
+        assertEquals(0, scheduler.reserve(user("token1"), url));
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    void testHoldsCallsUntilReset() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final long reset = System.currentTimeMillis() / 1000 + 1;
+        LocalHttpServer server = new LocalHttpServer();
+        server.handle("/1.1/account/verify_credentials.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int call = calls.incrementAndGet();
+                exchange.getResponseHeaders().add("X-Rate-Limit-Limit", "75");
+                exchange.getResponseHeaders().add("X-Rate-Limit-Remaining", call == 1 ? "0" : "74");
+                exchange.getResponseHeaders().add("X-Rate-Limit-Reset", String.valueOf(call == 1 ? reset : reset + 900));
+                LocalHttpServer.respond(exchange, 200, "{\"id\":1,\"screen_name\":\"user1\"}");
+            }
+        });
+        server.start();
+        try {
+            TwitterPool pool = new TwitterPool(server.newConfigurationBuilder()
+                    .setRateLimitSchedulerPolicy("DELAY")
+                    .build());
+            TwitterImpl twitter = (TwitterImpl) pool.getInstance(new AccessToken("token1", "secret1"));
+            String url = twitter.getConfiguration().getRestBaseURL() + "account/verify_credentials.json";
+            twitter.get(url);
+            // another instance for the same token shares the quota
+            ((TwitterImpl) pool.getInstance(new AccessToken("token1", "secret1"))).get(url);
+            assertEquals(2, calls.get());
+            assertTrue(System.currentTimeMillis() >= (reset + 1) * 1000);
+            // a new window has been reported, no more waiting
+            long start = System.currentTimeMillis();
+            twitter.fillInIDAndScreenName();
+            assertTrue(System.currentTimeMillis() - start < 1000);
+            assertEquals(3, calls.get());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static Authorization user(String token) {
+        OAuthAuthorization oauth = new OAuthAuthorization(CONF);
+        oauth.setOAuthAccessToken(new AccessToken(token, token + "secret"));
+        return oauth;
+    }
+
+    private static RateLimitStatus status(final int limit, final int remaining, final long resetTimeInSeconds) {
+        return new RateLimitStatus() {
+            @Override
+            public int getRemaining() {
+                return remaining;
+            }
+
+            @Override
+            public int getLimit() {
+                return limit;
+            }
+
+            @Override
+            public int getResetTimeInSeconds() {
+                return (int) resetTimeInSeconds;
+            }
+
+            @Override
+            public int getSecondsUntilReset() {
+                return (int) (resetTimeInSeconds - System.currentTimeMillis() / 1000);
+            }
+        };
+    }
+}
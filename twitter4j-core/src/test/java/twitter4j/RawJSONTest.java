@@ -0,0 +1,164 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class RawJSONTest {
+    private static final String STATUS1 = "{\"id\":1,\"text\":\"brackets ] } [ { and \\\"quotes\\\", あ😀\"," +
+            "\"user\":{\"id\":10,\"screen_name\":\"user10\"}}";
+    private static final String STATUS2 = "{ \"id\" : 2, \"text\" : \"\\\\\", \"entities\" : { \"hashtags\" : [ ] } }";
+    private static final String TIMELINE = " [" + STATUS1 + " ,\n" + STATUS2 + "]\n";
+
+    private static final Configuration CONF = new ConfigurationBuilder().setRawJSONRetentionEnabled(true).build();
+
+    @Test
+    void testElements() throws Exception {
+        List<RawJSON> elements = RawJSON.of(new ByteArrayResponse(TIMELINE)).elements();
+        assertEquals(2, elements.size());
+        assertEquals(STATUS1, elements.get(0).toString());
+        assertEquals(STATUS2, elements.get(1).toString());
+        assertEquals(2L, elements.get(1).asJSONObject().getLong("id"));
+
+        List<RawJSON> values = RawJSON.of(new ByteArrayResponse("[1, \"a,b\" ,null,[[]],{}]")).elements();
+        assertEquals("1", values.get(0).toString());
+        assertEquals("\"a,b\"", values.get(1).toString());
+        assertEquals("null", values.get(2).toString());
+        assertEquals("[[]]", values.get(3).toString());
+        assertEquals("{}", values.get(4).toString());
+        assertEquals(0, RawJSON.of(new ByteArrayResponse(" [ ] ")).elements().size());
+
+        String[] malformed = {"{}", "[1,]", "[1 2]", "[{\"a\":1}", "[\"a]", ""};
+        for (String json : malformed) {
+            try {
+                RawJSON.of(new ByteArrayResponse(json)).elements();
+                fail("should throw TwitterException: " + json);
+            } catch (TwitterException ignore) {
+            }
+        }
+    }
+
+    @Test
+    void testStatusListRetainsRawJSON() throws Exception {
+        for (ObjectFactory factory : new ObjectFactory[]{new JSONImplFactory(CONF), new StreamingJSONImplFactory(CONF)}) {
+            final ResponseList<Status> statuses = factory.createStatusList(new ByteArrayResponse(TIMELINE));
+            assertEquals(2, statuses.size());
+            assertEquals("brackets ] } [ { and \"quotes\", あ😀", statuses.get(0).getText());
+            assertEquals("user10", statuses.get(0).getUser().getScreenName());
+            // other responses bound in between don't affect the retained forms
+            factory.createStatusList(new ByteArrayResponse("[" + STATUS2 + "]"));
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                List<String> raw = executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        return Arrays.asList(TwitterObjectFactory.getRawJSON(statuses),
+                                TwitterObjectFactory.getRawJSON(statuses.get(0)),
+                                TwitterObjectFactory.getRawJSON(statuses.get(1)));
+                    }
+                }).get();
+                assertEquals(TIMELINE.trim(), raw.get(0));
+                assertEquals(STATUS1, raw.get(1));
+                assertEquals(STATUS2, raw.get(2));
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(statuses.get(0), TwitterObjectFactory.createStatus(TwitterObjectFactory.getRawJSON(statuses.get(0))));
+        }
+    }
+
+    @Test
+    void testUserRetainsRawJSON() throws Exception {
+        String userJSON = "{\"id\":10,\"screen_name\":\"user10\",\"name\":\"あ\"}";
+        JSONImplFactory factory = new JSONImplFactory(CONF);
+        User user = factory.createUser(new ByteArrayResponse("\n" + userJSON + "\n"));
+        assertEquals("あ", user.getName());
+        assertEquals(userJSON, TwitterObjectFactory.getRawJSON(user));
+
+        ResponseList<User> users = factory.createUserList(new ByteArrayResponse("[" + userJSON + "]"));
+        assertEquals(userJSON, TwitterObjectFactory.getRawJSON(users.get(0)));
+        assertEquals("[" + userJSON + "]", TwitterObjectFactory.getRawJSON(users));
+    }
+
+    @Test
+    void testRetainedElementsDoNotShareTheBody() throws Exception {
+        Field bytes = RawJSON.class.getDeclaredField("bytes");
+        bytes.setAccessible(true);
+        ResponseList<Status> statuses = new JSONImplFactory(CONF).createStatusList(new ByteArrayResponse(TIMELINE));
+        RawJSON list = ((ResponseListImpl<Status>) statuses).getRawJSON();
+        assertEquals(TIMELINE.getBytes(StandardCharsets.UTF_8).length, ((byte[]) bytes.get(list)).length);
+        // one retained status doesn't keep the whole page reachable
+        RawJSON element = ((StatusJSONImpl) statuses.get(0)).getRawJSON();
+        assertEquals(STATUS1.getBytes(StandardCharsets.UTF_8).length, ((byte[]) bytes.get(element)).length);
+        assertEquals(STATUS1, element.toString());
+        assertSame(element, element.copy());
+    }
+
+    @Test
+    void testParseIsTraced() throws Exception {
+        final List<RequestTracer.Phase> phases = new ArrayList<RequestTracer.Phase>();
+        RequestTracer.Trace trace = new RequestTracer.Trace() {
+            @Override
+            public void phase(RequestTracer.Phase phase, long nanos) {
+                phases.add(phase);
+            }
+
+            @Override
+            public void completed(int statusCode, long nanos) {
+            }
+        };
+        JSONImplFactory factory = new JSONImplFactory(CONF);
+        HttpResponse res = new ByteArrayResponse(TIMELINE);
+        res.setTrace(trace);
+        factory.createStatusList(res);
+        assertEquals(Arrays.asList(RequestTracer.Phase.BODY_READ, RequestTracer.Phase.PARSE), phases);
+
+        phases.clear();
+        res = new ByteArrayResponse(STATUS1);
+        res.setTrace(trace);
+        factory.createStatus(res);
+        assertEquals(Arrays.asList(RequestTracer.Phase.BODY_READ, RequestTracer.Phase.PARSE), phases);
+    }
+
+    @Test
+    void testNotRetainedByDefault() throws Exception {
+        Configuration conf = new ConfigurationBuilder().setJSONStoreEnabled(true).build();
+        Status status = new JSONImplFactory(conf).createStatusList(new ByteArrayResponse(TIMELINE)).get(0);
+        assertNull(((StatusJSONImpl) status).getRawJSON());
+        // the thread local store keeps working as before
+        assertEquals(1L, new JSONObject(TwitterObjectFactory.getRawJSON(status)).getLong("id"));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import twitter4j.auth.BasicAuthorization;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.management.RequestPhaseStatistics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class RequestTracerTest {
+    private LocalHttpServer server;
+    private String url;
+    private final RecordingTracer tracer = new RecordingTracer();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalHttpServer();
+        server.handle("/1.1/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                InputStream is = exchange.getRequestBody();
+                while (is.read() != -1) {
+                }
+                int status = exchange.getRequestURI().getPath().endsWith("missing.json") ? 404 : 200;
+                LocalHttpServer.respond(exchange, status, "{\"id\":1,\"screen_name\":\"twit4j\"}");
+            }
+        });
+        server.start();
+        url = server.url("/1.1/");
+        RequestTracerFactory.setInstance(tracer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTracerFactory.setInstance(null);
+        server.stop();
+    }
+
+    private static HttpClient newClient() {
+        return new HttpClientImpl(new ConfigurationBuilder().setHttpRetryCount(0).build().getHttpClientConfiguration());
+    }
+
+    @Test
+    void testPhasesOfGet() throws Exception {
+        HttpResponse res = newClient().request(new HttpRequest(RequestMethod.GET, url + "users/show.json",
+                null, new BasicAuthorization("user", "password"), null));
+        assertEquals("twit4j", res.asJSONObject().getString("screen_name"));
+
+        assertEquals(Collections.singletonList(200), tracer.completed);
+        assertEquals(EnumSet.of(RequestTracer.Phase.SIGN, RequestTracer.Phase.CONNECT,
+                RequestTracer.Phase.TIME_TO_FIRST_BYTE, RequestTracer.Phase.BODY_READ, RequestTracer.Phase.PARSE),
+                tracer.phases);
+    }
+
+    @Test
+    void testPhasesOfPost() throws Exception {
+        HttpResponse res = newClient().post(url + "statuses/update.json",
+                new HttpParameter[]{new HttpParameter("status", "hello")}, null, null);
+        res.asString();
+
+        assertEquals(Collections.singletonList(200), tracer.completed);
+        assertEquals(EnumSet.of(RequestTracer.Phase.CONNECT, RequestTracer.Phase.REQUEST_WRITE,
+                RequestTracer.Phase.TIME_TO_FIRST_BYTE, RequestTracer.Phase.BODY_READ), tracer.phases);
+    }
+
+    @Test
+    void testErrorResponse() {
+        try {
+            newClient().get(url + "missing.json");
+            fail("should throw TwitterException");
+        } catch (TwitterException te) {
+            assertEquals(404, te.getStatusCode());
+        }
+        assertEquals(Collections.singletonList(404), tracer.completed);
+    }
+
+    @Test
+    void testJMXRequestTracer() throws Exception {
+        JMXRequestTracer jmxTracer = new JMXRequestTracer();
+        RequestTracerFactory.setInstance(jmxTracer);
+        HttpClient client = newClient();
+        client.get(url + "users/show.json").asJSONObject();
+        try {
+            client.get(url + "missing.json");
+            fail("should throw TwitterException");
+        } catch (TwitterException ignore) {
+        }
+
+        RequestPhaseStatistics statistics = jmxTracer.getStatistics();
+        assertEquals(2, statistics.getRequestCount());
+        assertEquals(1, statistics.getErrorCount());
+        assertTrue(statistics.getMaxTimeNanos("PARSE") > 0);
+        assertTrue(statistics.getPercentileTimeNanos("TIME_TO_FIRST_BYTE", 50) > 0);
+        assertEquals(0, statistics.getMaxTimeNanos("TLS"));
+        assertTrue(statistics.getPhaseSummaries().containsKey("request"));
+        assertTrue(statistics.getPhaseSummaries().containsKey("BODY_READ"));
+    }
+
+    private static final class RecordingTracer implements RequestTracer, RequestTracer.Trace {
+        private final Set<Phase> phases = EnumSet.noneOf(Phase.class);
+        private final List<Integer> completed = new ArrayList<Integer>();
+
+        @Override
+        public Trace start(HttpRequest request) {
+            return this;
+        }
+
+        @Override
+        public synchronized void phase(Phase phase, long nanos) {
+            assertTrue(nanos >= 0);
+            phases.add(phase);
+        }
+
+        @Override
+        public synchronized void completed(int statusCode, long nanos) {
+            completed.add(statusCode);
+        }
+    }
+}
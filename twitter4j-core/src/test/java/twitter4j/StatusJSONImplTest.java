@@ -110,6 +110,25 @@ public class StatusJSONImplTest {
         assertNull(status.getQuotedStatusPermalink());
     }
 
+    @Test
+    void testNestedQuotedStatus() throws Exception {
+        String rawJson = "{\"id\":1,\"text\":\"1\",\"quoted_status_id\":2,\"quoted_status\":" +
+                "{\"id\":2,\"text\":\"2\",\"quoted_status_id\":3,\"quoted_status\":" +
+                "{\"id\":3,\"text\":\"3\",\"extended_tweet\":{\"full_text\":\"3 extended\",\"display_text_range\":[0,10]}}}}";
+
+        Status status = new StatusJSONImpl(new JSONObject(rawJson));
+
+        assertEquals(2L, status.getQuotedStatusId());
+        Status quoted = status.getQuotedStatus();
+        assertEquals(2L, quoted.getId());
+        assertEquals(3L, quoted.getQuotedStatusId());
+        Status quotedQuoted = quoted.getQuotedStatus();
+        assertEquals(3L, quotedQuoted.getId());
+        assertEquals("3 extended", quotedQuoted.getText());
+        assertNull(quotedQuoted.getQuotedStatus());
+        assertEquals(-1L, quotedQuoted.getQuotedStatusId());
+    }
+
     public void testQuotedStatusPermalink() throws Exception {
 
         String rawJson = "{\"quoted_status\":{\"in_reply_to_status_id_str\":null,\"in_reply_to_status_id\":null,\"coordinates\":null,\"created_at\":\"Tue May 22 06:25:58 +0000 2018\",\"truncated\":false,\"in_reply_to_user_id_str\":null,\"source\":\"<a href=\\\"https://sites.google.com/site/tweentwitterclient/\\\" rel=\\\"nofollow\\\">Tween</a>\",\"retweet_count\":0,\"retweeted\":false,\"geo\":null,\"in_reply_to_screen_name\":null,\"is_quote_status\":false,\"entities\":{\"urls\":[],\"hashtags\":[],\"user_mentions\":[],\"symbols\":[]},\"text\":\"quoted_status_permalink が配信されるようになったので Twitter4J の対応しよう\",\"id_str\":\"998812193834418177\",\"in_reply_to_user_id\":null,\"display_text_range\":[0,55],\"favorite_count\":2,\"id\":998812193834418200,\"place\":null,\"contributors\":null,\"lang\":\"ja\",\"user\":{\"utc_offset\":32400,\"friends_count\":991,\"profile_image_url_https\":\"https://pbs.twimg.com/profile_images/423153841505193984/yGKSJu78_normal.jpeg\",\"listed_count\":134,\"profile_background_image_url\":\"http://abs.twimg.com/images/themes/theme1/bg.png\",\"default_profile_image\":false,\"favourites_count\":6826,\"description\":\"TwitterクライアントTwitPane、FacebookブラウザTafView、mixiブラウザTkMixiViewer、英単語学習ソフト P-Study System 、MZ3/4 などを開発。「ちょっぴり使いやすい」アプリを日々開発しています。ペーンクラフト代表\",\"created_at\":\"Thu Aug 23 10:06:53 +0000 2007\",\"is_translator\":false,\"profile_background_image_url_https\":\"https://abs.twimg.com/images/themes/theme1/bg.png\",\"protected\":false,\"screen_name\":\"takke\",\"id_str\":\"8379212\",\"profile_link_color\":\"1B95E0\",\"is_translation_enabled\":false,\"translator_type\":\"none\",\"id\":8379212,\"geo_enabled\":true,\"profile_background_color\":\"000000\",\"lang\":\"ja\",\"has_extended_profile\":false,\"profile_image_extensions_alt_text\":null,\"profile_sidebar_border_color\":\"000000\",\"profile_text_color\":\"000000\",\"verified\":false,\"profile_image_url\":\"http://pbs.twimg.com/profile_images/423153841505193984/yGKSJu78_normal.jpeg\",\"time_zone\":\"Tokyo\",\"url\":\"https://t.co/8al23JWsCZ\",\"contributors_enabled\":false,\"profile_background_tile\":false,\"profile_banner_url\":\"https://pbs.twimg.com/profile_banners/8379212/1390720101\",\"entities\":{\"description\":{\"urls\":[]},\"url\":{\"urls\":[{\"display_url\":\"panecraft.net\",\"indices\":[0,23],\"expanded_url\":\"http://www.panecraft.net\",\"url\":\"https://t.co/8al23JWsCZ\"}]}},\"statuses_count\":48447,\"follow_request_sent\":false,\"followers_count\":1639,\"profile_use_background_image\":false,\"default_profile\":false,\"following\":false,\"name\":\"竹内裕昭\",\"location\":\"北海道\",\"profile_sidebar_fill_color\":\"000000\",\"profile_banner_extensions_alt_text\":null,\"notifications\":false},\"favorited\":false},\"in_reply_to_status_id_str\":null,\"in_reply_to_status_id\":null,\"created_at\":\"Tue May 22 06:27:55 +0000 2018\",\"in_reply_to_user_id_str\":null,\"source\":\"<a href=\\\"https://sites.google.com/site/tweentwitterclient/\\\" rel=\\\"nofollow\\\">Tween</a>\",\"quoted_status_id\":998812193834418200,\"retweet_count\":0,\"retweeted\":false,\"geo\":null,\"in_reply_to_screen_name\":null,\"is_quote_status\":true,\"text\":\"てすてす https://t.co/8FWawCNvz9\",\"id_str\":\"998812681736830976\",\"in_reply_to_user_id\":null,\"favorite_count\":0,\"id\":998812681736831000,\"place\":null,\"quoted_status_permalink\":{\"expanded\":\"https://twitter.com/takke/status/998812193834418177\",\"display\":\"twitter.com/takke/status/9…\",\"url\":\"https://t.co/8FWawCNvz9\"},\"lang\":\"ja\",\"favorited\":false,\"possibly_sensitive\":false,\"coordinates\":null,\"truncated\":false,\"entities\":{\"urls\":[{\"display_url\":\"twitter.com/takke/status/9…\",\"indices\":[5,28],\"expanded_url\":\"https://twitter.com/takke/status/998812193834418177\",\"url\":\"https://t.co/8FWawCNvz9\"}],\"hashtags\":[],\"user_mentions\":[],\"symbols\":[]},\"display_text_range\":[0,4],\"quoted_status_id_str\":\"998812193834418177\",\"contributors\":null,\"user\":{\"utc_offset\":32400,\"friends_count\":3213,\"profile_image_url_https\":\"https://pbs.twimg.com/profile_images/3785115381/319a239dfbdbe3bec7afdacbfada91c8_normal.jpeg\",\"listed_count\":369,\"profile_background_image_url\":\"http://abs.twimg.com/images/themes/theme1/bg.png\",\"default_profile_image\":false,\"favourites_count\":1380,\"description\":\"Linux+育児+http://t.co/KdHyQJu0。埼玉に生息する３児のパパ。Win用TwitterクライアントTween公開してます。https://t.co/JVgcF73g\",\"created_at\":\"Fri Jun 15 08:06:06 +0000 2007\",\"is_translator\":false,\"profile_background_image_url_https\":\"https://abs.twimg.com/images/themes/theme1/bg.png\",\"protected\":false,\"screen_name\":\"kiri_feather\",\"id_str\":\"6828542\",\"profile_link_color\":\"0084B4\",\"is_translation_enabled\":false,\"translator_type\":\"regular\",\"id\":6828542,\"geo_enabled\":true,\"profile_background_color\":\"C0DEED\",\"lang\":\"ja\",\"has_extended_profile\":false,\"profile_image_extensions_alt_text\":null,\"profile_sidebar_border_color\":\"FFFFFF\",\"profile_text_color\":\"333333\",\"verified\":false,\"profile_image_url\":\"http://pbs.twimg.com/profile_images/3785115381/319a239dfbdbe3bec7afdacbfada91c8_normal.jpeg\",\"time_zone\":\"Tokyo\",\"url\":\"https://t.co/lKyjpmASMN\",\"contributors_enabled\":false,\"profile_background_tile\":false,\"profile_banner_url\":\"https://pbs.twimg.com/profile_banners/6828542/1348013722\",\"entities\":{\"description\":{\"urls\":[{\"display_url\":\"VB.net\",\"indices\":[9,29],\"expanded_url\":\"http://VB.net\",\"url\":\"http://t.co/KdHyQJu0\"},{\"display_url\":\"sites.google.com/site/tweentwit…\",\"indices\":[72,93],\"expanded_url\":\"https://sites.google.com/site/tweentwitterclient/\",\"url\":\"https://t.co/JVgcF73g\"}]},\"url\":{\"urls\":[{\"display_url\":\"d.hatena.ne.jp/Kiri_Feather/\",\"indices\":[0,23],\"expanded_url\":\"http://d.hatena.ne.jp/Kiri_Feather/\",\"url\":\"https://t.co/lKyjpmASMN\"}]}},\"statuses_count\":74523,\"follow_request_sent\":false,\"followers_count\":3991,\"profile_use_background_image\":true,\"default_profile\":false,\"following\":true,\"name\":\"きり(ΦωΦ)\",\"location\":\"Saitama, Japan\",\"profile_sidebar_fill_color\":\"DDEEF6\",\"profile_banner_extensions_alt_text\":null,\"notifications\":false}}";
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class TwitterAPIMonitorTest {
+    // the pattern methodOf() used to be implemented with
+    private static final Pattern pattern = Pattern.compile("https?://[^/]+/[0-9.]*/([a-zA-Z_.]*).*");
+
+    @Test
+    void testMethodOf() {
+        assertEquals("statuses", TwitterAPIMonitor.methodOf("https://api.twitter.com/1.1/statuses/home_timeline.json?count=200"));
+        assertEquals("users", TwitterAPIMonitor.methodOf("https://api.twitter.com/1.1/users/show.json?screen_name=twitter4j"));
+        assertEquals("tweets", TwitterAPIMonitor.methodOf("https://api.twitter.com/2/tweets/20"));
+        assertEquals("help.json", TwitterAPIMonitor.methodOf("http://localhost:8080//help.json"));
+        String[] urls = {"https://api.twitter.com/1.1/statuses/show/123.json", "https://upload.twitter.com/1.1/media/upload.json",
+                "https://api.twitter.com/oauth/request_token", "https://api.twitter.com/1.1/", "https://api.twitter.com/1.1",
+                "https://api.twitter.com", "https:///1.1/statuses", "ftp://api.twitter.com/1.1/statuses", "http://a/1.1/x-y",
+                "http://a/./snake_case.json", ""};
+        for (String url : urls) {
+            Matcher matcher = pattern.matcher(url);
+            assertEquals(matcher.matches() ? matcher.group(1) : null, TwitterAPIMonitor.methodOf(url), url);
+        }
+    }
+}
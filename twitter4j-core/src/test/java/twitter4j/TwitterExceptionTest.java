@@ -21,6 +21,8 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -69,4 +71,18 @@ public class TwitterExceptionTest {
     }
 
 
+
+    @Test
+    void testCopy() throws Exception {
+        TwitterException te = new TwitterException("{\"errors\":[{\"code\":88,\"message\":\"Rate limit exceeded\"}]}", null, 429);
+        TwitterException copy = te.copy();
+        assertNotSame(te, copy);
+        assertSame(te, copy.getCause());
+        assertEquals(429, copy.getStatusCode());
+        assertEquals(88, copy.getErrorCode());
+        assertEquals("Rate limit exceeded", copy.getErrorMessage());
+        assertEquals(te.getMessage(), copy.getMessage());
+        assertFalse(copy.isCausedByNetworkIssue());
+        assertTrue(new TwitterException(new java.io.IOException("reset")).copy().isCausedByNetworkIssue());
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class TwitterObjectCodecTest {
+    private static final String USER = "{\"id\":6253282,\"name\":\"Twitter API\",\"screen_name\":\"twitterapi\","
+            + "\"location\":\"San Francisco, CA\",\"description\":\"The Real Twitter API. http:\\/\\/t.co\\/abc\","
+            + "\"url\":\"http:\\/\\/t.co\\/78pYTvWfJd\",\"entities\":{\"url\":{\"urls\":[{\"url\":\"http:\\/\\/t.co\\/78pYTvWfJd\","
+            + "\"expanded_url\":\"https:\\/\\/dev.twitter.com\",\"display_url\":\"dev.twitter.com\",\"indices\":[0,22]}]},"
+            + "\"description\":{\"urls\":[{\"url\":\"http:\\/\\/t.co\\/abc\",\"expanded_url\":\"https:\\/\\/example.com\","
+            + "\"display_url\":\"example.com\",\"indices\":[22,40]}]}},\"protected\":false,\"followers_count\":6133636,"
+            + "\"friends_count\":12,\"listed_count\":12936,\"created_at\":\"Wed May 23 06:01:13 +0000 2007\","
+            + "\"favourites_count\":31,\"utc_offset\":-25200,\"time_zone\":\"Pacific Time (US & Canada)\",\"geo_enabled\":true,"
+            + "\"verified\":true,\"statuses_count\":3656,\"lang\":\"en\",\"profile_image_url_https\":\"https:\\/\\/pbs.twimg.com\\/a.png\","
+            + "\"profile_banner_url\":\"https:\\/\\/pbs.twimg.com\\/banner\",\"withheld_in_countries\":[\"DE\",\"FR\"]}";
+
+    private static String status(long id, String extra) {
+        return "{\"created_at\":\"Mon Mar 11 19:37:00 +0000 2013\",\"id\":" + id + ",\"text\":\"Video #t4j @twitterapi $TWTR "
+                + "https:\\/\\/t.co\\/BrLLpVyuCe \\u3042\",\"source\":\"<a href=\\\"http:\\/\\/twitter.com\\\">web<\\/a>\","
+                + "\"truncated\":false,\"in_reply_to_status_id\":1,\"in_reply_to_user_id\":-2,\"user\":" + USER + ","
+                + "\"coordinates\":{\"type\":\"Point\",\"coordinates\":[-122.4,37.7]},"
+                + "\"place\":{\"id\":\"5a110d312052166f\",\"name\":\"San Francisco\",\"full_name\":\"San Francisco, CA\","
+                + "\"country\":\"United States\",\"country_code\":\"US\",\"place_type\":\"city\",\"url\":\"https:\\/\\/api.twitter.com\\/1.1\\/geo\\/id\\/5a110d312052166f.json\","
+                + "\"bounding_box\":{\"type\":\"Polygon\",\"coordinates\":[[[-122.51,37.70],[-122.35,37.70],[-122.35,37.83],[-122.51,37.83]]]}},"
+                + "\"contributors\":[819797],\"retweet_count\":131,\"favorite_count\":7,\"lang\":\"en\","
+                + "\"scopes\":{\"place_ids\":[\"5a110d312052166f\"]},\"withheld_in_countries\":[\"XY\"],"
+                + "\"ext_edit_control\":{\"initial\":{\"edit_tweet_ids\":[\"" + id + "\"],\"editable_until_msecs\":\"1664391000000\","
+                + "\"edits_remaining\":5,\"is_edit_eligible\":true}},"
+                + "\"entities\":{\"hashtags\":[{\"text\":\"t4j\",\"indices\":[6,10]}],\"symbols\":[{\"text\":\"TWTR\",\"indices\":[23,28]}],"
+                + "\"user_mentions\":[{\"screen_name\":\"twitterapi\",\"name\":\"Twitter API\",\"id\":6253282,\"indices\":[11,22]}],"
+                + "\"urls\":[]},"
+                + "\"extended_entities\":{\"media\":[{\"id\":1236671586075316225,\"indices\":[29,52],\"media_url\":\"http:\\/\\/pbs.twimg.com\\/m.jpg\","
+                + "\"media_url_https\":\"https:\\/\\/pbs.twimg.com\\/m.jpg\",\"url\":\"https:\\/\\/t.co\\/BrLLpVyuCe\","
+                + "\"display_url\":\"pic.twitter.com\\/BrLLpVyuCe\",\"expanded_url\":\"https:\\/\\/twitter.com\\/x\\/video\\/1\",\"type\":\"video\","
+                + "\"sizes\":{\"thumb\":{\"w\":150,\"h\":150,\"resize\":\"crop\"},\"large\":{\"w\":1280,\"h\":720,\"resize\":\"fit\"}},"
+                + "\"video_info\":{\"aspect_ratio\":[16,9],\"duration_millis\":10500,\"variants\":[{\"bitrate\":832000,"
+                + "\"content_type\":\"video\\/mp4\",\"url\":\"https:\\/\\/video.twimg.com\\/v.mp4\"},{\"content_type\":\"application\\/x-mpegURL\","
+                + "\"url\":\"https:\\/\\/video.twimg.com\\/v.m3u8\"}]},\"ext_alt_text\":\"alt\"}]}"
+                + extra + "}";
+    }
+
+    // toString() of nested arrays contains their identity hash codes
+    private static String withoutIdentities(Object object) {
+        return object.toString().replaceAll("@[0-9a-f]+", "");
+    }
+
+    private static void assertSameStatus(Status expected, Status actual) {
+        assertNotSame(expected, actual);
+        assertEquals(withoutIdentities(expected), withoutIdentities(actual));
+        assertEquals(expected.getUser().toString(), actual.getUser().toString());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertArrayEquals(expected.getContributors(), actual.getContributors());
+        assertArrayEquals(expected.getEditControl().getEditTweetIds(), actual.getEditControl().getEditTweetIds());
+        MediaEntity expectedMedia = expected.getMediaEntities()[0];
+        MediaEntity actualMedia = actual.getMediaEntities()[0];
+        assertEquals(expectedMedia.toString(), actualMedia.toString());
+        assertEquals(expectedMedia.getSizes().get(MediaEntity.Size.LARGE).getWidth(),
+                actualMedia.getSizes().get(MediaEntity.Size.LARGE).getWidth());
+        assertEquals(expectedMedia.getVideoVariants()[1].getUrl(), actualMedia.getVideoVariants()[1].getUrl());
+        assertEquals(expected.getHashtagEntities()[0].getText(), actual.getHashtagEntities()[0].getText());
+        assertEquals(expected.getSymbolEntities()[0].getText(), actual.getSymbolEntities()[0].getText());
+        assertEquals(expected.getUserMentionEntities()[0].getId(), actual.getUserMentionEntities()[0].getId());
+        assertEquals(expected.getUser().getDescriptionURLEntities()[0].getExpandedURL(),
+                actual.getUser().getDescriptionURLEntities()[0].getExpandedURL());
+        assertEquals(expected.getPlace().getBoundingBoxCoordinates()[0][2], actual.getPlace().getBoundingBoxCoordinates()[0][2]);
+        assertEquals(0, actual.getURLEntities().length);
+        assertEquals(-1L, actual.getCurrentUserRetweetId());
+    }
+
+    @Test
+    void testStatusRoundTrip() throws Exception {
+        String json = status(311199093852618752L, ",\"retweeted_status\":" + status(311199093852618751L, ""));
+        Status status = TwitterObjectFactory.createStatus(json);
+        byte[] encoded = TwitterObjectCodec.encode(status);
+        Status decoded = TwitterObjectCodec.decode(encoded, Status.class);
+        assertSameStatus(status, decoded);
+        assertSameStatus(status.getRetweetedStatus(), decoded.getRetweetedStatus());
+        assertTrue(encoded.length * 3 < json.getBytes(StandardCharsets.UTF_8).length, encoded.length + " vs. " + json.length());
+    }
+
+    @Test
+    void testStreamSharesStrings() throws Exception {
+        List<Status> statuses = new ArrayList<Status>();
+        for (int i = 0; i < 100; i++) {
+            statuses.add(TwitterObjectFactory.createStatus(status(1000 + i, "")));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TwitterObjectCodec.Encoder encoder = new TwitterObjectCodec.Encoder(out);
+        for (Status status : statuses) {
+            encoder.write(status);
+        }
+        encoder.write(TwitterObjectFactory.createUser(USER));
+        encoder.close();
+        int single = TwitterObjectCodec.encode(statuses.get(0)).length;
+        assertTrue(out.size() < single * 100 / 2, out.size() + " vs. " + single);
+
+        TwitterObjectCodec.Decoder decoder = new TwitterObjectCodec.Decoder(new ByteArrayInputStream(out.toByteArray()));
+        for (Status status : statuses) {
+            assertSameStatus(status, decoder.read(Status.class));
+        }
+        assertEquals("twitterapi", decoder.read(User.class).getScreenName());
+        assertNull(decoder.read());
+    }
+
+    @Test
+    void testDirectMessage() throws Exception {
+        DirectMessage message = new DirectMessageJSONImpl(new JSONObject("{\"type\":\"message_create\",\"id\":\"1\","
+                + "\"created_timestamp\":\"1543407391000\",\"message_create\":{\"target\":{\"recipient_id\":\"2\"},"
+                + "\"sender_id\":\"3\",\"message_data\":{\"text\":\"hello #t4j\",\"entities\":{\"hashtags\":[{\"text\":\"t4j\","
+                + "\"indices\":[6,10]}],\"symbols\":[],\"user_mentions\":[],\"urls\":[]},\"quick_reply\":{\"type\":\"options\","
+                + "\"options\":[{\"label\":\"yes\",\"description\":\"d\",\"metadata\":\"m\"}]}}}}"));
+        DirectMessage decoded = TwitterObjectCodec.decode(TwitterObjectCodec.encode(message), DirectMessage.class);
+        assertEquals(message.toString(), decoded.toString());
+        assertEquals(message.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(message.getQuickReplies()[0], decoded.getQuickReplies()[0]);
+    }
+
+    @Test
+    void testEveryFieldIsEncoded() {
+        // fields added to a supported class must be registered with the codec as well
+        for (Class<?> clazz : TwitterObjectCodec.getSupportedClasses()) {
+            List<Field> encoded = TwitterObjectCodec.getEncodedFields(clazz);
+            for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        assertTrue(encoded.contains(field), field + " is not encoded");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMalformedInput() throws Exception {
+        byte[] encoded = TwitterObjectCodec.encode(TwitterObjectFactory.createUser(USER));
+        try {
+            TwitterObjectCodec.decode(new byte[]{'X', '4', 'J', 1}, User.class);
+            fail("should throw IOException");
+        } catch (IOException ignore) {
+        }
+        try {
+            TwitterObjectCodec.decode(java.util.Arrays.copyOf(encoded, encoded.length / 2), User.class);
+            fail("should throw IOException");
+        } catch (IOException ignore) {
+        }
+        try {
+            TwitterObjectCodec.decode(encoded, Status.class);
+            fail("should throw IOException");
+        } catch (IOException ignore) {
+        }
+        // LONG_ARRAY claiming Integer.MAX_VALUE elements
+        byte[] hugeArray = {'T', '4', 'J', 1, 10, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+        try {
+            TwitterObjectCodec.decode(hugeArray, long[].class);
+            fail("should throw IOException");
+        } catch (IOException ignore) {
+        }
+        // ARRAYs of one ARRAY nested far deeper than any model object
+        byte[] deep = new byte[4 + 2 * 100000];
+        System.arraycopy(new byte[]{'T', '4', 'J', 1}, 0, deep, 0, 4);
+        for (int i = 4; i < deep.length; i += 2) {
+            deep[i] = 11;
+            deep[i + 1] = 1;
+        }
+        try {
+            TwitterObjectCodec.decode(deep, Object[].class);
+            fail("should throw IOException");
+        } catch (IOException ignore) {
+        }
+        try {
+            TwitterObjectCodec.encode(new Object());
+            fail("should throw IllegalArgumentException");
+        } catch (IllegalArgumentException ignore) {
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import twitter4j.auth.AccessToken;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class TwitterPoolTest {
+    private LocalHttpServer server;
+    private TwitterPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalHttpServer();
+        server.handle("/1.1/account/verify_credentials.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                // responds with the user owning the token the request was signed with
+                String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                String id = authorization.replaceAll(".*oauth_token=\"token([0-9]+)\".*", "$1");
+                exchange.getResponseHeaders().add("X-Rate-Limit-Limit", "75");
+                exchange.getResponseHeaders().add("X-Rate-Limit-Remaining", String.valueOf(75 - Integer.parseInt(id)));
+                exchange.getResponseHeaders().add("X-Rate-Limit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 900));
+                LocalHttpServer.respond(exchange, 200, "{\"id\":" + id + ",\"screen_name\":\"user" + id + "\"}");
+            }
+        });
+        server.start();
+        pool = new TwitterPool(server.newConfigurationBuilder().build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testInstancesShareResources() throws Exception {
+        TwitterImpl twitter1 = (TwitterImpl) pool.getInstance(new AccessToken("token1", "secret1"));
+        TwitterImpl twitter2 = (TwitterImpl) pool.getInstance(new AccessToken("token2", "secret2"));
+        assertNotSame(twitter1, twitter2);
+        assertSame(twitter1.http, twitter2.http);
+        assertSame(twitter1.factory, twitter2.factory);
+        assertSame(twitter1.IMPLICIT_PARAMS, twitter2.IMPLICIT_PARAMS);
+        assertSame(pool.getConfiguration(), twitter1.getConfiguration());
+        assertNotSame(twitter1.getAuthorization(), twitter2.getAuthorization());
+    }
+
+    @Test
+    void testInstancesActOnBehalfOfTheirToken() throws Exception {
+        final List<RateLimitStatusEvent> events = new CopyOnWriteArrayList<RateLimitStatusEvent>();
+        pool.addRateLimitStatusListener(new RateLimitStatusListener() {
+            @Override
+            public void onRateLimitStatus(RateLimitStatusEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onRateLimitReached(RateLimitStatusEvent event) {
+            }
+        });
+        Twitter twitter1 = pool.getInstance(new AccessToken("token1", "secret1"));
+        Twitter twitter2 = pool.getInstance(new AccessToken("token2", "secret2"));
+
+        assertEquals(2L, twitter2.getId());
+        assertEquals("user2", twitter2.getScreenName());
+        assertEquals(1L, twitter1.getId());
+        assertEquals("user1", twitter1.getScreenName());
+
+        assertEquals(2, events.size());
+        assertSame(twitter2, events.get(0).getSource());
+        assertEquals(73, events.get(0).getRateLimitStatus().getRemaining());
+        assertSame(twitter1, events.get(1).getSource());
+        assertEquals(74, events.get(1).getRateLimitStatus().getRemaining());
+    }
+
+    @Test
+    void testConsumerKeyRequired() {
+        TwitterPool pool = new TwitterPool(new ConfigurationBuilder().build());
+        try {
+            pool.getInstance(new AccessToken("token1", "secret1"));
+            fail("should throw IllegalStateException");
+        } catch (IllegalStateException ignore) {
+        }
+    }
+}
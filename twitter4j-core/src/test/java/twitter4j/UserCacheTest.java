@@ -0,0 +1,112 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class UserCacheTest {
+    private static String status(long id, long userId, int statusesCount, String retweeted) {
+        return "{\"id\":" + id + ",\"text\":\"tweet " + id + "\",\"user\":{\"id\":" + userId
+                + ",\"screen_name\":\"user" + userId + "\",\"statuses_count\":" + statusesCount
+                + ",\"description\":\"description of " + userId + "\"}"
+                + (retweeted != null ? ",\"retweeted_status\":" + retweeted : "") + "}";
+    }
+
+    private static HttpResponse response(String... statuses) {
+        StringBuilder json = new StringBuilder("[");
+        for (String status : statuses) {
+            json.append(json.length() > 1 ? "," : "").append(status);
+        }
+        return new ByteArrayResponse(json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Configuration conf(int maxEntries, int maxAgeMillis, boolean streaming) {
+        return new ConfigurationBuilder().setUserCacheMaxEntries(maxEntries).setUserCacheMaxAgeMillis(maxAgeMillis)
+                .setStreamingJSONParserEnabled(streaming).build();
+    }
+
+    @Test
+    void testUsersAreSharedWithinAndAcrossPages() throws Exception {
+        for (ObjectFactory factory : new ObjectFactory[]{new JSONImplFactory(conf(100, 60000, false)),
+                new StreamingJSONImplFactory(conf(100, 60000, true))}) {
+            ResponseList<Status> page1 = factory.createStatusList(response(status(1, 10, 5, null),
+                    status(2, 20, 7, null), status(3, 10, 5, status(4, 20, 7, null))));
+            assertSame(page1.get(0).getUser(), page1.get(2).getUser());
+            assertSame(page1.get(1).getUser(), page1.get(2).getRetweetedStatus().getUser());
+            assertNotSame(page1.get(0).getUser(), page1.get(1).getUser());
+            assertEquals("description of 10", page1.get(0).getUser().getDescription());
+
+            ResponseList<Status> page2 = factory.createStatusList(response(status(5, 10, 5, null),
+                    status(6, 20, 8, null)));
+            assertSame(page1.get(0).getUser(), page2.get(0).getUser());
+            // statuses_count changed, the user has to be parsed again
+            assertNotSame(page1.get(1).getUser(), page2.get(1).getUser());
+            assertEquals(8, page2.get(1).getUser().getStatusesCount());
+
+            Status single = factory.createStatus(new ByteArrayResponse(status(7, 10, 5, null)
+                    .getBytes(StandardCharsets.UTF_8)));
+            assertSame(page1.get(0).getUser(), single.getUser());
+        }
+    }
+
+    @Test
+    void testDisabledOrExpired() throws Exception {
+        ObjectFactory disabled = new JSONImplFactory(conf(0, 60000, false));
+        ResponseList<Status> statuses = disabled.createStatusList(response(status(1, 10, 5, null), status(2, 10, 5, null)));
+        assertNotSame(statuses.get(0).getUser(), statuses.get(1).getUser());
+        assertEquals(statuses.get(0).getUser(), statuses.get(1).getUser());
+        assertNull(UserCache.getInstance(conf(0, 60000, false)));
+
+        ObjectFactory expired = new JSONImplFactory(conf(100, 0, false));
+        statuses = expired.createStatusList(response(status(1, 10, 5, null), status(2, 10, 5, null)));
+        assertNotSame(statuses.get(0).getUser(), statuses.get(1).getUser());
+    }
+
+    @Test
+    void testBoundedAndWeak() throws Exception {
+        UserCache cache = new UserCache(2, 60000);
+        User user1 = cache.getUser(new JSONObject("{\"id\":1,\"statuses_count\":1}"));
+        cache.getUser(new JSONObject("{\"id\":2,\"statuses_count\":1}"));
+        cache.getUser(new JSONObject("{\"id\":3,\"statuses_count\":1}"));
+        assertEquals(2, cache.size());
+        // evicted
+        assertNotSame(user1, cache.getUser(new JSONObject("{\"id\":1,\"statuses_count\":1}")));
+        // users with their latest status aren't cached
+        JSONObject withStatus = new JSONObject("{\"id\":4,\"statuses_count\":1,\"status\":{\"id\":1}}");
+        assertNotSame(cache.getUser(withStatus), cache.getUser(withStatus));
+
+        // the cache doesn't keep users alive
+        WeakReference<User> user5 = new WeakReference<User>(cache.getUser(new JSONObject("{\"id\":5,\"statuses_count\":1}")));
+        for (int i = 0; i < 50 && user5.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(user5.get());
+        assertEquals(2, cache.size());
+    }
+}
@@ -217,6 +217,25 @@ class OAuthTest extends TwitterTestBase {
 
     }
 
+    @Test
+    void testHeaderWithQueryParameters() throws Exception {
+        OAuthAuthorization oauth = new OAuthAuthorization(ConfigurationContext.getInstance());
+        oauth.setOAuthConsumer("dpf43f3p2l4k3l03", "kd94hf93k423kf44");
+        RequestToken token = new RequestToken("nnch734d00sl2jdk", "pfkkdhi9sl3r4s00");
+        String expected = "OAuth oauth_consumer_key=\"dpf43f3p2l4k3l03\",oauth_signature_method=\"HMAC-SHA1\",oauth_timestamp=\"1191242096\",oauth_nonce=\"kllo9940pd9333jh\",oauth_version=\"1.0\",oauth_token=\"nnch734d00sl2jdk\",oauth_signature=\"tR3%2BTy81lMeYAr%2FFid0kMTYa%2FWM%3D\"";
+        // the cached signer must give the same result on subsequent calls
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected, oauth.generateAuthorizationHeader("GET", "http://photos.example.net/photos?size=original&file=vacation.jpg", null, "kllo9940pd9333jh", "1191242096", token));
+        }
+        // the signer cached on the token must not be reused with another consumer secret
+        oauth.setOAuthConsumer("dpf43f3p2l4k3l03", "cs");
+        assertEquals("VZVjXceV7JgPq/dOTnNmEfO0Fv8=", oauth.generateSignature("bs", new RequestToken("nnch734d00sl2jdk", "ts")));
+        RequestToken shared = new RequestToken("nnch734d00sl2jdk", "ts");
+        assertEquals("VZVjXceV7JgPq/dOTnNmEfO0Fv8=", oauth.generateSignature("bs", shared));
+        oauth.setOAuthConsumer("dpf43f3p2l4k3l03", "kd94hf93k423kf44");
+        assertEquals(oauth.generateSignature("bs", new RequestToken("nnch734d00sl2jdk", "ts")), oauth.generateSignature("bs", shared));
+    }
+
     @Test
     void testEncodeParameter() throws Exception {
         //http://wiki.oauth.net/TestCases
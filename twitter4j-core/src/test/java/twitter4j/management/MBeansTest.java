@@ -16,14 +16,20 @@
 package twitter4j.management;
 
 import org.junit.jupiter.api.Test;
+import twitter4j.JavaNetHttpClientImpl;
+import twitter4j.conf.ConfigurationBuilder;
 
 import javax.management.AttributeList;
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.management.openmbean.CompositeData;
 import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -125,7 +131,7 @@ class MBeansTest {
 
         // sanity check to ensure metadata accurately describes dynamic attributes
         MBeanInfo info = openMBean.getMBeanInfo();
-        assertEquals(5, info.getAttributes().length);
+        assertEquals(9, info.getAttributes().length);
         assertEquals(1, info.getOperations().length);
 
         List<String> attrNames = new ArrayList<String>();
@@ -135,7 +141,7 @@ class MBeansTest {
         }
         AttributeList attrList = openMBean.getAttributes(attrNames.toArray(new String[attrNames.size()]));
         assertNotNull(attrList);
-        assertEquals(5, attrList.size());
+        assertEquals(9, attrList.size());
 
         // check stats (empty case)
         Long callCount = (Long) openMBean.getAttribute("callCount");
@@ -177,6 +183,9 @@ class MBeansTest {
         assertEquals(1, ((Long) columnValues[1]).longValue());
         assertEquals(100, ((Long) columnValues[2]).longValue());
         assertEquals(100, ((Long) columnValues[3]).longValue());
+        assertEquals(100d, (Double) data.get("p99Time"), 100d / 32);
+        assertEquals(100d, (Double) data.get("maxTime"));
+        assertEquals(100d, (Double) openMBean.getAttribute("maxTime"));
 
         // check reset
         openMBean.invoke("reset", new Object[0], new String[0]);
@@ -184,6 +193,57 @@ class MBeansTest {
         assertFalse(stats.getInvocationStatistics().iterator().hasNext());
     }
 
+    @Test
+    void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        // 1ms to 1000ms, in nanoseconds
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000000L);
+        }
+        assertEquals(500000000L, histogram.getValueAtPercentile(50), 500000000L / 32);
+        assertEquals(990000000L, histogram.getValueAtPercentile(99), 990000000L / 32);
+        assertEquals(999000000L, histogram.getValueAtPercentile(99.9), 999000000L / 32);
+        assertEquals(1000000000L, histogram.getValueAtPercentile(100));
+        assertEquals(1000000000L, histogram.getMax());
+
+        // buckets are contiguous and exact below 64
+        for (long value = 0; value < 100000; value++) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestEquivalentValue(index - 1) < value);
+        }
+        assertEquals(63, LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(63)));
+
+        histogram.reset();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    void testConcurrentInvocations() throws Exception {
+        final APIStatistics stats = new APIStatistics(100);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        stats.methodCalled(j % 2 == 0 ? "foo" : "bar", j % 100, TimeUnit.MICROSECONDS, j % 10 != 0);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80000, stats.getCallCount());
+        assertEquals(8000, stats.getErrorCount());
+        checkMethodStats(stats, "foo", 40000, 8000, 1960, 0);
+        assertEquals(99000, stats.getMaxTimeNanos());
+    }
+
     // *****************
     // Helper methods
     // *****************
@@ -220,4 +280,20 @@ class MBeansTest {
         assertEquals(totalTime, calc.getTotalTime());
         assertEquals(avgTime, calc.getAverageTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConnectionPoolStatisticsRegistration() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName("twitter4j.mbean:type=ConnectionPoolStatistics,*");
+        int before = mbs.queryNames(pattern, null).size();
+
+        JavaNetHttpClientImpl client = new JavaNetHttpClientImpl(new ConfigurationBuilder().build().getHttpClientConfiguration());
+        assertEquals(before, mbs.queryNames(pattern, null).size());
+        client.close();
+
+        client = new JavaNetHttpClientImpl(new ConfigurationBuilder().setMBeanEnabled(true).build().getHttpClientConfiguration());
+        assertEquals(before + 1, mbs.queryNames(pattern, null).size());
+        client.close();
+        assertEquals(before, mbs.queryNames(pattern, null).size());
+    }
+}
@@ -20,17 +20,35 @@ package twitter4j;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
 import java.net.Authenticator;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
 
 import okhttp3.Call;
+import okhttp3.Connection;
 import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -38,12 +56,21 @@ import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okhttp3.Response;
 import okio.BufferedSink;
 import okio.Okio;
 import okio.Source;
 import twitter4j.conf.ConfigurationContext;
+import twitter4j.management.ConnectionPoolStatistics;
 
 /**
+ * An {@link HttpClient} based on OkHttp.<br>
+ * The connection pool keeps up to {@link HttpClientConfiguration#getHttpMaxConnections()} idle connections for
+ * {@link HttpClientConfiguration#getHttpKeepAliveMillis()}. At most as many requests are in flight at a time
+ * ({@link HttpClientConfiguration#getHttpMaxConnectionsPerHost()} per host), further requests wait for a slot up to
+ * the connection timeout. With {@link HttpClientConfiguration#isMBeanEnabled()}, pool hits and misses are exposed via JMX
+ * as {@link twitter4j.management.ConnectionPoolStatisticsMBean} until the client is {@link #close() closed}.
+ *
  * @author Hiroaki Takeuchi - takke30 at gmail.com
  * @author Yuuto Uehara - muemi.himazin at gmail.com
  * @since Twitter4J 3.0.6
@@ -52,8 +79,7 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
     private static final long serialVersionUID = 1757413669925424213L;
     private static final Logger logger = Logger.getLogger(AlternativeHttpClientImpl.class);
 
-    private static final int MAX_CONNECTIONS = 5;
-    private static final int KEEP_ALIVE_DURATION_MS = 300;
+    private static final AtomicInteger instanceCount = new AtomicInteger();
 
     private static final MediaType TEXT = MediaType.parse("text/plain; charset=utf-8");
     private static final MediaType FORM_URL_ENCODED = MediaType.parse("application/x-www-form-urlencoded");
@@ -64,6 +90,10 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
     }
 
     private OkHttpClient okHttpClient;
+    private transient ConnectionPoolStatistics statistics;
+    private transient volatile ObjectName statisticsName;
+    private transient Semaphore connections;
+    private transient ConcurrentHashMap<String, Semaphore> hostConnections;
 
     private static OnBuildOkHttpClientCallback onBuildOkHttpClient = null;
 
@@ -86,6 +116,7 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
         OkHttpResponse res = null;
         Request.Builder requestBuilder = new Request.Builder();
         requestBuilder.url(req.getURL()).headers(getHeaders(req));
+        requestBuilder.tag(RequestTracer.Trace.class, req.getTrace());
         switch (req.getMethod()) {
             case HEAD:
             case PUT:
@@ -111,9 +142,17 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
         int retry = CONF.getHttpRetryCount() + 1;
         for (retriedCount = 0; retriedCount < retry; retriedCount++) {
             int responseCode = -1;
+            Permit permit = null;
             try {
-                Call call = okHttpClient.newCall(request);
+                if (res != null) {
+                    // give the connection of the failed attempt back before waiting for another slot
+                    res.disconnect();
+                }
+                permit = acquire(req.getURL());
+                // the listener of the call releases the permit once the call ends, body included
+                Call call = okHttpClient.newCall(request.newBuilder().tag(Permit.class, permit).build());
                 res = new OkHttpResponse(call, okHttpClient, CONF);
+                permit = null;
                 lastRequestProtocol = res.getProtocol();
                 responseCode = res.getStatusCode();
 
@@ -147,6 +186,13 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
                 if (retriedCount == CONF.getHttpRetryCount()) {
                     throw new TwitterException(e.getMessage(), e, responseCode);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TwitterException(e.getMessage(), e);
+            } finally {
+                if (permit != null) {
+                    permit.release();
+                }
             }
             try {
                 if (logger.isDebugEnabled() && res != null) {
@@ -205,7 +251,7 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
         }
 
         String authorizationHeader;
-        if (req.getAuthorization() != null && (authorizationHeader = req.getAuthorization().getAuthorizationHeader(req)) != null) {
+        if ((authorizationHeader = getAuthorizationHeader(req)) != null) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Authorization: ", authorizationHeader.replaceAll(".", "*"));
             }
@@ -283,7 +329,26 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
             builder.protocols(protocols);
 
             //connectionPool setup
-            builder.connectionPool(new ConnectionPool(MAX_CONNECTIONS, KEEP_ALIVE_DURATION_MS, TimeUnit.MILLISECONDS));
+            builder.connectionPool(new ConnectionPool(CONF.getHttpMaxConnections(), CONF.getHttpKeepAliveMillis(), TimeUnit.MILLISECONDS));
+            // OkHttp's Dispatcher only limits enqueue()d calls, requests are executed synchronously here
+            connections = new Semaphore(Math.max(1, CONF.getHttpMaxConnections()), true);
+            hostConnections = new ConcurrentHashMap<String, Semaphore>();
+
+            //pool statistics
+            statistics = new ConnectionPoolStatistics("AlternativeHttpClientImpl-" + instanceCount.incrementAndGet(),
+                    CONF.getHttpMaxConnections(), CONF.getHttpMaxConnectionsPerHost());
+            if (CONF.isMBeanEnabled()) {
+                registerMBean();
+            }
+            final ConnectionPoolStatistics statistics = this.statistics;
+            builder.eventListenerFactory(new EventListener.Factory() {
+                @Override
+                public EventListener create(Call call) {
+                    RequestTracer.Trace trace = call.request().tag(RequestTracer.Trace.class);
+                    return new StatisticsListener(statistics, trace != null ? trace : NoOpRequestTracer.INSTANCE,
+                            call.request().tag(Permit.class));
+                }
+            });
 
             //redirect disable
             builder.followSslRedirects(false);
@@ -336,6 +401,237 @@ public class AlternativeHttpClientImpl extends HttpClientBase implements HttpRes
         }
     }
 
+    /**
+     * Tells pool hits from misses: a call acquiring a connection without connecting first got it from the pool.<br>
+     * Also reports the phases of the call to the {@link RequestTracer.Trace} the request is tagged with, and releases
+     * the {@link Permit} the request is tagged with once the call ends.
+     */
+    private static final class StatisticsListener extends EventListener {
+        private final ConnectionPoolStatistics statistics;
+        private final RequestTracer.Trace trace;
+        private final Permit permit;
+        private boolean connected;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestStart;
+        private long requestEnd;
+
+        StatisticsListener(ConnectionPoolStatistics statistics, RequestTracer.Trace trace, Permit permit) {
+            this.statistics = statistics;
+            this.trace = trace;
+            this.permit = permit;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            trace.phase(RequestTracer.Phase.DNS, System.nanoTime() - dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connected = true;
+            connectStart = System.nanoTime();
+            secureConnectStart = 0;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+            trace.phase(RequestTracer.Phase.CONNECT, secureConnectStart - connectStart);
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            trace.phase(RequestTracer.Phase.TLS, System.nanoTime() - secureConnectStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            if (secureConnectStart == 0) {
+                // plain connection, already reported up to the TLS handshake otherwise
+                trace.phase(RequestTracer.Phase.CONNECT, System.nanoTime() - connectStart);
+            }
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            long now = System.nanoTime();
+            trace.phase(RequestTracer.Phase.REQUEST_WRITE, requestEnd - requestStart);
+            trace.phase(RequestTracer.Phase.TIME_TO_FIRST_BYTE, now - requestEnd);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            statistics.connectionPooled(!connected);
+            statistics.connectionAcquired(0);
+            // a retry or a redirect may acquire another connection
+            connected = false;
+        }
+
+        @Override
+        public void connectionReleased(Call call, Connection connection) {
+            statistics.connectionReleased();
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            statistics.responseReceived(response.protocol() == Protocol.HTTP_2);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            release();
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            statistics.requestFailed();
+            release();
+        }
+
+        private void release() {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+
+    /**
+     * Waits for both a global and a per-host slot.
+     *
+     * @param url request URL
+     * @return permit to be released once the call ends
+     * @throws TwitterException when no slot became available within the connection timeout
+     */
+    private Permit acquire(String url) throws TwitterException, InterruptedException {
+        String host = hostOf(url);
+        Semaphore hostSemaphore = hostSemaphore(host);
+        if (!tryAcquire(hostSemaphore)) {
+            throw new TwitterException("Timed out waiting for a connection to " + host + ": " + statistics);
+        }
+        if (!tryAcquire(connections)) {
+            hostSemaphore.release();
+            throw new TwitterException("Timed out waiting for a connection: " + statistics);
+        }
+        return new Permit(hostSemaphore, connections);
+    }
+
+    private static String hostOf(String url) throws TwitterException {
+        try {
+            URL u = new URL(url);
+            return u.getProtocol() + "://" + u.getHost() + ":" + u.getPort();
+        } catch (java.net.MalformedURLException e) {
+            throw new TwitterException(e.getMessage(), e);
+        }
+    }
+
+    private Semaphore hostSemaphore(String host) {
+        Semaphore hostSemaphore = hostConnections.get(host);
+        if (hostSemaphore == null) {
+            Semaphore newSemaphore = new Semaphore(Math.max(1, CONF.getHttpMaxConnectionsPerHost()), true);
+            hostSemaphore = hostConnections.putIfAbsent(host, newSemaphore);
+            if (hostSemaphore == null) {
+                hostSemaphore = newSemaphore;
+                statistics.hostAdded();
+            }
+        }
+        return hostSemaphore;
+    }
+
+    private boolean tryAcquire(Semaphore semaphore) throws InterruptedException {
+        if (semaphore.tryAcquire()) {
+            return true;
+        }
+        if (CONF.getHttpConnectionTimeout() > 0) {
+            return semaphore.tryAcquire(CONF.getHttpConnectionTimeout(), TimeUnit.MILLISECONDS);
+        }
+        semaphore.acquire();
+        return true;
+    }
+
+    /**
+     * A slot in the pool, released exactly once.
+     */
+    private static final class Permit {
+        private final Semaphore hostSemaphore;
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        Permit(Semaphore hostSemaphore, Semaphore semaphore) {
+            this.hostSemaphore = hostSemaphore;
+            this.semaphore = semaphore;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+                hostSemaphore.release();
+            }
+        }
+    }
+
+    private void registerMBean() {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName oName = new ObjectName("twitter4j.mbean:type=ConnectionPoolStatistics,name=" + statistics.getName());
+            mbs.registerMBean(statistics, oName);
+            statisticsName = oName;
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Unregisters the statistics MBeans. Requests in flight complete normally.
+     */
+    @Override
+    public void close() {
+        super.close();
+        ObjectName name = statisticsName;
+        statisticsName = null;
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                logger.error(e.getMessage());
+            } catch (MBeanRegistrationException e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+
+    /*package*/ ConnectionPoolStatistics getStatistics() {
+        prepareOkHttpClient();
+        return statistics;
+    }
+
     public static void setOnBuildOkHttpClient(OnBuildOkHttpClientCallback callback) {
         onBuildOkHttpClient = callback;
     }
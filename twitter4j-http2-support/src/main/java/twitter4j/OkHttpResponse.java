@@ -35,6 +35,8 @@ public class OkHttpResponse extends HttpResponse {
 	private Call call;
 	private Response response;
 	private HashMap<String,List<String>> headerFields;
+	// true once the body has been read to the end or closed, i.e. the connection can go back to the pool
+	private volatile boolean bodyDone;
 
 	OkHttpResponse() {
 		super();
@@ -59,8 +61,37 @@ public class OkHttpResponse extends HttpResponse {
 		}
 		this.headerFields = headerFields;
 
-		is = response.body().byteStream();
-		if(is!=null && "gzip".equals(response.header("Content-Encoding"))){
+		final long contentLength = response.body().contentLength();
+		is = new FilterInputStream(response.body().byteStream()) {
+			private long read;
+
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				count(b == -1 ? -1 : 1);
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int n = super.read(b, off, len);
+				count(n);
+				return n;
+			}
+
+			private void count(int n) {
+				if (n == -1 || (read += n) == contentLength) {
+					bodyDone = true;
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				bodyDone = true;
+				super.close();
+			}
+		};
+		if("gzip".equals(response.header("Content-Encoding"))){
 			is = new StreamingGZIPInputStream(is);
 		}
 
@@ -88,9 +119,17 @@ public class OkHttpResponse extends HttpResponse {
 		return headerFields;
 	}
 
+	/**
+	 * Closes the response body, which hands the connection back to the pool (or just ends the stream on HTTP/2).<br>
+	 * The call is cancelled only while the body is still being read, e.g. when a stream is being shut down from another
+	 * thread, as that is the only way to unblock the reader.
+	 */
 	@Override
 	public void disconnect() throws IOException {
-		call.cancel();
+		if (!bodyDone) {
+			call.cancel();
+		}
+		response.close();
 	}
 
 
@@ -16,12 +16,20 @@
 
 package twitter4j;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import org.junit.jupiter.api.Test;
+import twitter4j.conf.ConfigurationBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -117,4 +125,36 @@ public class Http2ClientTest {
             assertEquals("from input stream", status.getText());
         }
     }
+
+    @Test
+    void testConnectionIsReusedAfterBodyIsRead() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/1.1/test.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] bytes = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                OutputStream os = exchange.getResponseBody();
+                os.write(bytes);
+                os.close();
+            }
+        });
+        server.start();
+        try {
+            AlternativeHttpClientImpl http = new AlternativeHttpClientImpl(new ConfigurationBuilder()
+                    .setHttpKeepAliveMillis(10000).build().getHttpClientConfiguration());
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/1.1/test.json";
+            for (int i = 0; i < 3; i++) {
+                HttpRequest req = new HttpRequest(RequestMethod.GET, url, null, null, null);
+                assertEquals(1, http.request(req).asJSONObject().getInt("id"));
+            }
+            // reading the body to the end hands the connection back to the pool instead of cancelling the call
+            assertEquals(1, http.getOkHttpClient().connectionPool().connectionCount());
+            assertEquals(1, http.getStatistics().getPoolMissCount());
+            assertEquals(2, http.getStatistics().getPoolHitCount());
+        } finally {
+            server.stop(0);
+        }
+    }
 }
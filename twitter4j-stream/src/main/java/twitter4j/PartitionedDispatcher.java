@@ -0,0 +1,214 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import twitter4j.management.StreamBufferStatistics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks on a {@link Dispatcher}, in submission order per key.<br>
+ * Keys are hashed onto a fixed number of partitions. Each partition buffers its tasks in a bounded ring buffer,
+ * drained by at most one dispatcher task at a time, so tasks of different partitions run in parallel while tasks
+ * sharing a partition run one after another in the order they were submitted.<br>
+ * What happens when a partition is full depends on the {@link OverflowPolicy}.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class PartitionedDispatcher {
+    private static final Logger logger = Logger.getLogger(PartitionedDispatcher.class);
+    // tasks a partition runs before yielding its thread
+    private static final int BATCH_SIZE = 64;
+    // one task in SAMPLE_RATE is kept by the SAMPLE policy past the falling-behind threshold
+    private static final int SAMPLE_RATE = 10;
+
+    /*package*/ enum OverflowPolicy {
+        /**
+         * the submitting thread waits for room in the partition, slowing the reading thread down to the pace of the
+         * listeners
+         */
+        BLOCK,
+        /**
+         * the oldest task of the partition is discarded to make room
+         */
+        DROP_OLDEST,
+        /**
+         * past the falling-behind threshold, only one task in ten is queued. tasks are discarded while the partition is full
+         */
+        SAMPLE
+    }
+
+    private final Dispatcher dispatcher;
+    private final Partition[] partitions;
+    private final OverflowPolicy policy;
+    private final int threshold;
+    private final StreamBufferStatistics statistics;
+
+    /**
+     * @param dispatcher dispatcher running the partitions
+     * @param partitions number of partitions. 1 delivers everything in order
+     * @param queueSize  number of tasks each partition can hold
+     * @param policy     what to do when a partition is full
+     * @param threshold  how full a partition gets, in percent, before it is considered falling behind
+     * @param statistics statistics to update
+     */
+    /*package*/ PartitionedDispatcher(Dispatcher dispatcher, int partitions, int queueSize, OverflowPolicy policy,
+                                      int threshold, StreamBufferStatistics statistics) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be greater than 0: " + partitions);
+        }
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("queueSize must be greater than 0: " + queueSize);
+        }
+        this.dispatcher = dispatcher;
+        this.policy = policy;
+        // the threshold is crossed when the partition holds more tasks than this
+        this.threshold = Math.max(0, Math.min(queueSize - 1, queueSize * threshold / 100));
+        this.statistics = statistics;
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition(queueSize);
+        }
+    }
+
+    /**
+     * Queues the task behind the tasks previously submitted for keys of the same partition.<br>
+     * Not thread safe, tasks are meant to be submitted from a single reading thread.
+     *
+     * @param key  ordering key
+     * @param task task
+     * @return how full the partition is, in percent, if this call pushed it past the falling-behind threshold,
+     * 0 otherwise. The partition needs to drain below half the threshold before being reported again.
+     * @throws InterruptedException when interrupted while waiting for room in the partition
+     */
+    /*package*/ int invokeLater(long key, Runnable task) throws InterruptedException {
+        Partition partition = partitions[partition(key, partitions.length)];
+        Entry entry = new Entry(task);
+        statistics.eventReceived();
+        int depth = partition.queue.size();
+        switch (policy) {
+            case DROP_OLDEST:
+                while (!partition.queue.offer(entry)) {
+                    if (partition.queue.poll() != null) {
+                        statistics.eventDropped(true);
+                    }
+                }
+                break;
+            case SAMPLE:
+                if ((depth >= threshold && partition.sampled++ % SAMPLE_RATE != 0) || !partition.queue.offer(entry)) {
+                    statistics.eventDropped(false);
+                    return partition.fallingBehind(depth);
+                }
+                break;
+            case BLOCK:
+            default:
+                if (!partition.queue.offer(entry)) {
+                    long before = System.nanoTime();
+                    partition.queue.put(entry);
+                    statistics.readerBlocked(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - before));
+                }
+        }
+        statistics.eventQueued();
+        partition.schedule();
+        return partition.fallingBehind(depth + 1);
+    }
+
+    /*package*/ static int partition(long key, int partitions) {
+        // spread sequential ids
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 32) % partitions);
+    }
+
+    private static final class Entry {
+        private final Runnable task;
+        private final long readAt = System.nanoTime();
+
+        Entry(Runnable task) {
+            this.task = task;
+        }
+    }
+
+    private final class Partition implements Runnable {
+        private final ArrayBlockingQueue<Entry> queue;
+        private final int capacity;
+        // true while a drain is queued or running on the dispatcher
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // accessed by the submitting thread only
+        private boolean fallingBehind = false;
+        private int sampled = 0;
+
+        Partition(int queueSize) {
+            queue = new ArrayBlockingQueue<Entry>(queueSize);
+            capacity = queueSize;
+        }
+
+        int fallingBehind(int depth) {
+            if (depth > threshold) {
+                if (!fallingBehind) {
+                    fallingBehind = true;
+                    statistics.fallingBehind();
+                    return Math.max(1, depth * 100 / capacity);
+                }
+            } else if (depth <= threshold / 2) {
+                fallingBehind = false;
+                sampled = 0;
+            }
+            return 0;
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.invokeLater(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            Entry entry;
+            try {
+                for (int i = 0; i < BATCH_SIZE && (entry = queue.poll()) != null; i++) {
+                    statistics.eventDelivered(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.readAt));
+                    try {
+                        entry.task.run();
+                    } catch (Exception e) {
+                        logger.warn("Unexpected exception in dispatched task", e);
+                    }
+                }
+            } catch (Error e) {
+                // errors are left to the dispatcher, but the rest of the partition is still delivered
+                scheduled.set(false);
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+                throw e;
+            }
+            if (!queue.isEmpty()) {
+                // stay scheduled, but give the thread back so that a busy partition can't starve the others
+                dispatcher.invokeLater(this);
+                return;
+            }
+            scheduled.set(false);
+            // a task may have been queued after the last poll, but before the flag was cleared
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import twitter4j.conf.Configuration;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -27,6 +28,7 @@ import java.io.InputStream;
  */
 final class SiteStreamsImpl extends StatusStreamBase {
 
+    private static final byte[] COMMA = {','};
     private final StreamController cs;
 
     /*package*/ SiteStreamsImpl(Dispatcher dispatcher, InputStream stream, Configuration conf, StreamController cs) throws IOException {
@@ -40,40 +42,53 @@ final class SiteStreamsImpl extends StatusStreamBase {
     }
 
     @Override
-    protected String parseLine(String line) {
-        if ("".equals(line) || null == line) {
-            return line;
+    int parseLine(byte[] line) {
+        if (line.length < 13) {
+            return 0;
         }
-        int userIdEnd = line.indexOf(',', 12);
         // in the documentation for_user is not quoted, but actually it is quoted
         if (cs.getControlURI() == null &&
-                line.charAt(2) == 'c' &&
-                line.charAt(3) == 'o' &&
-                line.charAt(4) == 'n') {
+                line[2] == 'c' &&
+                line[3] == 'o' &&
+                line[4] == 'n') {
             // control endpoint uri
             // https://dev.twitter.com/docs/streaming-api/control-streams
             JSONObject control = null;
             try {
-                control = new JSONObject(line);
+                control = new JSONPullParser(line, 0, line.length).nextObject();
                 cs.setControlURI(CONF.getSiteStreamBaseURL() + control.getJSONObject("control").getString("control_uri"));
                 logger.info("control_uri: " + cs.getControlURI());
             } catch (JSONException e) {
-                logger.warn("received unexpected event:" + line);
+                logger.warn("received unexpected event:" + new String(line, StandardCharsets.UTF_8));
             }
-            return null;
+            return -1;
         }
 
-        if (line.charAt(2) == 'd') {
+        if (line[2] == 'd') {
             // disconnection notice
             // {"disconnect":{"code":3,"stream_name":"yusuke-sitestream6139-yusuke","reason":"control request for yusuke-sitestream6139 106.171.17.29 /1.1/site.json sitestream"}}
-            return line;
+            return 0;
         }
-        if (line.charAt(12) == '"') {
-            forUser.set(Long.parseLong(line.substring(13, userIdEnd - 1)));
-        } else {
-            forUser.set(Long.parseLong(line.substring(12, userIdEnd)));
+        int comma = indexOf(line, COMMA, 12);
+        if (comma == -1 || comma + 11 >= line.length) {
+            logger.warn("received unexpected event:" + new String(line, StandardCharsets.UTF_8));
+            return -1;
+        }
+        forUser.set(parseId(line, 12));
+        // skips ,"message":
+        return comma + 11;
+    }
+
+    /**
+     * Orders the messages per for_user, read at the same fixed offsets {@link #parseLine(byte[])} relies on.
+     */
+    @Override
+    long partitionKey(byte[] line) {
+        if (line.length < 13 || line[2] != 'f') {
+            // control_uri and disconnection notices
+            return 0;
         }
-        return line.substring(userIdEnd + 11, line.length() - 1);
+        return parseId(line, 12);
     }
 
     @Override
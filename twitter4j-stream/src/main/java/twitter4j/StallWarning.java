@@ -31,6 +31,12 @@ public final class StallWarning implements Serializable {
     private final String message;
     private final int percentFull;
 
+    /*package*/ StallWarning(String code, String message, int percentFull) {
+        this.code = code;
+        this.message = message;
+        this.percentFull = percentFull;
+    }
+
     StallWarning(JSONObject json) throws JSONException {
         JSONObject warning = json.getJSONObject("warning");
         code = getRawString("code", warning);
@@ -55,7 +55,9 @@ public interface StatusListener extends StreamListener {
 
 
     /**
-     * Called when receiving stall warnings.
+     * Called when receiving stall warnings.<br>
+     * Also called with the code LOCAL_FALLING_BEHIND when the listeners can't keep up and the local buffer fills past
+     * stream.fallingBehindThreshold percent, usually well before Twitter stalls the connection.
      *
      * @param warning StallWaning
      * @see <a href="https://dev.twitter.com/docs/streaming-apis/parameters#stall_warnings">Streaming API request parameters - stall_warnings</a>
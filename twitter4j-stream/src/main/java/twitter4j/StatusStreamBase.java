@@ -17,11 +17,25 @@
 package twitter4j;
 
 import twitter4j.conf.Configuration;
-
-import java.io.BufferedReader;
+import twitter4j.management.StreamBufferStatistics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -31,20 +45,43 @@ abstract class StatusStreamBase implements StatusStream {
     static final Logger logger = Logger.getLogger(StatusStreamImpl.class);
 
     private boolean streamAlive = true;
-    private BufferedReader br;
+    private final StreamLineReader reader;
     private InputStream is;
     private HttpResponse response;
-    private final Dispatcher dispatcher;
+    /**
+     * code of the {@link StallWarning} raised when the listeners can't keep up with the stream
+     */
+    static final String LOCAL_FALLING_BEHIND = "LOCAL_FALLING_BEHIND";
+    private static final AtomicInteger instanceCount = new AtomicInteger();
+    private final Dispatcher notifier;
+    private final PartitionedDispatcher dispatcher;
+    private final StreamBufferStatistics statistics;
+    private ObjectName statisticsName;
     final Configuration CONF;
     private ObjectFactory factory;
+    private StreamListener[] sniffedListeners;
+    private Set<JSONObjectType.Type> handledTypes;
 
     /*package*/
 
     StatusStreamBase(Dispatcher dispatcher, InputStream stream, Configuration conf) throws IOException {
         this.is = stream;
-        this.br = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
-        this.dispatcher = dispatcher;
+        this.reader = new StreamLineReader(stream);
+        int partitions = conf.getStreamDispatchPartitions();
+        // partitioning is opt-in: 0 or less asks for one partition per processor
+        if (partitions <= 0) {
+            partitions = Runtime.getRuntime().availableProcessors();
+        }
+        PartitionedDispatcher.OverflowPolicy policy = PartitionedDispatcher.OverflowPolicy.valueOf(conf.getStreamOverflowPolicy());
+        this.statistics = new StreamBufferStatistics(getClass().getSimpleName() + "-" + instanceCount.incrementAndGet(),
+                partitions * conf.getStreamPartitionQueueSize(), policy.name());
+        this.notifier = dispatcher;
+        this.dispatcher = new PartitionedDispatcher(dispatcher, partitions, conf.getStreamPartitionQueueSize(), policy,
+                conf.getStreamFallingBehindThreshold(), statistics);
         this.CONF = conf;
+        if (conf.isMBeanEnabled()) {
+            registerStatistics();
+        }
         this.factory = new JSONImplFactory(conf);
     }
     /*package*/
@@ -54,14 +91,228 @@ abstract class StatusStreamBase implements StatusStream {
         this.response = response;
     }
 
-    String parseLine(String line) {
-        return line;
+    private void registerStatistics() {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName oName = new ObjectName("twitter4j.mbean:type=StreamBufferStatistics,name=" + statistics.getName());
+            mbs.registerMBean(statistics, oName);
+            statisticsName = oName;
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    private synchronized void unregisterStatistics() {
+        if (statisticsName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(statisticsName);
+            } catch (InstanceNotFoundException ignore) {
+            } catch (MBeanRegistrationException e) {
+                logger.error(e.getMessage());
+            }
+            statisticsName = null;
+        }
+    }
+
+    /*package*/ StreamBufferStatistics getStatistics() {
+        return statistics;
+    }
+
+    private static final byte[] USER = "\"user\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ID = "\"id\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] USER_ID = "\"user_id\":".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Locates the message to hand to the listeners within the line. Called from the dispatcher threads.
+     *
+     * @param line raw line, not empty
+     * @return index of the message, or -1 if there is nothing to hand to the listeners
+     */
+    int parseLine(byte[] line) {
+        return 0;
+    }
+
+    /**
+     * Returns the key ordering the given line relative to the others. Lines sharing a key reach the listeners in the
+     * order they were read, while lines with different keys may be parsed and delivered in parallel.<br>
+     * Sniffs the user the message is about without parsing it: the author of a status ("user":{"id":..} at the top
+     * level), or the user_id of a deletion or scrub_geo notice. Keys are matched outside of strings only, so that the
+     * text of a status can't spoof them. Messages about no particular user share key 0.
+     *
+     * @param line raw line
+     * @return ordering key
+     */
+    long partitionKey(byte[] line) {
+        int index = indexOfKey(line, USER, 0, 1);
+        if (index != -1) {
+            index = indexOfKey(line, ID, index + USER.length, 1);
+            return index == -1 ? 0 : parseId(line, index + ID.length);
+        }
+        index = indexOfKey(line, USER_ID, 0, -1);
+        return index == -1 ? 0 : parseId(line, index + USER_ID.length);
+    }
+
+    /**
+     * Finds a key of the JSON value starting at the given index, skipping strings.
+     *
+     * @param line  line
+     * @param key   key, quoted and followed by a colon
+     * @param from  index the value starts at
+     * @param depth nesting depth the key has to be at, 1 for the keys of the value itself, -1 for any depth
+     * @return index of the key, or -1 if the value ends before the key is found
+     */
+    static int indexOfKey(byte[] line, byte[] key, int from, int depth) {
+        int level = 0;
+        for (int i = from; i < line.length; i++) {
+            switch (line[i]) {
+                case '"':
+                    if ((depth == -1 || level == depth) && startsWith(line, key, i)) {
+                        return i;
+                    }
+                    // skip the string
+                    for (i++; i < line.length && line[i] != '"'; i++) {
+                        if (line[i] == '\\') {
+                            i++;
+                        }
+                    }
+                    break;
+                case '{':
+                case '[':
+                    level++;
+                    break;
+                case '}':
+                case ']':
+                    if (--level <= 0) {
+                        return -1;
+                    }
+                    break;
+                default:
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] line, byte[] pattern, int index) {
+        if (index + pattern.length > line.length) {
+            return false;
+        }
+        for (int j = 0; j < pattern.length; j++) {
+            if (line[index + j] != pattern[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(byte[] line, byte[] pattern, int from) {
+        int last = line.length - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (line[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses an unsigned id, optionally quoted, starting at the given index.
+     *
+     * @param line  line
+     * @param index index of the id, leading whitespaces allowed
+     * @return id, or 0 if there is no id at the index
+     */
+    static long parseId(byte[] line, int index) {
+        int length = line.length;
+        while (index < length && (line[index] == ' ' || line[index] == '"')) {
+            index++;
+        }
+        long id = 0;
+        for (; index < length; index++) {
+            byte c = line[index];
+            if (c < '0' || c > '9' || id > (Long.MAX_VALUE - 9) / 10) {
+                break;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private static final Map<JSONObjectType.Type, String> LISTENER_METHODS = new EnumMap<JSONObjectType.Type, String>(JSONObjectType.Type.class);
+
+    static {
+        LISTENER_METHODS.put(JSONObjectType.Type.STATUS, "onStatus");
+        LISTENER_METHODS.put(JSONObjectType.Type.DIRECT_MESSAGE, "onDirectMessage");
+        LISTENER_METHODS.put(JSONObjectType.Type.DELETE, "onDeletionNotice");
+        LISTENER_METHODS.put(JSONObjectType.Type.LIMIT, "onTrackLimitationNotice");
+        LISTENER_METHODS.put(JSONObjectType.Type.STALL_WARNING, "onStallWarning");
+        LISTENER_METHODS.put(JSONObjectType.Type.SCRUB_GEO, "onScrubGeo");
+        LISTENER_METHODS.put(JSONObjectType.Type.FRIENDS, "onFriendList");
+        LISTENER_METHODS.put(JSONObjectType.Type.FAVORITE, "onFavorite");
+        LISTENER_METHODS.put(JSONObjectType.Type.UNFAVORITE, "onUnfavorite");
+        LISTENER_METHODS.put(JSONObjectType.Type.FOLLOW, "onFollow");
+        LISTENER_METHODS.put(JSONObjectType.Type.UNFOLLOW, "onUnfollow");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_LIST_MEMBER_ADDED, "onUserListMemberAddition");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_LIST_MEMBER_DELETED, "onUserListMemberDeletion");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_LIST_SUBSCRIBED, "onUserListSubscription");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_LIST_UNSUBSCRIBED, "onUserListUnsubscription");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_LIST_CREATED, "onUserListCreation");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_LIST_UPDATED, "onUserListUpdate");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_LIST_DESTROYED, "onUserListDeletion");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_UPDATE, "onUserProfileUpdate");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_DELETE, "onUserDeletion");
+        LISTENER_METHODS.put(JSONObjectType.Type.USER_SUSPEND, "onUserSuspension");
+        LISTENER_METHODS.put(JSONObjectType.Type.BLOCK, "onBlock");
+        LISTENER_METHODS.put(JSONObjectType.Type.UNBLOCK, "onUnblock");
+        LISTENER_METHODS.put(JSONObjectType.Type.RETWEETED_RETWEET, "onRetweetedRetweet");
+        LISTENER_METHODS.put(JSONObjectType.Type.FAVORITED_RETWEET, "onFavoritedRetweet");
+        LISTENER_METHODS.put(JSONObjectType.Type.QUOTED_TWEET, "onQuotedTweet");
+        LISTENER_METHODS.put(JSONObjectType.Type.MUTE, "onMute");
+        LISTENER_METHODS.put(JSONObjectType.Type.UNMUTE, "onUnmute");
+        LISTENER_METHODS.put(JSONObjectType.Type.DISCONNECTION, "onDisconnectionNotice");
+    }
+
+    /**
+     * Returns the message types at least one of the listeners handles.<br>
+     * A type is considered handled when a listener has a public method for it, other than the no-op ones inherited
+     * from {@link StatusAdapter}, {@link UserStreamAdapter} and {@link SiteStreamsAdapter}. Messages of the other types
+     * are dropped without being parsed. SENDER and UNKNOWN are always considered handled.
+     *
+     * @param listeners listeners
+     * @return handled types
+     */
+    static Set<JSONObjectType.Type> handledTypes(StreamListener[] listeners) {
+        Set<JSONObjectType.Type> handled = EnumSet.of(JSONObjectType.Type.SENDER, JSONObjectType.Type.UNKNOWN);
+        for (StreamListener listener : listeners) {
+            for (Method method : listener.getClass().getMethods()) {
+                Class<?> declaringClass = method.getDeclaringClass();
+                if (declaringClass == Object.class || declaringClass == StatusAdapter.class
+                        || declaringClass == UserStreamAdapter.class || declaringClass == SiteStreamsAdapter.class) {
+                    continue;
+                }
+                for (Map.Entry<JSONObjectType.Type, String> entry : LISTENER_METHODS.entrySet()) {
+                    if (entry.getValue().equals(method.getName())) {
+                        handled.add(entry.getKey());
+                    }
+                }
+            }
+        }
+        return handled;
     }
 
     abstract class StreamEvent implements Runnable {
-        String line;
+        final byte[] line;
 
-        StreamEvent(String line) {
+        StreamEvent(byte[] line) {
             this.line = line;
         }
     }
@@ -72,28 +323,46 @@ abstract class StatusStreamBase implements StatusStream {
             throw new IllegalStateException("Stream already closed.");
         }
         try {
-            String line = br.readLine();
+            byte[] line = reader.readLine();
             if (null == line) {
                 //invalidate this status stream
                 throw new IOException("the end of the stream has been reached");
             }
-            dispatcher.invokeLater(new StreamEvent(line) {
+            if (line.length == 0 && rawStreamListeners.length == 0) {
+                // keep-alive
+                return;
+            }
+            if (listeners != sniffedListeners) {
+                handledTypes = handledTypes(listeners);
+                sniffedListeners = listeners;
+            }
+            final Set<JSONObjectType.Type> handled = handledTypes;
+            int percentFull = dispatcher.invokeLater(partitionKey(line), new StreamEvent(line) {
                 @Override
                 public void run() {
                     try {
                         if (rawStreamListeners.length > 0) {
-                            onMessage(line, rawStreamListeners);
+                            onMessage(new String(line, StandardCharsets.UTF_8), rawStreamListeners);
                         }
                         // SiteStreamsImpl will parse "forUser" attribute
-                        line = parseLine(line);
-                        if (line != null && line.length() > 0) {
+                        int offset = line.length > 0 ? parseLine(line) : -1;
+                        if (offset != -1) {
                             // parsing JSON is an expensive process and can be avoided when all listeners are instanceof RawStreamListener
                             if (listeners.length > 0) {
+                                // the type is sniffed from the top level keys, so that messages no listener is
+                                // interested in are dropped without being parsed
+                                JSONObjectType.Type event = JSONObjectType.determine(line, offset, line.length - offset);
+                                if (!handled.contains(event)) {
+                                    if (logger.isDebugEnabled()) {
+                                        logger.debug("Skipped unhandled " + event + ":", new String(line, StandardCharsets.UTF_8));
+                                    }
+                                    return;
+                                }
                                 if (CONF.isJSONStoreEnabled()) {
                                     TwitterObjectFactory.clearThreadLocalMap();
                                 }
-                                JSONObject json = new JSONObject(line);
-                                JSONObjectType.Type event = JSONObjectType.determine(json);
+                                // parsed from the UTF-8 bytes, the message is never decoded to a String as a whole
+                                JSONObject json = new JSONPullParser(line, offset, line.length - offset).nextObject();
                                 if (logger.isDebugEnabled()) {
                                     logger.debug("Received:", CONF.getHttpClientConfiguration().isPrettyDebugEnabled() ? json.toString(1) : json.toString());
                                 }
@@ -180,7 +449,7 @@ abstract class StatusStreamBase implements StatusStream {
                                         onQuotedTweet(json.getJSONObject("source"), json.getJSONObject("target"), json.getJSONObject("target_object"), listeners);
                                         break;
                                     case DISCONNECTION:
-                                        onDisconnectionNotice(line, listeners);
+                                        onDisconnectionNotice(new String(line, StandardCharsets.UTF_8), listeners);
                                         break;
                                     case MUTE:
                                         onMute(json.getJSONObject("source"), json.getJSONObject("target"), listeners);
@@ -199,7 +468,22 @@ abstract class StatusStreamBase implements StatusStream {
                     }
                 }
             });
+            if (percentFull > 0) {
+                // raised on the side, as the listeners of the full partition are the ones falling behind
+                final StallWarning warning = new StallWarning(LOCAL_FALLING_BEHIND,
+                        "The listeners are falling behind the stream. The buffer is " + percentFull + " percent full.",
+                        percentFull);
+                notifier.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        onFallingBehind(warning, listeners);
+                    }
+                });
+            }
 
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new TwitterException("Interrupted while dispatching.", ie);
         } catch (IOException ioe) {
             try {
                 is.close();
@@ -207,6 +491,7 @@ abstract class StatusStreamBase implements StatusStream {
             }
             boolean isUnexpectedException = streamAlive;
             streamAlive = false;
+            unregisterStatistics();
             onClose();
             if (isUnexpectedException) {
                 throw new TwitterException("Stream closed.", ioe);
@@ -333,6 +618,10 @@ abstract class StatusStreamBase implements StatusStream {
         logger.warn("Unhandled event: onUnmute");
     }
 
+    void onFallingBehind(StallWarning warning, StreamListener[] listeners) {
+        logger.warn("Unhandled event: ", warning.getMessage());
+    }
+
     void onDisconnectionNotice(String line, StreamListener[] listeners) {
         logger.warn("Unhandled event: ", line);
     }
@@ -347,10 +636,10 @@ abstract class StatusStreamBase implements StatusStream {
     public void close() throws IOException {
         streamAlive = false;
         is.close();
-        br.close();
         if (response != null) {
             response.disconnect();
         }
+        unregisterStatistics();
         onClose();
     }
 
@@ -39,8 +39,6 @@ class StatusStreamImpl extends StatusStreamBase {
         super(dispatcher, response, conf);
     }
 
-    String line;
-
     static final RawStreamListener[] EMPTY = new RawStreamListener[0];
 
     @Override
@@ -56,12 +54,6 @@ class StatusStreamImpl extends StatusStreamBase {
         handleNextElement(listeners, rawStreamListeners);
     }
 
-    @Override
-    protected String parseLine(String line) {
-        this.line = line;
-        return line;
-    }
-
     @Override
     protected void onMessage(String rawString, RawStreamListener[] listeners) throws TwitterException {
         for (RawStreamListener listener : listeners) {
@@ -104,6 +96,13 @@ class StatusStreamImpl extends StatusStreamBase {
         }
     }
 
+    @Override
+    void onFallingBehind(StallWarning warning, StreamListener[] listeners) {
+        for (StreamListener listener : listeners) {
+            ((StatusListener) listener).onStallWarning(warning);
+        }
+    }
+
     @Override
     protected void onScrubGeo(JSONObject json, StreamListener[] listeners) throws TwitterException, JSONException {
         JSONObject scrubGeo = json.getJSONObject("scrub_geo");
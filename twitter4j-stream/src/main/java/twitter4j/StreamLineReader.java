@@ -0,0 +1,84 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a stream body into messages on line feeds, without decoding them.<br>
+ * The body is read into a reusable buffer, and each line is copied out as an exact-size byte array with the
+ * trailing \r\n (or \n) stripped, so a message costs one allocation until it is parsed, if ever.<br>
+ * Not thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+/*package*/ final class StreamLineReader {
+    static final byte[] EMPTY = new byte[0];
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    private final InputStream in;
+    private byte[] buf = new byte[BUFFER_SIZE];
+    // buf[pos, limit) holds bytes read but not returned yet
+    private int pos = 0;
+    private int limit = 0;
+
+    /*package*/ StreamLineReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the next line, or null at the end of the stream. Blank lines (keep-alive) are returned as {@link #EMPTY}
+     * @throws IOException when the stream can't be read
+     */
+    /*package*/ byte[] readLine() throws IOException {
+        int scanned = pos;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (buf[i] == '\n') {
+                    int end = i > pos && buf[i - 1] == '\r' ? i - 1 : i;
+                    byte[] line = end == pos ? EMPTY : Arrays.copyOfRange(buf, pos, end);
+                    pos = i + 1;
+                    return line;
+                }
+            }
+            if (pos > 0) {
+                // make room by moving the partial line to the head of the buffer
+                System.arraycopy(buf, pos, buf, 0, limit - pos);
+                limit -= pos;
+                pos = 0;
+            }
+            scanned = limit;
+            if (limit == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            int n = in.read(buf, limit, buf.length - limit);
+            if (n == -1) {
+                if (limit == pos) {
+                    return null;
+                }
+                // last line without a line feed
+                byte[] line = Arrays.copyOfRange(buf, pos, limit);
+                pos = limit;
+                return line;
+            }
+            limit += n;
+        }
+    }
+}
@@ -729,6 +729,32 @@ class StreamingReadTimeoutConfiguration implements HttpClientConfiguration {
         return nestedConf.getHttpClientConfiguration().getHttpRetryIntervalSeconds();
     }
 
+    @Override
+    public int getHttpMaxConnections() {
+        return nestedConf.getHttpClientConfiguration().getHttpMaxConnections();
+    }
+
+    @Override
+    public int getHttpMaxConnectionsPerHost() {
+        return nestedConf.getHttpClientConfiguration().getHttpMaxConnectionsPerHost();
+    }
+
+    @Override
+    public int getHttpKeepAliveMillis() {
+        return nestedConf.getHttpClientConfiguration().getHttpKeepAliveMillis();
+    }
+
+    @Override
+    public int getHttpResponseCacheMaxEntries() {
+        // streams are never cached
+        return 0;
+    }
+
+    @Override
+    public boolean isMBeanEnabled() {
+        return nestedConf.isMBeanEnabled();
+    }
+
     @Override
     public boolean isPrettyDebugEnabled() {
         return nestedConf.getHttpClientConfiguration().isPrettyDebugEnabled();
@@ -57,7 +57,7 @@ final class UserStreamImpl extends StatusStreamImpl implements UserStream {
     @Override
     protected void onScrubGeo(JSONObject json, StreamListener[] listeners) throws TwitterException {
         // Not implemented yet
-        logger.info("Geo-tagging deletion notice (not implemented yet): " + line);
+        logger.info("Geo-tagging deletion notice (not implemented yet): " + json);
     }
 
     @Override
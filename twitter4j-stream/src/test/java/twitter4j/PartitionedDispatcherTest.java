@@ -0,0 +1,243 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.management.StreamBufferStatistics;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class PartitionedDispatcherTest {
+
+    private static Dispatcher newDispatcher() {
+        return new DispatcherFactory(new ConfigurationBuilder().setDispatcherImpl("twitter4j.DispatcherImpl")
+                .setAsyncNumThreads(4).build()).getInstance();
+    }
+
+    private static byte[] bytes(String line) {
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StreamBufferStatistics newStatistics() {
+        return new StreamBufferStatistics("test", 0, "test");
+    }
+
+    @Test
+    void testOrderedPerKey() throws Exception {
+        Dispatcher dispatcher = newDispatcher();
+        try {
+            PartitionedDispatcher partitioned = new PartitionedDispatcher(dispatcher, 3, 16,
+                    PartitionedDispatcher.OverflowPolicy.BLOCK, 50, newStatistics());
+            int keys = 10;
+            int tasks = 1000;
+            final List<List<Integer>> delivered = new ArrayList<List<Integer>>();
+            for (int i = 0; i < keys; i++) {
+                delivered.add(new ArrayList<Integer>());
+            }
+            final CountDownLatch done = new CountDownLatch(keys * tasks);
+            for (int i = 0; i < tasks; i++) {
+                for (int key = 0; key < keys; key++) {
+                    final List<Integer> sequence = delivered.get(key);
+                    final int value = i;
+                    partitioned.invokeLater(key, new Runnable() {
+                        @Override
+                        public void run() {
+                            synchronized (sequence) {
+                                sequence.add(value);
+                            }
+                            done.countDown();
+                        }
+                    });
+                }
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            for (List<Integer> sequence : delivered) {
+                synchronized (sequence) {
+                    assertEquals(tasks, sequence.size());
+                    for (int i = 0; i < tasks; i++) {
+                        assertEquals(i, sequence.get(i).intValue());
+                    }
+                }
+            }
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void testBlocksWhenPartitionIsFull() throws Exception {
+        Dispatcher dispatcher = newDispatcher();
+        try {
+            final PartitionedDispatcher partitioned = new PartitionedDispatcher(dispatcher, 1, 1,
+                    PartitionedDispatcher.OverflowPolicy.BLOCK, 50, newStatistics());
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final Runnable noop = new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+            partitioned.invokeLater(1L, new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // fills the queue
+            partitioned.invokeLater(2L, noop);
+            Thread producer = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        partitioned.invokeLater(3L, noop);
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            };
+            producer.start();
+            producer.join(200);
+            assertTrue(producer.isAlive(), "should wait for room in the partition");
+            release.countDown();
+            producer.join(10000);
+            assertFalse(producer.isAlive());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void testOverflowPolicies() throws Exception {
+        Dispatcher dispatcher = newDispatcher();
+        try {
+            for (PartitionedDispatcher.OverflowPolicy policy : new PartitionedDispatcher.OverflowPolicy[]{
+                    PartitionedDispatcher.OverflowPolicy.DROP_OLDEST, PartitionedDispatcher.OverflowPolicy.SAMPLE}) {
+                StreamBufferStatistics statistics = newStatistics();
+                PartitionedDispatcher partitioned = new PartitionedDispatcher(dispatcher, 1, 10, policy, 50, statistics);
+                final CountDownLatch release = new CountDownLatch(1);
+                final CountDownLatch started = new CountDownLatch(1);
+                partitioned.invokeLater(0L, new Runnable() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException ignore) {
+                        }
+                    }
+                });
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+                final List<Integer> delivered = new ArrayList<Integer>();
+                int fallingBehind = 0;
+                for (int i = 0; i < 100; i++) {
+                    final int value = i;
+                    int percentFull = partitioned.invokeLater(0L, new Runnable() {
+                        @Override
+                        public void run() {
+                            synchronized (delivered) {
+                                delivered.add(value);
+                            }
+                        }
+                    });
+                    if (percentFull > 0) {
+                        fallingBehind++;
+                        assertEquals(60, percentFull);
+                    }
+                }
+                // never blocks the reading thread
+                assertEquals(0, statistics.getBlockedCount());
+                assertEquals(1, fallingBehind, policy.name());
+                assertEquals(1, statistics.getFallingBehindCount());
+                assertEquals(10, statistics.getQueueDepth());
+                release.countDown();
+                for (int i = 0; i < 100 && statistics.getQueueDepth() > 0; i++) {
+                    Thread.sleep(50);
+                }
+                assertEquals(0, statistics.getQueueDepth());
+                assertEquals(101, statistics.getReceivedCount());
+                synchronized (delivered) {
+                    assertEquals(statistics.getDeliveredCount() - 1, delivered.size());
+                    assertEquals(101 - statistics.getDroppedCount() - 1, delivered.size());
+                    for (int i = 1; i < delivered.size(); i++) {
+                        assertTrue(delivered.get(i - 1) < delivered.get(i));
+                    }
+                    if (policy == PartitionedDispatcher.OverflowPolicy.DROP_OLDEST) {
+                        // the latest ten survive
+                        assertEquals(90, delivered.get(0).intValue());
+                    } else {
+                        // the first five are taken as they come, then one in ten until the partition is full
+                        assertEquals(10, delivered.size());
+                        assertEquals(Integer.valueOf(5), delivered.get(5));
+                        assertEquals(Integer.valueOf(15), delivered.get(6));
+                    }
+                }
+            }
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void testPartitionKey() throws Exception {
+        Configuration conf = new ConfigurationBuilder().build();
+        StatusStreamImpl stream = new StatusStreamImpl(null, new ByteArrayInputStream(new byte[0]), conf);
+        assertEquals(6253282L, stream.partitionKey(bytes("{\"created_at\":\"Mon Mar 11 19:37:00 +0000 2013\",\"id\":311199093852618752," +
+                "\"in_reply_to_user_id\":1,\"user\":{\"id\":6253282,\"id_str\":\"6253282\"},\"retweeted_status\":{\"user\":{\"id\":2}}}")));
+        assertEquals(6253282L, stream.partitionKey(bytes("{\"delete\":{\"status\":{\"id\":311199093852618752,\"id_str\":\"311199093852618752\"," +
+                "\"user_id\":6253282,\"user_id_str\":\"6253282\"}}}")));
+        assertEquals(6253282L, stream.partitionKey(bytes("{\"scrub_geo\":{\"user_id\":6253282,\"user_id_str\":\"6253282\",\"up_to_status_id\":1}}")));
+        assertEquals(0L, stream.partitionKey(bytes("{\"limit\":{\"track\":1234}}")));
+        // only the top level user counts, and keys within strings are skipped
+        assertEquals(6253282L, stream.partitionKey(bytes("{\"quoted_status\":{\"user\":{\"id\":2}},\"text\":\"\\\"user\\\":{\\\"id\\\":3}\"," +
+                "\"user\":{\"name\":\"\\\"id\\\":4\",\"entities\":{\"id\":5},\"id\":6253282}}")));
+        assertEquals(0L, stream.partitionKey(bytes("{\"text\":\"\\\"user_id\\\":3\"}")));
+
+        SiteStreamsImpl site = new SiteStreamsImpl(null, new ByteArrayInputStream(new byte[0]), conf, null);
+        assertEquals(6253282L, site.partitionKey(bytes("{\"for_user\":6253282,\"message\":{\"delete\":{\"status\":{\"id\":1,\"user_id\":2}}}}")));
+        assertEquals(6253282L, site.partitionKey(bytes("{\"for_user\":\"6253282\",\"message\":{\"friends\":[]}}")));
+        assertEquals(0L, site.partitionKey(bytes("{\"control\":{\"control_uri\":\"/1.1/site/c/01_225167_334389048B872A533002B34D73F8C29FD09EFC50\"}}")));
+    }
+
+    @Test
+    void testSiteStreamsParseLine() throws Exception {
+        Configuration conf = new ConfigurationBuilder().build();
+        SiteStreamsImpl site = new SiteStreamsImpl(null, new ByteArrayInputStream(new byte[0]), conf, new StreamController(conf));
+        byte[] line = bytes("{\"for_user\":6253282,\"message\":{\"friends\":[]}}");
+        assertEquals(30, site.parseLine(line));
+        assertEquals('{', line[30]);
+        // malformed envelopes are dropped rather than parsed from a bogus offset
+        assertEquals(-1, site.parseLine(bytes("{\"for_user\":6253282}")));
+        assertEquals(-1, site.parseLine(bytes("{\"for_user\":6253282,\"mes")));
+    }
+}
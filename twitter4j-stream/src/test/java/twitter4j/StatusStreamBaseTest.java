@@ -0,0 +1,96 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class StatusStreamBaseTest {
+
+    @Test
+    void testHandledTypes() {
+        Set<JSONObjectType.Type> handled = StatusStreamBase.handledTypes(new StreamListener[]{new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+            }
+        }});
+        assertTrue(handled.contains(JSONObjectType.Type.STATUS));
+        assertTrue(handled.contains(JSONObjectType.Type.UNKNOWN));
+        assertFalse(handled.contains(JSONObjectType.Type.DELETE));
+        assertFalse(handled.contains(JSONObjectType.Type.FAVORITE));
+
+        handled = StatusStreamBase.handledTypes(new StreamListener[]{new UserStreamAdapter() {
+            @Override
+            public void onFavorite(User source, User target, Status favoritedStatus) {
+            }
+        }, new StatusAdapter() {
+            @Override
+            public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+            }
+        }});
+        assertTrue(handled.contains(JSONObjectType.Type.FAVORITE));
+        assertTrue(handled.contains(JSONObjectType.Type.DELETE));
+        assertFalse(handled.contains(JSONObjectType.Type.STATUS));
+        assertFalse(handled.contains(JSONObjectType.Type.FOLLOW));
+    }
+
+    @Test
+    void testSkipsUnhandledMessages() throws Exception {
+        // the deletion notice is broken, it would fail to bind
+        String body = "{\"delete\":{\"status\":\"broken\"}}\r\n" +
+                "{\"id\":1,\"text\":\"hello\",\"user\":{\"id\":2,\"screen_name\":\"twitterapi\"}}\r\n";
+        StatusStreamImpl stream = new StatusStreamImpl(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), new ConfigurationBuilder().build());
+        final List<String> received = new ArrayList<String>();
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                received.add(status.getText());
+            }
+
+            @Override
+            public void onException(Exception ex) {
+                received.add(ex.toString());
+            }
+        };
+        for (int i = 0; i < 2; i++) {
+            stream.next(new StreamListener[]{listener}, new RawStreamListener[0]);
+        }
+        assertEquals(1, received.size());
+        assertEquals("hello", received.get(0));
+    }
+}
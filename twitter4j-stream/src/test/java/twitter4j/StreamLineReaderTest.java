@@ -0,0 +1,125 @@
+/*
+ * Copyright 2007 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package twitter4j;
+
+import org.junit.jupiter.api.Test;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 4.0.8
+ */
+class StreamLineReaderTest {
+
+    /**
+     * returns at most 7 bytes per read, as chunked bodies arrive in arbitrary pieces
+     */
+    private static InputStream trickle(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+    }
+
+    private static String next(StreamLineReader reader) throws IOException {
+        byte[] line = reader.readLine();
+        return line == null ? null : new String(line, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSplitsOnLineFeeds() throws Exception {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            large.append((char) ('a' + i % 26));
+        }
+        StreamLineReader reader = new StreamLineReader(trickle("{\"text\":\"あ\"}\r\n\r\n\n" + large + "\r\n{\"id\":1}\n{\"tail\":true}"));
+        assertEquals("{\"text\":\"あ\"}", next(reader));
+        assertSame(StreamLineReader.EMPTY, reader.readLine());
+        assertSame(StreamLineReader.EMPTY, reader.readLine());
+        assertEquals(large.toString(), next(reader));
+        assertEquals("{\"id\":1}", next(reader));
+        assertEquals("{\"tail\":true}", next(reader));
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void testDeliversFromBytes() throws Exception {
+        String body = "{\"created_at\":\"Mon Mar 11 19:37:00 +0000 2013\",\"id\":1,\"text\":\"あ😀 café\"," +
+                "\"user\":{\"id\":6253282,\"screen_name\":\"twitterapi\"}}\r\n" +
+                "\r\n" +
+                "{\"delete\":{\"status\":{\"id\":1,\"id_str\":\"1\",\"user_id\":6253282,\"user_id_str\":\"6253282\"}}}\r\n";
+        StatusStreamImpl stream = new StatusStreamImpl(new Dispatcher() {
+            @Override
+            public void invokeLater(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, trickle(body), new ConfigurationBuilder().setJSONStoreEnabled(false).build());
+        final List<String> received = new ArrayList<String>();
+        final List<String> raw = new ArrayList<String>();
+        StatusListener listener = new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                received.add(status.getText() + "/" + status.getUser().getScreenName());
+            }
+
+            @Override
+            public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+                received.add("deleted " + statusDeletionNotice.getStatusId());
+            }
+
+            @Override
+            public void onException(Exception ex) {
+                received.add(ex.toString());
+            }
+        };
+        RawStreamListener rawListener = new RawStreamListener() {
+            @Override
+            public void onMessage(String rawString) {
+                raw.add(rawString);
+            }
+
+            @Override
+            public void onException(Exception ex) {
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            stream.next(new StreamListener[]{listener}, new RawStreamListener[]{rawListener});
+        }
+        // the keep-alive is handed to raw listeners only
+        assertEquals(3, raw.size());
+        assertEquals("", raw.get(1));
+        assertEquals(body.substring(0, body.indexOf('\r')), raw.get(0));
+        assertEquals(2, received.size());
+        assertEquals("あ😀 café/twitterapi", received.get(0));
+        assertEquals("deleted 1", received.get(1));
+    }
+}
@@ -4,6 +4,10 @@ import org.junit.jupiter.api.Test;
 import twitter4j.JSONObject;
 import twitter4j.JSONObjectType;
 
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  * Unit test for JSONObjectType
  *
@@ -57,5 +61,35 @@ class JSONObjectTypeTest {
         }
 
     }
-}
 
+    @Test
+    void testDetermineWithoutParsing() throws Exception {
+        String[] messages = {statusJsonText, deleteJsonText, scrubGeoJsonText, limitJsonText, randomJsonText,
+                "{\"disconnect\":{\"code\":3,\"stream_name\":\"yusuke-sitestream6139-yusuke\",\"reason\":\"}\"}}",
+                "{\"warning\":{\"code\":\"FALLING_BEHIND\",\"percent_full\":60}}",
+                "{\"friends\":[1,2,3]}",
+                "{\"direct_message\":{\"id\":1,\"text\":\"hi\"}}",
+                // keys of nested objects don't count
+                "{\"event\":\"follow\",\"source\":{\"text\":\"\\\"text\\\":\",\"delete\":[{}]},\"target\":{}}",
+                "{ \"target\" : {\"id\":1} , \"event\" : \"list_member_added\" }",
+                "{\"event\":\"list_unknown\"}",
+                "{\"event\":\"quoted_tweet\"}",
+                // null values don't count
+                "{\"text\":null,\"delete\":{}}",
+                "{\"sender\":{},\"text\":\"\u3042\"}",
+                "{}",
+        };
+        for (String message : messages) {
+            JSONObjectType.Type expected = JSONObjectType.determine(new JSONObject(message));
+            assertEquals(expected, JSONObjectType.determine(message), message);
+            byte[] bytes = ("xx" + message + "\r\nxx").getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected, JSONObjectType.determine(bytes, 2, bytes.length - 2), message);
+        }
+        assertEquals(JSONObjectType.Type.FOLLOW, JSONObjectType.determine("{\"event\":\"follow\",\"source\":{\"text\":\"x\"}}"));
+
+        String[] malformed = {"", "[{\"text\":\"a\"}]", "{\"text\":\"a\"", "{\"text\":\"a", "{\"a\":{\"b\":1}", "{text:1}"};
+        for (String message : malformed) {
+            assertEquals(JSONObjectType.Type.UNKNOWN, JSONObjectType.determine(message), message);
+        }
+    }
+}